@@ -0,0 +1,81 @@
+package antonfeklichev.tasktrackerapp.batch;
+
+import antonfeklichev.tasktrackerapp.exception.InvalidBatchRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Пакетная загрузка значений по идентификаторам.
+ * <p>
+ * Идентификаторы загружаются частями не больше {@link BatchProperties#chunkSize()}, по одному запросу {@code IN} на часть,
+ * поэтому количество параметров запроса ограничено, а количество обращений к базе данных не зависит от количества
+ * идентификаторов в пределах части. Компонент не зависит от вида сущности и может использоваться любым сервисом.
+ * </p>
+ * <p>
+ * Размер пакетного создания ограничен {@link BatchProperties#maxCreateSize()}, так как все записи запроса находятся
+ * в памяти и вставляются в одной транзакции.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchLoader {
+
+    private final BatchProperties batchProperties;
+
+    /**
+     * Проверяет размер запроса и удаляет повторяющиеся идентификаторы с сохранением порядка.
+     *
+     * @param ids идентификаторы из запроса.
+     * @return различные идентификаторы в порядке первого появления.
+     * @throws InvalidBatchRequestException если идентификаторы не переданы или их больше {@link BatchProperties#maxIds()}.
+     */
+    public List<Long> distinctIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidBatchRequestException("At least one id is required");
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > batchProperties.maxIds()) {
+            throw new InvalidBatchRequestException("No more than " + batchProperties.maxIds() + " ids are allowed");
+        }
+        return List.copyOf(distinct);
+    }
+
+    /**
+     * Проверяет количество записей, создаваемых одним запросом.
+     *
+     * @param size количество создаваемых задач и подзадач.
+     * @throws InvalidBatchRequestException если записей больше {@link BatchProperties#maxCreateSize()}.
+     */
+    public void checkCreateSize(int size) {
+        if (size > batchProperties.maxCreateSize()) {
+            throw new InvalidBatchRequestException("No more than " + batchProperties.maxCreateSize() +
+                                                   " tasks and subtasks can be created in one request");
+        }
+    }
+
+    /**
+     * Загружает значения частями.
+     *
+     * @param ids         различные идентификаторы.
+     * @param chunkLoader загрузка одной части; отсутствующие идентификаторы не попадают в результат.
+     * @param <V>         тип значения.
+     * @return найденные значения по идентификаторам.
+     */
+    public <V> Map<Long, V> load(Collection<Long> ids, Function<Collection<Long>, Map<Long, V>> chunkLoader) {
+        List<Long> idList = List.copyOf(ids);
+        Map<Long, V> loaded = new HashMap<>(idList.size() * 2);
+        for (int from = 0; from < idList.size(); from += batchProperties.chunkSize()) {
+            int to = Math.min(from + batchProperties.chunkSize(), idList.size());
+            loaded.putAll(chunkLoader.apply(idList.subList(from, to)));
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,17 @@
+package antonfeklichev.tasktrackerapp.batch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки пакетного чтения задач и подзадач по идентификаторам и пакетного создания.
+ *
+ * @param maxIds        максимальное количество идентификаторов в одном запросе.
+ * @param chunkSize     максимальное количество идентификаторов в одном запросе {@code IN} к базе данных.
+ * @param maxCreateSize максимальное количество задач и подзадач, создаваемых одним запросом.
+ */
+@ConfigurationProperties(prefix = "task-tracker.batch")
+public record BatchProperties(@DefaultValue("1000") int maxIds,
+                              @DefaultValue("500") int chunkSize,
+                              @DefaultValue("1000") int maxCreateSize) {
+}
@@ -0,0 +1,19 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша DTO задач и подзадач.
+ *
+ * @param enabled использовать ли кэш; если выключен, каждое чтение обращается к базе данных.
+ * @param maxSize максимальное количество записей в кэше каждого вида.
+ * @param ttl     время жизни записи с момента загрузки.
+ */
+@ConfigurationProperties(prefix = "task-tracker.cache")
+public record CacheProperties(@DefaultValue("true") boolean enabled,
+                              @DefaultValue("10000") long maxSize,
+                              @DefaultValue("5m") Duration ttl) {
+}
@@ -0,0 +1,87 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import antonfeklichev.tasktrackerapp.transaction.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счетчики изменений задач и подзадач, используемые как версии списков.
+ * <p>
+ * Сервисы вызывают {@link #tasksChanged()} и {@link #subTasksChanged(Long)} при каждом создании, изменении и удалении.
+ * Счетчик увеличивается сразу и повторно после фиксации транзакции, поэтому версия, полученная до чтения списка,
+ * перестает совпадать с текущей, если чтение могло не увидеть изменение.
+ * </p>
+ * <p>
+ * Версия подзадач задачи складывается из общего счетчика подзадач и счетчика полосы задачи. Полос фиксированное
+ * количество, поэтому изменение подзадач одной задачи меняет версию и некоторых других задач, но память не зависит
+ * от количества задач.
+ * </p>
+ * Счетчики хранятся в памяти экземпляра приложения, поэтому версия включает момент его запуска: после перезапуска
+ * ранее выданные версии не совпадают с новыми.
+ */
+@Component
+public class ChangeGenerations {
+
+    private static final int STRIPES = 1024;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong tasks = new AtomicLong();
+    private final AtomicLong subTasks = new AtomicLong();
+    private final AtomicLongArray subTasksByTask = new AtomicLongArray(STRIPES);
+
+    /**
+     * @return текущая версия списков задач.
+     */
+    public String tasks() {
+        return epoch + "." + tasks.get();
+    }
+
+    /**
+     * @param taskId идентификатор задачи.
+     * @return текущая версия списков подзадач задачи.
+     */
+    public String subTasks(Long taskId) {
+        return epoch + "." + subTasks.get() + "." + subTasksByTask.get(stripe(taskId));
+    }
+
+    public void tasksChanged() {
+        tasks.incrementAndGet();
+        TransactionCallbacks.afterCommit(tasks::incrementAndGet);
+    }
+
+    /**
+     * Отмечает изменение подзадач задачи.
+     *
+     * @param taskId идентификатор задачи.
+     */
+    public void subTasksChanged(Long taskId) {
+        int stripe = stripe(taskId);
+        subTasksByTask.incrementAndGet(stripe);
+        TransactionCallbacks.afterCommit(() -> subTasksByTask.incrementAndGet(stripe));
+    }
+
+    /**
+     * Отмечает изменение подзадач нескольких задач.
+     *
+     * @param taskIds идентификаторы задач.
+     */
+    public void subTasksChanged(Collection<Long> taskIds) {
+        taskIds.forEach(taskId -> subTasksByTask.incrementAndGet(stripe(taskId)));
+        TransactionCallbacks.afterCommit(() -> taskIds.forEach(taskId -> subTasksByTask.incrementAndGet(stripe(taskId))));
+    }
+
+    /**
+     * Отмечает изменение подзадач, задачи которых неизвестны; меняет версии подзадач всех задач.
+     */
+    public void subTasksChanged() {
+        subTasks.incrementAndGet();
+        TransactionCallbacks.afterCommit(subTasks::incrementAndGet);
+    }
+
+    private static int stripe(Long taskId) {
+        return (Long.hashCode(taskId) & Integer.MAX_VALUE) % STRIPES;
+    }
+}
@@ -0,0 +1,137 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.transaction.TransactionCallbacks;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Кэш DTO задач и подзадач для чтения по идентификатору.
+ * <p>
+ * Сервисы вызывают методы {@code evict*} после каждого изменения. Запись удаляется сразу и повторно после
+ * фиксации текущей транзакции: так значение, прочитанное другим потоком до фиксации, не остается в кэше.
+ * </p>
+ * <p>
+ * Идентификаторы, не найденные в базе данных, запоминаются в {@link NegativeCache} на короткое время, и повторные запросы
+ * к ним возвращают {@code null} без обращения к базе данных. Вставка задачи или подзадачи с таким идентификатором
+ * сразу снимает отметку ({@link DtoCacheEntityListener}).
+ * </p>
+ * Статистика попаданий, промахов и вытеснений публикуется в метриках {@code cache.*} с тегами {@code tasks} и {@code subtasks},
+ * кэшей ненайденных идентификаторов - с тегами {@code missing-tasks} и {@code missing-subtasks}.
+ *
+ * @see StampedCache
+ */
+@Component
+public class DtoCache {
+
+    private final StampedCache<TaskDto> tasks;
+    private final StampedCache<SubTaskDto> subTasks;
+    private final NegativeCache missingTasks;
+    private final NegativeCache missingSubTasks;
+
+    public DtoCache(CacheProperties cacheProperties, NegativeCacheProperties negativeCacheProperties,
+                    MeterRegistry meterRegistry) {
+        this.tasks = new StampedCache<>("tasks", cacheProperties, meterRegistry);
+        this.subTasks = new StampedCache<>("subtasks", cacheProperties, meterRegistry);
+        this.missingTasks = new NegativeCache("missing-tasks", negativeCacheProperties, meterRegistry);
+        this.missingSubTasks = new NegativeCache("missing-subtasks", negativeCacheProperties, meterRegistry);
+    }
+
+    /**
+     * Возвращает задачу из кэша или загружает ее.
+     *
+     * @param taskId идентификатор задачи.
+     * @param loader загрузка задачи; возвращает {@code null}, если задача не найдена.
+     * @return DTO задачи или {@code null}, если задача не найдена сейчас или недавно.
+     */
+    public TaskDto getTask(Long taskId, Function<Long, TaskDto> loader) {
+        return getPresent(tasks, missingTasks, taskId, loader);
+    }
+
+    /**
+     * Возвращает подзадачу из кэша или загружает ее.
+     *
+     * @param subTaskId идентификатор подзадачи.
+     * @param loader    загрузка подзадачи; возвращает {@code null}, если подзадача не найдена.
+     * @return DTO подзадачи или {@code null}, если подзадача не найдена сейчас или недавно.
+     */
+    public SubTaskDto getSubTask(Long subTaskId, Function<Long, SubTaskDto> loader) {
+        return getPresent(subTasks, missingSubTasks, subTaskId, loader);
+    }
+
+    public boolean isTaskMissing(Long taskId) {
+        return missingTasks.contains(taskId);
+    }
+
+    public boolean isSubTaskMissing(Long subTaskId) {
+        return missingSubTasks.contains(subTaskId);
+    }
+
+    public TaskDto peekTask(Long taskId) {
+        return tasks.peek(taskId);
+    }
+
+    public SubTaskDto peekSubTask(Long subTaskId) {
+        return subTasks.peek(subTaskId);
+    }
+
+    public Map<Long, TaskDto> getTasks(Collection<Long> taskIds, Function<Collection<Long>, Map<Long, TaskDto>> loader) {
+        return tasks.getAll(taskIds, loader);
+    }
+
+    public Map<Long, SubTaskDto> getSubTasks(Collection<Long> subTaskIds,
+                                             Function<Collection<Long>, Map<Long, SubTaskDto>> loader) {
+        return subTasks.getAll(subTaskIds, loader);
+    }
+
+    public void evictTask(Long taskId) {
+        evictTasks(List.of(taskId));
+    }
+
+    public void evictTasks(Collection<Long> taskIds) {
+        taskIds.forEach(tasks::invalidate);
+        TransactionCallbacks.afterCommit(() -> taskIds.forEach(tasks::invalidate));
+    }
+
+    public void evictSubTask(Long subTaskId) {
+        evictSubTasks(List.of(subTaskId));
+    }
+
+    public void evictSubTasks(Collection<Long> subTaskIds) {
+        subTaskIds.forEach(subTasks::invalidate);
+        TransactionCallbacks.afterCommit(() -> subTaskIds.forEach(subTasks::invalidate));
+    }
+
+    public void taskCreated(Long taskId) {
+        missingTasks.invalidate(taskId);
+        TransactionCallbacks.afterCommit(() -> missingTasks.invalidate(taskId));
+    }
+
+    public void subTaskCreated(Long subTaskId) {
+        missingSubTasks.invalidate(subTaskId);
+        TransactionCallbacks.afterCommit(() -> missingSubTasks.invalidate(subTaskId));
+    }
+
+    public void evictAllSubTasks() {
+        subTasks.invalidateAll();
+        TransactionCallbacks.afterCommit(subTasks::invalidateAll);
+    }
+
+    private static <V> V getPresent(StampedCache<V> cache, NegativeCache missing, Long id, Function<Long, V> loader) {
+        if (missing.contains(id)) {
+            return null;
+        }
+        long stamp = missing.stamp(id);
+        V value = cache.get(id, loader);
+        if (value == null) {
+            missing.put(id, stamp);
+        }
+        return value;
+    }
+}
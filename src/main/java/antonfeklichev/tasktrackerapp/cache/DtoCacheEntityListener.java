@@ -0,0 +1,30 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import antonfeklichev.tasktrackerapp.entity.AbstractTask;
+import antonfeklichev.tasktrackerapp.entity.SubTask;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сообщает {@link DtoCache} о вставке задач и подзадач, чтобы их идентификаторы больше не считались ненайденными.
+ * <p>
+ * Слушатель срабатывает при любом сохранении через JPA, в том числе в обход сервисов.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class DtoCacheEntityListener {
+
+    private final ObjectProvider<DtoCache> dtoCache;
+
+    @PostPersist
+    public void onPersist(AbstractTask entity) {
+        if (entity instanceof SubTask) {
+            dtoCache.getObject().subTaskCreated(entity.getId());
+        } else {
+            dtoCache.getObject().taskCreated(entity.getId());
+        }
+    }
+}
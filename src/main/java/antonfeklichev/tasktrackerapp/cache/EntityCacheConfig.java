@@ -0,0 +1,78 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import antonfeklichev.tasktrackerapp.entity.SubTask;
+import antonfeklichev.tasktrackerapp.entity.Task;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Кэш второго уровня Hibernate для {@link Task} и {@link SubTask}, включаемый профилем {@code l2cache}.
+ * <p>
+ * Регионы создаются программно в локальном Ehcache через JCache: уровень в куче ограничен количеством записей,
+ * уровень вне кучи - объемом памяти ({@link EntityCacheProperties}). Регион создается для каждой кэшируемой сущности,
+ * отсутствующий регион приводит к ошибке запуска, а не к созданию региона без ограничений.
+ * </p>
+ */
+@Configuration
+@Profile("l2cache")
+public class EntityCacheConfig {
+
+    private static final URI CACHE_MANAGER_URI = URI.create("urn:task-tracker:entity-cache");
+    private static final List<Class<?>> CACHED_ENTITIES = List.of(Task.class, SubTask.class);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        ClassLoader classLoader = getClass().getClassLoader();
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName(), classLoader);
+        // Конфигурация передается программно, поэтому URI только именует менеджер и не указывает на XML-файл.
+        CacheManager cacheManager = provider.getCacheManager(CACHE_MANAGER_URI, new DefaultConfiguration(classLoader));
+        CacheConfiguration<Object, Object> configuration = regionConfiguration(properties, classLoader);
+        CACHED_ENTITIES.forEach(entity ->
+                cacheManager.createCache(entity.getName(), Eh107Configuration.fromEhcacheCacheConfiguration(configuration)));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheHibernatePropertiesCustomizer(CacheManager entityCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    private static CacheConfiguration<Object, Object> regionConfiguration(EntityCacheProperties properties,
+                                                                          ClassLoader classLoader) {
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(properties.heapEntries());
+        if (properties.offHeap().toBytes() > 0) {
+            resourcePools = resourcePools.offheap(properties.offHeap().toMegabytes(), MemoryUnit.MB);
+        }
+        // Ключи и записи Hibernate сериализуемы; сериализатор нужен уровню вне кучи.
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+                .withKeySerializer(new PlainJavaSerializer<>(classLoader))
+                .withValueSerializer(new PlainJavaSerializer<>(classLoader))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(properties.ttl()))
+                .build();
+    }
+}
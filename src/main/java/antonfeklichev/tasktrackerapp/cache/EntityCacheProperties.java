@@ -0,0 +1,20 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша второго уровня Hibernate для задач и подзадач; применяются в профиле {@code l2cache}.
+ *
+ * @param heapEntries количество сущностей каждого вида, хранимых в куче.
+ * @param offHeap     объем памяти вне кучи для каждого вида сущностей; {@code 0} отключает этот уровень.
+ * @param ttl         время жизни записи; ограничивает устаревание после записи в базу данных в обход приложения.
+ */
+@ConfigurationProperties(prefix = "task-tracker.entity-cache")
+public record EntityCacheProperties(@DefaultValue("10000") long heapEntries,
+                                    @DefaultValue("0") DataSize offHeap,
+                                    @DefaultValue("10m") Duration ttl) {
+}
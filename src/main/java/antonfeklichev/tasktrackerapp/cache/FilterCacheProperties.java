@@ -0,0 +1,20 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша страниц результатов фильтров задач и подзадач.
+ *
+ * @param enabled   использовать ли кэш; если выключен, каждый запрос фильтра обращается к базе данных.
+ * @param maxMemory оценочный объем памяти, занимаемый страницами каждого вида; при превышении вытесняются редко используемые.
+ * @param ttl       время жизни страницы с момента загрузки; ограничивает устаревание после записи в базу данных в обход сервисов.
+ */
+@ConfigurationProperties(prefix = "task-tracker.filter-cache")
+public record FilterCacheProperties(@DefaultValue("true") boolean enabled,
+                                    @DefaultValue("16MB") DataSize maxMemory,
+                                    @DefaultValue("1m") Duration ttl) {
+}
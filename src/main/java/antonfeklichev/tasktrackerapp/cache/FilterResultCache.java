@@ -0,0 +1,61 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
+import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц результатов фильтров задач и подзадач.
+ * <p>
+ * Ключ страницы - версия списков из {@link ChangeGenerations}, идентификатор задачи, канонический фильтр и параметры
+ * страницы. Версия читается до загрузки страницы, поэтому изменение, зафиксированное во время загрузки, делает
+ * загруженную страницу недоступной. Инвалидация не перебирает ключи: сервисы только увеличивают счетчики изменений.
+ * </p>
+ * Изменения подзадач одной задачи не затрагивают кэшированные страницы подзадач большинства других задач.
+ * Статистика публикуется в метриках {@code cache.*} с тегами {@code task-filters} и {@code subtask-filters}.
+ *
+ * @see PageCache
+ */
+@Component
+public class FilterResultCache {
+
+    /**
+     * Оценка размера DTO без строк в байтах.
+     */
+    private static final int DTO_OVERHEAD = 96;
+
+    private final ChangeGenerations changeGenerations;
+    private final PageCache<TaskDto> tasks;
+    private final PageCache<SubTaskDto> subTasks;
+
+    public FilterResultCache(FilterCacheProperties properties, ChangeGenerations changeGenerations, MeterRegistry meterRegistry) {
+        this.changeGenerations = changeGenerations;
+        this.tasks = new PageCache<>("task-filters", properties,
+                task -> DTO_OVERHEAD + sizeOf(task.name()) + sizeOf(task.description()), meterRegistry);
+        this.subTasks = new PageCache<>("subtask-filters", properties,
+                subTask -> DTO_OVERHEAD + sizeOf(subTask.name()) + sizeOf(subTask.description()), meterRegistry);
+    }
+
+    public CursorPageDto<TaskDto> getTasks(QueryDslFilterDto filter, CursorPageRequestDto page,
+                                           Supplier<CursorPageDto<TaskDto>> loader) {
+        return tasks.get(new FilterKey(changeGenerations.tasks(), null, filter, page), loader);
+    }
+
+    public CursorPageDto<SubTaskDto> getSubTasks(Long taskId, QueryDslFilterDto filter, CursorPageRequestDto page,
+                                                 Supplier<CursorPageDto<SubTaskDto>> loader) {
+        return subTasks.get(new FilterKey(changeGenerations.subTasks(taskId), taskId, filter, page), loader);
+    }
+
+    private static int sizeOf(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+
+    private record FilterKey(String generation, Long taskId, QueryDslFilterDto filter, CursorPageRequestDto page) {
+    }
+}
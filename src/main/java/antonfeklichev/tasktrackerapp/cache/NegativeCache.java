@@ -0,0 +1,83 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Кэш идентификаторов, которые не были найдены в базе данных, с коротким временем жизни.
+ * <p>
+ * Как и в {@link StampedCache}, перед обращением к базе данных запоминается отметка ключа, а отсутствие записывается,
+ * только если ключ не инвалидировали за время запроса. Поэтому вставка, зафиксированная во время запроса,
+ * не оставляет в кэше ложное отсутствие.
+ * </p>
+ */
+public class NegativeCache {
+
+    private static final int STRIPES = 1024;
+
+    private final Cache<Long, Boolean> cache;
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    private final boolean enabled;
+
+    public NegativeCache(String name, NegativeCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * @param key идентификатор.
+     * @return {@code true}, если идентификатор недавно не был найден.
+     */
+    public boolean contains(Long key) {
+        return enabled && cache.getIfPresent(key) != null;
+    }
+
+    /**
+     * Возвращает отметку инвалидации ключа; вызывается перед обращением к базе данных.
+     *
+     * @param key идентификатор.
+     * @return отметка для {@link #put(Long, long)}.
+     */
+    public long stamp(Long key) {
+        return stamps.get(stripe(key));
+    }
+
+    /**
+     * Запоминает отсутствие идентификатора, если с момента получения отметки он не инвалидировался.
+     *
+     * @param key   идентификатор.
+     * @param stamp отметка, полученная до обращения к базе данных.
+     */
+    public void put(Long key, long stamp) {
+        if (!enabled) {
+            return;
+        }
+        cache.put(key, Boolean.TRUE);
+        if (stamps.get(stripe(key)) != stamp) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Забывает отсутствие идентификатора и отменяет запись отсутствия запросами, начатыми до вызова.
+     *
+     * @param key идентификатор.
+     */
+    public void invalidate(Long key) {
+        stamps.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+    }
+
+    private static int stripe(Long key) {
+        return (Long.hashCode(key) & Integer.MAX_VALUE) % STRIPES;
+    }
+}
@@ -0,0 +1,19 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша идентификаторов ненайденных задач и подзадач.
+ *
+ * @param enabled использовать ли кэш; если выключен, каждый запрос несуществующего идентификатора обращается к базе данных.
+ * @param maxSize максимальное количество идентификаторов каждого вида.
+ * @param ttl     время, в течение которого идентификатор считается отсутствующим без повторной проверки.
+ */
+@ConfigurationProperties(prefix = "task-tracker.negative-cache")
+public record NegativeCacheProperties(@DefaultValue("true") boolean enabled,
+                                      @DefaultValue("100000") long maxSize,
+                                      @DefaultValue("10s") Duration ttl) {
+}
@@ -0,0 +1,95 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Кэш страниц результатов, ограниченный оценочным объемом занимаемой памяти.
+ * <p>
+ * Записи не инвалидируются: ключ включает версию данных, поэтому после изменения запросы используют новые ключи,
+ * а записи со старыми ключами вытесняются по объему или времени жизни.
+ * Одновременные промахи по одному ключу объединяются в одну загрузку.
+ * </p>
+ * Кроме стандартных метрик {@code cache.*} публикуются {@code cache.hit.ratio} и {@code cache.memory.estimated}.
+ *
+ * @param <D> тип элемента страницы.
+ */
+public class PageCache<D> {
+
+    /**
+     * Оценка размера страницы без элементов, ключа и записи кэша в байтах.
+     */
+    private static final int PAGE_OVERHEAD = 256;
+
+    private final Cache<Object, CursorPageDto<D>> cache;
+    private final ToIntFunction<D> itemSize;
+    private final boolean enabled;
+
+    /**
+     * @param name          имя кэша в метриках.
+     * @param properties    настройки.
+     * @param itemSize      оценка размера элемента страницы в байтах.
+     * @param meterRegistry реестр метрик.
+     */
+    public PageCache(String name, FilterCacheProperties properties, ToIntFunction<D> itemSize, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.itemSize = itemSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.maxMemory().toBytes())
+                .<Object, CursorPageDto<D>>weigher((key, page) -> weigh(page))
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .description("Доля запросов, обслуженных из кэша")
+                .register(meterRegistry);
+        Gauge.builder("cache.memory.estimated", this, PageCache::memoryEstimate)
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .description("Оценочный объем памяти, занимаемой записями кэша")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает страницу из кэша или загружает ее и помещает в кэш.
+     *
+     * @param key    ключ, включающий версию данных и все параметры запроса.
+     * @param loader загрузка страницы; исключения передаются вызывающему и не кэшируются.
+     * @return страница.
+     */
+    public CursorPageDto<D> get(Object key, Supplier<CursorPageDto<D>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return cache.get(key, k -> loader.get());
+    }
+
+    /**
+     * Caffeine учитывает вес новых записей асинхронно, поэтому перед чтением выполняются отложенные операции кэша.
+     *
+     * @return оценочный объем памяти, занимаемой записями, в байтах.
+     */
+    public long memoryEstimate() {
+        cache.cleanUp();
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private int weigh(CursorPageDto<D> page) {
+        long weight = PAGE_OVERHEAD;
+        for (D item : page.items()) {
+            weight += itemSize.applyAsInt(item);
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,91 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Объединение одновременных загрузок одного ключа.
+ * <p>
+ * Первый поток, запросивший ключ, выполняет загрузку, остальные потоки ожидают ее завершения и получают тот же
+ * результат или то же исключение. После завершения загрузка снимается, поэтому следующий запрос загружает ключ заново.
+ * Количество объединенных запросов публикуется в счетчике {@code cache.coalesced}.
+ * </p>
+ *
+ * @param <V> тип значения.
+ */
+public class SingleFlight<V> {
+
+    private final ConcurrentMap<Long, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("cache.coalesced")
+                .description("Запросы, получившие результат загрузки, начатой другим потоком")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Загружает значение или присоединяется к уже выполняющейся загрузке того же ключа.
+     *
+     * @param key    идентификатор.
+     * @param loader загрузка значения.
+     * @return значение.
+     */
+    public V load(Long key, Function<Long, V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            coalesced.increment();
+            return await(inFlight);
+        }
+
+        try {
+            V value = loader.apply(key);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Отсоединяет выполняющуюся загрузку ключа: последующие запросы начнут новую загрузку,
+     * а уже ожидающие потоки получат результат прежней.
+     *
+     * @param key идентификатор.
+     */
+    public void forget(Long key) {
+        flights.remove(key);
+    }
+
+    /**
+     * Отсоединяет все выполняющиеся загрузки.
+     */
+    public void forgetAll() {
+        flights.clear();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
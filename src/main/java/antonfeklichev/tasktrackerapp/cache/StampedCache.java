@@ -0,0 +1,150 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш значений по идентификатору, защищенный от записи устаревших значений.
+ * <p>
+ * Перед загрузкой значения из базы данных запоминается отметка инвалидации ключа. Если за время загрузки
+ * ключ был инвалидирован, загруженное значение удаляется из кэша сразу после записи. Поэтому чтение,
+ * начавшееся до фиксации изменения, не может оставить в кэше значение, прочитанное до этого изменения.
+ * </p>
+ * Отметки хранятся в фиксированном массиве полос, поэтому их количество не зависит от количества ключей.
+ * Одновременные промахи по одному ключу объединяются в одну загрузку через {@link SingleFlight}.
+ *
+ * @param <V> тип значения.
+ */
+public class StampedCache<V> {
+
+    private static final int STRIPES = 1024;
+
+    private final Cache<Long, V> cache;
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    private final AtomicLong generation = new AtomicLong();
+    private final SingleFlight<V> flights;
+    private final boolean enabled;
+
+    public StampedCache(String name, CacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        this.flights = new SingleFlight<>(name, meterRegistry);
+    }
+
+    /**
+     * Возвращает значение из кэша или загружает его и помещает в кэш.
+     *
+     * @param key    идентификатор.
+     * @param loader загрузка значения; исключения передаются вызывающему, а результат {@code null} не кэшируется.
+     * @return значение.
+     */
+    public V get(Long key, Function<Long, V> loader) {
+        if (!enabled) {
+            return flights.load(key, loader);
+        }
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        return flights.load(key, id -> load(id, loader));
+    }
+
+    /**
+     * Возвращает значение, если оно есть в кэше, без загрузки.
+     *
+     * @param key идентификатор.
+     * @return значение или {@code null}.
+     */
+    public V peek(Long key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * Возвращает значения из кэша и одной пакетной загрузкой получает отсутствующие.
+     * Загруженные значения помещаются в кэш по тем же правилам, что и в {@link #get(Long, Function)}.
+     *
+     * @param keys   различные идентификаторы.
+     * @param loader пакетная загрузка отсутствующих в кэше значений; ненайденные идентификаторы не попадают в результат.
+     * @return найденные значения по идентификаторам.
+     */
+    public Map<Long, V> getAll(Collection<Long> keys, Function<Collection<Long>, Map<Long, V>> loader) {
+        if (!enabled) {
+            return loader.apply(keys);
+        }
+        Map<Long, V> result = new HashMap<>(cache.getAllPresent(keys));
+        List<Long> missing = keys.stream().filter(key -> !result.containsKey(key)).toList();
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long[] missingStamps = new long[missing.size()];
+        for (int i = 0; i < missing.size(); i++) {
+            missingStamps[i] = stamps.get(stripe(missing.get(i)));
+        }
+        long currentGeneration = generation.get();
+        Map<Long, V> loaded = loader.apply(missing);
+        cache.putAll(loaded);
+        for (int i = 0; i < missing.size(); i++) {
+            Long key = missing.get(i);
+            V value = loaded.get(key);
+            if (value != null && (stamps.get(stripe(key)) != missingStamps[i] || generation.get() != currentGeneration)) {
+                cache.asMap().remove(key, value);
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Удаляет значение из кэша и отменяет запись значений, загрузка которых началась до вызова.
+     *
+     * @param key идентификатор.
+     */
+    public void invalidate(Long key) {
+        stamps.incrementAndGet(stripe(key));
+        flights.forget(key);
+        cache.invalidate(key);
+    }
+
+    /**
+     * Удаляет все значения из кэша и отменяет запись значений, загрузка которых началась до вызова.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        flights.forgetAll();
+        cache.invalidateAll();
+    }
+
+    private V load(Long key, Function<Long, V> loader) {
+        int stripe = stripe(key);
+        long stamp = stamps.get(stripe);
+        long currentGeneration = generation.get();
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            cache.put(key, loaded);
+            if (stamps.get(stripe) != stamp || generation.get() != currentGeneration) {
+                cache.asMap().remove(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private static int stripe(Long key) {
+        return (Long.hashCode(key) & Integer.MAX_VALUE) % STRIPES;
+    }
+}
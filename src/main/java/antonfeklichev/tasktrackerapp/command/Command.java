@@ -0,0 +1,14 @@
+package antonfeklichev.tasktrackerapp.command;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Принятая команда в том виде, в котором она хранится в журнале.
+ *
+ * @param id       идентификатор команды.
+ * @param type     вид команды.
+ * @param targetId идентификатор задачи или подзадачи, к которой относится команда, или {@code null} при создании задачи.
+ * @param payload  данные команды или {@code null}, см. {@link CommandType}.
+ */
+public record Command(String id, CommandType type, Long targetId, JsonNode payload) {
+}
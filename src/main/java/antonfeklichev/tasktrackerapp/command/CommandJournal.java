@@ -0,0 +1,280 @@
+package antonfeklichev.tasktrackerapp.command;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Журнал принятых команд в локальных файлах.
+ * <p>
+ * Каждая строка файла - JSON с принятой командой или со списком идентификаторов выполненных команд. Запись
+ * сбрасывается на диск до ответа клиенту, поэтому принятая команда сохраняется при перезапуске. Файл журнала
+ * сменяется после {@code segmentSize} байт; предыдущие файлы удаляются, когда выполнены все записанные в них команды.
+ * </p>
+ * <p>
+ * Сброс на диск групповой: потоки записывают строки без ожидания друг друга, после чего первый из ожидающих сброса
+ * потоков сбрасывает все записанные к этому моменту строки одним {@link FileChannel#force}, а остальные ожидают его и
+ * возвращаются, если их строки уже сброшены. Поэтому одновременные записи разделяют одну синхронизацию с диском.
+ * </p>
+ * <p>
+ * При запуске невыполненные команды из всех файлов переписываются по порядку в новый файл, а прежние файлы удаляются.
+ * Незавершенная последняя строка, оставшаяся после аварийной остановки, пропускается: ответ на такую команду
+ * не был отправлен.
+ * </p>
+ */
+@Slf4j
+class CommandJournal implements Closeable {
+
+    private static final String PREFIX = "commands-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final ObjectMapper objectMapper;
+    private final TreeMap<Long, Integer> pendingBySegment = new TreeMap<>();
+    private final Map<String, Long> segmentByCommand = new HashMap<>();
+
+    /**
+     * Порядок блокировок: {@code syncLock}, затем монитор журнала.
+     */
+    private final Object syncLock = new Object();
+
+    private long segment;
+    private FileChannel channel;
+    /**
+     * Номер последней записанной строки; изменяется под монитором журнала.
+     */
+    private long written;
+    /**
+     * Номер последней сброшенной на диск строки; изменяется под {@code syncLock}.
+     */
+    private volatile long synced;
+
+    CommandJournal(Path directory, long segmentSize, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Открывает журнал.
+     *
+     * @return невыполненные команды в порядке приема.
+     */
+    synchronized List<Command> recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments();
+        Map<String, Command> pending = new LinkedHashMap<>();
+        for (Path file : segments) {
+            read(file, pending);
+        }
+
+        segment = segments.isEmpty() ? 1 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+        channel = open(segment);
+        for (Command command : pending.values()) {
+            write(new JournalEntry(command, null));
+            track(command.id());
+        }
+        channel.force(false);
+        synced = written;
+        for (Path file : segments) {
+            Files.delete(file);
+        }
+        if (!pending.isEmpty()) {
+            log.info("Из журнала команд восстановлено невыполненных команд: {}.", pending.size());
+        }
+        return List.copyOf(pending.values());
+    }
+
+    /**
+     * Записывает принятую команду и ожидает сброса записи на диск.
+     */
+    void append(Command command) throws IOException {
+        long line;
+        synchronized (this) {
+            if (channel.size() >= segmentSize) {
+                rotate();
+            }
+            line = write(new JournalEntry(command, null));
+            track(command.id());
+        }
+        sync(line);
+    }
+
+    /**
+     * Отмечает команды выполненными и удаляет файлы журнала, все команды которых выполнены.
+     */
+    void complete(Collection<String> commandIds) throws IOException {
+        long line;
+        synchronized (this) {
+            line = write(new JournalEntry(null, List.copyOf(commandIds)));
+        }
+        sync(line);
+        synchronized (this) {
+            for (String commandId : commandIds) {
+                Long commandSegment = segmentByCommand.remove(commandId);
+                if (commandSegment != null) {
+                    pendingBySegment.merge(commandSegment, -1, Integer::sum);
+                }
+            }
+            deleteCompletedSegments();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    /**
+     * Ожидает сброса на диск строк до {@code line} включительно; если их еще никто не сбросил, сбрасывает все
+     * записанные строки.
+     */
+    private void sync(long line) throws IOException {
+        if (synced >= line) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= line) {
+                return;
+            }
+            FileChannel current;
+            long target;
+            synchronized (this) {
+                current = channel;
+                target = written;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // Файл закрыт после сброса в rotate() или close(), поэтому строки до target уже на диске.
+                log.debug("Файл журнала команд закрыт до сброса, записи сброшены при закрытии.");
+            }
+            synced = target;
+        }
+    }
+
+    /**
+     * Сбрасывает текущий файл на диск перед закрытием, поэтому ожидающие сброса строки этого файла сохранены.
+     * Так же поступает {@link #close()}.
+     */
+    private void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        pendingBySegment.putIfAbsent(segment, 0);
+        channel = open(++segment);
+        deleteCompletedSegments();
+    }
+
+    /**
+     * Удаляет файлы только с начала журнала: отметка о выполнении команды записывается в тот же или более поздний
+     * файл, поэтому удаленные файлы не содержат отметок о командах из оставшихся.
+     */
+    private void deleteCompletedSegments() throws IOException {
+        Iterator<Map.Entry<Long, Integer>> segments = pendingBySegment.headMap(segment).entrySet().iterator();
+        while (segments.hasNext()) {
+            Map.Entry<Long, Integer> entry = segments.next();
+            if (entry.getValue() > 0) {
+                return;
+            }
+            Files.deleteIfExists(segmentPath(entry.getKey()));
+            segments.remove();
+        }
+    }
+
+    private void track(String commandId) {
+        segmentByCommand.put(commandId, segment);
+        pendingBySegment.merge(segment, 1, Integer::sum);
+    }
+
+    /**
+     * @return номер записанной строки.
+     */
+    private long write(JournalEntry entry) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        return ++written;
+    }
+
+    private void read(Path file, Map<String, Command> pending) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JournalEntry entry;
+                try {
+                    entry = objectMapper.readValue(line, JournalEntry.class);
+                } catch (JsonProcessingException e) {
+                    log.warn("Пропущена поврежденная запись журнала команд в файле {}.", file.getFileName());
+                    continue;
+                }
+                if (entry.command() != null) {
+                    pending.put(entry.command().id(), entry.command());
+                }
+                if (entry.completed() != null) {
+                    entry.completed().forEach(pending::remove);
+                }
+            }
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(file -> file.getFileName().toString().matches(PREFIX + "\\d+" + SUFFIX))
+                    .toList());
+            segments.sort((left, right) -> Long.compare(segmentNumber(left), segmentNumber(right)));
+            return segments;
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(PREFIX + number + SUFFIX);
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Строка журнала: принятая команда или идентификаторы выполненных команд.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record JournalEntry(Command command, List<String> completed) {
+    }
+}
@@ -0,0 +1,381 @@
+package antonfeklichev.tasktrackerapp.command;
+
+import antonfeklichev.tasktrackerapp.dto.CommandStatusDto;
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.exception.CommandNotFoundException;
+import antonfeklichev.tasktrackerapp.exception.CommandQueueFullException;
+import antonfeklichev.tasktrackerapp.repository.CommandResultRepository;
+import antonfeklichev.tasktrackerapp.service.SubTaskService;
+import antonfeklichev.tasktrackerapp.service.TaskService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронное выполнение команд создания, изменения и удаления задач и подзадач.
+ * <p>
+ * Принятая команда записывается в {@link CommandJournal} и ставится в ограниченную очередь на {@code capacity}
+ * команд, после чего клиент сразу получает ее идентификатор. Если очередь заполнена, команда отклоняется с
+ * {@link CommandQueueFullException}, и клиент повторяет ее позже. Поэтому задержки базы данных не задерживают прием
+ * команд, пока в очереди есть место. Место в очереди резервируется до записи в журнал, а запись и сброс журнала на
+ * диск выполняются без блокировки приема, поэтому одновременно принятые команды разделяют один сброс на диск и могут
+ * оказаться в очереди в ином порядке, чем в журнале.
+ * </p>
+ * <p>
+ * Один поток выполняет команды по порядку приема пакетами до {@code batchSize} команд в одной транзакции через
+ * {@link TaskService} и {@link SubTaskService}. Ошибка приложения, например конфликт версий, становится результатом
+ * только своей команды. Если команда привела к ошибке базы данных или пометила транзакцию для отката, либо фиксация не
+ * удалась, пакет откатывается и команды выполняются повторно, каждая в отдельной транзакции.
+ * </p>
+ * <p>
+ * В транзакции, изменяющей данные команды, записывается ее результат ({@link CommandResultRepository}); результат
+ * невыполненной команды записывается в отдельной транзакции после отката. Команды с записанным результатом не
+ * выполняются повторно и получают сохраненный результат. После выполнения пакета публикуются статусы команд, затем
+ * команды отмечаются в журнале выполненными, и результаты в базе данных удаляются. Команды, не отмеченные в журнале до
+ * остановки приложения, выполняются после запуска; если приложение остановилось или запись в журнал не удалась после
+ * фиксации пакета, его команды пропускаются по результатам. Ошибки записи в журнал учитываются метрикой
+ * {@code commands.journal.failures}.
+ * </p>
+ * Статусы команд хранятся в памяти в течение {@code statusTtl}; статусы выполненных до перезапуска команд не сохраняются.
+ */
+@Component
+@ConditionalOnProperty(prefix = "task-tracker.commands", name = "enabled", havingValue = "true")
+@Slf4j
+public class CommandProcessor {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final CommandProperties properties;
+    private final TaskService taskService;
+    private final SubTaskService subTaskService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CommandResultRepository commandResults;
+    private final CommandJournal journal;
+    private final BlockingQueue<Command> queue;
+    private final Deque<Command> recovered;
+    private final Cache<String, CommandStatusDto> statuses;
+    private final Counter rejected;
+    private final Counter journalFailures;
+    private final Object acceptLock = new Object();
+    private final Thread consumer;
+
+    private volatile boolean running = true;
+    /**
+     * Команды, записываемые в журнал, для которых зарезервировано место в очереди; изменяется под {@code acceptLock}.
+     */
+    private int appending;
+
+    public CommandProcessor(CommandProperties properties,
+                            TaskService taskService,
+                            SubTaskService subTaskService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            CommandResultRepository commandResults,
+                            MeterRegistry meterRegistry) throws IOException {
+        this.properties = properties;
+        this.taskService = taskService;
+        this.subTaskService = subTaskService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.commandResults = commandResults;
+        this.queue = new ArrayBlockingQueue<>(properties.capacity());
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.statusMaxSize())
+                .expireAfterWrite(properties.statusTtl())
+                .build();
+        this.journal = new CommandJournal(properties.journalDirectory(), properties.segmentSize().toBytes(), objectMapper);
+        this.recovered = new ArrayDeque<>(journal.recover());
+        recovered.forEach(command -> statuses.put(command.id(), CommandStatusDto.accepted(command.id(), command.type())));
+        this.rejected = Counter.builder("commands.rejected")
+                .description("Команды, отклоненные из-за переполнения очереди")
+                .register(meterRegistry);
+        this.journalFailures = Counter.builder("commands.journal.failures")
+                .description("Пакеты команд, выполнение которых не удалось отметить в журнале команд")
+                .register(meterRegistry);
+        Gauge.builder("commands.queue", queue, BlockingQueue::size)
+                .description("Команды, ожидающие выполнения")
+                .register(meterRegistry);
+        this.consumer = new Thread(this::consume, "command-consumer");
+        consumer.setDaemon(true);
+    }
+
+    /**
+     * Запускает выполнение команд после запуска приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!consumer.isAlive()) {
+            consumer.start();
+        }
+    }
+
+    /**
+     * Принимает команду: записывает ее в журнал и ставит в очередь.
+     *
+     * @param type     вид команды.
+     * @param targetId идентификатор задачи или подзадачи, к которой относится команда.
+     * @param payload  данные команды или {@code null}.
+     * @return статус принятой команды.
+     * @throws CommandQueueFullException если очередь заполнена.
+     */
+    public CommandStatusDto submit(CommandType type, Long targetId, Object payload) {
+        Command command = new Command(UUID.randomUUID().toString(), type, targetId,
+                payload == null ? null : objectMapper.valueToTree(payload));
+        CommandStatusDto status = CommandStatusDto.accepted(command.id(), type);
+        // Очередь пополняется только под блокировкой, поэтому место, зарезервированное до записи в журнал, не будет занято.
+        synchronized (acceptLock) {
+            if (!running || queue.remainingCapacity() <= appending) {
+                rejected.increment();
+                throw new CommandQueueFullException("Command queue is full, retry later");
+            }
+            appending++;
+        }
+        try {
+            journal.append(command);
+        } catch (IOException e) {
+            release();
+            log.error("Не удалось записать команду {} в журнал команд.", command.id(), e);
+            throw new UncheckedIOException(e);
+        }
+        synchronized (acceptLock) {
+            release();
+            statuses.put(command.id(), status);
+            queue.add(command);
+        }
+        return status;
+    }
+
+    /**
+     * @param commandId идентификатор команды.
+     * @return статус команды.
+     * @throws CommandNotFoundException если команда не найдена или ее статус уже удален.
+     */
+    public CommandStatusDto getStatus(String commandId) {
+        CommandStatusDto status = statuses.getIfPresent(commandId);
+        if (status == null) {
+            throw new CommandNotFoundException("Command not found");
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        synchronized (acceptLock) {
+            running = false;
+            while (appending > 0) {
+                acceptLock.wait();
+            }
+        }
+        if (consumer.isAlive()) {
+            consumer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+        journal.close();
+    }
+
+    /**
+     * Освобождает место, зарезервированное для записи команды в журнал.
+     */
+    private void release() {
+        synchronized (acceptLock) {
+            appending--;
+            acceptLock.notifyAll();
+        }
+    }
+
+    private void consume() {
+        List<Command> batch = new ArrayList<>(properties.batchSize());
+        while (running) {
+            try {
+                nextBatch(batch);
+                if (!batch.isEmpty()) {
+                    process(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Не удалось выполнить пакет из {} команд.", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void nextBatch(List<Command> batch) throws InterruptedException {
+        while (!recovered.isEmpty() && batch.size() < properties.batchSize()) {
+            batch.add(recovered.poll());
+        }
+        if (!batch.isEmpty()) {
+            return;
+        }
+        Command first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (first != null) {
+            batch.add(first);
+            queue.drainTo(batch, properties.batchSize() - 1);
+        }
+    }
+
+    private void process(List<Command> batch) {
+        List<String> commandIds = batch.stream().map(Command::id).toList();
+        List<CommandStatusDto> results = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(transaction -> {
+                Map<String, CommandStatusDto> recorded = commandResults.findByIds(commandIds);
+                for (Command command : batch) {
+                    CommandStatusDto result = recorded.get(command.id());
+                    if (result == null) {
+                        try {
+                            result = applied(command, execute(command));
+                        } catch (RuntimeException e) {
+                            if (spoilsTransaction(e, transaction)) {
+                                throw new BatchAbortedException(e);
+                            }
+                            result = failed(command, e);
+                        }
+                        commandResults.save(result);
+                    }
+                    results.add(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.debug("Пакет из {} команд откачен, команды будут выполнены по отдельности: {}", batch.size(), e.toString());
+            results.clear();
+            for (Command command : batch) {
+                results.add(applyAlone(command));
+            }
+        }
+        results.forEach(result -> statuses.put(result.id(), result));
+        complete(commandIds);
+    }
+
+    /**
+     * Выполняет команду в отдельной транзакции, если ее результат еще не записан. При ошибке транзакция откатывается,
+     * а результат невыполненной команды записывается в новой транзакции.
+     */
+    private CommandStatusDto applyAlone(Command command) {
+        try {
+            return transactionTemplate.execute(transaction -> {
+                CommandStatusDto recorded = commandResults.findByIds(List.of(command.id())).get(command.id());
+                if (recorded != null) {
+                    return recorded;
+                }
+                CommandStatusDto result = applied(command, execute(command));
+                commandResults.save(result);
+                return result;
+            });
+        } catch (RuntimeException e) {
+            CommandStatusDto result = failed(command, e);
+            try {
+                transactionTemplate.executeWithoutResult(transaction -> commandResults.save(result));
+            } catch (RuntimeException saveError) {
+                log.warn("Не удалось записать результат невыполненной команды {}; после перезапуска команда может " +
+                         "быть выполнена повторно.", command.id(), saveError);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Отмечает команды выполненными в журнале и удаляет их результаты в базе данных. Если запись в журнал не удалась,
+     * результаты сохраняются, чтобы команды, прочитанные из журнала после перезапуска, не были выполнены повторно.
+     */
+    private void complete(List<String> commandIds) {
+        try {
+            journal.complete(commandIds);
+        } catch (IOException | RuntimeException e) {
+            journalFailures.increment();
+            log.error("Не удалось отметить выполнение пакета из {} команд в журнале команд; после перезапуска команды " +
+                      "будут пропущены по результатам в базе данных.", commandIds.size(), e);
+            return;
+        }
+        try {
+            commandResults.deleteByIds(commandIds);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось удалить результаты пакета из {} команд.", commandIds.size(), e);
+        }
+    }
+
+    /**
+     * @return идентификатор созданной, измененной или удаленной задачи или подзадачи.
+     */
+    private Long execute(Command command) {
+        return switch (command.type()) {
+            case CREATE_TASK -> taskService.addTask(payload(command, NewTaskDto.class)).id();
+            case UPDATE_TASK -> taskService.updateTaskById(command.targetId(), payload(command, TaskDto.class)).id();
+            case DELETE_TASK -> {
+                taskService.deleteTaskById(command.targetId());
+                yield command.targetId();
+            }
+            case CREATE_SUBTASK -> subTaskService.addSubTaskByTaskId(command.targetId(),
+                    payload(command, NewSubTaskDto.class)).id();
+            case UPDATE_SUBTASK -> subTaskService.updateSubTaskById(command.targetId(),
+                    payload(command, SubTaskDto.class)).id();
+            case DELETE_SUBTASK -> {
+                subTaskService.deleteSubTaskById(command.targetId());
+                yield command.targetId();
+            }
+        };
+    }
+
+    private <T> T payload(Command command, Class<T> payloadType) {
+        try {
+            return objectMapper.treeToValue(command.payload(), payloadType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid command payload", e);
+        }
+    }
+
+    private static CommandStatusDto applied(Command command, Long resultId) {
+        return new CommandStatusDto(command.id(), command.type(), CommandState.APPLIED, resultId, null);
+    }
+
+    private static CommandStatusDto failed(Command command, RuntimeException error) {
+        log.debug("Команда {} не выполнена: {}", command.id(), error.toString());
+        return new CommandStatusDto(command.id(), command.type(), CommandState.FAILED, null, error.getMessage());
+    }
+
+    /**
+     * После ошибки базы данных PostgreSQL отклоняет остальные команды транзакции, а после исключения, прошедшего через
+     * вложенный транзакционный метод, транзакция может быть только откачена.
+     */
+    private static boolean spoilsTransaction(RuntimeException error, TransactionStatus transaction) {
+        return transaction.isRollbackOnly() || error instanceof DataAccessException || error instanceof PersistenceException;
+    }
+
+    private static class BatchAbortedException extends RuntimeException {
+        BatchAbortedException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
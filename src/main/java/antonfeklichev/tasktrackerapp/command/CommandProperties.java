@@ -0,0 +1,29 @@
+package antonfeklichev.tasktrackerapp.command;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Настройки асинхронного приема команд.
+ *
+ * @param enabled          принимать команды через {@code api/v1/commands}.
+ * @param capacity         максимальное количество команд, ожидающих выполнения; при заполнении команды отклоняются.
+ * @param batchSize        максимальное количество команд, выполняемых в одной транзакции.
+ * @param journalDirectory каталог журнала принятых команд.
+ * @param segmentSize      размер файла журнала, после которого начинается новый файл.
+ * @param statusTtl        время хранения статуса команды после последнего изменения.
+ * @param statusMaxSize    максимальное количество хранимых статусов команд.
+ */
+@ConfigurationProperties(prefix = "task-tracker.commands")
+public record CommandProperties(@DefaultValue("false") boolean enabled,
+                                @DefaultValue("10000") int capacity,
+                                @DefaultValue("100") int batchSize,
+                                @DefaultValue("data/commands") Path journalDirectory,
+                                @DefaultValue("64MB") DataSize segmentSize,
+                                @DefaultValue("1h") Duration statusTtl,
+                                @DefaultValue("100000") long statusMaxSize) {
+}
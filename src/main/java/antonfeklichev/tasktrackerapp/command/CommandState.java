@@ -0,0 +1,19 @@
+package antonfeklichev.tasktrackerapp.command;
+
+/**
+ * Состояние принятой команды.
+ */
+public enum CommandState {
+    /**
+     * Команда записана в журнал и ожидает выполнения.
+     */
+    ACCEPTED,
+    /**
+     * Команда выполнена.
+     */
+    APPLIED,
+    /**
+     * Команда не выполнена из-за ошибки, например конфликта версий или отсутствия задачи.
+     */
+    FAILED
+}
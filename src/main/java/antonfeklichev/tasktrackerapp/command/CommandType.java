@@ -0,0 +1,19 @@
+package antonfeklichev.tasktrackerapp.command;
+
+/**
+ * Вид команды.
+ * <p>
+ * Данные команды: {@code NewTaskDto} при создании задачи, {@code TaskDto} при изменении задачи, {@code NewSubTaskDto}
+ * при создании подзадачи, {@code SubTaskDto} при изменении подзадачи; команды удаления передаются без данных.
+ * Для команд подзадач {@code targetId} - идентификатор задачи при создании и идентификатор подзадачи при изменении
+ * и удалении.
+ * </p>
+ */
+public enum CommandType {
+    CREATE_TASK,
+    UPDATE_TASK,
+    DELETE_TASK,
+    CREATE_SUBTASK,
+    UPDATE_SUBTASK,
+    DELETE_SUBTASK
+}
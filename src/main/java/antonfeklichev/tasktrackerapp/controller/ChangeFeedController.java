@@ -0,0 +1,44 @@
+package antonfeklichev.tasktrackerapp.controller;
+
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.feed.ChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Контроллер ленты изменений задач и подзадач по Server-Sent Events.
+ * <p>
+ * Заменяет периодический опрос списков: клиент получает события {@code change} о создании, изменении и удалении записей
+ * и перечитывает только затронутые записи. Событие {@code reset} означает, что часть событий пропущена и данные нужно перечитать.
+ */
+@RestController
+@RequestMapping(path = "/api/v1/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+    private final ChangeFeed changeFeed;
+
+    /**
+     * Подключает клиента к ленте изменений.
+     *
+     * @param taskId      Идентификатор задачи: передаются события задачи и ее подзадач; если не указан - все события.
+     * @param status      Статус: передаются события о переходе записей в этот статус и выходе из него и удаления;
+     *                    если не указан - все события.
+     * @param lastEventId Номер последнего полученного события; передается браузером при переподключении.
+     * @return Поток событий.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(name = "taskId", required = false)
+                                Long taskId,
+                                @RequestParam(name = "status", required = false)
+                                TaskStatus status,
+                                @RequestHeader(name = "Last-Event-ID", required = false)
+                                String lastEventId) {
+        return changeFeed.subscribe(taskId, status, lastEventId);
+    }
+}
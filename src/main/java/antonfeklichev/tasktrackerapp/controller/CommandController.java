@@ -0,0 +1,127 @@
+package antonfeklichev.tasktrackerapp.controller;
+
+import antonfeklichev.tasktrackerapp.command.CommandProcessor;
+import antonfeklichev.tasktrackerapp.command.CommandType;
+import antonfeklichev.tasktrackerapp.dto.CommandStatusDto;
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+/**
+ * Контроллер асинхронного приема команд для задач и подзадач.
+ * <p>
+ * Команда сохраняется в журнале и выполняется позже, а клиент сразу получает 202 Accepted со статусом команды и
+ * адресом для его проверки в заголовке {@code Location}. Если очередь команд заполнена, возвращается
+ * 429 Too Many Requests с заголовком {@code Retry-After}. Доступен при {@code task-tracker.commands.enabled=true}.
+ * </p>
+ */
+@RestController
+@RequestMapping(path = "api/v1/commands")
+@ConditionalOnProperty(prefix = "task-tracker.commands", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class CommandController {
+    private final CommandProcessor commandProcessor;
+
+    /**
+     * Принимает команду создания задачи.
+     *
+     * @param newTaskDto DTO с данными новой задачи.
+     * @return ResponseEntity со статусом команды; после выполнения {@code resultId} - идентификатор задачи.
+     */
+    @PostMapping(path = "/task")
+    public ResponseEntity<CommandStatusDto> addTask(@RequestBody NewTaskDto newTaskDto) {
+        return accepted(commandProcessor.submit(CommandType.CREATE_TASK, null, newTaskDto));
+    }
+
+    /**
+     * Принимает команду изменения задачи.
+     *
+     * @param taskId  Идентификатор задачи.
+     * @param taskDto DTO с изменяемыми полями задачи и, при необходимости, ожидаемой версией.
+     * @return ResponseEntity со статусом команды.
+     */
+    @PatchMapping(path = "/task/{taskId}")
+    public ResponseEntity<CommandStatusDto> updateTaskById(@PathVariable(name = "taskId") Long taskId,
+                                                           @RequestBody TaskDto taskDto) {
+        return accepted(commandProcessor.submit(CommandType.UPDATE_TASK, taskId, taskDto));
+    }
+
+    /**
+     * Принимает команду удаления задачи.
+     *
+     * @param taskId Идентификатор задачи.
+     * @return ResponseEntity со статусом команды.
+     */
+    @DeleteMapping(path = "/task/{taskId}")
+    public ResponseEntity<CommandStatusDto> deleteTaskById(@PathVariable(name = "taskId") Long taskId) {
+        return accepted(commandProcessor.submit(CommandType.DELETE_TASK, taskId, null));
+    }
+
+    /**
+     * Принимает команду создания подзадачи.
+     *
+     * @param taskId        Идентификатор основной задачи.
+     * @param newSubTaskDto DTO с данными новой подзадачи.
+     * @return ResponseEntity со статусом команды; после выполнения {@code resultId} - идентификатор подзадачи.
+     */
+    @PostMapping(path = "/subtasks/task/{taskId}")
+    public ResponseEntity<CommandStatusDto> addSubTaskByTaskId(@PathVariable(name = "taskId") Long taskId,
+                                                               @RequestBody NewSubTaskDto newSubTaskDto) {
+        return accepted(commandProcessor.submit(CommandType.CREATE_SUBTASK, taskId, newSubTaskDto));
+    }
+
+    /**
+     * Принимает команду изменения подзадачи.
+     *
+     * @param subTaskId  Идентификатор подзадачи.
+     * @param subTaskDto DTO с изменяемыми полями подзадачи и, при необходимости, ожидаемой версией.
+     * @return ResponseEntity со статусом команды.
+     */
+    @PatchMapping(path = "/subtasks/{subTaskId}")
+    public ResponseEntity<CommandStatusDto> updateSubTaskById(@PathVariable(name = "subTaskId") Long subTaskId,
+                                                              @RequestBody SubTaskDto subTaskDto) {
+        return accepted(commandProcessor.submit(CommandType.UPDATE_SUBTASK, subTaskId, subTaskDto));
+    }
+
+    /**
+     * Принимает команду удаления подзадачи.
+     *
+     * @param subTaskId Идентификатор подзадачи.
+     * @return ResponseEntity со статусом команды.
+     */
+    @DeleteMapping(path = "/subtasks/{subTaskId}")
+    public ResponseEntity<CommandStatusDto> deleteSubTaskById(@PathVariable(name = "subTaskId") Long subTaskId) {
+        return accepted(commandProcessor.submit(CommandType.DELETE_SUBTASK, subTaskId, null));
+    }
+
+    /**
+     * Возвращает статус команды.
+     *
+     * @param commandId Идентификатор команды.
+     * @return ResponseEntity со статусом команды.
+     */
+    @GetMapping(path = "/{commandId}")
+    public ResponseEntity<CommandStatusDto> getCommandStatus(@PathVariable(name = "commandId") String commandId) {
+        return ResponseEntity.ok().body(commandProcessor.getStatus(commandId));
+    }
+
+    private ResponseEntity<CommandStatusDto> accepted(CommandStatusDto status) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/commands/" + status.id()))
+                .body(status);
+    }
+}
@@ -0,0 +1,26 @@
+package antonfeklichev.tasktrackerapp.controller;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+
+/**
+ * Настройки HTTP-кэширования списков задач и подзадач.
+ *
+ * @param maxAge время, в течение которого клиент и промежуточный кэш могут отдавать сохраненный ответ без проверки;
+ *               после него ответ проверяется условным запросом по {@code ETag}. Значение 0 требует проверки каждый раз.
+ */
+@ConfigurationProperties(prefix = "task-tracker.http-cache")
+public record HttpCacheProperties(@DefaultValue("5s") Duration maxAge) {
+
+    /**
+     * @return значение заголовка {@code Cache-Control} для ответов со списками.
+     */
+    public CacheControl listCacheControl() {
+        return maxAge.isZero()
+                ? CacheControl.noCache().cachePublic()
+                : CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+    }
+}
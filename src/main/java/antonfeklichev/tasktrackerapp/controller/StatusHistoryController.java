@@ -0,0 +1,71 @@
+package antonfeklichev.tasktrackerapp.controller;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.StatusStatsDto;
+import antonfeklichev.tasktrackerapp.dto.StatusTransitionDto;
+import antonfeklichev.tasktrackerapp.service.StatusHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Контроллер истории статусов задач и подзадач.
+ * <p>
+ * Время в параметрах передается в формате ISO 8601, например {@code 2024-05-01T00:00:00Z}.
+ */
+@RestController
+@RequestMapping(path = "api/v1/status-history")
+@RequiredArgsConstructor
+public class StatusHistoryController {
+    private final StatusHistoryService statusHistoryService;
+
+    /**
+     * Возвращает изменения статусов задачи и ее подзадач.
+     *
+     * @param taskId Идентификатор задачи.
+     * @param from   Начало интервала включительно.
+     * @param to     Конец интервала исключительно.
+     * @return ResponseEntity содержащий изменения статусов в порядке времени.
+     */
+    @GetMapping(path = "/task/{taskId}")
+    public ResponseEntity<List<StatusTransitionDto>> getTaskTimeline(@PathVariable("taskId")
+                                                                     Long taskId,
+                                                                     @RequestParam(name = "from", required = false)
+                                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                                     Instant from,
+                                                                     @RequestParam(name = "to", required = false)
+                                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                                     Instant to) {
+        return ResponseEntity.ok()
+                .body(statusHistoryService.getTaskTimeline(taskId, from, to));
+    }
+
+    /**
+     * Возвращает статистику переходов по статусам за интервал.
+     *
+     * @param from   Начало интервала включительно.
+     * @param to     Конец интервала исключительно; если не указан - текущий момент.
+     * @param entity Вид записей: {@code TASK} или {@code SUBTASK}; если не указан - все записи.
+     * @return ResponseEntity содержащий статистику в порядке статусов.
+     */
+    @GetMapping(path = "/stats")
+    public ResponseEntity<List<StatusStatsDto>> getStatusStats(@RequestParam(name = "from")
+                                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                               Instant from,
+                                                               @RequestParam(name = "to", required = false)
+                                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                               Instant to,
+                                                               @RequestParam(name = "entity", required = false)
+                                                               ChangeEventDto.Entity entity) {
+        return ResponseEntity.ok()
+                .body(statusHistoryService.getStatusStats(from, to, entity));
+    }
+}
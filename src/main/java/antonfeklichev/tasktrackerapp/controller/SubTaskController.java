@@ -1,14 +1,24 @@
 package antonfeklichev.tasktrackerapp.controller;
 
+import antonfeklichev.tasktrackerapp.cache.ChangeGenerations;
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
 import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeResultDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
 import antonfeklichev.tasktrackerapp.service.SubTaskService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Контроллер предоставляет REST API для создания, получения, обновления и удаления подзадач,
@@ -22,6 +32,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SubTaskController {
     private final SubTaskService subTaskService;
+    private final ChangeGenerations changeGenerations;
+    private final HttpCacheProperties httpCacheProperties;
 
     /**
      * Создает новую подзадачу для заданной задачи.
@@ -40,31 +52,85 @@ public class SubTaskController {
     }
 
     /**
-     * Возвращает подзадачу по ее уникальному идентификатору.
+     * Создает несколько подзадач для заданной задачи одним запросом. Если подзадач больше
+     * {@code task-tracker.batch.max-create-size}, возвращается 400 Bad Request.
+     *
+     * @param taskId Идентификатор основной задачи.
+     * @param newSubTaskDtos Список DTO с данными новых подзадач.
+     * @return ResponseEntity со списком идентификаторов созданных подзадач в порядке передачи.
+     */
+    @PostMapping(path = "/task/{taskId}/bulk")
+    public ResponseEntity<List<Long>> addSubTasksByTaskId(@PathVariable(name = "taskId")
+                                                          Long taskId,
+                                                          @RequestBody
+                                                          List<NewSubTaskDto> newSubTaskDtos) {
+        return ResponseEntity.ok()
+                .body(subTaskService.addSubTasksByTaskId(taskId, newSubTaskDtos));
+    }
+
+    /**
+     * Возвращает подзадачу по ее идентификатору.
+     * <p>
+     * Тег {@code ETag} ответа - версия подзадачи. Если тег из {@code If-None-Match} совпадает с текущей версией,
+     * возвращается 304 Not Modified; для проверки читается только версия подзадачи.
+     * </p>
      *
      * @param subTaskId Идентификатор подзадачи.
-     * @return ResponseEntity с DTO запрашиваемой подзадачи.
+     * @param ifNoneMatch Теги ранее полученных версий подзадачи.
+     * @return ResponseEntity с DTO подзадачи.
      */
     @GetMapping(path = "/{subTaskId}")
-    public ResponseEntity<SubTaskDto> getSubTaskById(@PathVariable(name = "subTaskId") Long subTaskId) {
-
-        return ResponseEntity.ok().body(subTaskService.getSubTaskById(subTaskId));
+    public ResponseEntity<SubTaskDto> getSubTaskById(@PathVariable(name = "subTaskId") Long subTaskId,
+                                                     @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                     String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = subTaskService.findSubTaskVersionById(subTaskId).map(VersionTags::toETag);
+            if (eTag.isPresent() && VersionTags.matches(ifNoneMatch, eTag.get())) {
+                return VersionTags.notModified(eTag.get());
+            }
+        }
+        SubTaskDto subTask = subTaskService.getSubTaskById(subTaskId);
+        return VersionTags.withETag(ResponseEntity.ok(), subTask.version()).body(subTask);
+    }
 
+    /**
+     * Возвращает подзадачи по списку идентификаторов одним запросом.
+     *
+     * @param ids Идентификаторы подзадач, например {@code ?ids=1,2,3}.
+     * @return ResponseEntity с найденными подзадачами и списком ненайденных идентификаторов.
+     */
+    @GetMapping(path = "/batch")
+    public ResponseEntity<BatchLookupDto<SubTaskDto>> getSubTasksByIds(@RequestParam(name = "ids") List<Long> ids) {
+        return ResponseEntity.ok().body(subTaskService.getSubTasksByIds(ids));
     }
 
     /**
-     * Возвращает список подзадач для заданной задачи, отфильтрованных по заданным критериям.
+     * Возвращает страницу подзадач для заданной задачи, отфильтрованных по заданным критериям.
+     * Тег {@code ETag} ответа меняется при любом изменении подзадач; при совпадении с {@code If-None-Match}
+     * возвращается 304 Not Modified без обращения к базе данных. Все критерии передаются в строке запроса,
+     * поэтому ответ может храниться промежуточными кэшами согласно {@link HttpCacheProperties}.
      *
      * @param taskId Идентификатор задачи, для которой запрашиваются подзадачи.
-     * @param filter Фильтры для выборки подзадач.
-     * @return ResponseEntity с списком DTO подзадач.
+     * @param filter Фильтры из строки запроса: {@code status}, {@code name}.
+     * @param page   Параметры страницы из строки запроса: {@code after}, {@code limit}, {@code sort}.
+     * @param ifNoneMatch Теги ранее полученных ответов.
+     * @return ResponseEntity со страницей DTO подзадач и курсором следующей страницы.
      */
     @GetMapping(path = "/task/{taskId}")
-    public ResponseEntity<List<SubTaskDto>> getSubTasksByFilterAndTaskId(@PathVariable(name = "taskId")
-                                                                         Long taskId,
-                                                                         @RequestBody
-                                                                         QueryDslFilterDto filter) {
-        return ResponseEntity.ok().body(subTaskService.getSubTasksByFilterAndTaskId(taskId, filter));
+    public ResponseEntity<CursorPageDto<SubTaskDto>> getSubTasksByFilterAndTaskId(@PathVariable(name = "taskId")
+                                                                                  Long taskId,
+                                                                                  QueryDslFilterDto filter,
+                                                                                  CursorPageRequestDto page,
+                                                                                  @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                                                  String ifNoneMatch) {
+        // Тег вычисляется до чтения: изменение, зафиксированное во время чтения, сделает его устаревшим.
+        String eTag = VersionTags.toETag(changeGenerations.subTasks(taskId), taskId, filter, page);
+        CacheControl cacheControl = httpCacheProperties.listCacheControl();
+        if (VersionTags.matches(ifNoneMatch, eTag)) {
+            return VersionTags.cacheable(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag, cacheControl).build();
+        }
+        return VersionTags.cacheable(ResponseEntity.ok(), eTag, cacheControl)
+                .body(subTaskService.getSubTasksByFilterAndTaskId(taskId, filter, page));
     }
 
     /**
@@ -77,10 +143,31 @@ public class SubTaskController {
     @PatchMapping(path = "/{subTaskId}")
     public ResponseEntity<SubTaskDto> updateSubTaskById(@PathVariable(name = "subTaskId")
                                                         Long subTaskId,
+                                                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+                                                        String ifMatch,
                                                         @RequestBody
                                                         SubTaskDto subTaskDto) {
+        Long version = VersionTags.fromIfMatch(ifMatch);
+        if (version != null) {
+            subTaskDto = new SubTaskDto(subTaskDto.id(), subTaskDto.name(), subTaskDto.description(),
+                    subTaskDto.status(), subTaskDto.taskId(), version);
+        }
+        SubTaskDto updated = subTaskService.updateSubTaskById(subTaskId, subTaskDto);
+        return VersionTags.withETag(ResponseEntity.ok(), updated.version())
+                .body(updated);
+    }
+
+    /**
+     * Переводит выбранные подзадачи в новый статус.
+     *
+     * @param statusChange Критерии выбора подзадач и новый статус.
+     * @return ResponseEntity с количеством измененных подзадач и идентификаторами закрытых задач.
+     */
+    @PatchMapping(path = "/status")
+    public ResponseEntity<SubTaskStatusChangeResultDto> changeSubTaskStatuses(@RequestBody
+                                                                              SubTaskStatusChangeDto statusChange) {
         return ResponseEntity.ok()
-                .body(subTaskService.updateSubTaskById(subTaskId, subTaskDto));
+                .body(subTaskService.changeSubTaskStatuses(statusChange));
     }
 
     /**
@@ -0,0 +1,39 @@
+package antonfeklichev.tasktrackerapp.controller;
+
+import antonfeklichev.tasktrackerapp.dto.SyncPageDto;
+import antonfeklichev.tasktrackerapp.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Контроллер инкрементальной синхронизации задач и подзадач.
+ * <p>
+ * Клиент сохраняет курсор из ответа и передает его в следующем запросе, получая только записи, измененные
+ * или удаленные с прошлой синхронизации. Ответ 410 Gone означает, что курсор устарел и нужна полная синхронизация.
+ */
+@RestController
+@RequestMapping(path = "api/v1/sync")
+@RequiredArgsConstructor
+public class SyncController {
+    private final SyncService syncService;
+
+    /**
+     * Возвращает изменения после курсора.
+     *
+     * @param cursor Курсор из предыдущего ответа; если не указан - все задачи и подзадачи.
+     * @param limit  Желаемый размер страницы.
+     * @return ResponseEntity содержащий страницу изменений.
+     */
+    @GetMapping
+    public ResponseEntity<SyncPageDto> getChanges(@RequestParam(name = "cursor", required = false)
+                                                  String cursor,
+                                                  @RequestParam(name = "limit", required = false)
+                                                  Integer limit) {
+        return ResponseEntity.ok()
+                .body(syncService.getChanges(cursor, limit));
+    }
+}
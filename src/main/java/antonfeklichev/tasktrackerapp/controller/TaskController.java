@@ -1,15 +1,28 @@
 package antonfeklichev.tasktrackerapp.controller;
 
+import antonfeklichev.tasktrackerapp.cache.ChangeGenerations;
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.CreatedTaskDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDetailsDto;
 import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.service.ExportService;
 import antonfeklichev.tasktrackerapp.service.TaskService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Контроллер обеспечивает обработку HTTP запросов для операций CRUD по задачам.
@@ -24,6 +37,9 @@ import java.util.List;
 public class TaskController {
 
     private final TaskService taskService;
+    private final ExportService exportService;
+    private final ChangeGenerations changeGenerations;
+    private final HttpCacheProperties httpCacheProperties;
 
     /**
      * Создает новую задачу на основе данных, предоставленных в теле запроса.
@@ -38,43 +54,143 @@ public class TaskController {
                 .body(taskService.addTask(newTaskDto));
     }
 
+    /**
+     * Создает несколько задач, в том числе с вложенными подзадачами, в одной транзакции. Если задач и подзадач
+     * больше {@code task-tracker.batch.max-create-size}, возвращается 400 Bad Request.
+     *
+     * @param newTaskDtos DTO новых задач.
+     * @return ResponseEntity содержащий идентификаторы созданных задач и подзадач в порядке запроса.
+     */
+    @PostMapping(path = "/bulk")
+    public ResponseEntity<List<CreatedTaskDto>> addTasks(@RequestBody List<NewTaskDto> newTaskDtos) {
+        log.info("Получен запрос на пакетное создание задач: {}", newTaskDtos.size());
+        return ResponseEntity.ok()
+                .body(taskService.addTasks(newTaskDtos));
+    }
+
     /**
      * Возвращает задачу по указанному идентификатору.
+     * <p>
+     * Тег {@code ETag} ответа - версия задачи. Если тег из {@code If-None-Match} совпадает с текущей версией,
+     * возвращается 304 Not Modified; для проверки читается только версия задачи.
+     * </p>
      *
      * @param taskId Идентификатор задачи.
+     * @param ifNoneMatch Теги ранее полученных версий задачи.
      * @return ResponseEntity содержащий DTO задачи.
      */
     @GetMapping(path = "/{taskId}")
-    public ResponseEntity<TaskDto> getTaskById(@PathVariable(name = "taskId") Long taskId) {
-        return ResponseEntity.ok().body(taskService.getTaskById(taskId));
+    public ResponseEntity<TaskDto> getTaskById(@PathVariable(name = "taskId") Long taskId,
+                                               @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                               String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = taskService.findTaskVersionById(taskId).map(VersionTags::toETag);
+            if (eTag.isPresent() && VersionTags.matches(ifNoneMatch, eTag.get())) {
+                return VersionTags.notModified(eTag.get());
+            }
+        }
+        TaskDto task = taskService.getTaskById(taskId);
+        return VersionTags.withETag(ResponseEntity.ok(), task.version()).body(task);
+    }
+
+    /**
+     * Возвращает задачу вместе со всеми подзадачами и количеством подзадач по статусам.
+     * Тег {@code ETag} ответа меняется при любом изменении задач или подзадач; при совпадении с {@code If-None-Match}
+     * возвращается 304 Not Modified без обращения к базе данных.
+     *
+     * @param taskId Идентификатор задачи.
+     * @param ifNoneMatch Теги ранее полученных ответов.
+     * @return ResponseEntity содержащий задачу с подзадачами.
+     */
+    @GetMapping(path = "/{taskId}/details")
+    public ResponseEntity<TaskDetailsDto> getTaskDetailsById(@PathVariable(name = "taskId") Long taskId,
+                                                             @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                             String ifNoneMatch) {
+        String eTag = VersionTags.toETag(changeGenerations.tasks() + "." + changeGenerations.subTasks(taskId), taskId);
+        if (VersionTags.matches(ifNoneMatch, eTag)) {
+            return VersionTags.notModified(eTag);
+        }
+        return ResponseEntity.ok().eTag(eTag).body(taskService.getTaskDetailsById(taskId));
     }
 
     /**
-     * Возвращает список задач, соответствующих заданным фильтрам.
+     * Возвращает задачи по списку идентификаторов одним запросом.
      *
-     * @param filter Фильтры для выборки задач.
-     * @return ResponseEntity содержащий список DTO задач.
+     * @param ids Идентификаторы задач, например {@code ?ids=1,2,3}.
+     * @return ResponseEntity с найденными задачами и списком ненайденных идентификаторов.
+     */
+    @GetMapping(path = "/batch")
+    public ResponseEntity<BatchLookupDto<TaskDto>> getTasksByIds(@RequestParam(name = "ids") List<Long> ids) {
+        return ResponseEntity.ok().body(taskService.getTasksByIds(ids));
+    }
+
+    /**
+     * Возвращает страницу задач, соответствующих заданным фильтрам.
+     * Тег {@code ETag} ответа меняется при любом изменении задач; при совпадении с {@code If-None-Match}
+     * возвращается 304 Not Modified без обращения к базе данных. Все критерии передаются в строке запроса,
+     * поэтому ответ может храниться промежуточными кэшами согласно {@link HttpCacheProperties}.
+     *
+     * @param filter Фильтры из строки запроса: {@code status}, {@code name}.
+     * @param page   Параметры страницы из строки запроса: {@code after}, {@code limit}, {@code sort}.
+     * @param ifNoneMatch Теги ранее полученных ответов.
+     * @return ResponseEntity содержащий страницу DTO задач и курсор следующей страницы.
      */
     @GetMapping
-    public ResponseEntity<List<TaskDto>> getTasksByFilter(@RequestBody QueryDslFilterDto filter) {
+    public ResponseEntity<CursorPageDto<TaskDto>> getTasksByFilter(QueryDslFilterDto filter,
+                                                                   CursorPageRequestDto page,
+                                                                   @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                                   String ifNoneMatch) {
+        // Тег вычисляется до чтения: изменение, зафиксированное во время чтения, сделает его устаревшим.
+        String eTag = VersionTags.toETag(changeGenerations.tasks(), filter, page);
+        CacheControl cacheControl = httpCacheProperties.listCacheControl();
+        if (VersionTags.matches(ifNoneMatch, eTag)) {
+            return VersionTags.cacheable(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag, cacheControl).build();
+        }
+        return VersionTags.cacheable(ResponseEntity.ok(), eTag, cacheControl)
+                .body(taskService.getTasksByFilter(filter, page));
+    }
+
+    /**
+     * Выгружает все задачи вместе с подзадачами в формате NDJSON: по одной задаче на строку.
+     * <p>
+     * Ответ записывается в поток по мере чтения данных из базы, без загрузки всей выгрузки в память.
+     * </p>
+     *
+     * @return ResponseEntity с потоковым телом ответа.
+     */
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks() {
+        log.info("Получен запрос на выгрузку задач");
         return ResponseEntity.ok()
-                .body(taskService.getTasksByFilter(filter));
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportService::exportTasks);
     }
 
     /**
      * Обновляет задачу по указанному идентификатору на основе данных, предоставленных в теле запроса.
      *
+     * Ожидаемая версия передается заголовком {@code If-Match} или полем {@code version}; при несовпадении
+     * возвращается 409 Conflict.
+     *
      * @param taskId Идентификатор задачи для обновления.
+     * @param ifMatch Тег ожидаемой версии задачи, например {@code "3"}.
      * @param taskDto DTO с обновленной информацией о задаче.
-     * @return ResponseEntity содержащий обновленную задачу.
+     * @return ResponseEntity содержащий обновленную задачу и тег ее новой версии.
      */
     @PatchMapping(path = "/{taskId}")
     public ResponseEntity<TaskDto> updateTaskById(@PathVariable(name = "taskId")
                                                   Long taskId,
+                                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+                                                  String ifMatch,
                                                   @RequestBody
                                                   TaskDto taskDto) {
-        return ResponseEntity.ok()
-                .body(taskService.updateTaskById(taskId, taskDto));
+        Long version = VersionTags.fromIfMatch(ifMatch);
+        if (version != null) {
+            taskDto = new TaskDto(taskDto.id(), taskDto.name(), taskDto.description(), taskDto.status(), version);
+        }
+        TaskDto updated = taskService.updateTaskById(taskId, taskDto);
+        return VersionTags.withETag(ResponseEntity.ok(), updated.version())
+                .body(updated);
 
     }
 
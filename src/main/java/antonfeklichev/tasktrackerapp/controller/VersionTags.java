@@ -0,0 +1,134 @@
+package antonfeklichev.tasktrackerapp.controller;
+
+import antonfeklichev.tasktrackerapp.exception.InvalidVersionException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+
+/**
+ * Преобразование версии задачи или подзадачи в значение заголовков {@code ETag} и {@code If-Match} и обратно,
+ * а также проверка условных запросов {@code If-None-Match}.
+ * Версия передается как сильный тег, например {@code "3"}.
+ */
+final class VersionTags {
+
+    private VersionTags() {
+    }
+
+    /**
+     * Добавляет к ответу заголовок {@code ETag} с версией.
+     *
+     * @param response построитель ответа.
+     * @param version  версия; если {@code null}, заголовок не добавляется.
+     * @return тот же построитель ответа.
+     */
+    static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder response, Long version) {
+        return version == null ? response : response.eTag(toETag(version));
+    }
+
+    /**
+     * Возвращает значение заголовка {@code ETag} для версии записи.
+     *
+     * @param version версия.
+     * @return тег в кавычках.
+     */
+    static String toETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Возвращает значение заголовка {@code ETag} для списка: версию списков из
+     * {@link antonfeklichev.tasktrackerapp.cache.ChangeGenerations} и хеш параметров строки запроса.
+     * <p>
+     * Хешируются не исходные строки, а DTO, в которые Spring связал параметры: они не зависят от порядка параметров,
+     * а конструкторы {@link antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto} и
+     * {@link antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto} приводят пустые значения к {@code null} и
+     * удаляют пробелы по краям. Поэтому равнозначные запросы получают один тег и совпадают с {@code If-None-Match}.
+     * </p>
+     *
+     * @param generation версия списков.
+     * @param request    DTO параметров запроса.
+     * @return тег в кавычках.
+     */
+    static String toETag(String generation, Object... request) {
+        return "\"" + generation + "-" + Integer.toHexString(Arrays.hashCode(request)) + "\"";
+    }
+
+    /**
+     * Проверяет, совпадает ли один из тегов заголовка {@code If-None-Match} с текущим тегом.
+     * Теги сравниваются без учета признака слабого тега {@code W/}.
+     *
+     * @param ifNoneMatch значение заголовка, может быть {@code null}.
+     * @param eTag        текущий тег.
+     * @return {@code true}, если клиенту можно ответить 304 Not Modified.
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает ответ 304 Not Modified без тела.
+     *
+     * @param eTag текущий тег.
+     * @param <T>  тип тела ответа.
+     * @return ответ.
+     */
+    static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+
+    /**
+     * Добавляет к ответу со списком тег и заголовки для промежуточных кэшей: {@code Cache-Control} и {@code Vary}.
+     * Ответ 304 Not Modified получает те же заголовки, что и полный ответ.
+     *
+     * @param response     построитель ответа.
+     * @param eTag         тег списка.
+     * @param cacheControl политика кэширования.
+     * @return тот же построитель ответа.
+     */
+    static ResponseEntity.BodyBuilder cacheable(ResponseEntity.BodyBuilder response, String eTag, CacheControl cacheControl) {
+        return response.eTag(eTag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT);
+    }
+
+    /**
+     * Возвращает версию из заголовка {@code If-Match}.
+     *
+     * @param ifMatch значение заголовка, может быть {@code null}.
+     * @return версия или {@code null}, если заголовок отсутствует или равен {@code *}.
+     * @throws InvalidVersionException если значение заголовка не является тегом версии.
+     */
+    static Long fromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new InvalidVersionException("If-Match must be a single version tag such as \"3\"");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidVersionException("If-Match must be a single version tag such as \"3\"");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат пакетного чтения по идентификаторам.
+ *
+ * @param found      найденные DTO в порядке идентификаторов запроса.
+ * @param missingIds идентификаторы, по которым ничего не найдено, в порядке запроса.
+ * @param <T>        тип DTO.
+ */
+public record BatchLookupDto<T>(List<T> found, List<Long> missingIds) {
+
+    public static <T> BatchLookupDto<T> of(List<Long> ids, Map<Long, T> foundById) {
+        List<T> found = new ArrayList<>(foundById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            T dto = foundById.get(id);
+            if (dto != null) {
+                found.add(dto);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchLookupDto<>(found, missingIds);
+    }
+}
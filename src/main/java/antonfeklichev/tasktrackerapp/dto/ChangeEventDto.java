@@ -0,0 +1,51 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+
+/**
+ * Событие изменения задачи или подзадачи в ленте изменений.
+ * <p>
+ * Для задачи {@code taskId} совпадает с {@code id}. Массовая смена статуса подзадач публикуется одним событием
+ * {@link Type#UPDATED} на задачу с {@code id = null}: это не изменение отдельной подзадачи, а указание перечитать
+ * подзадачи этой задачи. Прежний статус в таких событиях, как и при закрытии задач массовой сменой статуса, неизвестен.
+ * </p>
+ *
+ * @param type           вид изменения.
+ * @param entity         вид записи.
+ * @param id             идентификатор записи.
+ * @param taskId         идентификатор задачи, к которой относится запись.
+ * @param status         статус после изменения; для удаления не заполняется.
+ * @param previousStatus статус до изменения для {@link Type#UPDATED}, если известен.
+ * @param version        версия записи после изменения, если известна.
+ */
+public record ChangeEventDto(Type type, Entity entity, Long id, Long taskId, TaskStatus status, TaskStatus previousStatus,
+                             Long version) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public enum Entity {
+        TASK,
+        SUBTASK
+    }
+
+    public static ChangeEventDto task(Type type, Long taskId, TaskStatus status, Long version) {
+        return new ChangeEventDto(type, Entity.TASK, taskId, taskId, status, null, version);
+    }
+
+    public static ChangeEventDto taskUpdated(Long taskId, TaskStatus previousStatus, TaskStatus status, Long version) {
+        return new ChangeEventDto(Type.UPDATED, Entity.TASK, taskId, taskId, status, previousStatus, version);
+    }
+
+    public static ChangeEventDto subTask(Type type, Long subTaskId, Long taskId, TaskStatus status, Long version) {
+        return new ChangeEventDto(type, Entity.SUBTASK, subTaskId, taskId, status, null, version);
+    }
+
+    public static ChangeEventDto subTaskUpdated(Long subTaskId, Long taskId, TaskStatus previousStatus,
+                                                TaskStatus status, Long version) {
+        return new ChangeEventDto(Type.UPDATED, Entity.SUBTASK, subTaskId, taskId, status, previousStatus, version);
+    }
+}
@@ -0,0 +1,20 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import antonfeklichev.tasktrackerapp.command.CommandState;
+import antonfeklichev.tasktrackerapp.command.CommandType;
+
+/**
+ * Статус асинхронной команды.
+ *
+ * @param id       идентификатор команды.
+ * @param type     вид команды.
+ * @param state    состояние команды.
+ * @param resultId идентификатор созданной, измененной или удаленной задачи или подзадачи после выполнения.
+ * @param error    сообщение об ошибке, если команда не выполнена.
+ */
+public record CommandStatusDto(String id, CommandType type, CommandState state, Long resultId, String error) {
+
+    public static CommandStatusDto accepted(String id, CommandType type) {
+        return new CommandStatusDto(id, type, CommandState.ACCEPTED, null, null);
+    }
+}
@@ -0,0 +1,9 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import java.util.List;
+
+/**
+ * Идентификаторы задачи и ее подзадач, созданных пакетным запросом, в порядке их следования в запросе.
+ */
+public record CreatedTaskDto(Long id, List<Long> subTaskIds) {
+}
@@ -0,0 +1,12 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import java.util.List;
+
+/**
+ * Страница результатов выборки.
+ *
+ * @param items элементы страницы.
+ * @param next  курсор следующей страницы или {@code null}, если страница последняя.
+ */
+public record CursorPageDto<T>(List<T> items, String next) {
+}
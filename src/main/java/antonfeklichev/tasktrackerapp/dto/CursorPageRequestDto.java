@@ -0,0 +1,16 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+/**
+ * Параметры запроса страницы.
+ *
+ * @param after непрозрачный курсор, полученный в {@link CursorPageDto#next()} предыдущей страницы;
+ *              пустое значение означает первую страницу.
+ * @param limit желаемый размер страницы; ограничивается максимальным размером, заданным на сервере.
+ * @param sort  порядок выдачи.
+ */
+public record CursorPageRequestDto(String after, Integer limit, TaskSort sort) {
+
+    public CursorPageRequestDto {
+        after = after == null || after.isBlank() ? null : after.strip();
+    }
+}
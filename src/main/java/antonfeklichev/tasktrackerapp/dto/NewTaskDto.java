@@ -2,5 +2,16 @@ package antonfeklichev.tasktrackerapp.dto;
 
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
 
-public record NewTaskDto(String name, String description, TaskStatus status) {
+import java.util.List;
+
+/**
+ * Данные новой задачи.
+ *
+ * @param subTasks подзадачи, создаваемые вместе с задачей при пакетном создании; может отсутствовать.
+ */
+public record NewTaskDto(String name, String description, TaskStatus status, List<NewSubTaskDto> subTasks) {
+
+    public NewTaskDto(String name, String description, TaskStatus status) {
+        this(name, description, status, null);
+    }
 }
@@ -2,6 +2,19 @@ package antonfeklichev.tasktrackerapp.dto;
 
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
 
-
+/**
+ * Критерии фильтрации задач и подзадач; в запросах списков передаются параметрами строки запроса {@code status} и {@code name}.
+ * <p>
+ * Значения приводятся к канонической форме: пробелы по краям имени отбрасываются, пустое имя означает отсутствие
+ * фильтра по имени. Поэтому равнозначные запросы дают равные фильтры, одинаковые результаты и одинаковые теги {@code ETag}.
+ * </p>
+ *
+ * @param status статус.
+ * @param name   подстрока имени без учета регистра.
+ */
 public record QueryDslFilterDto(TaskStatus status, String name) {
+
+    public QueryDslFilterDto {
+        name = name == null || name.isBlank() ? null : name.strip();
+    }
 }
@@ -0,0 +1,15 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+
+/**
+ * Статистика переходов по статусу за интервал времени.
+ *
+ * @param status        статус.
+ * @param entered       количество переходов в статус, включая создание записей с этим статусом.
+ * @param left          количество переходов из статуса.
+ * @param avgSeconds    среднее время в статусе в секундах по переходам из него; {@code null}, если переходов не было.
+ * @param medianSeconds медиана времени в статусе в секундах по переходам из него; {@code null}, если переходов не было.
+ */
+public record StatusStatsDto(TaskStatus status, long entered, long left, Double avgSeconds, Double medianSeconds) {
+}
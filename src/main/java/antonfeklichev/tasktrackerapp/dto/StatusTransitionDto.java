@@ -0,0 +1,20 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+
+import java.time.Instant;
+
+/**
+ * Изменение статуса задачи или подзадачи.
+ *
+ * @param entity                  вид записи.
+ * @param id                      идентификатор записи.
+ * @param taskId                  идентификатор задачи, к которой относится запись.
+ * @param previousStatus          статус до изменения; {@code null} при создании записи.
+ * @param status                  статус после изменения.
+ * @param changedAt               время изменения.
+ * @param secondsInPreviousStatus время в предыдущем статусе в секундах; {@code null} при создании записи.
+ */
+public record StatusTransitionDto(ChangeEventDto.Entity entity, Long id, Long taskId, TaskStatus previousStatus,
+                                  TaskStatus status, Instant changedAt, Integer secondsInPreviousStatus) {
+}
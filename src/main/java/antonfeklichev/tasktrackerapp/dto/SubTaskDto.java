@@ -2,5 +2,14 @@ package antonfeklichev.tasktrackerapp.dto;
 
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
 
-public record SubTaskDto(Long id, String name, String description, TaskStatus status, Long taskId) {
+/**
+ * Данные подзадачи.
+ *
+ * @param version версия подзадачи; при изменении подзадачи, если указана, должна совпадать с текущей.
+ */
+public record SubTaskDto(Long id, String name, String description, TaskStatus status, Long taskId, Long version) {
+
+    public SubTaskDto(Long id, String name, String description, TaskStatus status, Long taskId) {
+        this(id, name, description, status, taskId, null);
+    }
 }
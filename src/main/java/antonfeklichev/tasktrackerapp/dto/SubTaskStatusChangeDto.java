@@ -0,0 +1,24 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+
+import java.util.List;
+
+/**
+ * Запрос на массовую смену статуса подзадач.
+ * <p>
+ * Подзадачи выбираются по списку идентификаторов и (или) по фильтру; хотя бы один из критериев обязателен.
+ * </p>
+ *
+ * @param subTaskIds          идентификаторы подзадач.
+ * @param taskId              ограничивает выборку подзадачами одной задачи.
+ * @param filter              фильтр по статусу и имени подзадач.
+ * @param status              новый статус подзадач.
+ * @param closeCompletedTasks перевести в {@link TaskStatus#DONE} задачи, у которых не осталось незавершенных подзадач.
+ */
+public record SubTaskStatusChangeDto(List<Long> subTaskIds,
+                                     Long taskId,
+                                     QueryDslFilterDto filter,
+                                     TaskStatus status,
+                                     boolean closeCompletedTasks) {
+}
@@ -0,0 +1,12 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import java.util.List;
+
+/**
+ * Результат массовой смены статуса подзадач.
+ *
+ * @param updatedSubTasks количество подзадач, статус которых изменился.
+ * @param closedTaskIds   идентификаторы задач, переведенных в статус DONE.
+ */
+public record SubTaskStatusChangeResultDto(long updatedSubTasks, List<Long> closedTaskIds) {
+}
@@ -0,0 +1,25 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+
+import java.time.Instant;
+
+/**
+ * Измененная или удаленная задача либо подзадача в ответе синхронизации.
+ * <p>
+ * Для задачи {@code taskId} совпадает с {@code id}. У удаленной записи заполнены только вид, идентификаторы,
+ * {@code updatedAt} (время удаления) и {@code changeSeq}.
+ * </p>
+ *
+ * @param entity    вид записи.
+ * @param id        идентификатор записи.
+ * @param taskId    идентификатор задачи, к которой относится запись.
+ * @param createdAt время создания записи.
+ * @param updatedAt время последнего изменения или удаления записи.
+ * @param deleted   {@code true}, если запись удалена.
+ * @param changeSeq номер изменения; возрастает с каждым изменением записи.
+ */
+public record SyncItemDto(ChangeEventDto.Entity entity, Long id, Long taskId, String name, String description,
+                          TaskStatus status, Long version, Instant createdAt, Instant updatedAt, boolean deleted,
+                          long changeSeq) {
+}
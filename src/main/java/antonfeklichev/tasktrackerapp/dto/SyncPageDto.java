@@ -0,0 +1,14 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import java.util.List;
+
+/**
+ * Страница изменений для синхронизации.
+ *
+ * @param items   изменения в порядке номеров изменений; запись может повторяться в следующих ответах,
+ *                клиент заменяет ее по {@code version}.
+ * @param cursor  непрозрачный курсор для следующего запроса; клиент сохраняет его после применения изменений.
+ * @param hasMore {@code true}, если следующую страницу нужно запросить сразу.
+ */
+public record SyncPageDto(List<SyncItemDto> items, String cursor, boolean hasMore) {
+}
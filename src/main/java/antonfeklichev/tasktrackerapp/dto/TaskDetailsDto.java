@@ -0,0 +1,16 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Задача вместе со всеми подзадачами для отображения страницы задачи.
+ *
+ * @param task         задача.
+ * @param subTasks     подзадачи задачи в порядке идентификаторов.
+ * @param statusCounts количество подзадач по каждому статусу, включая нулевые.
+ */
+public record TaskDetailsDto(TaskDto task, List<SubTaskDto> subTasks, Map<TaskStatus, Long> statusCounts) {
+}
@@ -2,5 +2,14 @@ package antonfeklichev.tasktrackerapp.dto;
 
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
 
-public record TaskDto(Long id, String name, String description, TaskStatus status) {
+/**
+ * Данные задачи.
+ *
+ * @param version версия задачи; при изменении задачи, если указана, должна совпадать с текущей.
+ */
+public record TaskDto(Long id, String name, String description, TaskStatus status, Long version) {
+
+    public TaskDto(Long id, String name, String description, TaskStatus status) {
+        this(id, name, description, status, null);
+    }
 }
@@ -0,0 +1,8 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+
+import java.util.List;
+
+public record TaskExportDto(Long id, String name, String description, TaskStatus status, List<SubTaskDto> subTasks) {
+}
@@ -0,0 +1,13 @@
+package antonfeklichev.tasktrackerapp.dto;
+
+/**
+ * Порядок выдачи задач и подзадач при постраничной выборке.
+ * <ul>
+ *   <li>{@code ID} - по идентификатору.</li>
+ *   <li>{@code STATUS} - по статусу, а внутри статуса по идентификатору.</li>
+ * </ul>
+ */
+public enum TaskSort {
+    ID,
+    STATUS
+}
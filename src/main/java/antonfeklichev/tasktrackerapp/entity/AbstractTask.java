@@ -0,0 +1,78 @@
+package antonfeklichev.tasktrackerapp.entity;
+
+import antonfeklichev.tasktrackerapp.cache.DtoCacheEntityListener;
+import antonfeklichev.tasktrackerapp.idgenerator.TaskIdGenerator;
+import antonfeklichev.tasktrackerapp.search.NameIndexEntityListener;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+
+/**
+ * Общие атрибуты задач и подзадач.
+ * <p>
+ * Класс отображается как {@link MappedSuperclass}, а не как корень иерархии наследования, поэтому
+ * запросы к {@link Task} обращаются только к таблице "tasks" и не объединяют ее с таблицей "subtasks".
+ * </p>
+ * <p>
+ * Идентификатор выдается {@link TaskIdGenerator} из общей последовательности и уникален одновременно
+ * для задач и подзадач.
+ * </p>
+ * <p>
+ * Изменения имен передаются в индекс поиска через {@link NameIndexEntityListener}.
+ * </p>
+ * <p>
+ * Поле {@code version} увеличивается при каждом изменении задачи или подзадачи и используется для условного обновления:
+ * изменение, основанное на устаревшей версии, отклоняется.
+ * </p>
+ * <p>
+ * Время создания и изменения и номер изменения хранятся в столбцах {@code created_at}, {@code updated_at} и
+ * {@code change_seq}, которые заполняются триггерами базы данных и читаются для синхронизации через
+ * {@code ChangeLogRepository}. В сущности только для чтения отображается {@code change_seq}: по нему фильтр по имени
+ * находит записи, измененные после построения индекса поиска.
+ * </p>
+ *
+ */
+@MappedSuperclass
+@EntityListeners({NameIndexEntityListener.class, DtoCacheEntityListener.class})
+@Getter
+@Setter
+@NoArgsConstructor
+@SuperBuilder
+public abstract class AbstractTask {
+    @Id
+    @GeneratedValue(generator = "task_id")
+    @GenericGenerator(name = "task_id",
+            type = TaskIdGenerator.class,
+            parameters = {
+                    @Parameter(name = TaskIdGenerator.SEQUENCE_PARAM, value = "task_id_seq"),
+                    @Parameter(name = TaskIdGenerator.OPT_PARAM, value = "pooled-lo")
+            })
+    @Column(name = "id")
+    private Long id;
+    @Column(name = "name")
+    private String name;
+    @Column(name = "description")
+    private String description;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private TaskStatus status;
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private long version;
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private long changeSeq;
+
+    protected AbstractTask(Long id, String name, String description, TaskStatus status) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.status = status;
+    }
+
+}
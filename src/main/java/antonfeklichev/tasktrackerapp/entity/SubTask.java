@@ -3,32 +3,47 @@ package antonfeklichev.tasktrackerapp.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 /**
  * Сущность представляющая подзадачу.
  * <p>
- * Каждая подзадача является расширением основной задачи и хранится в таблице "subtasks".
- * Эта сущность наследует основные атрибуты задачи, такие как идентификатор, название, описание и статус,
+ * Каждая подзадача хранится в таблице "subtasks".
+ * Эта сущность наследует от {@link AbstractTask} основные атрибуты, такие как идентификатор, название, описание и статус,
  * и добавляет связь с родительской задачей.
  * </p>
  * <p>
  * Связь с родительской задачей реализована через {@link Task}, при этом подзадача ссылается на задачу
- * с помощью внешнего ключа {@code task_id}. Это позволяет организовать иерархическую структуру задач
- * в приложении.
+ * с помощью внешнего ключа {@code task_id}. При удалении задачи ее подзадачи удаляются каскадно
+ * на уровне базы данных.
+ * </p>
+ * <p>
+ * Подзадачи кэшируются в кэше второго уровня Hibernate, если он включен профилем {@code l2cache}. Запись кэша хранит
+ * идентификатор родительской задачи, поэтому ссылка на задачу восстанавливается без запроса к таблице подзадач.
  * </p>
  *
  */
 @Entity
-@Table(name = "subtasks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "subtasks",
+        indexes = {
+                @Index(name = "subtasks_task_id_id_idx", columnList = "task_id, id"),
+                @Index(name = "subtasks_task_id_status_id_idx", columnList = "task_id, status, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
-public class SubTask extends Task {
+public class SubTask extends AbstractTask {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "task_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Task task;
 
     public SubTask(Long id, String name, String description, TaskStatus status, Task task) {
@@ -36,4 +51,14 @@ public class SubTask extends Task {
         this.task = task;
     }
 
+    /**
+     * Незавершенной считается подзадача со статусом, отличным от {@link TaskStatus#DONE}.
+     * Подзадачи без статуса не учитываются, как и в SQL-сравнении {@code status <> 'DONE'}.
+     *
+     * @return {@code true}, если подзадача учитывается в счетчике незавершенных подзадач задачи.
+     */
+    public boolean isOpen() {
+        return getStatus() != null && getStatus() != TaskStatus.DONE;
+    }
+
 }
@@ -1,43 +1,52 @@
 package antonfeklichev.tasktrackerapp.entity;
 
+import antonfeklichev.tasktrackerapp.existence.TaskIdFilterEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 
 /**
  * Сущность, представляющая задачу.
  * <p>
- * Эта сущность сохраняется в таблице "tasks" и использует стратегию наследования TABLE_PER_CLASS,
- * что означает, что каждый класс-наследник будет иметь свою собственную таблицу в базе данных.
+ * Эта сущность сохраняется в таблице "tasks". Общие с подзадачей атрибуты объявлены в {@link AbstractTask},
+ * при этом задача не является корнем полиморфной иерархии: запросы к задачам не затрагивают таблицу подзадач.
  * </p>
  * <p>
  * Основные атрибуты задачи включают идентификатор, название, описание и статус.
  * Статус задачи представлен перечислением {@link TaskStatus}, что позволяет управлять
  * жизненным циклом задачи.
  * </p>
+ * <p>
+ * Поле {@code openSubTaskCount} хранит количество незавершенных подзадач. Оно не записывается при сохранении сущности
+ * и изменяется только атомарными запросами {@code TaskRepository}, поэтому параллельные изменения задачи его не затирают.
+ * </p>
+ * <p>
+ * Задачи кэшируются в кэше второго уровня Hibernate, если он включен профилем {@code l2cache}.
+ * </p>
  *
  */
 @Entity
-@Table(name = "tasks")
-@Inheritance(strategy = InheritanceType.TABLE_PER_CLASS)
+@EntityListeners(TaskIdFilterEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "tasks",
+        indexes = @Index(name = "tasks_status_id_idx", columnList = "status, id"))
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 @SuperBuilder
-public class Task {
-    @Id
-    @GeneratedValue(strategy = GenerationType.TABLE)
-    @Column(name = "id")
-    private Long id;
-    @Column(name = "name")
-    private String name;
-    @Column(name = "description")
-    private String description;
-    @Enumerated(EnumType.STRING)
-    @Column(name = "status")
-    private TaskStatus status;
+public class Task extends AbstractTask {
+
+    @Column(name = "open_subtask_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private int openSubTaskCount;
 
+    public Task(Long id, String name, String description, TaskStatus status) {
+        super(id, name, description, status);
+    }
 
 }
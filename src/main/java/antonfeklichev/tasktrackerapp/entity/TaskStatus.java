@@ -9,6 +9,10 @@ package antonfeklichev.tasktrackerapp.entity;
  *   <li>{@code IN_PROGRESS} - Задача в процессе выполнения.</li>
  *   <li>{@code DONE} - Задача выполнена.</li>
  * </ul>
+ * <p>
+ * В истории статусов статусы хранятся порядковыми номерами, поэтому новые статусы добавляются в конец перечисления,
+ * а функция {@code status_code} в {@code db/status-history.sql} изменяется вместе с ним.
+ * </p>
  */
 public enum TaskStatus {
     NEW,
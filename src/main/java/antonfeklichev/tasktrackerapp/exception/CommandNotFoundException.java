@@ -0,0 +1,11 @@
+package antonfeklichev.tasktrackerapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class CommandNotFoundException extends RuntimeException {
+    public CommandNotFoundException(String msg) {
+        super(msg);
+    }
+}
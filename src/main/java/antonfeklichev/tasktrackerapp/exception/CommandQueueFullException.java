@@ -0,0 +1,11 @@
+package antonfeklichev.tasktrackerapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class CommandQueueFullException extends RuntimeException {
+    public CommandQueueFullException(String msg) {
+        super(msg);
+    }
+}
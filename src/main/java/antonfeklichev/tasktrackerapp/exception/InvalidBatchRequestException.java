@@ -0,0 +1,11 @@
+package antonfeklichev.tasktrackerapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBatchRequestException extends RuntimeException {
+    public InvalidBatchRequestException(String msg) {
+        super(msg);
+    }
+}
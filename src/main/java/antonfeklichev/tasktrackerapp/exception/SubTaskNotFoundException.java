@@ -3,9 +3,16 @@ package antonfeklichev.tasktrackerapp.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Запрошенная подзадача не найдена.
+ * <p>
+ * Исключение не сохраняет трассировку стека: оно описывает ожидаемый ответ 404, а не ошибку в коде, и при потоке
+ * запросов к удаленным идентификаторам заполнение трассировки заметно нагружает процессор.
+ * </p>
+ */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class SubTaskNotFoundException extends RuntimeException {
     public SubTaskNotFoundException(String msg) {
-        super(msg);
+        super(msg, null, false, false);
     }
 }
@@ -0,0 +1,11 @@
+package antonfeklichev.tasktrackerapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class SyncCursorExpiredException extends RuntimeException {
+    public SyncCursorExpiredException(String msg) {
+        super(msg);
+    }
+}
@@ -1,5 +1,7 @@
 package antonfeklichev.tasktrackerapp.exception;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestController;
@@ -30,4 +32,51 @@ public class TaskTrackerAppExceptionHandler {
         return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
     }
 
+    @ExceptionHandler
+    ResponseEntity<ErrorResponse> handleInvalidPageRequestException(InvalidPageRequestException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler
+    ResponseEntity<ErrorResponse> handleInvalidStatusChangeException(InvalidStatusChangeException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler
+    ResponseEntity<ErrorResponse> handleInvalidBatchRequestException(InvalidBatchRequestException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler
+    ResponseEntity<ErrorResponse> handleInvalidVersionException(InvalidVersionException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler
+    ResponseEntity<ErrorResponse> handleInvalidTimeWindowException(InvalidTimeWindowException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler
+    ResponseEntity<ErrorResponse> handleVersionConflictException(VersionConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler
+    ResponseEntity<ErrorResponse> handleSyncCursorExpiredException(SyncCursorExpiredException e) {
+        return ResponseEntity.status(HttpStatus.GONE).body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler
+    ResponseEntity<ErrorResponse> handleCommandQueueFullException(CommandQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler
+    ResponseEntity<ErrorResponse> handleCommandNotFoundException(CommandNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+    }
+
 }
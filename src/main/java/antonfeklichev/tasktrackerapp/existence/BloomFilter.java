@@ -0,0 +1,90 @@
+package antonfeklichev.tasktrackerapp.existence;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума для идентификаторов типа {@code long}.
+ * <p>
+ * Отрицательный ответ {@link #mightContain(long)} точен: добавленный идентификатор всегда найдется. Положительный ответ
+ * может быть ложным с вероятностью, заданной при создании; при добавлении большего числа идентификаторов, чем ожидалось,
+ * эта вероятность растет. Удаление не поддерживается.
+ * </p>
+ * Номера битов вычисляются двойным хешированием из двух независимых перемешиваний идентификатора.
+ * Класс потокобезопасен и не использует блокировок.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions ожидаемое количество идентификаторов.
+     * @param falsePositiveRate  допустимая доля ложноположительных ответов при ожидаемом количестве идентификаторов.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = Math.toIntExact((optimalBits + Long.SIZE - 1) / Long.SIZE);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Добавляет идентификатор.
+     */
+    public void put(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words.get(word) & mask) == 0) {
+                words.accumulateAndGet(word, mask, (current, added) -> current | added);
+            }
+        }
+    }
+
+    /**
+     * Проверяет, мог ли идентификатор быть добавлен.
+     *
+     * @return {@code false}, если идентификатор точно не добавлялся.
+     */
+    public boolean mightContain(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return размер фильтра в битах.
+     */
+    public long bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Финальное перемешивание MurmurHash3: соседние идентификаторы дают независимые хеши.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
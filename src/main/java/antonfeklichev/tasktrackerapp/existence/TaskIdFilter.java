@@ -0,0 +1,81 @@
+package antonfeklichev.tasktrackerapp.existence;
+
+import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Фильтр Блума идентификаторов существующих задач, отклоняющий заведомо несуществующие идентификаторы
+ * без обращения к базе данных.
+ * <p>
+ * Фильтр заполняется при старте приложения и затем пополняется {@link TaskIdFilterEntityListener} при сохранении
+ * каждой новой задачи, еще до фиксации транзакции: откат оставляет в фильтре лишний идентификатор, но зафиксированная
+ * задача не может в нем отсутствовать. Удаленные задачи остаются в фильтре и проверяются в базе данных.
+ * Пока фильтр не заполнен, все идентификаторы считаются возможно существующими.
+ * </p>
+ * Задачи, созданные другими экземплярами приложения или в обход JPA, фильтру неизвестны, поэтому он рассчитан на запуск
+ * одного экземпляра, как и кэши DTO и счетчики изменений.
+ */
+@Component
+@Slf4j
+public class TaskIdFilter {
+
+    private final TaskRepository taskRepository;
+    private final TaskIdFilterProperties properties;
+    private final BloomFilter filter;
+
+    private volatile boolean ready;
+
+    public TaskIdFilter(TaskRepository taskRepository, TaskIdFilterProperties properties) {
+        this.taskRepository = taskRepository;
+        this.properties = properties;
+        this.filter = new BloomFilter(properties.expectedTasks(), properties.falsePositiveRate());
+    }
+
+    /**
+     * Добавляет в фильтр идентификаторы всех задач.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!properties.enabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        AtomicLong loaded = new AtomicLong();
+        try (Stream<Long> taskIds = taskRepository.streamIds()) {
+            taskIds.forEach(taskId -> {
+                filter.put(taskId);
+                loaded.incrementAndGet();
+            });
+        }
+        ready = true;
+        log.info("Фильтр идентификаторов задач заполнен за {} мс: задач {}, размер {} бит.",
+                System.currentTimeMillis() - start, loaded.get(), filter.bitCount());
+    }
+
+    public void add(Long taskId) {
+        if (properties.enabled() && taskId != null) {
+            filter.put(taskId);
+        }
+    }
+
+    /**
+     * Проверяет, может ли существовать задача с идентификатором.
+     *
+     * @param taskId идентификатор задачи.
+     * @return {@code false}, если задачи с таким идентификатором точно нет.
+     */
+    public boolean mightExist(Long taskId) {
+        if (taskId == null) {
+            return false;
+        }
+        return !properties.enabled() || !ready || filter.mightContain(taskId);
+    }
+}
@@ -0,0 +1,26 @@
+package antonfeklichev.tasktrackerapp.existence;
+
+import antonfeklichev.tasktrackerapp.entity.Task;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Передает идентификаторы новых задач в {@link TaskIdFilter}.
+ * <p>
+ * Идентификатор добавляется сразу после вставки строки, а не после фиксации: иначе между фиксацией и добавлением
+ * создание подзадачи для новой задачи было бы отклонено.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskIdFilterEntityListener {
+
+    private final ObjectProvider<TaskIdFilter> taskIdFilter;
+
+    @PostPersist
+    public void onPersist(Task task) {
+        taskIdFilter.getObject().add(task.getId());
+    }
+}
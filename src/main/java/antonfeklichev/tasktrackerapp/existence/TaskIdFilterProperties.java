@@ -0,0 +1,17 @@
+package antonfeklichev.tasktrackerapp.existence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки фильтра идентификаторов существующих задач.
+ *
+ * @param enabled           использовать ли фильтр; если выключен, существование задачи всегда проверяется в базе данных.
+ * @param expectedTasks     ожидаемое количество задач, по которому рассчитывается размер фильтра.
+ * @param falsePositiveRate доля несуществующих идентификаторов, которые фильтр пропускает к базе данных.
+ */
+@ConfigurationProperties(prefix = "task-tracker.task-id-filter")
+public record TaskIdFilterProperties(@DefaultValue("true") boolean enabled,
+                                     @DefaultValue("1000000") long expectedTasks,
+                                     @DefaultValue("0.01") double falsePositiveRate) {
+}
@@ -0,0 +1,319 @@
+package antonfeklichev.tasktrackerapp.feed;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.transaction.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Лента изменений задач и подзадач, передаваемая подписчикам по Server-Sent Events.
+ * <p>
+ * Сервисы публикуют события после фиксации транзакции. Каждое событие получает номер и попадает в кольцевой буфер
+ * последних {@code historySize} событий, а также в очереди подходящих подписчиков. Подписчики с фильтром по задаче
+ * хранятся отдельно по идентификатору задачи, поэтому событие не проверяется на всех подключениях.
+ * </p>
+ * <p>
+ * Подключения не занимают потоков: запрос переводится в асинхронный режим, а события отправляет общий пул из
+ * {@code dispatchThreads} потоков. Очередь подписчика ограничена {@code bufferSize}; подписчик, который не успевает
+ * получать события, отключается и может переподключиться с заголовком {@code Last-Event-ID}. Если пропущенных событий
+ * уже нет в буфере или номер относится к предыдущему запуску приложения, подписчик получает событие {@code reset}
+ * и должен перечитать данные.
+ * </p>
+ * Номер события имеет вид {@code <запуск>-<номер>}; лента хранится в памяти экземпляра и рассчитана на запуск одного экземпляра.
+ */
+@Component
+@Slf4j
+public class ChangeFeed {
+
+    private final ChangeFeedProperties properties;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final Object lock = new Object();
+    private final FeedRecord[] history;
+    private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> byTask = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService dispatcher;
+    private final Counter evicted;
+
+    private long sequence;
+
+    public ChangeFeed(ChangeFeedProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.history = new FeedRecord[properties.historySize()];
+        AtomicInteger threads = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(properties.dispatchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("change.feed.subscribers", subscribers, AtomicInteger::get)
+                .description("Подключенные подписчики ленты изменений")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("change.feed.evicted")
+                .description("Подписчики, отключенные из-за переполнения очереди")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Публикует событие после фиксации текущей транзакции; при откате событие не публикуется.
+     *
+     * @param event событие.
+     */
+    public void publish(ChangeEventDto event) {
+        publishAll(List.of(event));
+    }
+
+    /**
+     * Публикует события после фиксации текущей транзакции в порядке следования.
+     *
+     * @param events события.
+     */
+    public void publishAll(Collection<ChangeEventDto> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<ChangeEventDto> published = List.copyOf(events);
+        TransactionCallbacks.afterCommit(() -> published.forEach(this::append));
+    }
+
+    /**
+     * Подключает подписчика.
+     *
+     * @param taskId      идентификатор задачи, события которой и ее подзадач нужны подписчику, или {@code null}.
+     * @param status      статус, в который или из которого перешли записи нужных событий, или {@code null}.
+     * @param lastEventId номер последнего полученного события при переподключении или {@code null}.
+     * @return подключение для ответа контроллера.
+     */
+    public SseEmitter subscribe(Long taskId, TaskStatus status, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, taskId, status, properties.bufferSize());
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+
+        synchronized (lock) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            if (subscriber.isIdle()) {
+                // Заголовки ответа отправляются с первой записью, поэтому клиент сразу видит установленное подключение.
+                subscriber.offer(new FeedRecord(sequence, FeedRecord.Kind.HEARTBEAT, null));
+            }
+            register(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * @return номер последнего опубликованного события.
+     */
+    public String lastEventId() {
+        synchronized (lock) {
+            return eventId(sequence);
+        }
+    }
+
+    /**
+     * Отправляет комментарий простаивающим подписчикам; ошибка отправки отключает разорванные подключения.
+     */
+    @Scheduled(initialDelayString = "${task-tracker.change-feed.heartbeat}",
+            fixedDelayString = "${task-tracker.change-feed.heartbeat}")
+    public void heartbeat() {
+        long current;
+        synchronized (lock) {
+            current = sequence;
+        }
+        forEachSubscriber(subscriber -> {
+            if (subscriber.isIdle() && subscriber.offer(new FeedRecord(current, FeedRecord.Kind.HEARTBEAT, null))) {
+                schedule(subscriber);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        forEachSubscriber(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void append(ChangeEventDto event) {
+        List<Subscriber> overflowed = new ArrayList<>();
+        synchronized (lock) {
+            FeedRecord record = new FeedRecord(++sequence, FeedRecord.Kind.EVENT, event);
+            history[(int) (record.sequence() % history.length)] = record;
+            deliver(record, unfiltered, overflowed);
+            Set<Subscriber> taskSubscribers = event.taskId() == null ? null : byTask.get(event.taskId());
+            if (taskSubscribers != null) {
+                deliver(record, taskSubscribers, overflowed);
+            }
+        }
+        overflowed.forEach(this::evict);
+    }
+
+    private void deliver(FeedRecord record, Set<Subscriber> candidates, List<Subscriber> overflowed) {
+        for (Subscriber subscriber : candidates) {
+            if (!subscriber.matches(record.event())) {
+                continue;
+            }
+            if (subscriber.offer(record)) {
+                schedule(subscriber);
+            } else {
+                overflowed.add(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Ставит в очередь подписчика события, пропущенные после {@code lastEventId}, или {@code reset}, если их не восстановить.
+     * Вызывается под блокировкой до регистрации подписчика, поэтому события не теряются и не повторяются.
+     */
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long last = parseSequence(lastEventId);
+        long oldest = Math.max(1, sequence - history.length + 1);
+        List<FeedRecord> missed = new ArrayList<>();
+        if (last >= 0 && last <= sequence && last + 1 >= oldest) {
+            for (long next = last + 1; next <= sequence; next++) {
+                FeedRecord record = history[(int) (next % history.length)];
+                if (subscriber.matches(record.event())) {
+                    missed.add(record);
+                }
+            }
+        }
+        if (last < 0 || last > sequence || last + 1 < oldest || missed.size() > properties.bufferSize()) {
+            log.debug("Лента изменений не может быть продолжена с события {}, подписчику отправлен reset.", lastEventId);
+            subscriber.offer(new FeedRecord(sequence, FeedRecord.Kind.RESET, null));
+            return;
+        }
+        missed.forEach(subscriber::offer);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.startDrain()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.finishDrain();
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            FeedRecord record;
+            while ((record = subscriber.poll()) != null) {
+                subscriber.emitter.send(toSseEvent(record));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Подписчик ленты изменений отключился: {}", e.getMessage());
+            unregister(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        }
+        if (subscriber.finishDrain()) {
+            schedule(subscriber);
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSseEvent(FeedRecord record) {
+        return switch (record.kind()) {
+            case EVENT -> SseEmitter.event()
+                    .id(eventId(record.sequence()))
+                    .name("change")
+                    .data(record.event(), MediaType.APPLICATION_JSON);
+            case RESET -> SseEmitter.event()
+                    .id(eventId(record.sequence()))
+                    .name("reset")
+                    .data("");
+            case HEARTBEAT -> SseEmitter.event().comment("heartbeat");
+        };
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (unregister(subscriber)) {
+            evicted.increment();
+            log.debug("Подписчик ленты изменений отключен: переполнена очередь из {} событий.", properties.bufferSize());
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void register(Subscriber subscriber) {
+        if (subscriber.taskId == null) {
+            unfiltered.add(subscriber);
+        } else {
+            byTask.computeIfAbsent(subscriber.taskId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        subscribers.incrementAndGet();
+    }
+
+    /**
+     * Удаляет подписчика; выполняется под блокировкой, чтобы пустое множество подписчиков задачи не было удалено
+     * одновременно с добавлением в него нового подписчика.
+     *
+     * @return {@code true}, если подписчик был зарегистрирован.
+     */
+    private boolean unregister(Subscriber subscriber) {
+        synchronized (lock) {
+            boolean removed;
+            if (subscriber.taskId == null) {
+                removed = unfiltered.remove(subscriber);
+            } else {
+                Set<Subscriber> taskSubscribers = byTask.get(subscriber.taskId);
+                removed = taskSubscribers != null && taskSubscribers.remove(subscriber);
+                if (taskSubscribers != null && taskSubscribers.isEmpty()) {
+                    byTask.remove(subscriber.taskId);
+                }
+            }
+            if (removed) {
+                subscribers.decrementAndGet();
+            }
+            return removed;
+        }
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        unfiltered.forEach(action);
+        byTask.values().forEach(taskSubscribers -> taskSubscribers.forEach(action));
+    }
+
+    private String eventId(long eventSequence) {
+        return epoch + "-" + eventSequence;
+    }
+
+    /**
+     * @return номер события или {@code -1}, если номер не разобран или относится к другому запуску приложения.
+     */
+    private long parseSequence(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package antonfeklichev.tasktrackerapp.feed;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки ленты изменений задач и подзадач.
+ *
+ * @param bufferSize      количество неотправленных событий одного подписчика; при переполнении подписчик отключается.
+ * @param historySize     количество последних событий, с которых можно продолжить ленту по {@code Last-Event-ID}.
+ * @param timeout         время жизни подключения, после которого клиент переподключается.
+ * @param heartbeat       интервал комментариев, по которым обнаруживаются разорванные подключения.
+ * @param dispatchThreads количество потоков, отправляющих события всем подписчикам.
+ */
+@ConfigurationProperties(prefix = "task-tracker.change-feed")
+public record ChangeFeedProperties(@DefaultValue("256") int bufferSize,
+                                   @DefaultValue("10000") int historySize,
+                                   @DefaultValue("30m") Duration timeout,
+                                   @DefaultValue("30s") Duration heartbeat,
+                                   @DefaultValue("4") int dispatchThreads) {
+}
@@ -0,0 +1,28 @@
+package antonfeklichev.tasktrackerapp.feed;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+
+/**
+ * Запись ленты изменений.
+ *
+ * @param sequence номер записи; номер события или последнего события на момент служебной записи.
+ * @param kind     вид записи.
+ * @param event    событие для записей {@link Kind#EVENT}.
+ */
+record FeedRecord(long sequence, Kind kind, ChangeEventDto event) {
+
+    enum Kind {
+        /**
+         * Изменение задачи или подзадачи.
+         */
+        EVENT,
+        /**
+         * Пропущенные события недоступны; клиент должен перечитать данные.
+         */
+        RESET,
+        /**
+         * Комментарий для проверки подключения.
+         */
+        HEARTBEAT
+    }
+}
@@ -0,0 +1,93 @@
+package antonfeklichev.tasktrackerapp.feed;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Подписчик ленты изменений: подключение, условия отбора событий и ограниченная очередь неотправленных событий.
+ */
+final class Subscriber {
+
+    final SseEmitter emitter;
+    final Long taskId;
+    final TaskStatus status;
+
+    private final int capacity;
+    private final Queue<FeedRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    Subscriber(SseEmitter emitter, Long taskId, TaskStatus status, int capacity) {
+        this.emitter = emitter;
+        this.taskId = taskId;
+        this.status = status;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Проверяет условия подписки. По статусу отбираются события, в которых запись перешла в этот статус или вышла
+     * из него, чтобы клиент убрал запись из отфильтрованного списка. Удаления и изменения с неизвестным прежним
+     * статусом, в том числе массовые, передаются независимо от статуса.
+     */
+    boolean matches(ChangeEventDto event) {
+        return (taskId == null || taskId.equals(event.taskId()))
+               && (status == null || matchesStatus(event));
+    }
+
+    private boolean matchesStatus(ChangeEventDto event) {
+        return switch (event.type()) {
+            case CREATED -> status == event.status();
+            case UPDATED -> event.previousStatus() == null || status == event.status() || status == event.previousStatus();
+            case DELETED -> true;
+        };
+    }
+
+    /**
+     * Добавляет запись в очередь.
+     *
+     * @return {@code false}, если очередь заполнена.
+     */
+    boolean offer(FeedRecord record) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        queue.add(record);
+        return true;
+    }
+
+    FeedRecord poll() {
+        FeedRecord record = queue.poll();
+        if (record != null) {
+            size.decrementAndGet();
+        }
+        return record;
+    }
+
+    boolean isIdle() {
+        return size.get() == 0;
+    }
+
+    /**
+     * Захватывает право отправки событий подписчика, чтобы их отправлял только один поток и в порядке очереди.
+     */
+    boolean startDrain() {
+        return draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Освобождает право отправки.
+     *
+     * @return {@code true}, если за время отправки в очереди появились новые события.
+     */
+    boolean finishDrain() {
+        draining.set(false);
+        return !queue.isEmpty();
+    }
+}
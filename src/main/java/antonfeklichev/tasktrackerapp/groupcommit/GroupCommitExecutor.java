@@ -0,0 +1,209 @@
+package antonfeklichev.tasktrackerapp.groupcommit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Групповая фиксация изменений: изменения, поступившие одновременно из разных запросов, выполняются в одной
+ * транзакции, поэтому на пакет приходится одна фиксация и одна запись журнала базы данных вместо фиксации на каждый запрос.
+ * <p>
+ * Вызывающий поток ставит изменение в очередь и ожидает фиксации пакета. Поток фиксации берет из очереди до
+ * {@code maxBatchSize} изменений, ожидая следующие не дольше {@code maxDelay} после первого, и выполняет их по порядку.
+ * Исключение приложения, например конфликт версий, становится результатом только своего изменения. Если изменение
+ * привело к ошибке базы данных или пометило транзакцию для отката, либо фиксация не удалась, пакет откатывается и каждое
+ * изменение выполняется вызывающим потоком в отдельной транзакции, как без групповой фиксации.
+ * </p>
+ * <p>
+ * Изменения пакета выполняются в порядке ключей блокировки - идентификаторов строк, которые изменения блокируют первыми.
+ * Поэтому пакеты, одновременно фиксируемые разными потоками, блокируют общие строки в одном порядке и не образуют
+ * взаимных блокировок. Изменения одного вызывающего потока не попадают в один пакет, так как каждое ожидает фиксации.
+ * </p>
+ * <p>
+ * Изменение, вызванное внутри транзакции, выполняется сразу в ней. Действия после фиксации, зарегистрированные
+ * изменениями через {@code TransactionCallbacks}, выполняются после фиксации пакета.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "task-tracker.group-commit", name = "enabled", havingValue = "true")
+@Slf4j
+public class GroupCommitExecutor {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final Comparator<PendingWrite<?>> LOCK_ORDER =
+            Comparator.comparing(PendingWrite::lockKey, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final GroupCommitProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final ExecutorService flushers;
+    private final DistributionSummary batchSize;
+    private final Counter fallbacks;
+    private final Counter overflows;
+
+    private volatile boolean running = true;
+
+    public GroupCommitExecutor(GroupCommitProperties properties,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        AtomicInteger threads = new AtomicInteger();
+        this.flushers = Executors.newFixedThreadPool(properties.flushers(), runnable -> {
+            Thread thread = new Thread(runnable, "group-commit-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = DistributionSummary.builder("group.commit.batch.size")
+                .description("Количество изменений в зафиксированном пакете")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("group.commit.fallbacks")
+                .description("Пакеты, изменения которых выполнены по отдельности")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("group.commit.overflows")
+                .description("Изменения, выполненные отдельно из-за переполнения очереди")
+                .register(meterRegistry);
+        Gauge.builder("group.commit.queue", queue, BlockingQueue::size)
+                .description("Изменения, ожидающие фиксации")
+                .register(meterRegistry);
+        for (int i = 0; i < properties.flushers(); i++) {
+            flushers.execute(this::flushLoop);
+        }
+    }
+
+    /**
+     * Выполняет изменение, не блокирующее существующих строк, в составе пакета и ожидает его фиксации.
+     *
+     * @param write изменение; может выполняться в другом потоке и повторно, если пакет откачен.
+     * @return результат изменения.
+     */
+    public <T> T execute(Supplier<T> write) {
+        return execute(null, write);
+    }
+
+    /**
+     * Выполняет изменение в составе пакета и ожидает его фиксации.
+     *
+     * @param lockKey идентификатор задачи или подзадачи, строку которой изменение блокирует первой, или {@code null},
+     *                если изменение только добавляет строки; остальные блокируемые строки должны принадлежать ей.
+     * @param write   изменение; может выполняться в другом потоке и повторно, если пакет откачен.
+     * @return результат изменения.
+     */
+    public <T> T execute(Long lockKey, Supplier<T> write) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+        PendingWrite<T> pending = new PendingWrite<>(lockKey, write);
+        if (!queue.offer(pending)) {
+            overflows.increment();
+            return write.get();
+        }
+        return pending.await();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        flushers.shutdownNow();
+        List<PendingWrite<?>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(PendingWrite::retrySeparately);
+    }
+
+    private void flushLoop() {
+        List<PendingWrite<?>> batch = new ArrayList<>(properties.maxBatchSize());
+        try {
+            while (running) {
+                PendingWrite<?> first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batch.forEach(PendingWrite::retrySeparately);
+        }
+    }
+
+    /**
+     * Дополняет пакет изменениями из очереди, ожидая их не дольше {@code maxDelay} после первого.
+     */
+    private void collect(List<PendingWrite<?>> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + properties.maxDelay().toNanos();
+        while (batch.size() < properties.maxBatchSize()) {
+            queue.drainTo(batch, properties.maxBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.maxBatchSize() || remaining <= 0) {
+                return;
+            }
+            PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingWrite<?>> batch) {
+        batch.sort(LOCK_ORDER);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingWrite<?> write : batch) {
+                    write.run();
+                    if (write.error() != null && spoilsTransaction(write.error(), status)) {
+                        throw new BatchAbortedException(write.error());
+                    }
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            log.debug("Пакет из {} изменений откачен, изменения будут выполнены отдельно: {}", batch.size(), e.toString());
+            fallbacks.increment();
+            batch.forEach(PendingWrite::retrySeparately);
+            return;
+        }
+        batchSize.record(batch.size());
+        batch.forEach(PendingWrite::complete);
+    }
+
+    /**
+     * После ошибки базы данных PostgreSQL отклоняет остальные команды транзакции, а после исключения, прошедшего через
+     * вложенный транзакционный метод, транзакция может быть только откачена.
+     */
+    private static boolean spoilsTransaction(RuntimeException error, TransactionStatus status) {
+        return status.isRollbackOnly() || error instanceof DataAccessException || error instanceof PersistenceException;
+    }
+
+    private static class BatchAbortedException extends RuntimeException {
+        BatchAbortedException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
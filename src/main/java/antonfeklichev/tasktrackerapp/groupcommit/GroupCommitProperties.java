@@ -0,0 +1,23 @@
+package antonfeklichev.tasktrackerapp.groupcommit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки групповой фиксации изменений.
+ *
+ * @param enabled       направлять создание и изменение задач и подзадач через {@link GroupCommitExecutor}.
+ * @param maxBatchSize  максимальное количество изменений в одной транзакции.
+ * @param maxDelay      время, в течение которого пакет дополняется новыми изменениями после первого.
+ * @param queueCapacity максимальное количество ожидающих изменений; при заполнении изменение выполняется отдельно.
+ * @param flushers      количество потоков, одновременно фиксирующих пакеты.
+ */
+@ConfigurationProperties(prefix = "task-tracker.group-commit")
+public record GroupCommitProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("64") int maxBatchSize,
+                                    @DefaultValue("2ms") Duration maxDelay,
+                                    @DefaultValue("10000") int queueCapacity,
+                                    @DefaultValue("2") int flushers) {
+}
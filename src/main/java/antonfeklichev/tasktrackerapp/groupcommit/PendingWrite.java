@@ -0,0 +1,86 @@
+package antonfeklichev.tasktrackerapp.groupcommit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Изменение, ожидающее фиксации в составе пакета.
+ * <p>
+ * Результат изменения запоминается при выполнении в транзакции пакета и передается вызывающему потоку только после
+ * фиксации. Если пакет откачен, вызывающий поток выполняет изменение сам в отдельной транзакции.
+ * </p>
+ */
+final class PendingWrite<T> {
+
+    private static final Object RETRY_SEPARATELY = new Object();
+
+    private final Long lockKey;
+    private final Supplier<T> write;
+    private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+    private T result;
+    private RuntimeException error;
+
+    PendingWrite(Long lockKey, Supplier<T> write) {
+        this.lockKey = lockKey;
+        this.write = write;
+    }
+
+    /**
+     * @return идентификатор строки, которую изменение блокирует первой, или {@code null}.
+     */
+    Long lockKey() {
+        return lockKey;
+    }
+
+    /**
+     * Выполняет изменение в текущей транзакции и запоминает результат или исключение.
+     */
+    void run() {
+        try {
+            result = write.get();
+            error = null;
+        } catch (RuntimeException e) {
+            result = null;
+            error = e;
+        }
+    }
+
+    RuntimeException error() {
+        return error;
+    }
+
+    /**
+     * Передает вызывающему потоку результат, полученный в зафиксированной транзакции.
+     */
+    void complete() {
+        if (error != null) {
+            outcome.completeExceptionally(error);
+        } else {
+            outcome.complete(result);
+        }
+    }
+
+    /**
+     * Сообщает вызывающему потоку, что изменение нужно выполнить отдельно.
+     */
+    void retrySeparately() {
+        outcome.complete(RETRY_SEPARATELY);
+    }
+
+    /**
+     * Ожидает фиксации пакета.
+     *
+     * @return результат изменения.
+     */
+    @SuppressWarnings("unchecked")
+    T await() {
+        Object value;
+        try {
+            value = outcome.join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+        return value == RETRY_SEPARATELY ? write.get() : (T) value;
+    }
+}
@@ -0,0 +1,15 @@
+package antonfeklichev.tasktrackerapp.idgenerator;
+
+/**
+ * Режимы генерации идентификаторов задач и подзадач.
+ * <ul>
+ *   <li>{@code POOLED} - идентификаторы выдаются из диапазона, заранее зарезервированного в последовательности
+ *   базы данных (оптимизатор pooled-lo). Один вызов {@code nextval} обслуживает целый блок вставок.</li>
+ *   <li>{@code SNOWFLAKE} - упорядоченные по времени идентификаторы, вычисляемые локально на узле
+ *   без обращения к базе данных.</li>
+ * </ul>
+ */
+public enum IdGenerationMode {
+    POOLED,
+    SNOWFLAKE
+}
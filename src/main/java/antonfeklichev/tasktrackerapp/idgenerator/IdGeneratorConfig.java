@@ -0,0 +1,21 @@
+package antonfeklichev.tasktrackerapp.idgenerator;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Передает {@link IdGeneratorProperties} в настройки Hibernate, откуда их читает {@link TaskIdGenerator}.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer idGeneratorHibernatePropertiesCustomizer(IdGeneratorProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(TaskIdGenerator.MODE_SETTING, properties.mode().name());
+            hibernateProperties.put(TaskIdGenerator.NODE_ID_SETTING, properties.nodeId());
+            hibernateProperties.put(TaskIdGenerator.BLOCK_SIZE_SETTING, properties.blockSize());
+        };
+    }
+}
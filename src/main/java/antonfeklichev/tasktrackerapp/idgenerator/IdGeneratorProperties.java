@@ -0,0 +1,18 @@
+package antonfeklichev.tasktrackerapp.idgenerator;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки генерации идентификаторов задач и подзадач.
+ *
+ * @param mode      режим генерации.
+ * @param nodeId    номер узла для режима {@link IdGenerationMode#SNOWFLAKE}, от 0 до {@link SnowflakeIdGenerator#MAX_NODE_ID}.
+ * @param blockSize количество идентификаторов, резервируемых одним обращением к последовательности
+ *                  в режиме {@link IdGenerationMode#POOLED}.
+ */
+@ConfigurationProperties(prefix = "task-tracker.id-generator")
+public record IdGeneratorProperties(@DefaultValue("POOLED") IdGenerationMode mode,
+                                    @DefaultValue("0") int nodeId,
+                                    @DefaultValue("50") int blockSize) {
+}
@@ -0,0 +1,73 @@
+package antonfeklichev.tasktrackerapp.idgenerator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Генератор упорядоченных по времени идентификаторов в стиле Snowflake.
+ * <p>
+ * Идентификатор состоит из 41 бита миллисекунд от {@link #EPOCH}, 10 бит номера узла и 12 бит
+ * порядкового номера внутри миллисекунды. Состояние генератора (последняя миллисекунда и счетчик)
+ * упаковано в один {@link AtomicLong} и обновляется через CAS, поэтому генерация не требует блокировок.
+ * </p>
+ * <p>
+ * Если счетчик внутри миллисекунды исчерпан или системные часы сдвинулись назад, генератор
+ * "занимает" следующую миллисекунду вместо ожидания. Это сохраняет монотонность и уникальность
+ * идентификаторов на узле.
+ * </p>
+ */
+public class SnowflakeIdGenerator {
+
+    /**
+     * Начало отсчета времени для идентификаторов: 2024-01-01T00:00:00Z.
+     */
+    public static final long EPOCH = 1704067200000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private final AtomicLong state;
+
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.state = new AtomicLong((clock.getAsLong() - EPOCH) << SEQUENCE_BITS);
+    }
+
+    /**
+     * Возвращает следующий уникальный для узла идентификатор.
+     *
+     * @return положительный идентификатор, возрастающий от вызова к вызову.
+     */
+    public long nextId() {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long lastMillis = current >>> SEQUENCE_BITS;
+            long nowMillis = clock.getAsLong() - EPOCH;
+            if (nowMillis > lastMillis) {
+                next = nowMillis << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = current + 1;
+            } else {
+                next = (lastMillis + 1) << SEQUENCE_BITS;
+            }
+        } while (!state.compareAndSet(current, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,67 @@
+package antonfeklichev.tasktrackerapp.idgenerator;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Генератор идентификаторов для задач и подзадач.
+ * <p>
+ * В режиме {@link IdGenerationMode#POOLED} работает как {@link SequenceStyleGenerator} с оптимизатором
+ * pooled-lo: из последовательности базы данных резервируется блок идентификаторов, который затем
+ * выдается из памяти. В отличие от табличной стратегии, {@code nextval} не берет блокировку строки
+ * и не требует отдельной транзакции.
+ * </p>
+ * <p>
+ * В режиме {@link IdGenerationMode#SNOWFLAKE} идентификаторы вычисляются {@link SnowflakeIdGenerator}
+ * без обращения к базе данных. Экземпляр генератора общий для всех сущностей узла, поэтому
+ * идентификаторы уникальны одновременно в таблицах {@code tasks} и {@code subtasks}.
+ * </p>
+ * <p>
+ * Режим, номер узла и размер блока передаются в настройки Hibernate из {@link IdGeneratorProperties}.
+ * </p>
+ */
+public class TaskIdGenerator extends SequenceStyleGenerator {
+
+    public static final String MODE_SETTING = "tasktracker.id_generator.mode";
+    public static final String NODE_ID_SETTING = "tasktracker.id_generator.node_id";
+    public static final String BLOCK_SIZE_SETTING = "tasktracker.id_generator.block_size";
+
+    private static final ConcurrentMap<Integer, SnowflakeIdGenerator> SNOWFLAKE_NODES = new ConcurrentHashMap<>();
+
+    private SnowflakeIdGenerator snowflake;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+
+        Object blockSize = settings.get(BLOCK_SIZE_SETTING);
+        if (blockSize != null) {
+            parameters.setProperty(INCREMENT_PARAM, blockSize.toString());
+        }
+        super.configure(type, parameters, serviceRegistry);
+
+        IdGenerationMode mode = IdGenerationMode.valueOf(
+                settings.getOrDefault(MODE_SETTING, IdGenerationMode.POOLED).toString());
+        if (mode == IdGenerationMode.SNOWFLAKE) {
+            int nodeId = Integer.parseInt(settings.getOrDefault(NODE_ID_SETTING, 0).toString());
+            snowflake = SNOWFLAKE_NODES.computeIfAbsent(nodeId, SnowflakeIdGenerator::new);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (snowflake != null) {
+            return snowflake.nextId();
+        }
+        return super.generate(session, object);
+    }
+}
@@ -0,0 +1,67 @@
+package antonfeklichev.tasktrackerapp.logging;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Журнал частых однотипных сообщений с ограничением частоты.
+ * <p>
+ * В каждом интервале записываются только первые {@code permits} сообщений, остальные подсчитываются; их количество
+ * записывается перед первым сообщением следующего интервала. Так поток запросов к несуществующим записям
+ * оставляет в журнале выборку, а не строку на каждый запрос.
+ * </p>
+ * Класс потокобезопасен; на границе интервала в него может попасть несколько лишних сообщений.
+ */
+public class SampledLogger {
+
+    private final Logger logger;
+    private final int permits;
+    private final long intervalNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * @param logger   журнал, в который записываются сообщения.
+     * @param permits  количество сообщений, записываемых за интервал.
+     * @param interval длительность интервала.
+     */
+    public SampledLogger(Logger logger, int permits, Duration interval) {
+        this.logger = logger;
+        this.permits = permits;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Записывает сообщение уровня ERROR, если лимит интервала не исчерпан.
+     *
+     * @param format    шаблон сообщения SLF4J.
+     * @param arguments аргументы шаблона.
+     */
+    public void error(String format, Object... arguments) {
+        if (!logger.isErrorEnabled()) {
+            return;
+        }
+        if (!tryAcquire()) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        long skipped = suppressed.getAndSet(0);
+        if (skipped > 0) {
+            logger.error("Пропущено однотипных сообщений: {}.", skipped);
+        }
+        logger.error(format, arguments);
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            written.set(0);
+        }
+        return written.incrementAndGet() <= permits;
+    }
+}
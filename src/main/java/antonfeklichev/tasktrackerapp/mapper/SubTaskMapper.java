@@ -24,6 +24,7 @@ public interface SubTaskMapper {
      * @param dto объект {@link NewSubTaskDto}, содержащий данные для создания новой подзадачи.
      * @return экземпляр {@link SubTask}, сформированный на основе данных из {@link NewSubTaskDto}.
      */
+    @Mapping(target = "version", ignore = true)
     SubTask toSubTask(NewSubTaskDto dto);
 
     /**
@@ -35,17 +36,4 @@ public interface SubTaskMapper {
     @Mapping(source = "task.id", target = "taskId")
     SubTaskDto toSubTaskDto(SubTask subTask);
 
-    /**
-     * Обновляет существующий экземпляр {@link SubTask} на основе данных из {@link SubTaskDto}.
-     * <p>
-     * Метод аннотирован {@link BeanMapping} с стратегией {@link NullValuePropertyMappingStrategy IGNORE}, что означает,
-     * что нулевые значения в {@link SubTaskDto} не будут переноситься в {@link SubTask}, сохраняя текущие значения свойств {@link SubTask}.
-     * </p>
-     *
-     * @param subTask    объект {@link SubTask}, который требуется обновить.
-     * @param subTaskDto DTO, содержащее данные для обновления подзадачи.
-     */
-    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
-    void patchSubTask(@MappingTarget SubTask subTask, SubTaskDto subTaskDto);
-
 }
@@ -25,6 +25,8 @@ public interface TaskMapper {
      * @param dto объект {@link NewTaskDto}, содержащий данные для создания новой задачи.
      * @return экземпляр {@link Task}, сформированный на основе данных из {@link NewTaskDto}.
      */
+    @Mapping(target = "openSubTaskCount", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Task toTask(NewTaskDto dto);
 
     /**
@@ -34,17 +36,4 @@ public interface TaskMapper {
      * @return экземпляр {@link TaskDto}, содержащий данные из {@link Task}.
      */
     TaskDto toTaskDto(Task task);
-
-    /**
-     * Обновляет существующий экземпляр {@link Task} на основе данных из {@link TaskDto}.
-     * <p>
-     * Метод аннотирован {@link BeanMapping} с стратегией {@link NullValuePropertyMappingStrategy IGNORE}, что означает,
-     * что нулевые значения в {@link TaskDto} не будут переноситься в {@link Task}, сохраняя текущие значения свойств {@link Task}.
-     * </p>
-     *
-     * @param task    объект {@link Task}, который требуется обновить.
-     * @param taskDto DTO, содержащее данные для обновления задачи.
-     */
-    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
-    void patchTask(@MappingTarget Task task, TaskDto taskDto);
 }
@@ -0,0 +1,116 @@
+package antonfeklichev.tasktrackerapp.pagination;
+
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
+import antonfeklichev.tasktrackerapp.dto.TaskSort;
+import antonfeklichev.tasktrackerapp.entity.QAbstractTask;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.InvalidPageRequestException;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Постраничная выборка задач и подзадач по ключу (keyset pagination).
+ * <p>
+ * Следующая страница выбирается условием "после последнего элемента предыдущей страницы" по
+ * {@code (id)} или {@code (status, id)} вместо OFFSET, поэтому стоимость запроса страницы
+ * не зависит от ее номера. Чтобы узнать, есть ли следующая страница, запрашивается на один элемент больше.
+ * </p>
+ * <p>
+ * Статус может быть не задан; такие элементы, как и в PostgreSQL по умолчанию, выдаются после всех статусов,
+ * поэтому и порядок, и условие выборки явно учитывают {@code NULL}.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetPaginator {
+
+    private final PaginationProperties properties;
+
+    /**
+     * Возвращает размер страницы с учетом значения по умолчанию и максимального размера.
+     *
+     * @param page параметры запроса страницы, могут быть {@code null}.
+     * @return размер страницы.
+     * @throws InvalidPageRequestException если запрошен неположительный размер страницы.
+     */
+    public int limit(CursorPageRequestDto page) {
+        if (page == null || page.limit() == null) {
+            return properties.defaultLimit();
+        }
+        if (page.limit() < 1) {
+            throw new InvalidPageRequestException("Page limit must be positive");
+        }
+        return Math.min(page.limit(), properties.maxLimit());
+    }
+
+    /**
+     * Возвращает порядок сортировки, соответствующий порядку выдачи страницы.
+     *
+     * @param path путь Querydsl к общим атрибутам задачи или подзадачи.
+     * @param page параметры запроса страницы, могут быть {@code null}.
+     * @return сортировка по {@code id} или по {@code status, id}, элементы без статуса - в конце.
+     */
+    public OrderSpecifier<?>[] order(QAbstractTask path, CursorPageRequestDto page) {
+        return sort(page) == TaskSort.STATUS
+                ? new OrderSpecifier<?>[]{path.status.asc().nullsLast(), path.id.asc()}
+                : new OrderSpecifier<?>[]{path.id.asc()};
+    }
+
+    /**
+     * Строит условие выборки элементов, следующих за курсором.
+     *
+     * @param path путь Querydsl к общим атрибутам задачи или подзадачи.
+     * @param page параметры запроса страницы, могут быть {@code null}.
+     * @return условие или {@code null}, если запрашивается первая страница.
+     * @throws InvalidPageRequestException если курсор некорректен или получен для другого порядка выдачи.
+     */
+    public Predicate seek(QAbstractTask path, CursorPageRequestDto page) {
+        if (page == null || page.after() == null || page.after().isBlank()) {
+            return null;
+        }
+        PageCursor cursor = PageCursor.decode(page.after());
+        if (cursor.sort() != sort(page)) {
+            throw new InvalidPageRequestException("Page cursor does not match requested sort");
+        }
+        if (cursor.sort() == TaskSort.STATUS) {
+            if (cursor.status() == null) {
+                return path.status.isNull().and(path.id.gt(cursor.id()));
+            }
+            return path.status.gt(cursor.status())
+                    .or(path.status.eq(cursor.status()).and(path.id.gt(cursor.id())))
+                    .or(path.status.isNull());
+        }
+        return path.id.gt(cursor.id());
+    }
+
+    /**
+     * Формирует страницу из выбранных строк.
+     *
+     * @param rows   строки, выбранные с ограничением {@code limit + 1}.
+     * @param page   параметры запроса страницы, могут быть {@code null}.
+     * @param id     идентификатор строки.
+     * @param status статус строки.
+     * @return страница с курсором следующей страницы, если она есть.
+     */
+    public <D> CursorPageDto<D> toPage(List<D> rows, CursorPageRequestDto page, Function<D, Long> id, Function<D, TaskStatus> status) {
+        int limit = limit(page);
+        if (rows.size() <= limit) {
+            return new CursorPageDto<>(List.copyOf(rows), null);
+        }
+        List<D> items = List.copyOf(rows.subList(0, limit));
+        D last = items.get(limit - 1);
+        TaskSort sort = sort(page);
+        PageCursor next = new PageCursor(sort, sort == TaskSort.STATUS ? status.apply(last) : null, id.apply(last));
+        return new CursorPageDto<>(items, next.encode());
+    }
+
+    private static TaskSort sort(CursorPageRequestDto page) {
+        return page == null || page.sort() == null ? TaskSort.ID : page.sort();
+    }
+}
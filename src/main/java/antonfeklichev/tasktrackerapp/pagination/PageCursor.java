@@ -0,0 +1,49 @@
+package antonfeklichev.tasktrackerapp.pagination;
+
+import antonfeklichev.tasktrackerapp.dto.TaskSort;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция последнего элемента страницы, с которой продолжается выборка.
+ * <p>
+ * Для клиента курсор непрозрачен: он передается в виде строки Base64 и содержит порядок выдачи,
+ * статус (для порядка {@link TaskSort#STATUS}) и идентификатор последнего элемента.
+ * </p>
+ *
+ * @param sort   порядок выдачи, в котором получен курсор.
+ * @param status статус последнего элемента, только для порядка {@link TaskSort#STATUS}; {@code null}, если статус
+ *               не задан (передается пустой строкой).
+ * @param id     идентификатор последнего элемента.
+ */
+public record PageCursor(TaskSort sort, TaskStatus status, long id) {
+
+    private static final String SEPARATOR = ":";
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + (status == null ? "" : status.name()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Восстанавливает курсор из строки, выданной {@link #encode()}.
+     *
+     * @param token строка курсора.
+     * @return курсор.
+     * @throws InvalidPageRequestException если строка не является корректным курсором.
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            TaskSort sort = TaskSort.valueOf(parts[0]);
+            TaskStatus status = parts[1].isEmpty() ? null : TaskStatus.valueOf(parts[1]);
+            return new PageCursor(sort, status, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidPageRequestException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package antonfeklichev.tasktrackerapp.pagination;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки постраничной выборки.
+ *
+ * @param defaultLimit размер страницы, если клиент его не указал.
+ * @param maxLimit     максимальный размер страницы; больший запрошенный размер уменьшается до этого значения.
+ */
+@ConfigurationProperties(prefix = "task-tracker.pagination")
+public record PaginationProperties(@DefaultValue("50") int defaultLimit,
+                                   @DefaultValue("500") int maxLimit) {
+}
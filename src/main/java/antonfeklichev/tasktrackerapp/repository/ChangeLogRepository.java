@@ -0,0 +1,49 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.dto.SyncItemDto;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Чтение журнала изменений задач и подзадач для инкрементальной синхронизации.
+ * <p>
+ * Столбцы {@code created_at}, {@code updated_at}, {@code change_seq} и таблица записей об удалении
+ * {@code deleted_records} заполняются триггерами базы данных (скрипт {@code db/change-tracking.sql}), поэтому
+ * учитываются все изменения, включая массовые запросы и каскадное удаление подзадач. Номер изменения - номер
+ * транзакции, последней изменившей запись.
+ * </p>
+ */
+public interface ChangeLogRepository {
+
+    /**
+     * Возвращает наименьший номер транзакции, выполняющейся в текущем снимке базы данных. Изменения транзакций
+     * с меньшими номерами уже зафиксированы или отменены.
+     *
+     * @return номер транзакции.
+     */
+    @Transactional(readOnly = true)
+    long findSnapshotFloor();
+
+    /**
+     * Возвращает задачи, подзадачи и записи об удалении, изменившиеся после позиции {@code (changeSeq, id)},
+     * в порядке {@code (changeSeq, id)}. Каждая таблица читается по индексу {@code (change_seq, id)}.
+     *
+     * @param changeSeq номер изменения последней полученной записи.
+     * @param id        идентификатор последней полученной записи.
+     * @param limit     максимальное количество записей.
+     * @return изменения.
+     */
+    @Transactional(readOnly = true)
+    List<SyncItemDto> findChangesAfter(long changeSeq, long id, int limit);
+
+    /**
+     * Удаляет записи об удалении, созданные раньше указанного времени.
+     *
+     * @param threshold время.
+     * @return количество удаленных записей.
+     */
+    @Transactional
+    int deleteTombstonesBefore(Instant threshold);
+}
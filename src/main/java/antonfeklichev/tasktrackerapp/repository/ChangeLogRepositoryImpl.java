@@ -0,0 +1,111 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.SyncItemDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Реализация {@link ChangeLogRepository} на нативных запросах.
+ */
+@Repository
+class ChangeLogRepositoryImpl implements ChangeLogRepository {
+
+    private static final String SNAPSHOT_FLOOR_SQL = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)";
+
+    /**
+     * Каждая ветвь ограничена отдельно, поэтому читает не больше {@code limit} строк своего индекса.
+     */
+    private static final String CHANGES_SQL = """
+            SELECT * FROM (
+                (SELECT 'TASK' AS entity, id, id AS task_id, name, description, status, version,
+                        created_at, updated_at, false AS deleted, change_seq
+                 FROM tasks
+                 WHERE (change_seq, id) > (:changeSeq, :id)
+                 ORDER BY change_seq, id
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT 'SUBTASK', id, task_id, name, description, status, version,
+                        created_at, updated_at, false, change_seq
+                 FROM subtasks
+                 WHERE (change_seq, id) > (:changeSeq, :id)
+                 ORDER BY change_seq, id
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT entity, id, COALESCE(task_id, id), NULL, NULL, NULL, NULL,
+                        NULL, deleted_at, true, change_seq
+                 FROM deleted_records
+                 WHERE (change_seq, id) > (:changeSeq, :id)
+                 ORDER BY change_seq, id
+                 LIMIT :limit)
+            ) changes
+            ORDER BY change_seq, id
+            LIMIT :limit
+            """;
+
+    private static final String DELETE_TOMBSTONES_SQL = "DELETE FROM deleted_records WHERE deleted_at < :threshold";
+
+    private final EntityManager entityManager;
+
+    ChangeLogRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public long findSnapshotFloor() {
+        return ((Number) entityManager.createNativeQuery(SNAPSHOT_FLOOR_SQL).getSingleResult()).longValue();
+    }
+
+    @Override
+    public List<SyncItemDto> findChangesAfter(long changeSeq, long id, int limit) {
+        List<Tuple> rows = entityManager.unwrap(Session.class).createNativeQuery(CHANGES_SQL, Tuple.class)
+                .addScalar("entity", StandardBasicTypes.STRING)
+                .addScalar("id", StandardBasicTypes.LONG)
+                .addScalar("task_id", StandardBasicTypes.LONG)
+                .addScalar("name", StandardBasicTypes.STRING)
+                .addScalar("description", StandardBasicTypes.STRING)
+                .addScalar("status", StandardBasicTypes.STRING)
+                .addScalar("version", StandardBasicTypes.LONG)
+                .addScalar("created_at", StandardBasicTypes.INSTANT)
+                .addScalar("updated_at", StandardBasicTypes.INSTANT)
+                .addScalar("deleted", StandardBasicTypes.BOOLEAN)
+                .addScalar("change_seq", StandardBasicTypes.LONG)
+                .setParameter("changeSeq", changeSeq, StandardBasicTypes.LONG)
+                .setParameter("id", id, StandardBasicTypes.LONG)
+                .setParameter("limit", limit, StandardBasicTypes.INTEGER)
+                .getResultList();
+
+        return rows.stream().map(row -> new SyncItemDto(
+                ChangeEventDto.Entity.valueOf(row.get("entity", String.class)),
+                row.get("id", Long.class),
+                row.get("task_id", Long.class),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                toStatus(row.get("status", String.class)),
+                row.get("version", Long.class),
+                row.get("created_at", Instant.class),
+                row.get("updated_at", Instant.class),
+                row.get("deleted", Boolean.class),
+                row.get("change_seq", Long.class))).toList();
+    }
+
+    @Override
+    public int deleteTombstonesBefore(Instant threshold) {
+        NativeQuery<?> query = entityManager.createNativeQuery(DELETE_TOMBSTONES_SQL).unwrap(NativeQuery.class);
+        return query.addSynchronizedQuerySpace(EntityCacheEviction.NO_QUERY_SPACE)
+                .setParameter("threshold", threshold, StandardBasicTypes.INSTANT)
+                .executeUpdate();
+    }
+
+    private static TaskStatus toStatus(String status) {
+        return status == null ? null : TaskStatus.valueOf(status);
+    }
+}
@@ -0,0 +1,45 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.dto.CommandStatusDto;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Результаты выполненных асинхронных команд.
+ * <p>
+ * Таблица {@code command_results} создается скриптом {@code db/command-results.sql}. Результат записывается в той же
+ * транзакции, что и изменения команды, поэтому существует тогда и только тогда, когда изменения зафиксированы. Для
+ * невыполненной команды результат записывается в отдельной транзакции после отката ее изменений.
+ * </p>
+ */
+public interface CommandResultRepository {
+
+    /**
+     * Возвращает результаты команд.
+     *
+     * @param commandIds идентификаторы команд.
+     * @return результаты по идентификаторам команд; команды без результата отсутствуют.
+     */
+    @Transactional(readOnly = true)
+    Map<String, CommandStatusDto> findByIds(Collection<String> commandIds);
+
+    /**
+     * Записывает результат команды в текущей транзакции.
+     *
+     * @param result выполненная или невыполненная команда.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    void save(CommandStatusDto result);
+
+    /**
+     * Удаляет результаты команд.
+     *
+     * @param commandIds идентификаторы команд.
+     * @return количество удаленных результатов.
+     */
+    @Transactional
+    int deleteByIds(Collection<String> commandIds);
+}
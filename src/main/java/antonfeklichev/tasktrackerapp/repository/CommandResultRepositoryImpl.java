@@ -0,0 +1,83 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.command.CommandState;
+import antonfeklichev.tasktrackerapp.command.CommandType;
+import antonfeklichev.tasktrackerapp.dto.CommandStatusDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация {@link CommandResultRepository} на нативных запросах.
+ */
+@Repository
+class CommandResultRepositoryImpl implements CommandResultRepository {
+
+    private static final String FIND_SQL = "SELECT id, type, state, result_id, error FROM command_results WHERE id IN (:ids)";
+
+    private static final String INSERT_SQL = "INSERT INTO command_results (id, type, state, result_id, error) " +
+                                             "VALUES (:id, :type, :state, :resultId, :error)";
+
+    private static final String DELETE_SQL = "DELETE FROM command_results WHERE id IN (:ids)";
+
+    private final EntityManager entityManager;
+
+    CommandResultRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Map<String, CommandStatusDto> findByIds(Collection<String> commandIds) {
+        if (commandIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Tuple> rows = entityManager.unwrap(Session.class).createNativeQuery(FIND_SQL, Tuple.class)
+                .addScalar("id", StandardBasicTypes.STRING)
+                .addScalar("type", StandardBasicTypes.STRING)
+                .addScalar("state", StandardBasicTypes.STRING)
+                .addScalar("result_id", StandardBasicTypes.LONG)
+                .addScalar("error", StandardBasicTypes.STRING)
+                .setParameterList("ids", commandIds, StandardBasicTypes.STRING)
+                .getResultList();
+
+        return rows.stream().collect(Collectors.toMap(
+                row -> row.get("id", String.class),
+                row -> new CommandStatusDto(
+                        row.get("id", String.class),
+                        CommandType.valueOf(row.get("type", String.class)),
+                        CommandState.valueOf(row.get("state", String.class)),
+                        row.get("result_id", Long.class),
+                        row.get("error", String.class))));
+    }
+
+    @Override
+    public void save(CommandStatusDto result) {
+        NativeQuery<?> query = entityManager.createNativeQuery(INSERT_SQL).unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace(EntityCacheEviction.NO_QUERY_SPACE)
+                .setParameter("id", result.id(), StandardBasicTypes.STRING)
+                .setParameter("type", result.type().name(), StandardBasicTypes.STRING)
+                .setParameter("state", result.state().name(), StandardBasicTypes.STRING)
+                .setParameter("resultId", result.resultId(), StandardBasicTypes.LONG)
+                .setParameter("error", result.error(), StandardBasicTypes.STRING)
+                .executeUpdate();
+    }
+
+    @Override
+    public int deleteByIds(Collection<String> commandIds) {
+        if (commandIds.isEmpty()) {
+            return 0;
+        }
+        NativeQuery<?> query = entityManager.createNativeQuery(DELETE_SQL).unwrap(NativeQuery.class);
+        return query.addSynchronizedQuerySpace(EntityCacheEviction.NO_QUERY_SPACE)
+                .setParameterList("ids", commandIds, StandardBasicTypes.STRING)
+                .executeUpdate();
+    }
+}
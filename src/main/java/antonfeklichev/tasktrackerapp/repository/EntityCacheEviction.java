@@ -0,0 +1,44 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.transaction.TransactionCallbacks;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+
+import java.util.Collection;
+
+/**
+ * Удаление записей из кэша второго уровня Hibernate после изменений, о которых Hibernate не знает:
+ * нативных запросов, прочитанных через {@code getResultList()}, и каскадного удаления в базе данных.
+ * <p>
+ * Записи удаляются сразу и повторно после фиксации транзакции, чтобы параллельное чтение, выполненное до фиксации,
+ * не оставило в кэше прежнее состояние. Если кэш второго уровня выключен, удаление ничего не делает.
+ * </p>
+ */
+final class EntityCacheEviction {
+
+    /**
+     * Пространство запроса, не совпадающее ни с одной таблицей. Нативный запрос изменения, синхронизированный с ним,
+     * не очищает регионы кэша второго уровня целиком; затронутые записи удаляются явно по идентификаторам.
+     */
+    static final String NO_QUERY_SPACE = "";
+
+    private EntityCacheEviction() {
+    }
+
+    /**
+     * Удаляет сущности из кэша второго уровня.
+     *
+     * @param entityManager менеджер сущностей.
+     * @param entityClass   класс сущности.
+     * @param ids           идентификаторы сущностей.
+     */
+    static void evict(EntityManager entityManager, Class<?> entityClass, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        Runnable eviction = () -> ids.forEach(id -> cache.evict(entityClass, id));
+        eviction.run();
+        TransactionCallbacks.afterCommit(eviction);
+    }
+}
@@ -0,0 +1,13 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+
+/**
+ * Результат условного изменения строки запросом {@code UPDATE ... RETURNING}.
+ *
+ * @param row            DTO строки после изменения.
+ * @param previousStatus статус строки до изменения.
+ * @param <D>            тип DTO.
+ */
+public record PatchedRow<D>(D row, TaskStatus previousStatus) {
+}
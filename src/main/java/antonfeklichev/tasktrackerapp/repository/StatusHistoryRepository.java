@@ -0,0 +1,41 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.dto.StatusStatsDto;
+import antonfeklichev.tasktrackerapp.dto.StatusTransitionDto;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Чтение истории статусов задач и подзадач.
+ * <p>
+ * История записывается триггерами базы данных (скрипт {@code db/status-history.sql}) в таблицу
+ * {@code status_transitions}, строки которой только добавляются. Хронология задачи читается по индексу
+ * {@code (task_id, changed_at)}, выборка за интервал - по индексу BRIN на {@code changed_at}.
+ * </p>
+ */
+public interface StatusHistoryRepository {
+
+    /**
+     * Возвращает изменения статусов задачи и ее подзадач в порядке времени.
+     *
+     * @param taskId идентификатор задачи.
+     * @param from   начало интервала включительно или {@code null}.
+     * @param to     конец интервала исключительно или {@code null}.
+     * @return изменения статусов.
+     */
+    @Transactional(readOnly = true)
+    List<StatusTransitionDto> findTaskTimeline(Long taskId, Instant from, Instant to);
+
+    /**
+     * Возвращает статистику переходов по статусам за интервал.
+     *
+     * @param from    начало интервала включительно.
+     * @param to      конец интервала исключительно.
+     * @param subtask {@code true} - только подзадачи, {@code false} - только задачи, {@code null} - все записи.
+     * @return статистика по статусам, в которые или из которых были переходы, в порядке статусов.
+     */
+    @Transactional(readOnly = true)
+    List<StatusStatsDto> findStatusStats(Instant from, Instant to, Boolean subtask);
+}
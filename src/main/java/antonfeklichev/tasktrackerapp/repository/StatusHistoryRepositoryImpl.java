@@ -0,0 +1,110 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.StatusStatsDto;
+import antonfeklichev.tasktrackerapp.dto.StatusTransitionDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.hibernate.Session;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Реализация {@link StatusHistoryRepository} на нативных запросах.
+ */
+@Repository
+class StatusHistoryRepositoryImpl implements StatusHistoryRepository {
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private static final String TIMELINE_SQL = """
+            SELECT entity_id, task_id, changed_at, seconds_in_previous_status, previous_status, status, subtask
+            FROM status_transitions
+            WHERE task_id = :taskId
+              AND (CAST(:from AS timestamptz) IS NULL OR changed_at >= CAST(:from AS timestamptz))
+              AND (CAST(:to AS timestamptz) IS NULL OR changed_at < CAST(:to AS timestamptz))
+            ORDER BY changed_at, entity_id
+            """;
+
+    /**
+     * Каждая строка истории учитывается дважды: как переход в новый статус и как переход из предыдущего,
+     * поэтому интервал читается один раз.
+     */
+    private static final String STATS_SQL = """
+            SELECT v.status,
+                   COUNT(*) FILTER (WHERE v.entered) AS entered,
+                   COUNT(*) FILTER (WHERE NOT v.entered) AS left_count,
+                   AVG(v.seconds) FILTER (WHERE NOT v.entered) AS avg_seconds,
+                   PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY v.seconds) FILTER (WHERE NOT v.entered) AS median_seconds
+            FROM status_transitions t
+                     CROSS JOIN LATERAL (VALUES (t.status, true, CAST(NULL AS integer)),
+                                                (t.previous_status, false, t.seconds_in_previous_status))
+                AS v(status, entered, seconds)
+            WHERE t.changed_at >= :from
+              AND t.changed_at < :to
+              AND (CAST(:subtask AS boolean) IS NULL OR t.subtask = CAST(:subtask AS boolean))
+              AND v.status IS NOT NULL
+            GROUP BY v.status
+            ORDER BY v.status
+            """;
+
+    private final EntityManager entityManager;
+
+    StatusHistoryRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<StatusTransitionDto> findTaskTimeline(Long taskId, Instant from, Instant to) {
+        List<Tuple> rows = entityManager.unwrap(Session.class).createNativeQuery(TIMELINE_SQL, Tuple.class)
+                .addScalar("entity_id", StandardBasicTypes.LONG)
+                .addScalar("task_id", StandardBasicTypes.LONG)
+                .addScalar("changed_at", StandardBasicTypes.INSTANT)
+                .addScalar("seconds_in_previous_status", StandardBasicTypes.INTEGER)
+                .addScalar("previous_status", StandardBasicTypes.SHORT)
+                .addScalar("status", StandardBasicTypes.SHORT)
+                .addScalar("subtask", StandardBasicTypes.BOOLEAN)
+                .setParameter("taskId", taskId, StandardBasicTypes.LONG)
+                .setParameter("from", from, StandardBasicTypes.INSTANT)
+                .setParameter("to", to, StandardBasicTypes.INSTANT)
+                .getResultList();
+
+        return rows.stream().map(row -> new StatusTransitionDto(
+                row.get("subtask", Boolean.class) ? ChangeEventDto.Entity.SUBTASK : ChangeEventDto.Entity.TASK,
+                row.get("entity_id", Long.class),
+                row.get("task_id", Long.class),
+                toStatus(row.get("previous_status", Short.class)),
+                toStatus(row.get("status", Short.class)),
+                row.get("changed_at", Instant.class),
+                row.get("seconds_in_previous_status", Integer.class))).toList();
+    }
+
+    @Override
+    public List<StatusStatsDto> findStatusStats(Instant from, Instant to, Boolean subtask) {
+        List<Tuple> rows = entityManager.unwrap(Session.class).createNativeQuery(STATS_SQL, Tuple.class)
+                .addScalar("status", StandardBasicTypes.SHORT)
+                .addScalar("entered", StandardBasicTypes.LONG)
+                .addScalar("left_count", StandardBasicTypes.LONG)
+                .addScalar("avg_seconds", StandardBasicTypes.DOUBLE)
+                .addScalar("median_seconds", StandardBasicTypes.DOUBLE)
+                .setParameter("from", from, StandardBasicTypes.INSTANT)
+                .setParameter("to", to, StandardBasicTypes.INSTANT)
+                .setParameter("subtask", subtask, StandardBasicTypes.BOOLEAN)
+                .getResultList();
+
+        return rows.stream().map(row -> new StatusStatsDto(
+                toStatus(row.get("status", Short.class)),
+                row.get("entered", Long.class),
+                row.get("left_count", Long.class),
+                row.get("avg_seconds", Double.class),
+                row.get("median_seconds", Double.class))).toList();
+    }
+
+    private static TaskStatus toStatus(Short code) {
+        return code == null ? null : STATUSES[code];
+    }
+}
@@ -1,13 +1,22 @@
 package antonfeklichev.tasktrackerapp.repository;
 
 import antonfeklichev.tasktrackerapp.entity.SubTask;
-import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.search.IndexedName;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Репозиторий для работы с сущностями подзадач в базе данных.
@@ -16,24 +25,61 @@ import java.util.List;
  * предоставления стандартных методов управления сущностями и выполнения запросов с использованием Querydsl.
  * </p>
  * <p>
- * Определяет дополнительный запрос для получения списка подзадач, не соответствующих определенному статусу,
- * связанных с конкретной задачей.
+ * Определяет дополнительные запросы для блокирующего чтения подзадачи и выборки подзадач группы задач,
+ * а через {@link SubTaskRepositoryCustom} - массовые изменения подзадач по предикату.
  * </p>
  */
 @Repository
-public interface SubTaskRepository extends JpaRepository<SubTask, Long>, QuerydslPredicateExecutor<SubTask> {
+public interface SubTaskRepository extends JpaRepository<SubTask, Long>, QuerydslPredicateExecutor<SubTask>,
+        SubTaskRepositoryCustom {
+
+    /**
+     * Возвращает подзадачу по идентификатору, блокируя ее строку до конца транзакции.
+     * Используется при изменениях, от которых зависит счетчик незавершенных подзадач задачи.
+     *
+     * @param subTaskId Идентификатор подзадачи.
+     * @return Подзадача или пустое значение, если она не найдена.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<SubTask> findForUpdateById(Long subTaskId);
 
     /**
-     * Возвращает список подзадач для заданной задачи, исключая подзадачи с указанным статусом.
-     * Этот метод полезен для проверки состояний связанных подзадач, например, перед обновлением статуса основной задачи.
+     * Возвращает подзадачи заданных задач, упорядоченные по задаче и идентификатору подзадачи.
      *
-     * @param taskId Идентификатор основной задачи, для которой нужно найти подзадачи.
-     * @param status Статус, который не должны иметь подзадачи.
-     * @return Список подзадач, удовлетворяющих критериям запроса.
+     * @param taskIds Идентификаторы задач.
+     * @return Список подзадач этих задач.
      */
     @Query("SELECT s " +
            "FROM SubTask s " +
-           "WHERE s.task.id = :taskId AND s.status <> :status")
-    List<SubTask> getSubTaskByTaskIdNotEqualStatus(Long taskId, TaskStatus status);
+           "WHERE s.task.id IN :taskIds " +
+           "ORDER BY s.task.id, s.id")
+    List<SubTask> getSubTasksByTaskIds(Collection<Long> taskIds);
+
+    /**
+     * Возвращает идентификаторы подзадач задачи.
+     *
+     * @param taskId Идентификатор задачи.
+     * @return Список идентификаторов подзадач.
+     */
+    @Query("SELECT s.id FROM SubTask s WHERE s.task.id = :taskId")
+    List<Long> getSubTaskIdsByTaskId(Long taskId);
+
+    /**
+     * Возвращает версию подзадачи без загрузки сущности.
+     *
+     * @param subTaskId Идентификатор подзадачи.
+     * @return Версия подзадачи или пустое значение, если подзадача не найдена.
+     */
+    @Query("SELECT s.version FROM SubTask s WHERE s.id = :subTaskId")
+    Optional<Long> findVersionById(Long subTaskId);
+
+    /**
+     * Возвращает идентификаторы и имена всех подзадач для построения индекса имен.
+     *
+     * @return поток пар идентификатор-имя; должен использоваться внутри транзакции и закрываться после использования.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + TaskRepository.STREAM_FETCH_SIZE))
+    @Query("SELECT new antonfeklichev.tasktrackerapp.search.IndexedName(s.id, s.name) FROM SubTask s")
+    Stream<IndexedName> streamIndexedNames();
 
 }
@@ -0,0 +1,93 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.entity.SubTask;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Запросы над множествами подзадач, заданными предикатом Querydsl, которые выполняются одним SQL-запросом
+ * без загрузки сущностей.
+ * <p>
+ * Чтение выполняется сразу в {@link SubTaskDto} конструкторной проекцией в транзакциях только для чтения.
+ * Идентификатор задачи берется из столбца {@code task_id}, без обращения к связанной сущности.
+ * </p>
+ */
+public interface SubTaskRepositoryCustom {
+
+    /**
+     * Возвращает идентификаторы задач, к которым относятся подзадачи, удовлетворяющие предикату.
+     *
+     * @param predicate предикат над {@link SubTask}.
+     * @return различные идентификаторы задач.
+     */
+    List<Long> findTaskIds(Predicate predicate);
+
+    /**
+     * Возвращает подзадачу по идентификатору.
+     *
+     * @param subTaskId идентификатор подзадачи.
+     * @return DTO подзадачи или пустое значение, если подзадача не найдена.
+     */
+    @Transactional(readOnly = true)
+    Optional<SubTaskDto> findDtoById(Long subTaskId);
+
+    /**
+     * Возвращает подзадачи по идентификаторам одним запросом {@code IN}.
+     *
+     * @param subTaskIds идентификаторы подзадач.
+     * @return DTO найденных подзадач в произвольном порядке.
+     */
+    @Transactional(readOnly = true)
+    List<SubTaskDto> findDtosByIds(Collection<Long> subTaskIds);
+
+    /**
+     * Возвращает подзадачи, удовлетворяющие предикату.
+     *
+     * @param predicate предикат над {@link SubTask}.
+     * @param order     порядок выдачи.
+     * @param limit     максимальное количество строк.
+     * @return DTO подзадач.
+     */
+    @Transactional(readOnly = true)
+    List<SubTaskDto> findDtos(Predicate predicate, OrderSpecifier<?>[] order, long limit);
+
+    /**
+     * Изменяет подзадачу одним условным запросом {@code UPDATE ... RETURNING}.
+     * <p>
+     * Записываются только непустые поля {@code patch}, версия увеличивается на единицу. Строка не изменяется, если
+     * указана {@code patch.version()} и она не совпадает с текущей. Если подзадача становится завершенной или
+     * незавершенной, в том же запросе изменяется счетчик незавершенных подзадач ее задачи. Строка задачи блокируется
+     * раньше строки подзадачи.
+     * </p>
+     *
+     * @param subTaskId идентификатор подзадачи.
+     * @param patch     изменяемые поля и ожидаемая версия; {@code taskId} не изменяется.
+     * @return DTO измененной подзадачи и ее статус до изменения или пустое значение, если строка не изменена.
+     */
+    @Transactional
+    Optional<PatchedRow<SubTaskDto>> patch(Long subTaskId, SubTaskDto patch);
+
+    /**
+     * Удаляет подзадачи из кэша второго уровня Hibernate, например после их каскадного удаления в базе данных
+     * вместе с задачей.
+     *
+     * @param subTaskIds идентификаторы подзадач.
+     */
+    void evictFromEntityCache(Collection<Long> subTaskIds);
+
+    /**
+     * Устанавливает статус всем подзадачам, удовлетворяющим предикату.
+     *
+     * @param predicate предикат над {@link SubTask}.
+     * @param status    новый статус.
+     * @return количество измененных подзадач.
+     */
+    long updateStatus(Predicate predicate, TaskStatus status);
+}
@@ -0,0 +1,156 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.entity.QSubTask;
+import antonfeklichev.tasktrackerapp.entity.SubTask;
+import antonfeklichev.tasktrackerapp.entity.Task;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.hibernate.Session;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Реализация {@link SubTaskRepositoryCustom} на {@link JPAQueryFactory}.
+ */
+class SubTaskRepositoryCustomImpl implements SubTaskRepositoryCustom {
+
+    private static final QSubTask SUB_TASK = QSubTask.subTask;
+    private static final ConstructorExpression<SubTaskDto> SUB_TASK_DTO = Projections.constructor(SubTaskDto.class,
+            SUB_TASK.id, SUB_TASK.name, SUB_TASK.description, SUB_TASK.status, SUB_TASK.task.id, SUB_TASK.version);
+
+    /**
+     * Строка блокируется в {@code old}, чтобы прежний статус и изменяемая версия строки совпадали при параллельных изменениях.
+     * Перед ней в {@code parent} блокируется строка задачи: задача всегда блокируется раньше своих подзадач, как при
+     * массовой смене статуса и удалении задачи. Соединение с {@code parent} гарантирует, что блокировка задачи
+     * выполняется до блокировки подзадачи.
+     */
+    private static final String PATCH_SQL = """
+            WITH parent AS (
+                SELECT t.id FROM tasks t WHERE t.id = (SELECT task_id FROM subtasks WHERE id = :id) FOR UPDATE
+            ), old AS (
+                SELECT s.id, s.status, parent.id AS locked_task_id
+                FROM subtasks s LEFT JOIN parent ON parent.id = s.task_id
+                WHERE s.id = :id
+                FOR UPDATE OF s
+            ), updated AS (
+                UPDATE subtasks s
+                SET name = COALESCE(CAST(:name AS varchar), s.name),
+                    description = COALESCE(CAST(:description AS varchar), s.description),
+                    status = COALESCE(CAST(:status AS varchar), s.status),
+                    version = s.version + 1
+                FROM old
+                WHERE s.id = old.id
+                  AND (CAST(:version AS bigint) IS NULL OR s.version = CAST(:version AS bigint))
+                RETURNING s.id, s.name, s.description, s.status, s.task_id, s.version, old.status AS previous_status,
+                          CASE WHEN old.status <> 'DONE' THEN 1 ELSE 0 END AS was_open,
+                          CASE WHEN s.status <> 'DONE' THEN 1 ELSE 0 END AS is_open
+            ), counter AS (
+                UPDATE tasks t
+                SET open_subtask_count = t.open_subtask_count + u.is_open - u.was_open
+                FROM updated u
+                WHERE t.id = u.task_id AND u.is_open <> u.was_open
+            )
+            SELECT id, name, description, status, task_id, version, previous_status FROM updated
+            """;
+
+    private final EntityManager entityManager;
+    private final JPAQueryFactory queryFactory;
+
+    SubTaskRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.queryFactory = new JPAQueryFactory(entityManager);
+    }
+
+    @Override
+    public List<Long> findTaskIds(Predicate predicate) {
+        QSubTask subTask = QSubTask.subTask;
+        return queryFactory.select(subTask.task.id)
+                .distinct()
+                .from(subTask)
+                .where(predicate, subTask.task.isNotNull())
+                .fetch();
+    }
+
+    @Override
+    public Optional<SubTaskDto> findDtoById(Long subTaskId) {
+        return Optional.ofNullable(queryFactory.select(SUB_TASK_DTO)
+                .from(SUB_TASK)
+                .where(SUB_TASK.id.eq(subTaskId))
+                .fetchOne());
+    }
+
+    @Override
+    public List<SubTaskDto> findDtosByIds(Collection<Long> subTaskIds) {
+        return queryFactory.select(SUB_TASK_DTO)
+                .from(SUB_TASK)
+                .where(SUB_TASK.id.in(subTaskIds))
+                .fetch();
+    }
+
+    @Override
+    public List<SubTaskDto> findDtos(Predicate predicate, OrderSpecifier<?>[] order, long limit) {
+        return queryFactory.select(SUB_TASK_DTO)
+                .from(SUB_TASK)
+                .where(predicate)
+                .orderBy(order)
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public long updateStatus(Predicate predicate, TaskStatus status) {
+        QSubTask subTask = QSubTask.subTask;
+        return queryFactory.update(subTask)
+                .set(subTask.status, status)
+                .set(subTask.version, subTask.version.add(1))
+                .where(predicate)
+                .execute();
+    }
+
+    @Override
+    public Optional<PatchedRow<SubTaskDto>> patch(Long subTaskId, SubTaskDto patch) {
+        List<Tuple> rows = entityManager.unwrap(Session.class).createNativeQuery(PATCH_SQL, Tuple.class)
+                .setParameter("id", subTaskId, StandardBasicTypes.LONG)
+                .setParameter("name", patch.name(), StandardBasicTypes.STRING)
+                .setParameter("description", patch.description(), StandardBasicTypes.STRING)
+                .setParameter("status", patch.status() == null ? null : patch.status().name(), StandardBasicTypes.STRING)
+                .setParameter("version", patch.version(), StandardBasicTypes.LONG)
+                .getResultList();
+
+        Optional<PatchedRow<SubTaskDto>> patched = rows.stream().findFirst().map(row -> new PatchedRow<>(new SubTaskDto(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                toStatus(row.get("status", String.class)),
+                row.get("task_id", Long.class),
+                row.get("version", Long.class)),
+                toStatus(row.get("previous_status", String.class))));
+        patched.map(PatchedRow::row).ifPresent(subTask -> {
+            EntityCacheEviction.evict(entityManager, SubTask.class, List.of(subTask.id()));
+            if (subTask.taskId() != null) {
+                // Запрос мог изменить счетчик незавершенных подзадач родительской задачи.
+                EntityCacheEviction.evict(entityManager, Task.class, List.of(subTask.taskId()));
+            }
+        });
+        return patched;
+    }
+
+    @Override
+    public void evictFromEntityCache(Collection<Long> subTaskIds) {
+        EntityCacheEviction.evict(entityManager, SubTask.class, subTaskIds);
+    }
+
+    private static TaskStatus toStatus(String status) {
+        return status == null ? null : TaskStatus.valueOf(status);
+    }
+}
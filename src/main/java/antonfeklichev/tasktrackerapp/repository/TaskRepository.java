@@ -1,17 +1,182 @@
 package antonfeklichev.tasktrackerapp.repository;
 
 import antonfeklichev.tasktrackerapp.entity.Task;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.search.IndexedName;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Репозиторий для управления сущностями задач ({@link Task}) в базе данных.
  * <p>
  * Наследует функциональность от {@link JpaRepository} и {@link QuerydslPredicateExecutor} для
  * предоставления стандартных методов управления сущностями и выполнения запросов с использованием Querydsl.
+ * Чтение в DTO без загрузки сущностей объявлено в {@link TaskRepositoryCustom}.
  * </p>
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long>, QuerydslPredicateExecutor<Task> {
+public interface TaskRepository extends JpaRepository<Task, Long>, QuerydslPredicateExecutor<Task>, TaskRepositoryCustom {
+
+    /**
+     * Размер пакета строк, которые драйвер получает из курсора базы данных за одно обращение.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Возвращает все задачи в порядке идентификаторов через однонаправленный курсор базы данных.
+     * Строки загружаются пакетами по {@link #STREAM_FETCH_SIZE}, поэтому метод должен вызываться внутри транзакции,
+     * а поток - закрываться после использования.
+     *
+     * @return поток задач только для чтения.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Task t ORDER BY t.id")
+    Stream<Task> streamAllOrderById();
+
+    /**
+     * Возвращает идентификаторы и имена всех задач для построения индекса имен.
+     *
+     * @return поток пар идентификатор-имя; должен использоваться внутри транзакции и закрываться после использования.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("SELECT new antonfeklichev.tasktrackerapp.search.IndexedName(t.id, t.name) FROM Task t")
+    Stream<IndexedName> streamIndexedNames();
+
+    /**
+     * Возвращает идентификаторы всех задач для заполнения фильтра идентификаторов.
+     *
+     * @return поток идентификаторов; должен использоваться внутри транзакции и закрываться после использования.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("SELECT t.id FROM Task t")
+    Stream<Long> streamIds();
+
+    /**
+     * Загружает задачу вместе с ее подзадачами одним запросом с левым соединением.
+     * <p>
+     * Каждая строка результата - пара {@code [Task, SubTask]}; для задачи без подзадач возвращается одна строка,
+     * в которой подзадача равна {@code null}. Ссылки подзадач на задачу разрешаются в уже загруженную сущность
+     * без дополнительных запросов.
+     * </p>
+     *
+     * @param taskId Идентификатор задачи.
+     * @return Строки результата в порядке идентификаторов подзадач или пустой список, если задача не найдена.
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("SELECT t, s FROM Task t LEFT JOIN SubTask s ON s.task.id = t.id WHERE t.id = :taskId ORDER BY s.id")
+    List<Object[]> findWithSubTasksById(Long taskId);
+
+    /**
+     * Возвращает количество незавершенных подзадач задачи без загрузки сущностей.
+     *
+     * @param taskId Идентификатор задачи.
+     * @return Количество незавершенных подзадач или пустое значение, если задача не найдена.
+     */
+    @Query("SELECT t.openSubTaskCount FROM Task t WHERE t.id = :taskId")
+    Optional<Integer> findOpenSubTaskCountById(Long taskId);
+
+    /**
+     * Возвращает версию задачи без загрузки сущности.
+     *
+     * @param taskId Идентификатор задачи.
+     * @return Версия задачи или пустое значение, если задача не найдена.
+     */
+    @Query("SELECT t.version FROM Task t WHERE t.id = :taskId")
+    Optional<Long> findVersionById(Long taskId);
+
+    /**
+     * Блокирует строки задач до конца транзакции в порядке идентификаторов.
+     *
+     * @param taskIds Идентификаторы задач.
+     * @return Идентификаторы найденных задач.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t.id FROM Task t WHERE t.id IN :taskIds ORDER BY t.id")
+    List<Long> lockByIds(Collection<Long> taskIds);
+
+    /**
+     * Проверяет существование задачи и запрещает ее удаление до конца транзакции, не препятствуя другим читателям.
+     *
+     * @param taskId Идентификатор задачи.
+     * @return Идентификатор задачи или пустое значение, если задача не найдена.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT t.id FROM Task t WHERE t.id = :taskId")
+    Optional<Long> lockSharedById(Long taskId);
+
+    /**
+     * Пересчитывает количество незавершенных подзадач заданных задач по таблице подзадач.
+     *
+     * @param taskIds Идентификаторы задач.
+     * @param done    Статус завершенной подзадачи.
+     * @return Количество обновленных задач.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t " +
+           "SET t.openSubTaskCount = (SELECT COUNT(s) FROM SubTask s WHERE s.task.id = t.id AND s.status <> :done) " +
+           "WHERE t.id IN :taskIds")
+    int recountOpenSubTasks(Collection<Long> taskIds, TaskStatus done);
+
+    /**
+     * Возвращает задачи без незавершенных подзадач, статус которых отличается от заданного.
+     *
+     * @param taskIds Идентификаторы задач.
+     * @param status  Статус, которого у задач еще нет.
+     * @return Идентификаторы задач.
+     */
+    @Query("SELECT t.id FROM Task t " +
+           "WHERE t.id IN :taskIds AND t.openSubTaskCount = 0 AND (t.status IS NULL OR t.status <> :status) " +
+           "ORDER BY t.id")
+    List<Long> findIdsWithoutOpenSubTasks(Collection<Long> taskIds, TaskStatus status);
+
+    /**
+     * Устанавливает статус задачам.
+     *
+     * @param taskIds Идентификаторы задач.
+     * @param status  Новый статус.
+     * @return Количество обновленных задач.
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :status, t.version = t.version + 1 WHERE t.id IN :taskIds")
+    int updateStatus(Collection<Long> taskIds, TaskStatus status);
+
+    /**
+     * Пересчитывает количество незавершенных подзадач по таблице подзадач там, где оно расходится с сохраненным.
+     * Запрос выполняется в отдельной транзакции {@link Isolation#REPEATABLE_READ}, поэтому параллельное изменение
+     * счетчика приводит к ошибке сериализации, а не к записи устаревшего значения.
+     *
+     * @return Количество исправленных задач.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.REPEATABLE_READ)
+    @Modifying
+    @Query(value = "UPDATE tasks t " +
+                   "SET open_subtask_count = actual.open_count " +
+                   "FROM (SELECT tc.id, COUNT(s.id) AS open_count " +
+                   "      FROM tasks tc " +
+                   "      LEFT JOIN subtasks s ON s.task_id = tc.id AND s.status <> 'DONE' " +
+                   "      GROUP BY tc.id) actual " +
+                   "WHERE t.id = actual.id AND t.open_subtask_count <> actual.open_count",
+            nativeQuery = true)
+    int repairOpenSubTaskCounts();
 }
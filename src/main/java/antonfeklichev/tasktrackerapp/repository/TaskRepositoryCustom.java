@@ -0,0 +1,78 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.entity.Task;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Чтение задач сразу в {@link TaskDto} конструкторной проекцией Querydsl.
+ * <p>
+ * Сущности не создаются и не попадают в контекст персистентности, поэтому для строк не хранятся снимки
+ * для проверки изменений. Запросы выполняются в транзакциях только для чтения.
+ * </p>
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Возвращает задачу по идентификатору.
+     *
+     * @param taskId идентификатор задачи.
+     * @return DTO задачи или пустое значение, если задача не найдена.
+     */
+    @Transactional(readOnly = true)
+    Optional<TaskDto> findDtoById(Long taskId);
+
+    /**
+     * Возвращает задачи по идентификаторам одним запросом {@code IN}.
+     *
+     * @param taskIds идентификаторы задач.
+     * @return DTO найденных задач в произвольном порядке.
+     */
+    @Transactional(readOnly = true)
+    List<TaskDto> findDtosByIds(Collection<Long> taskIds);
+
+    /**
+     * Возвращает задачи, удовлетворяющие предикату.
+     *
+     * @param predicate предикат над {@link Task}.
+     * @param order     порядок выдачи.
+     * @param limit     максимальное количество строк.
+     * @return DTO задач.
+     */
+    @Transactional(readOnly = true)
+    List<TaskDto> findDtos(Predicate predicate, OrderSpecifier<?>[] order, long limit);
+
+    /**
+     * Изменяет задачу одним условным запросом {@code UPDATE ... RETURNING}.
+     * <p>
+     * Записываются только непустые поля {@code patch}, версия увеличивается на единицу. Строка не изменяется, если
+     * указана {@code patch.version()} и она не совпадает с текущей, а также если задача переводится в
+     * {@link antonfeklichev.tasktrackerapp.entity.TaskStatus#DONE} при незавершенных подзадачах.
+     * </p>
+     *
+     * @param taskId идентификатор задачи.
+     * @param patch  изменяемые поля и ожидаемая версия.
+     * @return DTO измененной задачи и ее статус до изменения или пустое значение, если строка не изменена.
+     */
+    @Transactional
+    Optional<PatchedRow<TaskDto>> patch(Long taskId, TaskDto patch);
+
+    /**
+     * Атомарно изменяет количество незавершенных подзадач задачи.
+     * <p>
+     * Из кэша второго уровня удаляется только измененная задача, остальные задачи в нем сохраняются.
+     * </p>
+     *
+     * @param taskId Идентификатор задачи.
+     * @param delta  Величина изменения счетчика.
+     * @return Количество обновленных строк: 0, если задача не найдена.
+     */
+    @Transactional
+    int adjustOpenSubTaskCount(Long taskId, int delta);
+}
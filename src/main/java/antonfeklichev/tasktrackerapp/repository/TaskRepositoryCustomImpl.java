@@ -0,0 +1,125 @@
+package antonfeklichev.tasktrackerapp.repository;
+
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.entity.QTask;
+import antonfeklichev.tasktrackerapp.entity.Task;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Реализация {@link TaskRepositoryCustom} на {@link JPAQueryFactory}.
+ */
+class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final QTask TASK = QTask.task;
+    private static final ConstructorExpression<TaskDto> TASK_DTO =
+            Projections.constructor(TaskDto.class, TASK.id, TASK.name, TASK.description, TASK.status, TASK.version);
+
+    /**
+     * Строка блокируется в {@code old}, чтобы прежний статус относился к изменяемой версии строки.
+     */
+    private static final String PATCH_SQL = """
+            WITH old AS (
+                SELECT id, status FROM tasks WHERE id = :id FOR UPDATE
+            )
+            UPDATE tasks t
+            SET name = COALESCE(CAST(:name AS varchar), t.name),
+                description = COALESCE(CAST(:description AS varchar), t.description),
+                status = COALESCE(CAST(:status AS varchar), t.status),
+                version = t.version + 1
+            FROM old
+            WHERE t.id = old.id
+              AND (CAST(:version AS bigint) IS NULL OR t.version = CAST(:version AS bigint))
+              AND (CAST(:status AS varchar) IS DISTINCT FROM 'DONE' OR t.open_subtask_count = 0)
+            RETURNING t.id, t.name, t.description, t.status, t.version, old.status AS previous_status
+            """;
+
+    private static final String ADJUST_OPEN_SUB_TASK_COUNT_SQL =
+            "UPDATE tasks SET open_subtask_count = open_subtask_count + :delta WHERE id = :taskId";
+
+    private final EntityManager entityManager;
+    private final JPAQueryFactory queryFactory;
+
+    TaskRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.queryFactory = new JPAQueryFactory(entityManager);
+    }
+
+    @Override
+    public Optional<TaskDto> findDtoById(Long taskId) {
+        return Optional.ofNullable(queryFactory.select(TASK_DTO)
+                .from(TASK)
+                .where(TASK.id.eq(taskId))
+                .fetchOne());
+    }
+
+    @Override
+    public List<TaskDto> findDtosByIds(Collection<Long> taskIds) {
+        return queryFactory.select(TASK_DTO)
+                .from(TASK)
+                .where(TASK.id.in(taskIds))
+                .fetch();
+    }
+
+    @Override
+    public List<TaskDto> findDtos(Predicate predicate, OrderSpecifier<?>[] order, long limit) {
+        return queryFactory.select(TASK_DTO)
+                .from(TASK)
+                .where(predicate)
+                .orderBy(order)
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public Optional<PatchedRow<TaskDto>> patch(Long taskId, TaskDto patch) {
+        List<Tuple> rows = entityManager.unwrap(Session.class).createNativeQuery(PATCH_SQL, Tuple.class)
+                .setParameter("id", taskId, StandardBasicTypes.LONG)
+                .setParameter("name", patch.name(), StandardBasicTypes.STRING)
+                .setParameter("description", patch.description(), StandardBasicTypes.STRING)
+                .setParameter("status", patch.status() == null ? null : patch.status().name(), StandardBasicTypes.STRING)
+                .setParameter("version", patch.version(), StandardBasicTypes.LONG)
+                .getResultList();
+
+        Optional<PatchedRow<TaskDto>> patched = rows.stream().findFirst().map(row -> new PatchedRow<>(new TaskDto(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                toStatus(row.get("status", String.class)),
+                row.get("version", Long.class)),
+                toStatus(row.get("previous_status", String.class))));
+        patched.ifPresent(task -> EntityCacheEviction.evict(entityManager, Task.class, List.of(task.row().id())));
+        return patched;
+    }
+
+    @Override
+    public int adjustOpenSubTaskCount(Long taskId, int delta) {
+        entityManager.flush();
+        NativeQuery<?> query = entityManager.createNativeQuery(ADJUST_OPEN_SUB_TASK_COUNT_SQL).unwrap(NativeQuery.class);
+        int updated = query.addSynchronizedQuerySpace(EntityCacheEviction.NO_QUERY_SPACE)
+                .setParameter("taskId", taskId, StandardBasicTypes.LONG)
+                .setParameter("delta", delta, StandardBasicTypes.INTEGER)
+                .executeUpdate();
+        if (updated > 0) {
+            EntityCacheEviction.evict(entityManager, Task.class, List.of(taskId));
+        }
+        return updated;
+    }
+
+    private static TaskStatus toStatus(String status) {
+        return status == null ? null : TaskStatus.valueOf(status);
+    }
+}
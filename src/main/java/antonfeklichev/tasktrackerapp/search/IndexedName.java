@@ -0,0 +1,10 @@
+package antonfeklichev.tasktrackerapp.search;
+
+/**
+ * Идентификатор и имя задачи или подзадачи, загружаемые при перестроении индекса имен.
+ *
+ * @param id   идентификатор задачи или подзадачи.
+ * @param name имя задачи или подзадачи.
+ */
+public record IndexedName(Long id, String name) {
+}
@@ -0,0 +1,29 @@
+package antonfeklichev.tasktrackerapp.search;
+
+import antonfeklichev.tasktrackerapp.entity.QAbstractTask;
+import com.querydsl.core.types.dsl.BooleanExpression;
+
+import java.util.Set;
+
+/**
+ * Кандидаты фильтра по имени из индекса имен.
+ * <p>
+ * Индекс точен только для записей, не изменявшихся после чтения данных при его построении. Записи, измененные позже,
+ * в том числе другими экземплярами приложения и в обход JPA, имеют номер изменения {@code change_seq} не меньше
+ * {@code changedSince} и проверяются базой данных независимо от индекса.
+ * </p>
+ *
+ * @param ids          идентификаторы записей, имена которых по индексу могут содержать подстроку.
+ * @param changedSince наименьший номер изменения записей, которые могли измениться после построения индекса.
+ */
+public record NameCandidates(Set<Long> ids, long changedSince) {
+
+    /**
+     * @param path задача или подзадача.
+     * @return условие, которому удовлетворяют кандидаты и записи, измененные после построения индекса.
+     */
+    public BooleanExpression predicate(QAbstractTask path) {
+        BooleanExpression changed = path.changeSeq.goe(changedSince);
+        return ids.isEmpty() ? changed : path.id.in(ids).or(changed);
+    }
+}
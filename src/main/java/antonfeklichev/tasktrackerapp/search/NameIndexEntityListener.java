@@ -0,0 +1,49 @@
+package antonfeklichev.tasktrackerapp.search;
+
+import antonfeklichev.tasktrackerapp.entity.AbstractTask;
+import antonfeklichev.tasktrackerapp.entity.SubTask;
+import antonfeklichev.tasktrackerapp.transaction.TransactionCallbacks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Передает изменения задач и подзадач в {@link NameSearchIndex}.
+ * <p>
+ * Изменения применяются к индексу только после фиксации транзакции, поэтому откат не оставляет
+ * в индексе имен, которых нет в базе данных.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class NameIndexEntityListener {
+
+    private final ObjectProvider<NameSearchIndex> nameSearchIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(AbstractTask entity) {
+        Long id = entity.getId();
+        String name = entity.getName();
+        if (entity instanceof SubTask) {
+            TransactionCallbacks.afterCommit(() -> nameSearchIndex.getObject().indexSubTask(id, name));
+        } else {
+            TransactionCallbacks.afterCommit(() -> nameSearchIndex.getObject().indexTask(id, name));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(AbstractTask entity) {
+        Long id = entity.getId();
+        if (entity instanceof SubTask) {
+            TransactionCallbacks.afterCommit(() -> nameSearchIndex.getObject().removeSubTasks(List.of(id)));
+        } else {
+            TransactionCallbacks.afterCommit(() -> nameSearchIndex.getObject().removeTask(id));
+        }
+    }
+}
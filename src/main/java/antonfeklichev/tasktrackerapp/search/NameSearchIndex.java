@@ -0,0 +1,186 @@
+package antonfeklichev.tasktrackerapp.search;
+
+import antonfeklichev.tasktrackerapp.repository.ChangeLogRepository;
+import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
+import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Триграммные индексы имен задач и подзадач, по которым фильтры находят кандидатов до обращения к базе данных.
+ * <p>
+ * Индексы строятся при старте приложения и перестраиваются раз в {@code rebuildInterval}, а между перестроениями
+ * обновляются после фиксации изменений этого экземпляра приложения. Изменения других экземпляров и записи в обход JPA
+ * индекс не видит, поэтому вместе с кандидатами возвращается номер изменения, начиная с которого записи проверяются
+ * базой данных без индекса (см. {@link NameCandidates}). Пока индекс не построен, а также для коротких подстрок и
+ * слишком большого числа кандидатов поиск возвращает {@link Optional#empty()}, и фильтр выполняет обычное сканирование.
+ * </p>
+ * Новый индекс строится рядом с текущим и заменяет его целиком; записи, выполненные во время перестроения, попадают в оба
+ * индекса и имеют приоритет над прочитанными при перестроении данными.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NameSearchIndex {
+
+    private final TaskRepository taskRepository;
+    private final SubTaskRepository subTaskRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final SearchProperties searchProperties;
+
+    private final Segment tasks = new Segment();
+    private final Segment subTasks = new Segment();
+
+    private volatile boolean ready;
+
+    /**
+     * Загружает имена всех задач и подзадач в новые индексы и заменяет ими текущие.
+     * <p>
+     * Номер изменения запоминается до чтения имен: записи, изменения которых не видны запросам перестроения, имеют
+     * номер изменения не меньше него.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${task-tracker.search.rebuild-interval}",
+            fixedDelayString = "${task-tracker.search.rebuild-interval}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        if (!searchProperties.enabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long changedSince = changeLogRepository.findSnapshotFloor();
+        tasks.startRebuild();
+        subTasks.startRebuild();
+        boolean loaded = false;
+        try (Stream<IndexedName> taskNames = taskRepository.streamIndexedNames();
+             Stream<IndexedName> subTaskNames = subTaskRepository.streamIndexedNames()) {
+            taskNames.forEach(tasks::load);
+            subTaskNames.forEach(subTasks::load);
+            loaded = true;
+        } finally {
+            tasks.finishRebuild(loaded, changedSince);
+            subTasks.finishRebuild(loaded, changedSince);
+        }
+        ready = true;
+        log.info("Индекс имен построен за {} мс: задач {}, подзадач {}.",
+                System.currentTimeMillis() - start, tasks.current.index().size(), subTasks.current.index().size());
+    }
+
+    public void indexTask(Long taskId, String name) {
+        tasks.put(taskId, name);
+    }
+
+    public void removeTask(Long taskId) {
+        tasks.remove(taskId);
+    }
+
+    public void indexSubTask(Long subTaskId, String name) {
+        subTasks.put(subTaskId, name);
+    }
+
+    public void removeSubTasks(Collection<Long> subTaskIds) {
+        subTaskIds.forEach(subTasks::remove);
+    }
+
+    /**
+     * Возвращает идентификаторы задач, имена которых могут содержать подстроку.
+     *
+     * @param term искомая подстрока.
+     * @return кандидаты, которые необходимо проверить в базе данных, или {@link Optional#empty()}, если индекс неприменим.
+     */
+    public Optional<NameCandidates> findTaskCandidates(String term) {
+        return findCandidates(tasks, term);
+    }
+
+    /**
+     * Возвращает идентификаторы подзадач, имена которых могут содержать подстроку.
+     *
+     * @param term искомая подстрока.
+     * @return кандидаты, которые необходимо проверить в базе данных, или {@link Optional#empty()}, если индекс неприменим.
+     */
+    public Optional<NameCandidates> findSubTaskCandidates(String term) {
+        return findCandidates(subTasks, term);
+    }
+
+    private Optional<NameCandidates> findCandidates(Segment segment, String term) {
+        if (!ready || !TrigramIndex.isSearchable(term)) {
+            return Optional.empty();
+        }
+        Segment.Snapshot snapshot = segment.current;
+        Set<Long> candidates = snapshot.index().candidates(term);
+        if (candidates.size() > searchProperties.maxCandidates()) {
+            log.debug("По подстроке '{}' найдено {} кандидатов, поиск выполняется сканированием.", term, candidates.size());
+            return Optional.empty();
+        }
+        return Optional.of(new NameCandidates(candidates, snapshot.changedSince()));
+    }
+
+    /**
+     * Индекс одного вида записей, строящийся индекс и идентификаторы, удаленные во время перестроения.
+     */
+    private final class Segment {
+        private final Set<Long> removedDuringRebuild = ConcurrentHashMap.newKeySet();
+        private volatile Snapshot current = new Snapshot(new TrigramIndex(), 0);
+        private TrigramIndex next;
+
+        synchronized void put(Long id, String name) {
+            if (searchProperties.enabled() && id != null) {
+                current.index().put(id, name);
+                if (next != null) {
+                    next.put(id, name);
+                }
+            }
+        }
+
+        synchronized void remove(Long id) {
+            if (searchProperties.enabled() && id != null) {
+                current.index().remove(id);
+                if (next != null) {
+                    removedDuringRebuild.add(id);
+                    next.remove(id);
+                }
+            }
+        }
+
+        synchronized void startRebuild() {
+            next = new TrigramIndex();
+        }
+
+        /**
+         * Вызывается без блокировки сегмента: {@link TrigramIndex} потокобезопасен, а ссылка на строящийся индекс
+         * не меняется до {@link #finishRebuild}.
+         */
+        void load(IndexedName indexedName) {
+            if (!removedDuringRebuild.contains(indexedName.id())) {
+                next.putIfAbsent(indexedName.id(), indexedName.name());
+            }
+        }
+
+        synchronized void finishRebuild(boolean loaded, long changedSince) {
+            if (loaded) {
+                current = new Snapshot(next, changedSince);
+            }
+            next = null;
+            removedDuringRebuild.clear();
+        }
+
+        /**
+         * @param index        индекс имен.
+         * @param changedSince наименьший номер изменения записей, которые могли измениться после чтения данных индекса.
+         */
+        private record Snapshot(TrigramIndex index, long changedSince) {
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package antonfeklichev.tasktrackerapp.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки поиска задач и подзадач по имени.
+ *
+ * @param enabled         использовать ли триграммный индекс имен; если выключен, поиск выполняется сканированием таблицы.
+ * @param maxCandidates   максимальное количество кандидатов из индекса; при большем количестве выполняется сканирование.
+ * @param rebuildInterval период перестроения индекса; записи, измененные после построения индекса, проверяются базой
+ *                        данных без индекса, поэтому период ограничивает их количество.
+ */
+@ConfigurationProperties(prefix = "task-tracker.search")
+public record SearchProperties(@DefaultValue("true") boolean enabled,
+                               @DefaultValue("10000") int maxCandidates,
+                               @DefaultValue("PT10M") Duration rebuildInterval) {
+}
@@ -0,0 +1,160 @@
+package antonfeklichev.tasktrackerapp.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс триграмм имен без учета регистра.
+ * <p>
+ * Для каждой триграммы хранится множество идентификаторов, в именах которых она встречается.
+ * Подстрока длиной не меньше {@link #GRAM_LENGTH} может содержаться только в именах, содержащих все ее триграммы,
+ * поэтому пересечение их множеств дает надмножество совпадений. Окончательная проверка остается за базой данных.
+ * </p>
+ * Класс потокобезопасен.
+ */
+public class TrigramIndex {
+
+    public static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, String> names = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Проверяет, можно ли искать подстроку по индексу.
+     *
+     * @param term искомая подстрока.
+     * @return {@code true}, если подстрока содержит хотя бы одну триграмму.
+     */
+    public static boolean isSearchable(String term) {
+        return term != null && term.length() >= GRAM_LENGTH;
+    }
+
+    /**
+     * Добавляет имя в индекс или заменяет ранее проиндексированное имя с тем же идентификатором.
+     */
+    public void put(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            addInternal(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет имя в индекс, только если идентификатор еще не проиндексирован.
+     *
+     * @return {@code true}, если имя добавлено.
+     */
+    public boolean putIfAbsent(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            if (names.containsKey(id)) {
+                return false;
+            }
+            addInternal(id, name);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет идентификатор из индекса.
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы, имена которых могут содержать подстроку без учета регистра.
+     *
+     * @param term искомая подстрока, для которой {@link #isSearchable(String)} возвращает {@code true}.
+     * @return надмножество идентификаторов с совпадающими именами.
+     * @throws IllegalArgumentException если подстрока короче {@link #GRAM_LENGTH}.
+     */
+    public Set<Long> candidates(String term) {
+        if (!isSearchable(term)) {
+            throw new IllegalArgumentException("Search term must have at least " + GRAM_LENGTH + " characters");
+        }
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : trigrams(term)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Set.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return количество проиндексированных имен.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> trigrams(String value) {
+        String normalized = value.toLowerCase(Locale.ROOT);
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private void addInternal(long id, String name) {
+        if (name == null) {
+            return;
+        }
+        names.put(id, name);
+        for (String gram : trigrams(name)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeInternal(long id) {
+        String previous = names.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : trigrams(previous)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Интерфейс определяет выгрузку всех задач вместе с их подзадачами.
+ */
+public interface ExportService {
+
+    void exportTasks(OutputStream out) throws IOException;
+}
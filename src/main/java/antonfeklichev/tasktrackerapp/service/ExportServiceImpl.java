@@ -0,0 +1,100 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskExportDto;
+import antonfeklichev.tasktrackerapp.entity.Task;
+import antonfeklichev.tasktrackerapp.mapper.SubTaskMapper;
+import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
+import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Сервис потоковой выгрузки задач в формате NDJSON: одна задача с вложенным списком подзадач на строку.
+ * <p>
+ * Задачи читаются однонаправленным курсором базы данных пакетами по {@link TaskRepository#STREAM_FETCH_SIZE}.
+ * Для каждого пакета подзадачи загружаются одним запросом, строки записываются в поток ответа,
+ * после чего контекст персистентности очищается. Поэтому потребление памяти не зависит от количества задач.
+ * </p>
+ *
+ * @see ExportService
+ * @see TaskExportDto
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    private final TaskRepository taskRepository;
+    private final SubTaskRepository subTaskRepository;
+    private final SubTaskMapper subTaskMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    /**
+     * Записывает все задачи с их подзадачами в поток в формате NDJSON.
+     *
+     * @param out поток, в который записываются строки выгрузки; метод его не закрывает.
+     * @throws IOException если запись в поток не удалась.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTasks(OutputStream out) throws IOException {
+        long exported = 0;
+        try (Stream<Task> tasks = taskRepository.streamAllOrderById();
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+
+            Iterator<Task> iterator = tasks.iterator();
+            List<Task> batch = new ArrayList<>(TaskRepository.STREAM_FETCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == TaskRepository.STREAM_FETCH_SIZE || !iterator.hasNext()) {
+                    writeBatch(batch, writer);
+                    exported += batch.size();
+                    batch.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        if (exported > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        log.info("Выгружено задач: {}.", exported);
+    }
+
+    private void writeBatch(List<Task> batch, SequenceWriter writer) throws IOException {
+        Map<Long, List<SubTaskDto>> subTasksByTaskId = subTaskRepository
+                .getSubTasksByTaskIds(batch.stream().map(Task::getId).toList())
+                .stream()
+                .map(subTaskMapper::toSubTaskDto)
+                .collect(Collectors.groupingBy(SubTaskDto::taskId));
+
+        for (Task task : batch) {
+            writer.write(new TaskExportDto(task.getId(),
+                    task.getName(),
+                    task.getDescription(),
+                    task.getStatus(),
+                    subTasksByTaskId.getOrDefault(task.getId(), List.of())));
+        }
+        writer.flush();
+    }
+}
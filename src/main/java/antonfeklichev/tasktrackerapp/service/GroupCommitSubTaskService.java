@@ -0,0 +1,105 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeResultDto;
+import antonfeklichev.tasktrackerapp.groupcommit.GroupCommitExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Сервис подзадач с групповой фиксацией: создание и изменение одной подзадачи выполняются через
+ * {@link GroupCommitExecutor}, остальные операции передаются {@link SubTaskServiceImpl} без изменений.
+ * <p>
+ * Поля класса:
+ * <ul>
+ *   <li><b>subTaskService</b> - сервис подзадач, выполняющий операции.</li>
+ *   <li><b>groupCommitExecutor</b> - групповая фиксация изменений.</li>
+ * </ul>
+ * <p>
+ * Используется вместо {@link SubTaskServiceImpl} при {@code task-tracker.group-commit.enabled=true}.
+ *
+ * @see GroupCommitExecutor
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "task-tracker.group-commit", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class GroupCommitSubTaskService implements SubTaskService {
+
+    /**
+     * Максимальное количество запоминаемых ключей блокировки подзадач.
+     */
+    private static final int LOCK_KEYS_MAX_SIZE = 100_000;
+
+    private final SubTaskServiceImpl subTaskService;
+    private final GroupCommitExecutor groupCommitExecutor;
+    private final Cache<Long, Long> lockKeys = Caffeine.newBuilder()
+            .maximumSize(LOCK_KEYS_MAX_SIZE)
+            .build();
+
+    @Override
+    public SubTaskDto addSubTaskByTaskId(Long taskId, NewSubTaskDto newSubTaskDto) {
+        return groupCommitExecutor.execute(taskId, () -> subTaskService.addSubTaskByTaskId(taskId, newSubTaskDto));
+    }
+
+    @Override
+    public List<Long> addSubTasksByTaskId(Long taskId, List<NewSubTaskDto> newSubTaskDtos) {
+        return subTaskService.addSubTasksByTaskId(taskId, newSubTaskDtos);
+    }
+
+    @Override
+    public SubTaskDto getSubTaskById(Long subTaskId) {
+        return subTaskService.getSubTaskById(subTaskId);
+    }
+
+    @Override
+    public Optional<Long> findSubTaskVersionById(Long subTaskId) {
+        return subTaskService.findSubTaskVersionById(subTaskId);
+    }
+
+    @Override
+    public BatchLookupDto<SubTaskDto> getSubTasksByIds(Collection<Long> subTaskIds) {
+        return subTaskService.getSubTasksByIds(subTaskIds);
+    }
+
+    @Override
+    public CursorPageDto<SubTaskDto> getSubTasksByFilterAndTaskId(Long taskId, QueryDslFilterDto filter,
+                                                                  CursorPageRequestDto page) {
+        return subTaskService.getSubTasksByFilterAndTaskId(taskId, filter, page);
+    }
+
+    /**
+     * Изменение подзадачи блокирует сначала строку ее задачи, поэтому в пакете оно упорядочивается по задаче;
+     * подзадача без задачи блокирует только свою строку. Задача подзадачи не меняется, поэтому ключ запоминается и
+     * не требует чтения при следующих изменениях, после которых подзадача удаляется из кэша DTO.
+     */
+    @Override
+    public SubTaskDto updateSubTaskById(Long subTaskId, SubTaskDto subTaskDto) {
+        Long lockKey = lockKeys.get(subTaskId, id -> subTaskService.findTaskIdBySubTaskId(id).orElse(id));
+        return groupCommitExecutor.execute(lockKey, () -> subTaskService.updateSubTaskById(subTaskId, subTaskDto));
+    }
+
+    @Override
+    public SubTaskStatusChangeResultDto changeSubTaskStatuses(SubTaskStatusChangeDto statusChange) {
+        return subTaskService.changeSubTaskStatuses(statusChange);
+    }
+
+    @Override
+    public void deleteSubTaskById(Long subTaskId) {
+        subTaskService.deleteSubTaskById(subTaskId);
+    }
+}
@@ -0,0 +1,88 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.CreatedTaskDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDetailsDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.groupcommit.GroupCommitExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Сервис задач с групповой фиксацией: создание и изменение одной задачи выполняются через {@link GroupCommitExecutor},
+ * остальные операции передаются {@link TaskServiceImpl} без изменений.
+ * <p>
+ * Поля класса:
+ * <ul>
+ *   <li><b>taskService</b> - сервис задач, выполняющий операции.</li>
+ *   <li><b>groupCommitExecutor</b> - групповая фиксация изменений.</li>
+ * </ul>
+ * <p>
+ * Используется вместо {@link TaskServiceImpl} при {@code task-tracker.group-commit.enabled=true}.
+ *
+ * @see GroupCommitExecutor
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "task-tracker.group-commit", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class GroupCommitTaskService implements TaskService {
+
+    private final TaskServiceImpl taskService;
+    private final GroupCommitExecutor groupCommitExecutor;
+
+    @Override
+    public TaskDto addTask(NewTaskDto createTaskDto) {
+        return groupCommitExecutor.execute(() -> taskService.addTask(createTaskDto));
+    }
+
+    @Override
+    public List<CreatedTaskDto> addTasks(List<NewTaskDto> newTaskDtos) {
+        return taskService.addTasks(newTaskDtos);
+    }
+
+    @Override
+    public TaskDto getTaskById(Long taskId) {
+        return taskService.getTaskById(taskId);
+    }
+
+    @Override
+    public Optional<Long> findTaskVersionById(Long taskId) {
+        return taskService.findTaskVersionById(taskId);
+    }
+
+    @Override
+    public TaskDetailsDto getTaskDetailsById(Long taskId) {
+        return taskService.getTaskDetailsById(taskId);
+    }
+
+    @Override
+    public BatchLookupDto<TaskDto> getTasksByIds(Collection<Long> taskIds) {
+        return taskService.getTasksByIds(taskIds);
+    }
+
+    @Override
+    public CursorPageDto<TaskDto> getTasksByFilter(QueryDslFilterDto filter, CursorPageRequestDto page) {
+        return taskService.getTasksByFilter(filter, page);
+    }
+
+    @Override
+    public TaskDto updateTaskById(Long taskId, TaskDto taskDto) {
+        return groupCommitExecutor.execute(taskId, () -> taskService.updateTaskById(taskId, taskDto));
+    }
+
+    @Override
+    public void deleteTaskById(Long taskId) {
+        taskService.deleteTaskById(taskId);
+    }
+}
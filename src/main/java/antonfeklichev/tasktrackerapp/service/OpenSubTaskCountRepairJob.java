@@ -0,0 +1,38 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+
+/**
+ * Периодически сверяет счетчики незавершенных подзадач задач с таблицей подзадач.
+ * <p>
+ * Счетчики поддерживаются сервисом подзадач, но записи в обход приложения, например ручные правки в базе данных,
+ * могут привести к расхождению. Пересчет выполняется одним запросом в транзакции {@link Isolation#REPEATABLE_READ}: если задача
+ * параллельно изменилась, транзакция откатывается, и счетчик будет исправлен при следующем запуске.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenSubTaskCountRepairJob {
+
+    private final TaskRepository taskRepository;
+
+    @Scheduled(initialDelayString = "${task-tracker.open-subtask-count.repair-interval}",
+            fixedDelayString = "${task-tracker.open-subtask-count.repair-interval}")
+    public void repair() {
+        try {
+            int repaired = taskRepository.repairOpenSubTaskCounts();
+            if (repaired > 0) {
+                log.warn("Исправлены счетчики незавершенных подзадач у {} задач.", repaired);
+            }
+        } catch (ConcurrencyFailureException e) {
+            log.info("Пересчет счетчиков незавершенных подзадач отложен из-за параллельного изменения задач.");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.StatusStatsDto;
+import antonfeklichev.tasktrackerapp.dto.StatusTransitionDto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Интерфейс определяет чтение истории статусов задач и подзадач.
+ */
+public interface StatusHistoryService {
+
+    List<StatusTransitionDto> getTaskTimeline(Long taskId, Instant from, Instant to);
+
+    List<StatusStatsDto> getStatusStats(Instant from, Instant to, ChangeEventDto.Entity entity);
+}
@@ -0,0 +1,78 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.StatusStatsDto;
+import antonfeklichev.tasktrackerapp.dto.StatusTransitionDto;
+import antonfeklichev.tasktrackerapp.exception.InvalidTimeWindowException;
+import antonfeklichev.tasktrackerapp.repository.StatusHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Сервис истории статусов задач и подзадач для отчетов о времени выполнения.
+ * <p>
+ * Изменения статусов записываются базой данных при любом пути изменения, поэтому сервис только читает историю.
+ * История удаленных задач сохраняется.
+ * </p>
+ * <p>
+ * Поля:
+ * <ul>
+ *     <li><b>statusHistoryRepository</b> - Хранилище истории статусов.</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatusHistoryServiceImpl implements StatusHistoryService {
+
+    private final StatusHistoryRepository statusHistoryRepository;
+
+    /**
+     * Возвращает изменения статусов задачи и ее подзадач в порядке времени.
+     *
+     * @param taskId Идентификатор задачи.
+     * @param from   Начало интервала включительно; если не указано - с начала истории.
+     * @param to     Конец интервала исключительно; если не указан - до текущего момента.
+     * @return Изменения статусов; пустой список, если в интервале изменений не было.
+     * @throws InvalidTimeWindowException если начало интервала не раньше его конца.
+     */
+    @Override
+    public List<StatusTransitionDto> getTaskTimeline(Long taskId, Instant from, Instant to) {
+        if (from != null && to != null) {
+            validateWindow(from, to);
+        }
+        return statusHistoryRepository.findTaskTimeline(taskId, from, to);
+    }
+
+    /**
+     * Возвращает количество переходов в каждый статус и из него за интервал, а также среднее и медианное время
+     * в статусе по переходам из него.
+     *
+     * @param from   Начало интервала включительно.
+     * @param to     Конец интервала исключительно; если не указан - текущий момент.
+     * @param entity Вид записей; если не указан - задачи и подзадачи.
+     * @return Статистика в порядке статусов.
+     * @throws InvalidTimeWindowException если начало интервала не указано или не раньше его конца.
+     */
+    @Override
+    public List<StatusStatsDto> getStatusStats(Instant from, Instant to, ChangeEventDto.Entity entity) {
+        if (from == null) {
+            throw new InvalidTimeWindowException("Time window start is required");
+        }
+        Instant end = to == null ? Instant.now() : to;
+        validateWindow(from, end);
+        log.info("Запрошена статистика статусов за интервал {} - {}", from, end);
+        return statusHistoryRepository.findStatusStats(from, end,
+                entity == null ? null : entity == ChangeEventDto.Entity.SUBTASK);
+    }
+
+    private static void validateWindow(Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidTimeWindowException("Time window start must be before its end");
+        }
+    }
+}
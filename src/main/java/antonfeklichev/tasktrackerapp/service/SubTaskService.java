@@ -1,10 +1,17 @@
 package antonfeklichev.tasktrackerapp.service;
 
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
 import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeResultDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Интерфейс определяет методы для создания, получения, обновления и удаления подзадач,
@@ -16,11 +23,19 @@ import java.util.List;
 public interface SubTaskService {
     SubTaskDto addSubTaskByTaskId(Long taskId, NewSubTaskDto newSubTaskDto);
 
+    List<Long> addSubTasksByTaskId(Long taskId, List<NewSubTaskDto> newSubTaskDtos);
+
     SubTaskDto getSubTaskById(Long subTaskId);
 
-    List<SubTaskDto> getSubTasksByFilterAndTaskId(Long taskId, QueryDslFilterDto filter);
+    Optional<Long> findSubTaskVersionById(Long subTaskId);
+
+    BatchLookupDto<SubTaskDto> getSubTasksByIds(Collection<Long> subTaskIds);
+
+    CursorPageDto<SubTaskDto> getSubTasksByFilterAndTaskId(Long taskId, QueryDslFilterDto filter, CursorPageRequestDto page);
 
     SubTaskDto updateSubTaskById(Long subTaskId, SubTaskDto subTaskDto);
 
+    SubTaskStatusChangeResultDto changeSubTaskStatuses(SubTaskStatusChangeDto statusChange);
+
     void deleteSubTaskById(Long subTaskId);
 }
@@ -1,23 +1,52 @@
 package antonfeklichev.tasktrackerapp.service;
 
+import antonfeklichev.tasktrackerapp.batch.BatchLoader;
+import antonfeklichev.tasktrackerapp.batch.BatchProperties;
+import antonfeklichev.tasktrackerapp.cache.ChangeGenerations;
+import antonfeklichev.tasktrackerapp.cache.DtoCache;
+import antonfeklichev.tasktrackerapp.cache.FilterResultCache;
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
 import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeResultDto;
 import antonfeklichev.tasktrackerapp.entity.QSubTask;
 import antonfeklichev.tasktrackerapp.entity.SubTask;
 import antonfeklichev.tasktrackerapp.entity.Task;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.InvalidBatchRequestException;
+import antonfeklichev.tasktrackerapp.exception.InvalidStatusChangeException;
 import antonfeklichev.tasktrackerapp.exception.SubTaskNotFoundException;
 import antonfeklichev.tasktrackerapp.exception.TaskNotFoundException;
+import antonfeklichev.tasktrackerapp.exception.VersionConflictException;
+import antonfeklichev.tasktrackerapp.existence.TaskIdFilter;
+import antonfeklichev.tasktrackerapp.feed.ChangeFeed;
+import antonfeklichev.tasktrackerapp.logging.SampledLogger;
 import antonfeklichev.tasktrackerapp.mapper.SubTaskMapper;
+import antonfeklichev.tasktrackerapp.pagination.KeysetPaginator;
+import antonfeklichev.tasktrackerapp.repository.PatchedRow;
 import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
 import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import antonfeklichev.tasktrackerapp.search.NameSearchIndex;
+import antonfeklichev.tasktrackerapp.transaction.TransactionCallbacks;
 import com.querydsl.core.BooleanBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.util.Streamable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Класс <code>SubTaskServiceImpl</code> реализует интерфейс {@link SubTaskService} и предоставляет методы для работы с подзадачами.
@@ -28,6 +57,14 @@ import java.util.List;
  *   <li><b>subTaskRepository</b> - репозиторий для получения подзадач из базы данных.</li>
  *   <li><b>subTaskMapper</b> - маппер для преобразования подзадач в DTO и обратно.</li>
  *   <li><b>taskRepository</b> - репозиторий для получения основных задач из базы данных.</li>
+ *   <li><b>keysetPaginator</b> - постраничная выборка подзадач по ключу.</li>
+ *   <li><b>nameSearchIndex</b> - индекс имен подзадач для поиска по имени.</li>
+ *   <li><b>dtoCache</b> - кэш DTO задач и подзадач для чтения по идентификатору.</li>
+ *   <li><b>batchLoader</b> - пакетная загрузка подзадач по списку идентификаторов.</li>
+ *   <li><b>changeGenerations</b> - счетчики изменений задач и подзадач для версий списков.</li>
+ *   <li><b>filterResultCache</b> - кэш страниц результатов фильтров подзадач.</li>
+ *   <li><b>taskIdFilter</b> - фильтр идентификаторов существующих задач.</li>
+ *   <li><b>changeFeed</b> - лента изменений задач и подзадач для подписчиков.</li>
  * </ul>
  * <p>
  * Этот сервис служит связующим звеном между базой данных и клиентским приложением, обеспечивая необходимую бизнес-логику для обработки запросов на подзадачи.
@@ -42,9 +79,27 @@ import java.util.List;
 @Slf4j
 public class SubTaskServiceImpl implements SubTaskService {
 
+    /**
+     * Количество задач, счетчики которых пересчитываются одним запросом при массовой смене статуса.
+     */
+    private static final int TASK_CHUNK_SIZE = 1000;
+
+    /**
+     * Журнал запросов к несуществующим подзадачам: не больше 10 сообщений в секунду.
+     */
+    private static final SampledLogger MISS_LOG = new SampledLogger(log, 10, Duration.ofSeconds(1));
+
     private final SubTaskRepository subTaskRepository;
     private final SubTaskMapper subTaskMapper;
     private final TaskRepository taskRepository;
+    private final KeysetPaginator keysetPaginator;
+    private final NameSearchIndex nameSearchIndex;
+    private final DtoCache dtoCache;
+    private final BatchLoader batchLoader;
+    private final ChangeGenerations changeGenerations;
+    private final FilterResultCache filterResultCache;
+    private final TaskIdFilter taskIdFilter;
+    private final ChangeFeed changeFeed;
 
 
     /**
@@ -57,23 +112,50 @@ public class SubTaskServiceImpl implements SubTaskService {
      */
 
     @Override
+    @Transactional
     public SubTaskDto addSubTaskByTaskId(Long taskId, NewSubTaskDto newSubTaskDto) {
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> {
-                    log.error("При вызове метода SubTaskServiceImpl.addSubTaskByTaskId()" +
-                              " не найдена задача по идентификатору {}.", taskId);
-                    return new TaskNotFoundException("You cannot create SubTask with no Task");
-                });
         SubTask subTask = subTaskMapper.toSubTask(newSubTaskDto);
-        subTask.setTask(task);
+        subTask.setTask(referenceExistingTask(taskId, subTask.isOpen() ? 1 : 0, "addSubTaskByTaskId"));
         SubTask savedSubTask = subTaskRepository.save(subTask);
+        changeGenerations.subTasksChanged(taskId);
+        changeFeed.publish(ChangeEventDto.subTask(ChangeEventDto.Type.CREATED,
+                savedSubTask.getId(), taskId, savedSubTask.getStatus(), savedSubTask.getVersion()));
 
         return subTaskMapper.toSubTaskDto(savedSubTask);
 
     }
 
     /**
-     * Возвращает подзадачу по её идентификатору.
+     * Создает подзадачи для задачи с указанным идентификатором в одной транзакции пакетными INSERT.
+     *
+     * @param taskId         Идентификатор задачи, к которой относятся подзадачи.
+     * @param newSubTaskDtos DTO новых подзадач.
+     * @return Идентификаторы созданных подзадач в порядке следования в запросе.
+     * @throws TaskNotFoundException если задача с указанным идентификатором не найдена.
+     * @throws InvalidBatchRequestException если подзадач больше {@link BatchProperties#maxCreateSize()}.
+     */
+    @Override
+    @Transactional
+    public List<Long> addSubTasksByTaskId(Long taskId, List<NewSubTaskDto> newSubTaskDtos) {
+        batchLoader.checkCreateSize(newSubTaskDtos.size());
+        List<SubTask> subTasks = newSubTaskDtos.stream()
+                .map(subTaskMapper::toSubTask)
+                .toList();
+        int openSubTaskCount = (int) subTasks.stream().filter(SubTask::isOpen).count();
+        Task task = referenceExistingTask(taskId, openSubTaskCount, "addSubTasksByTaskId");
+        subTasks.forEach(subTask -> subTask.setTask(task));
+        subTaskRepository.saveAll(subTasks);
+        changeGenerations.subTasksChanged(taskId);
+        changeFeed.publishAll(subTasks.stream()
+                .map(subTask -> ChangeEventDto.subTask(ChangeEventDto.Type.CREATED,
+                        subTask.getId(), taskId, subTask.getStatus(), subTask.getVersion()))
+                .toList());
+
+        return subTasks.stream().map(SubTask::getId).toList();
+    }
+
+    /**
+     * Возвращает подзадачу по её идентификатору. Результат кэшируется в {@link DtoCache}, как и отсутствие подзадачи.
      *
      * @param subTaskId Идентификатор подзадачи.
      * @return DTO запрашиваемой подзадачи.
@@ -81,69 +163,289 @@ public class SubTaskServiceImpl implements SubTaskService {
      */
     @Override
     public SubTaskDto getSubTaskById(Long subTaskId) {
-        SubTask subTask = subTaskRepository.findById(subTaskId)
-                .orElseThrow(() -> {
-                    log.error("При вызове метода SubTaskServiceImpl.getSubTaskById()" +
-                              " не найдена подзадача по идентификатору {}.", subTaskId);
-                    return new SubTaskNotFoundException("SubTask not found");
-                });
+        SubTaskDto subTask = dtoCache.getSubTask(subTaskId, this::loadSubTask);
+        if (subTask == null) {
+            MISS_LOG.error("При вызове метода SubTaskServiceImpl.getSubTaskById()" +
+                           " не найдена подзадача по идентификатору {}.", subTaskId);
+            throw new SubTaskNotFoundException("SubTask not found");
+        }
+        return subTask;
+    }
+
+    /**
+     * Возвращает задачу подзадачи из {@link DtoCache} или базы данных. Подзадача не переносится в другую задачу,
+     * поэтому значение из кэша актуально.
+     *
+     * @param subTaskId Идентификатор подзадачи.
+     * @return Идентификатор задачи или пустое значение, если подзадача не найдена или не относится к задаче.
+     */
+    Optional<Long> findTaskIdBySubTaskId(Long subTaskId) {
+        return Optional.ofNullable(dtoCache.getSubTask(subTaskId, this::loadSubTask)).map(SubTaskDto::taskId);
+    }
+
+    /**
+     * Возвращает версию подзадачи для проверки условного запроса: из {@link DtoCache}, если подзадача есть в кэше
+     * или недавно не была найдена, иначе запросом только столбца версии.
+     *
+     * @param subTaskId Идентификатор подзадачи.
+     * @return Версия подзадачи или пустое значение, если подзадача не найдена.
+     */
+    @Override
+    public Optional<Long> findSubTaskVersionById(Long subTaskId) {
+        if (dtoCache.isSubTaskMissing(subTaskId)) {
+            return Optional.empty();
+        }
+        SubTaskDto cached = dtoCache.peekSubTask(subTaskId);
+        return cached != null ? Optional.of(cached.version()) : subTaskRepository.findVersionById(subTaskId);
+    }
+
+    /**
+     * Возвращает подзадачи по списку идентификаторов.
+     * <p>
+     * Подзадачи сначала читаются из {@link DtoCache}, отсутствующие загружаются запросами {@code IN} частями через {@link BatchLoader}.
+     * </p>
+     *
+     * @param subTaskIds Идентификаторы подзадач; повторяющиеся идентификаторы учитываются один раз.
+     * @return Найденные подзадачи и ненайденные идентификаторы в порядке запроса.
+     * @throws antonfeklichev.tasktrackerapp.exception.InvalidBatchRequestException если идентификаторы не переданы или их слишком много.
+     */
+    @Override
+    public BatchLookupDto<SubTaskDto> getSubTasksByIds(Collection<Long> subTaskIds) {
+        List<Long> ids = batchLoader.distinctIds(subTaskIds);
+        Map<Long, SubTaskDto> found = dtoCache.getSubTasks(ids, missing -> batchLoader.load(missing, this::loadSubTasks));
 
-        return subTaskMapper.toSubTaskDto(subTask);
+        return BatchLookupDto.of(ids, found);
     }
 
     /**
-     * Возвращает список подзадач по фильтрам и идентификатору задачи.
+     * Возвращает страницу подзадач по фильтрам и идентификатору задачи.
+     * Фильтр по имени сначала ограничивается кандидатами из {@link NameSearchIndex}, если индекс применим.
+     * Строки выбираются сразу в {@link SubTaskDto}, без загрузки сущностей. Страницы кэшируются в {@link FilterResultCache}
+     * до следующего изменения подзадач задачи через сервис.
      *
      * @param taskId Идентификатор задачи.
      * @param filter DTO, содержащий параметры фильтрации для поиска подзадач.
-     * @return Список DTO подзадач, соответствующих заданным критериям.
+     * @param page   параметры страницы: курсор, размер и порядок выдачи.
+     * @return Страница DTO подзадач, соответствующих заданным критериям, и курсор следующей страницы.
      */
     @Override
-    public List<SubTaskDto> getSubTasksByFilterAndTaskId(Long taskId, QueryDslFilterDto filter) {
+    public CursorPageDto<SubTaskDto> getSubTasksByFilterAndTaskId(Long taskId, QueryDslFilterDto filter, CursorPageRequestDto page) {
+        return filterResultCache.getSubTasks(taskId, filter, page, () -> findSubTasksPage(taskId, filter, page));
+    }
 
+    private CursorPageDto<SubTaskDto> findSubTasksPage(Long taskId, QueryDslFilterDto filter, CursorPageRequestDto page) {
         BooleanBuilder predicate = new BooleanBuilder(QSubTask.subTask.task.id.eq(taskId));
 
-        if (filter.status() != null) {
-            predicate.and(QSubTask.subTask.status.eq(filter.status()));
+        applyFilter(predicate, filter);
+        predicate.and(keysetPaginator.seek(QSubTask.subTask._super, page));
+
+        int limit = keysetPaginator.limit(page);
+        List<SubTaskDto> subTasks = subTaskRepository.findDtos(predicate,
+                keysetPaginator.order(QSubTask.subTask._super, page), limit + 1);
+
+        return keysetPaginator.toPage(subTasks, page, SubTaskDto::id, SubTaskDto::status);
+    }
+
+    /**
+     * Переводит выбранные подзадачи в новый статус несколькими запросами над множествами строк в одной транзакции.
+     * <p>
+     * Сначала определяются задачи затронутых подзадач. Затем по частям в порядке идентификаторов блокируются строки
+     * задач, статус их подзадач меняется одним UPDATE, и счетчики незавершенных подзадач пересчитываются по таблице
+     * подзадач. Изменяются только подзадачи заблокированных задач, поэтому подзадача, добавленная после выбора задач,
+     * не изменяется без пересчета счетчика ее задачи. Строка задачи блокируется раньше строк ее подзадач, как и при
+     * изменении, удалении одной подзадачи и удалении задачи. Если запрошено, задачи без незавершенных подзадач
+     * переводятся в {@link TaskStatus#DONE}.
+     * </p>
+     *
+     * @param statusChange DTO с критериями выбора подзадач и новым статусом.
+     * @return Количество измененных подзадач и идентификаторы закрытых задач.
+     * @throws InvalidStatusChangeException если не указан новый статус или критерии выбора подзадач.
+     */
+    @Override
+    @Transactional
+    public SubTaskStatusChangeResultDto changeSubTaskStatuses(SubTaskStatusChangeDto statusChange) {
+        if (statusChange.status() == null) {
+            throw new InvalidStatusChangeException("Target status is required");
         }
-        if (filter.name() != null && !filter.name().isBlank()) {
-            predicate.and(QSubTask.subTask.name.containsIgnoreCase(filter.name()));
+        boolean hasIds = statusChange.subTaskIds() != null && !statusChange.subTaskIds().isEmpty();
+        if (!hasIds && statusChange.filter() == null && statusChange.taskId() == null) {
+            log.error("При вызове метода SubTaskServiceImpl.changeSubTaskStatuses() не заданы критерии выбора подзадач.");
+            throw new InvalidStatusChangeException("Specify subTaskIds, taskId or filter");
+        }
+
+        QSubTask subTask = QSubTask.subTask;
+        BooleanBuilder predicate = new BooleanBuilder(subTask.status.ne(statusChange.status()).or(subTask.status.isNull()));
+        if (hasIds) {
+            predicate.and(subTask.id.in(statusChange.subTaskIds()));
+        }
+        if (statusChange.taskId() != null) {
+            predicate.and(subTask.task.id.eq(statusChange.taskId()));
+        }
+        if (statusChange.filter() != null) {
+            applyFilter(predicate, statusChange.filter());
         }
-        return Streamable.of(subTaskRepository.findAll(predicate))
-                .map(subTaskMapper::toSubTaskDto)
-                .toList();
 
+        List<Long> taskIds = subTaskRepository.findTaskIds(predicate).stream().sorted().toList();
+        long updated = subTaskRepository.updateStatus(new BooleanBuilder(predicate).and(subTask.task.isNull()),
+                statusChange.status());
+
+        List<Long> closedTaskIds = new ArrayList<>();
+        for (int from = 0; from < taskIds.size(); from += TASK_CHUNK_SIZE) {
+            List<Long> chunk = taskIds.subList(from, Math.min(from + TASK_CHUNK_SIZE, taskIds.size()));
+            taskRepository.lockByIds(chunk);
+            updated += subTaskRepository.updateStatus(new BooleanBuilder(predicate).and(subTask.task.id.in(chunk)),
+                    statusChange.status());
+            taskRepository.recountOpenSubTasks(chunk, TaskStatus.DONE);
+            if (statusChange.closeCompletedTasks() && statusChange.status() == TaskStatus.DONE) {
+                List<Long> completed = taskRepository.findIdsWithoutOpenSubTasks(chunk, TaskStatus.DONE);
+                if (!completed.isEmpty()) {
+                    taskRepository.updateStatus(completed, TaskStatus.DONE);
+                    closedTaskIds.addAll(completed);
+                }
+            }
+        }
+        if (hasIds && statusChange.taskId() == null && statusChange.filter() == null) {
+            dtoCache.evictSubTasks(statusChange.subTaskIds());
+        } else if (updated > 0) {
+            dtoCache.evictAllSubTasks();
+        }
+        dtoCache.evictTasks(closedTaskIds);
+        if (updated > 0) {
+            changeGenerations.subTasksChanged(taskIds);
+        }
+        if (!closedTaskIds.isEmpty()) {
+            changeGenerations.tasksChanged();
+        }
+        publishStatusChange(updated > 0 ? taskIds : List.of(), closedTaskIds, statusChange.status());
+        log.info("Статус {} установлен подзадачам: {}, закрыто задач: {}.", statusChange.status(), updated, closedTaskIds.size());
+
+        return new SubTaskStatusChangeResultDto(updated, closedTaskIds);
     }
 
     /**
-     * Обновляет подзадачу по её идентификатору.
+     * Обновляет подзадачу по её идентификатору одним условным запросом UPDATE.
+     * <p>
+     * Изменяются только непустые поля {@code subTaskDto}. Если указана {@code subTaskDto.version()}, подзадача изменяется
+     * только при совпадении версии. Счетчик незавершенных подзадач задачи изменяется тем же запросом. Новое имя
+     * попадает в индекс поиска после фиксации транзакции.
+     * </p>
      *
      * @param subTaskId Идентификатор подзадачи для обновления.
-     * @param subTaskDto DTO с обновленной информацией для подзадачи.
-     * @return Обновленное DTO подзадачи.
+     * @param subTaskDto DTO с обновленной информацией для подзадачи и ожидаемой версией.
+     * @return Обновленное DTO подзадачи с новой версией.
      * @throws SubTaskNotFoundException если подзадача с указанным идентификатором не найдена.
+     * @throws VersionConflictException если версия подзадачи не совпадает с ожидаемой.
      */
     @Override
     public SubTaskDto updateSubTaskById(Long subTaskId, SubTaskDto subTaskDto) {
-        SubTask subTask = subTaskRepository.findById(subTaskId)
+        Optional<PatchedRow<SubTaskDto>> patched = subTaskRepository.patch(subTaskId, subTaskDto);
+        dtoCache.evictSubTask(subTaskId);
+        if (patched.isPresent()) {
+            SubTaskDto updated = patched.get().row();
+            if (updated.taskId() != null) {
+                changeGenerations.subTasksChanged(updated.taskId());
+            }
+            if (subTaskDto.name() != null) {
+                TransactionCallbacks.afterCommit(() -> nameSearchIndex.indexSubTask(subTaskId, updated.name()));
+            }
+            changeFeed.publish(ChangeEventDto.subTaskUpdated(subTaskId, updated.taskId(),
+                    patched.get().previousStatus(), updated.status(), updated.version()));
+            return updated;
+        }
+
+        SubTaskDto current = subTaskRepository.findDtoById(subTaskId)
                 .orElseThrow(() -> {
                     log.error("При вызове метода SubTaskServiceImpl.updateSubTaskById()" +
                               " не найдена подзадача по идентификатору {}.", subTaskId);
                     return new SubTaskNotFoundException("SubTask not found");
                 });
-        subTaskMapper.patchSubTask(subTask, subTaskDto);
-        SubTask savedSubTask = subTaskRepository.save(subTask);
-
-        return subTaskMapper.toSubTaskDto(savedSubTask);
+        log.error("При вызове метода SubTaskServiceImpl.updateSubTaskById() версия подзадачи по идентификатору {} равна {}, ожидалась {}.",
+                subTaskId, current.version(), subTaskDto.version());
+        throw new VersionConflictException("SubTask was modified concurrently, current version is " + current.version());
     }
 
     /**
      * Удаляет подзадачу по идентификатору.
+     * <p>
+     * Строка задачи блокируется раньше строки подзадачи, как и при остальных изменениях подзадач.
+     * </p>
      *
      * @param subTaskId Идентификатор подзадачи для удаления.
      */
     @Override
+    @Transactional
     public void deleteSubTaskById(Long subTaskId) {
+        subTaskRepository.findDtoById(subTaskId)
+                .map(SubTaskDto::taskId)
+                .ifPresent(taskId -> taskRepository.lockByIds(List.of(taskId)));
+        Optional<SubTask> subTask = subTaskRepository.findForUpdateById(subTaskId);
+        subTask.filter(found -> found.isOpen() && found.getTask() != null)
+                .ifPresent(found -> taskRepository.adjustOpenSubTaskCount(found.getTask().getId(), -1));
         subTaskRepository.deleteById(subTaskId);
+        dtoCache.evictSubTask(subTaskId);
+        subTask.map(SubTask::getTask)
+                .ifPresent(task -> changeGenerations.subTasksChanged(task.getId()));
+        subTask.ifPresent(found -> changeFeed.publish(ChangeEventDto.subTask(ChangeEventDto.Type.DELETED,
+                subTaskId, found.getTask() == null ? null : found.getTask().getId(), null, null)));
+    }
+
+    /**
+     * Публикует результат массовой смены статуса: идентификаторы измененных подзадач неизвестны, поэтому для каждой
+     * затронутой задачи публикуется одно событие подзадач без идентификатора, означающее "перечитайте подзадачи задачи",
+     * а для закрытых задач - событие задачи. Прежние статусы в этих событиях неизвестны.
+     */
+    private void publishStatusChange(List<Long> taskIds, List<Long> closedTaskIds, TaskStatus status) {
+        List<ChangeEventDto> events = new ArrayList<>(taskIds.size() + closedTaskIds.size());
+        taskIds.forEach(taskId -> events.add(ChangeEventDto.subTask(ChangeEventDto.Type.UPDATED, null, taskId, status, null)));
+        closedTaskIds.forEach(taskId -> events.add(ChangeEventDto.task(ChangeEventDto.Type.UPDATED, taskId, TaskStatus.DONE, null)));
+        changeFeed.publishAll(events);
+    }
+
+    /**
+     * Возвращает ссылку на задачу без загрузки ее строки, предварительно проверив существование задачи.
+     * <p>
+     * Идентификаторы, отсутствующие в {@link TaskIdFilter}, отклоняются без обращения к базе данных. Остальные проверяются
+     * запросом, который до конца транзакции защищает строку задачи от удаления: изменением счетчика незавершенных
+     * подзадач, если они добавляются, иначе блокировкой строки на чтение. Поэтому вставка подзадач не нарушает внешний ключ.
+     * </p>
+     *
+     * @param taskId           Идентификатор задачи.
+     * @param openSubTaskCount Количество добавляемых незавершенных подзадач.
+     * @param methodName       Имя вызывающего метода для журнала.
+     * @return Ссылка на задачу.
+     * @throws TaskNotFoundException если задача с указанным идентификатором не найдена.
+     */
+    private Task referenceExistingTask(Long taskId, int openSubTaskCount, String methodName) {
+        boolean exists = taskIdFilter.mightExist(taskId) && (openSubTaskCount > 0
+                ? taskRepository.adjustOpenSubTaskCount(taskId, openSubTaskCount) > 0
+                : taskRepository.lockSharedById(taskId).isPresent());
+        if (!exists) {
+            log.error("При вызове метода SubTaskServiceImpl.{}() не найдена задача по идентификатору {}.", methodName, taskId);
+            throw new TaskNotFoundException("You cannot create SubTask with no Task");
+        }
+        return taskRepository.getReferenceById(taskId);
+    }
+
+    private Map<Long, SubTaskDto> loadSubTasks(Collection<Long> subTaskIds) {
+        return subTaskRepository.findDtosByIds(subTaskIds).stream()
+                .collect(Collectors.toMap(SubTaskDto::id, Function.identity()));
+    }
+
+    private SubTaskDto loadSubTask(Long subTaskId) {
+        return subTaskRepository.findDtoById(subTaskId).orElse(null);
+    }
+
+    /**
+     * Добавляет к предикату условия фильтра по статусу и имени подзадачи.
+     */
+    private void applyFilter(BooleanBuilder predicate, QueryDslFilterDto filter) {
+        if (filter.status() != null) {
+            predicate.and(QSubTask.subTask.status.eq(filter.status()));
+        }
+        if (filter.name() != null && !filter.name().isBlank()) {
+            nameSearchIndex.findSubTaskCandidates(filter.name())
+                    .ifPresent(candidates -> predicate.and(candidates.predicate(QSubTask.subTask._super)));
+            predicate.and(QSubTask.subTask.name.containsIgnoreCase(filter.name()));
+        }
     }
 }
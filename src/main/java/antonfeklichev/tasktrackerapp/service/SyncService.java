@@ -0,0 +1,11 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.SyncPageDto;
+
+/**
+ * Интерфейс определяет инкрементальную синхронизацию задач и подзадач.
+ */
+public interface SyncService {
+
+    SyncPageDto getChanges(String cursor, Integer limit);
+}
@@ -0,0 +1,68 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
+import antonfeklichev.tasktrackerapp.dto.SyncItemDto;
+import antonfeklichev.tasktrackerapp.dto.SyncPageDto;
+import antonfeklichev.tasktrackerapp.exception.SyncCursorExpiredException;
+import antonfeklichev.tasktrackerapp.pagination.KeysetPaginator;
+import antonfeklichev.tasktrackerapp.repository.ChangeLogRepository;
+import antonfeklichev.tasktrackerapp.sync.SyncCursor;
+import antonfeklichev.tasktrackerapp.sync.SyncProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Сервис инкрементальной синхронизации: возвращает только записи, измененные после курсора клиента, поэтому
+ * объем ответа и стоимость запроса зависят от количества изменений, а не от количества задач.
+ * <p>
+ * Поля:
+ * <ul>
+ *     <li><b>changeLogRepository</b> - Журнал изменений задач и подзадач.</li>
+ *     <li><b>keysetPaginator</b> - Ограничение размера страницы.</li>
+ *     <li><b>syncProperties</b> - Срок действия курсора.</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncServiceImpl implements SyncService {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final KeysetPaginator keysetPaginator;
+    private final SyncProperties syncProperties;
+
+    /**
+     * Возвращает страницу изменений после курсора.
+     * <p>
+     * Наименьший номер выполняющейся транзакции читается до выборки изменений, поэтому транзакции, не видимые
+     * выборке, не меньше него, и их изменения будут выданы в следующем проходе.
+     * </p>
+     *
+     * @param cursor курсор из предыдущего ответа или {@code null} для полной синхронизации.
+     * @param limit  желаемый размер страницы.
+     * @return страница изменений и курсор следующего запроса.
+     * @throws SyncCursorExpiredException если курсор старше срока хранения записей об удалении.
+     */
+    @Override
+    public SyncPageDto getChanges(String cursor, Integer limit) {
+        int pageLimit = keysetPaginator.limit(new CursorPageRequestDto(null, limit, null));
+        long now = System.currentTimeMillis();
+        SyncCursor position = cursor == null || cursor.isBlank() ? SyncCursor.initial(now) : SyncCursor.decode(cursor.strip());
+        if (position.since() < now - syncProperties.tombstoneRetention().toMillis()) {
+            log.info("Отклонен устаревший курсор синхронизации, выданный {}", position.since());
+            throw new SyncCursorExpiredException("Sync cursor has expired, full resync is required");
+        }
+
+        position = position.withFloor(changeLogRepository.findSnapshotFloor(), now);
+        List<SyncItemDto> rows = changeLogRepository.findChangesAfter(position.changeSeq(), position.id(), pageLimit + 1);
+        if (rows.size() <= pageLimit) {
+            return new SyncPageDto(rows, position.nextPass().encode(), false);
+        }
+        List<SyncItemDto> items = List.copyOf(rows.subList(0, pageLimit));
+        SyncItemDto last = items.get(pageLimit - 1);
+        return new SyncPageDto(items, position.after(last.changeSeq(), last.id()).encode(), true);
+    }
+}
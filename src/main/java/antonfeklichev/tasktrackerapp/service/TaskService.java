@@ -1,10 +1,17 @@
 package antonfeklichev.tasktrackerapp.service;
 
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.CreatedTaskDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDetailsDto;
 import antonfeklichev.tasktrackerapp.dto.TaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Интерфейс определяет методы для создания, получения, обновления и удаления задач.
@@ -17,9 +24,17 @@ public interface TaskService {
 
     TaskDto addTask(NewTaskDto createTaskDto);
 
+    List<CreatedTaskDto> addTasks(List<NewTaskDto> newTaskDtos);
+
     TaskDto getTaskById(Long taskId);
 
-    List<TaskDto> getTasksByFilter(QueryDslFilterDto filter);
+    Optional<Long> findTaskVersionById(Long taskId);
+
+    TaskDetailsDto getTaskDetailsById(Long taskId);
+
+    BatchLookupDto<TaskDto> getTasksByIds(Collection<Long> taskIds);
+
+    CursorPageDto<TaskDto> getTasksByFilter(QueryDslFilterDto filter, CursorPageRequestDto page);
 
     TaskDto updateTaskById(Long taskId, TaskDto taskDto);
 
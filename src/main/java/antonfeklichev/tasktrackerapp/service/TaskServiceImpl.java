@@ -1,25 +1,54 @@
 package antonfeklichev.tasktrackerapp.service;
 
+import antonfeklichev.tasktrackerapp.batch.BatchLoader;
+import antonfeklichev.tasktrackerapp.batch.BatchProperties;
+import antonfeklichev.tasktrackerapp.cache.ChangeGenerations;
+import antonfeklichev.tasktrackerapp.cache.DtoCache;
+import antonfeklichev.tasktrackerapp.cache.FilterResultCache;
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.CreatedTaskDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDetailsDto;
 import antonfeklichev.tasktrackerapp.dto.TaskDto;
 import antonfeklichev.tasktrackerapp.entity.QTask;
 import antonfeklichev.tasktrackerapp.entity.SubTask;
 import antonfeklichev.tasktrackerapp.entity.Task;
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
 import antonfeklichev.tasktrackerapp.exception.DeleteTaskException;
+import antonfeklichev.tasktrackerapp.exception.InvalidBatchRequestException;
 import antonfeklichev.tasktrackerapp.exception.TaskNotFoundException;
 import antonfeklichev.tasktrackerapp.exception.UpdateTaskException;
+import antonfeklichev.tasktrackerapp.exception.VersionConflictException;
+import antonfeklichev.tasktrackerapp.feed.ChangeFeed;
+import antonfeklichev.tasktrackerapp.logging.SampledLogger;
+import antonfeklichev.tasktrackerapp.mapper.SubTaskMapper;
 import antonfeklichev.tasktrackerapp.mapper.TaskMapper;
+import antonfeklichev.tasktrackerapp.pagination.KeysetPaginator;
+import antonfeklichev.tasktrackerapp.repository.PatchedRow;
 import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
 import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import antonfeklichev.tasktrackerapp.search.NameSearchIndex;
+import antonfeklichev.tasktrackerapp.transaction.TransactionCallbacks;
 import com.querydsl.core.BooleanBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.util.Streamable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Сервис для управления задачами.
@@ -31,6 +60,14 @@ import java.util.List;
  *   <li><b>taskRepository</b> - репозиторий для доступа и управления задачами в базе данных.</li>
  *   <li><b>subTaskRepository</b> - репозиторий для доступа к подзадачам, связанным с основными задачами.</li>
  *   <li><b>taskMapper</b> - маппер для конвертации между {@link TaskDto}, {@link NewTaskDto} и {@link Task} сущностями.</li>
+ *   <li><b>subTaskMapper</b> - маппер для создания подзадач, вложенных в новые задачи.</li>
+ *   <li><b>keysetPaginator</b> - постраничная выборка задач по ключу.</li>
+ *   <li><b>nameSearchIndex</b> - индекс имен задач и подзадач для поиска по имени.</li>
+ *   <li><b>dtoCache</b> - кэш DTO задач и подзадач для чтения по идентификатору.</li>
+ *   <li><b>batchLoader</b> - пакетная загрузка задач по списку идентификаторов.</li>
+ *   <li><b>changeGenerations</b> - счетчики изменений задач и подзадач для версий списков.</li>
+ *   <li><b>filterResultCache</b> - кэш страниц результатов фильтров задач.</li>
+ *   <li><b>changeFeed</b> - лента изменений задач и подзадач для подписчиков.</li>
  * </ul>
  * <p>
  *
@@ -44,9 +81,22 @@ import java.util.List;
 @Slf4j
 public class TaskServiceImpl implements TaskService {
 
+    /**
+     * Журнал запросов к несуществующим задачам: не больше 10 сообщений в секунду.
+     */
+    private static final SampledLogger MISS_LOG = new SampledLogger(log, 10, Duration.ofSeconds(1));
+
     private final TaskRepository taskRepository;
     private final SubTaskRepository subTaskRepository;
     private final TaskMapper taskMapper;
+    private final SubTaskMapper subTaskMapper;
+    private final KeysetPaginator keysetPaginator;
+    private final NameSearchIndex nameSearchIndex;
+    private final DtoCache dtoCache;
+    private final BatchLoader batchLoader;
+    private final ChangeGenerations changeGenerations;
+    private final FilterResultCache filterResultCache;
+    private final ChangeFeed changeFeed;
 
     /**
      * Добавляет новую задачу в систему.
@@ -58,12 +108,68 @@ public class TaskServiceImpl implements TaskService {
     public TaskDto addTask(NewTaskDto createTaskDto) {
         Task task = taskMapper.toTask(createTaskDto);
         Task savedTask = taskRepository.save(task);
+        changeGenerations.tasksChanged();
+        changeFeed.publish(ChangeEventDto.task(ChangeEventDto.Type.CREATED,
+                savedTask.getId(), savedTask.getStatus(), savedTask.getVersion()));
 
         return taskMapper.toTaskDto(savedTask);
     }
 
     /**
-     * Возвращает задачу по её идентификатору.
+     * Создает задачи вместе с вложенными подзадачами в одной транзакции.
+     * <p>
+     * Идентификаторы выдаются генератором до вставки, поэтому строки записываются пакетными INSERT,
+     * сгруппированными по таблицам. Счетчик незавершенных подзадач задачи заполняется сразу при вставке.
+     * </p>
+     *
+     * @param newTaskDtos DTO новых задач; подзадачи задачи передаются в {@link NewTaskDto#subTasks()}.
+     * @return идентификаторы созданных задач и их подзадач в порядке следования в запросе.
+     * @throws InvalidBatchRequestException если задач и подзадач больше {@link BatchProperties#maxCreateSize()}.
+     */
+    @Override
+    @Transactional
+    public List<CreatedTaskDto> addTasks(List<NewTaskDto> newTaskDtos) {
+        batchLoader.checkCreateSize(newTaskDtos.size() + newTaskDtos.stream()
+                .mapToInt(newTaskDto -> newTaskDto.subTasks() == null ? 0 : newTaskDto.subTasks().size())
+                .sum());
+        List<Task> tasks = new ArrayList<>(newTaskDtos.size());
+        List<List<SubTask>> subTasksByTask = new ArrayList<>(newTaskDtos.size());
+        List<SubTask> allSubTasks = new ArrayList<>();
+
+        for (NewTaskDto newTaskDto : newTaskDtos) {
+            Task task = taskMapper.toTask(newTaskDto);
+            List<SubTask> subTasks = newTaskDto.subTasks() == null ? List.of() : newTaskDto.subTasks().stream()
+                    .map(subTaskMapper::toSubTask)
+                    .toList();
+            subTasks.forEach(subTask -> subTask.setTask(task));
+            task.setOpenSubTaskCount((int) subTasks.stream().filter(SubTask::isOpen).count());
+
+            tasks.add(task);
+            subTasksByTask.add(subTasks);
+            allSubTasks.addAll(subTasks);
+        }
+        taskRepository.saveAll(tasks);
+        subTaskRepository.saveAll(allSubTasks);
+        changeGenerations.tasksChanged();
+        changeGenerations.subTasksChanged(tasks.stream().map(Task::getId).toList());
+        List<ChangeEventDto> events = new ArrayList<>(tasks.size() + allSubTasks.size());
+        tasks.forEach(task -> events.add(ChangeEventDto.task(ChangeEventDto.Type.CREATED,
+                task.getId(), task.getStatus(), task.getVersion())));
+        allSubTasks.forEach(subTask -> events.add(ChangeEventDto.subTask(ChangeEventDto.Type.CREATED,
+                subTask.getId(), subTask.getTask().getId(), subTask.getStatus(), subTask.getVersion())));
+        changeFeed.publishAll(events);
+        log.info("Пакетно создано задач: {}, подзадач: {}.", tasks.size(), allSubTasks.size());
+
+        List<CreatedTaskDto> created = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            created.add(new CreatedTaskDto(tasks.get(i).getId(),
+                    subTasksByTask.get(i).stream().map(SubTask::getId).toList()));
+        }
+        return created;
+    }
+
+    /**
+     * Возвращает задачу по её идентификатору. Результат кэшируется в {@link DtoCache}, как и отсутствие задачи.
      *
      * @param taskId идентификатор задачи.
      * @return DTO запрашиваемой задачи.
@@ -71,82 +177,211 @@ public class TaskServiceImpl implements TaskService {
      */
     @Override
     public TaskDto getTaskById(Long taskId) {
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> {
-                    log.error("При вызове метода TaskServiceImpl.getTaskById() не найдена задача по идентификатору {}.", taskId);
-                    return new TaskNotFoundException("Task not found");
-                });
+        TaskDto task = dtoCache.getTask(taskId, this::loadTask);
+        if (task == null) {
+            MISS_LOG.error("При вызове метода TaskServiceImpl.getTaskById() не найдена задача по идентификатору {}.", taskId);
+            throw new TaskNotFoundException("Task not found");
+        }
+        return task;
+    }
+
+    /**
+     * Возвращает версию задачи для проверки условного запроса: из {@link DtoCache}, если задача есть в кэше
+     * или недавно не была найдена, иначе запросом только столбца версии.
+     *
+     * @param taskId идентификатор задачи.
+     * @return версия задачи или пустое значение, если задача не найдена.
+     */
+    @Override
+    public Optional<Long> findTaskVersionById(Long taskId) {
+        if (dtoCache.isTaskMissing(taskId)) {
+            return Optional.empty();
+        }
+        TaskDto cached = dtoCache.peekTask(taskId);
+        return cached != null ? Optional.of(cached.version()) : taskRepository.findVersionById(taskId);
+    }
+
+    /**
+     * Возвращает задачу вместе со всеми подзадачами и количеством подзадач по статусам.
+     * <p>
+     * Задача и подзадачи загружаются одним SQL-запросом, количество по статусам вычисляется по загруженным подзадачам.
+     * </p>
+     *
+     * @param taskId идентификатор задачи.
+     * @return DTO задачи с подзадачами.
+     * @throws TaskNotFoundException если задача не найдена.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TaskDetailsDto getTaskDetailsById(Long taskId) {
+        List<Object[]> rows = taskRepository.findWithSubTasksById(taskId);
+        if (rows.isEmpty()) {
+            MISS_LOG.error("При вызове метода TaskServiceImpl.getTaskDetailsById() не найдена задача по идентификатору {}.", taskId);
+            throw new TaskNotFoundException("Task not found");
+        }
+
+        Task task = (Task) rows.get(0)[0];
+        List<SubTaskDto> subTasks = new ArrayList<>(rows.size());
+        Map<TaskStatus, Long> statusCounts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            statusCounts.put(status, 0L);
+        }
+        for (Object[] row : rows) {
+            SubTask subTask = (SubTask) row[1];
+            if (subTask == null) {
+                continue;
+            }
+            subTasks.add(subTaskMapper.toSubTaskDto(subTask));
+            if (subTask.getStatus() != null) {
+                statusCounts.merge(subTask.getStatus(), 1L, Long::sum);
+            }
+        }
+
+        return new TaskDetailsDto(taskMapper.toTaskDto(task), subTasks, statusCounts);
+    }
+
+    /**
+     * Возвращает задачи по списку идентификаторов.
+     * <p>
+     * Задачи сначала читаются из {@link DtoCache}, отсутствующие загружаются запросами {@code IN} частями через {@link BatchLoader}.
+     * </p>
+     *
+     * @param taskIds идентификаторы задач; повторяющиеся идентификаторы учитываются один раз.
+     * @return найденные задачи и ненайденные идентификаторы в порядке запроса.
+     * @throws antonfeklichev.tasktrackerapp.exception.InvalidBatchRequestException если идентификаторы не переданы или их слишком много.
+     */
+    @Override
+    public BatchLookupDto<TaskDto> getTasksByIds(Collection<Long> taskIds) {
+        List<Long> ids = batchLoader.distinctIds(taskIds);
+        Map<Long, TaskDto> found = dtoCache.getTasks(ids, missing -> batchLoader.load(missing, this::loadTasks));
 
-        return taskMapper.toTaskDto(task);
+        return BatchLookupDto.of(ids, found);
     }
 
     /**
-     * Возвращает список всех задач, соответствующих заданным критериям фильтрации.
+     * Возвращает страницу задач, соответствующих заданным критериям фильтрации.
+     * Фильтр по имени сначала ограничивается кандидатами из {@link NameSearchIndex}, если индекс применим.
+     * Строки выбираются сразу в {@link TaskDto}, без загрузки сущностей. Страницы кэшируются в {@link FilterResultCache}
+     * до следующего изменения задач через сервис.
      *
      * @param filter DTO критерии фильтрации задач.
-     * @return список задач, удовлетворяющих критериям фильтра.
+     * @param page   параметры страницы: курсор, размер и порядок выдачи.
+     * @return страница задач, удовлетворяющих критериям фильтра, и курсор следующей страницы.
      */
     @Override
-    public List<TaskDto> getTasksByFilter(QueryDslFilterDto filter) {
+    public CursorPageDto<TaskDto> getTasksByFilter(QueryDslFilterDto filter, CursorPageRequestDto page) {
+        return filterResultCache.getTasks(filter, page, () -> findTasksPage(filter, page));
+    }
+
+    private CursorPageDto<TaskDto> findTasksPage(QueryDslFilterDto filter, CursorPageRequestDto page) {
         BooleanBuilder predicate = new BooleanBuilder();
         if (filter.status() != null) {
             predicate.and(QTask.task.status.eq(filter.status()));
         }
         if (filter.name() != null && !filter.name().isBlank()) {
+            nameSearchIndex.findTaskCandidates(filter.name())
+                    .ifPresent(candidates -> predicate.and(candidates.predicate(QTask.task._super)));
             predicate.and(QTask.task.name.containsIgnoreCase(filter.name()));
         }
+        predicate.and(keysetPaginator.seek(QTask.task._super, page));
 
-        return Streamable.of(taskRepository.findAll(predicate))
-                .map(taskMapper::toTaskDto)
-                .toList();
+        int limit = keysetPaginator.limit(page);
+        List<TaskDto> tasks = taskRepository.findDtos(predicate, keysetPaginator.order(QTask.task._super, page), limit + 1);
+
+        return keysetPaginator.toPage(tasks, page, TaskDto::id, TaskDto::status);
     }
 
     /**
-     * Обновляет задачу по её идентификатору.
+     * Обновляет задачу по её идентификатору одним условным запросом UPDATE.
+     * <p>
+     * Изменяются только непустые поля {@code taskDto}. Если указана {@code taskDto.version()}, задача изменяется
+     * только при совпадении версии. Причина, по которой строка не изменена, определяется дополнительным чтением. Новое
+     * имя попадает в индекс поиска после фиксации транзакции.
+     * </p>
      *
      * @param taskId Идентификатор задачи для обновления.
-     * @param taskDto DTO с обновленной информацией задачи.
-     * @return обновленное DTO задачи.
+     * @param taskDto DTO с обновленной информацией задачи и ожидаемой версией.
+     * @return обновленное DTO задачи с новой версией.
+     * @throws TaskNotFoundException если задача не найдена.
+     * @throws VersionConflictException если версия задачи не совпадает с ожидаемой.
      * @throws UpdateTaskException если изменение статуса на 'DONE' невозможно из-за незавершенных подзадач.
      */
     @Override
     public TaskDto updateTaskById(Long taskId, TaskDto taskDto) {
-        Task task = taskRepository.findById(taskId)
+        Optional<PatchedRow<TaskDto>> patched = taskRepository.patch(taskId, taskDto);
+        dtoCache.evictTask(taskId);
+        changeGenerations.tasksChanged();
+        if (patched.isPresent()) {
+            TaskDto updated = patched.get().row();
+            if (taskDto.name() != null) {
+                TransactionCallbacks.afterCommit(() -> nameSearchIndex.indexTask(taskId, updated.name()));
+            }
+            changeFeed.publish(ChangeEventDto.taskUpdated(taskId,
+                    patched.get().previousStatus(), updated.status(), updated.version()));
+            return updated;
+        }
+
+        TaskDto current = taskRepository.findDtoById(taskId)
                 .orElseThrow(() -> {
                     log.error("При вызове метода TaskServiceImpl.updateTaskById() не найдена задача по идентификатору {}.", taskId);
                     return new TaskNotFoundException("Task not found");
                 });
-
-        List<SubTask> subTaskList = subTaskRepository.getSubTaskByTaskIdNotEqualStatus(taskId, TaskStatus.DONE);
-
-        if (!subTaskList.isEmpty() && taskDto.status().equals(TaskStatus.DONE)) {
-            log.error("При вызове метода TaskServiceImpl.updateTaskById() статус задачи по идентификатору {} не может быть изменен на DONE. " +
-                      "Вначале поменяйте статус связанных подзадач на DONE или удалите подзадачи.", taskId);
-            throw new UpdateTaskException("You cannot set DONE status to Task, while its SubTasks in progress.");
+        if (taskDto.version() != null && !taskDto.version().equals(current.version())) {
+            log.error("При вызове метода TaskServiceImpl.updateTaskById() версия задачи по идентификатору {} равна {}, ожидалась {}.",
+                    taskId, current.version(), taskDto.version());
+            throw new VersionConflictException("Task was modified concurrently, current version is " + current.version());
         }
-        taskMapper.patchTask(task, taskDto);
-        Task savedTask = taskRepository.save(task);
-
-        return taskMapper.toTaskDto(savedTask);
+        log.error("При вызове метода TaskServiceImpl.updateTaskById() статус задачи по идентификатору {} не может быть изменен на DONE. " +
+                  "Вначале поменяйте статус связанных подзадач на DONE или удалите подзадачи.", taskId);
+        throw new UpdateTaskException("You cannot set DONE status to Task, while its SubTasks in progress.");
     }
 
     /**
      * Удаляет задачу по её идентификатору.
+     * <p>
+     * Строка задачи блокируется до конца транзакции, поэтому до каскадного удаления к задаче не добавляются подзадачи,
+     * которые были бы удалены без событий и очистки кэшей. Если задача не найдена, ничего не происходит.
+     * </p>
      *
      * @param taskId идентификатор задачи для удаления.
      * @throws DeleteTaskException если задачу невозможно удалить из-за наличия активных подзадач.
      */
     @Override
+    @Transactional
     public void deleteTaskById(Long taskId) {
+        if (taskRepository.lockByIds(List.of(taskId)).isEmpty()) {
+            return;
+        }
 
-        List<SubTask> subTaskList = subTaskRepository.getSubTaskByTaskIdNotEqualStatus(taskId, TaskStatus.DONE);
+        int openSubTaskCount = taskRepository.findOpenSubTaskCountById(taskId).orElse(0);
 
-        if (!subTaskList.isEmpty()) {
+        if (openSubTaskCount > 0) {
             log.error("При вызове метода TaskServiceImpl.deleteTaskById() задача по идентификатору {} не может быть удалена. " +
                       "Вначале поменяйте статус связанных подзадач на DONE или удалите подзадачи.", taskId);
             throw new DeleteTaskException("Delete active SubTasks of this Task first");
         }
+        List<Long> subTaskIds = subTaskRepository.getSubTaskIdsByTaskId(taskId);
         taskRepository.deleteById(taskId);
+        // Подзадачи удаляются каскадом в базе данных, минуя обратные вызовы JPA.
+        TransactionCallbacks.afterCommit(() -> nameSearchIndex.removeSubTasks(subTaskIds));
+        subTaskRepository.evictFromEntityCache(subTaskIds);
+        dtoCache.evictTask(taskId);
+        dtoCache.evictSubTasks(subTaskIds);
+        changeGenerations.tasksChanged();
+        changeGenerations.subTasksChanged(taskId);
+        List<ChangeEventDto> events = new ArrayList<>(subTaskIds.size() + 1);
+        subTaskIds.forEach(subTaskId -> events.add(ChangeEventDto.subTask(ChangeEventDto.Type.DELETED, subTaskId, taskId, null, null)));
+        events.add(ChangeEventDto.task(ChangeEventDto.Type.DELETED, taskId, null, null));
+        changeFeed.publishAll(events);
+    }
+
+    private Map<Long, TaskDto> loadTasks(Collection<Long> taskIds) {
+        return taskRepository.findDtosByIds(taskIds).stream()
+                .collect(Collectors.toMap(TaskDto::id, Function.identity()));
+    }
+
+    private TaskDto loadTask(Long taskId) {
+        return taskRepository.findDtoById(taskId).orElse(null);
     }
 }
 
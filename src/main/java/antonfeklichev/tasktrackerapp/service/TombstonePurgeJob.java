@@ -0,0 +1,39 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.repository.ChangeLogRepository;
+import antonfeklichev.tasktrackerapp.sync.SyncProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Периодически удаляет записи об удалении задач и подзадач старше срока действия курсоров синхронизации.
+ * <p>
+ * Записи хранятся на час дольше срока действия курсора: время удаления - время начала транзакции, которая могла
+ * выполняться, когда курсор был выдан.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TombstonePurgeJob {
+
+    private static final Duration TRANSACTION_MARGIN = Duration.ofHours(1);
+
+    private final ChangeLogRepository changeLogRepository;
+    private final SyncProperties syncProperties;
+
+    @Scheduled(initialDelayString = "${task-tracker.sync.purge-interval}",
+            fixedDelayString = "${task-tracker.sync.purge-interval}")
+    public void purge() {
+        Instant threshold = Instant.now().minus(syncProperties.tombstoneRetention()).minus(TRANSACTION_MARGIN);
+        int purged = changeLogRepository.deleteTombstonesBefore(threshold);
+        if (purged > 0) {
+            log.info("Удалено записей об удалении задач и подзадач: {}", purged);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package antonfeklichev.tasktrackerapp.sync;
+
+import antonfeklichev.tasktrackerapp.exception.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция клиента в журнале изменений.
+ * <p>
+ * Синхронизация проходит изменения в порядке {@code (changeSeq, id)} начиная с позиции курсора. Номер изменения -
+ * номер транзакции, поэтому транзакция, начатая раньше, может быть зафиксирована позже прочитанных изменений.
+ * Следующий проход начинается с {@code floor} - наименьшего номера транзакции, выполнявшейся во время текущего
+ * прохода; изменения таких транзакций не пропускаются, а часть уже полученных записей повторяется.
+ * </p>
+ * Для клиента курсор непрозрачен: он передается в виде строки Base64.
+ *
+ * @param changeSeq номер изменения последней полученной записи.
+ * @param id        идентификатор последней полученной записи.
+ * @param since     время в миллисекундах, с которого клиенту нужны записи об удалении; по нему проверяется срок действия курсора.
+ * @param floor     начало следующего прохода или {@link Long#MAX_VALUE}, если оно еще не определено.
+ * @param floorAt   время в миллисекундах, когда определено начало следующего прохода.
+ */
+public record SyncCursor(long changeSeq, long id, long since, long floor, long floorAt) {
+
+    private static final String SEPARATOR = ":";
+
+    /**
+     * @param now текущее время в миллисекундах.
+     * @return курсор полной синхронизации, с которого выдаются все записи.
+     */
+    public static SyncCursor initial(long now) {
+        return new SyncCursor(-1, Long.MIN_VALUE, now, Long.MAX_VALUE, now);
+    }
+
+    /**
+     * @param lastChangeSeq номер изменения последней записи страницы.
+     * @param lastId        идентификатор последней записи страницы.
+     * @return курсор следующей страницы текущего прохода.
+     */
+    public SyncCursor after(long lastChangeSeq, long lastId) {
+        return new SyncCursor(lastChangeSeq, lastId, since, floor, floorAt);
+    }
+
+    /**
+     * @return курсор следующего прохода, начинающегося с {@code floor}.
+     */
+    public SyncCursor nextPass() {
+        return new SyncCursor(floor, Long.MIN_VALUE, floorAt, Long.MAX_VALUE, floorAt);
+    }
+
+    /**
+     * Запоминает наименьший номер выполняющейся транзакции, прочитанный перед выборкой страницы.
+     *
+     * @param snapshotFloor наименьший номер выполняющейся транзакции.
+     * @param now           текущее время в миллисекундах.
+     * @return курсор с уточненным началом следующего прохода.
+     */
+    public SyncCursor withFloor(long snapshotFloor, long now) {
+        return snapshotFloor < floor ? new SyncCursor(changeSeq, id, since, snapshotFloor, now) : this;
+    }
+
+    public String encode() {
+        String raw = changeSeq + SEPARATOR + id + SEPARATOR + since + SEPARATOR + floor + SEPARATOR + floorAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Восстанавливает курсор из строки, выданной {@link #encode()}.
+     *
+     * @param token строка курсора.
+     * @return курсор.
+     * @throws InvalidPageRequestException если строка не является корректным курсором.
+     */
+    public static SyncCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Unexpected number of cursor parts");
+            }
+            return new SyncCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                    Long.parseLong(parts[3]), Long.parseLong(parts[4]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Invalid sync cursor");
+        }
+    }
+}
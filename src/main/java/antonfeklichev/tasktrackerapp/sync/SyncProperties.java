@@ -0,0 +1,17 @@
+package antonfeklichev.tasktrackerapp.sync;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки инкрементальной синхронизации.
+ *
+ * @param tombstoneRetention срок хранения записей об удалении и срок действия курсора синхронизации.
+ * @param purgeInterval      интервал удаления устаревших записей об удалении.
+ */
+@ConfigurationProperties(prefix = "task-tracker.sync")
+public record SyncProperties(@DefaultValue("30d") Duration tombstoneRetention,
+                             @DefaultValue("1h") Duration purgeInterval) {
+}
@@ -0,0 +1,80 @@
+-- Отслеживание изменений задач и подзадач для инкрементальной синхронизации (GET api/v1/sync).
+-- Скрипт идемпотентен и выполняется при каждом запуске приложения после создания схемы Hibernate
+-- (spring.sql.init), в том числе на существующей базе: строки, созданные до его первого запуска,
+-- получают change_seq = 0 и время запуска скрипта.
+--
+-- change_seq - номер транзакции, последней изменившей строку. Номера транзакций возрастают, а курсор
+-- синхронизации хранит наименьший номер транзакции, выполнявшейся в момент чтения, поэтому изменения,
+-- зафиксированные позже более новых транзакций, не пропускаются.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS created_at timestamp with time zone NOT NULL DEFAULT now();
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS updated_at timestamp with time zone NOT NULL DEFAULT now();
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS change_seq bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE subtasks ADD COLUMN IF NOT EXISTS created_at timestamp with time zone NOT NULL DEFAULT now();
+ALTER TABLE subtasks ADD COLUMN IF NOT EXISTS updated_at timestamp with time zone NOT NULL DEFAULT now();
+ALTER TABLE subtasks ADD COLUMN IF NOT EXISTS change_seq bigint NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS tasks_change_seq_id_idx ON tasks (change_seq, id);
+CREATE INDEX IF NOT EXISTS subtasks_change_seq_id_idx ON subtasks (change_seq, id);
+
+-- Записи об удалении. entity - 'TASK' или 'SUBTASK', task_id - задача удаленной подзадачи.
+CREATE TABLE IF NOT EXISTS deleted_records
+(
+    id         bigint                   NOT NULL PRIMARY KEY,
+    entity     varchar(16)              NOT NULL,
+    task_id    bigint,
+    change_seq bigint                   NOT NULL,
+    deleted_at timestamp with time zone NOT NULL
+);
+CREATE INDEX IF NOT EXISTS deleted_records_change_seq_id_idx ON deleted_records (change_seq, id);
+CREATE INDEX IF NOT EXISTS deleted_records_deleted_at_idx ON deleted_records (deleted_at);
+
+CREATE OR REPLACE FUNCTION track_change() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    NEW.change_seq := pg_current_xact_id()::text::bigint;
+    NEW.updated_at := now();
+    IF TG_OP = 'INSERT' THEN
+        NEW.created_at := NEW.updated_at;
+    ELSE
+        NEW.created_at := OLD.created_at;
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+-- Вызывается и для подзадач, удаленных каскадно вместе с задачей.
+CREATE OR REPLACE FUNCTION track_delete() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO deleted_records (id, entity, task_id, change_seq, deleted_at)
+    VALUES (OLD.id, TG_ARGV[0], (to_jsonb(OLD) ->> 'task_id')::bigint, pg_current_xact_id()::text::bigint, now())
+    ON CONFLICT (id) DO NOTHING;
+    RETURN OLD;
+END
+$$;
+
+-- Изменением считается изменение версии: пересчет счетчика незавершенных подзадач версию не меняет
+-- и клиентам не передается.
+CREATE OR REPLACE TRIGGER tasks_track_insert
+    BEFORE INSERT ON tasks
+    FOR EACH ROW EXECUTE FUNCTION track_change();
+CREATE OR REPLACE TRIGGER tasks_track_update
+    BEFORE UPDATE ON tasks
+    FOR EACH ROW WHEN (OLD.version IS DISTINCT FROM NEW.version) EXECUTE FUNCTION track_change();
+CREATE OR REPLACE TRIGGER tasks_track_delete
+    AFTER DELETE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION track_delete('TASK');
+
+CREATE OR REPLACE TRIGGER subtasks_track_insert
+    BEFORE INSERT ON subtasks
+    FOR EACH ROW EXECUTE FUNCTION track_change();
+CREATE OR REPLACE TRIGGER subtasks_track_update
+    BEFORE UPDATE ON subtasks
+    FOR EACH ROW WHEN (OLD.version IS DISTINCT FROM NEW.version) EXECUTE FUNCTION track_change();
+CREATE OR REPLACE TRIGGER subtasks_track_delete
+    AFTER DELETE ON subtasks
+    FOR EACH ROW EXECUTE FUNCTION track_delete('SUBTASK');
@@ -0,0 +1,16 @@
+-- Результаты асинхронных команд (CommandProcessor).
+-- Скрипт идемпотентен и выполняется при каждом запуске приложения после создания схемы Hibernate (spring.sql.init).
+--
+-- Результат выполненной команды добавляется в транзакции, изменяющей ее данные, а результат невыполненной - в отдельной
+-- транзакции после отката, поэтому команда, повторно прочитанная из журнала после перезапуска, не выполняется второй
+-- раз и получает прежний результат. Результаты удаляются после записи о выполнении в журнал команд.
+
+CREATE TABLE IF NOT EXISTS command_results
+(
+    id          varchar(36)              PRIMARY KEY,
+    type        varchar(32)              NOT NULL,
+    state       varchar(16)              NOT NULL,
+    result_id   bigint,
+    error       text,
+    recorded_at timestamp with time zone NOT NULL DEFAULT now()
+);
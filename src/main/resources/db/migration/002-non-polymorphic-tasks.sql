@@ -0,0 +1,45 @@
+-- Переход с полиморфной модели (TABLE_PER_CLASS, SubTask extends Task) на общий @MappedSuperclass.
+-- Физическая структура таблиц tasks и subtasks не меняется, переносить данные не нужно.
+-- Скрипт применяется к существующей базе один раз, при spring.jpa.hibernate.ddl-auto=none или validate.
+
+BEGIN;
+
+-- 1. Идентификаторы выдаются из последовательности task_id_seq (оптимизатор pooled-lo, блок 50)
+--    вместо таблицы hibernate_sequences. Последовательность начинается после максимального
+--    идентификатора в обеих таблицах.
+CREATE SEQUENCE IF NOT EXISTS task_id_seq INCREMENT BY 50;
+SELECT setval('task_id_seq',
+              greatest((SELECT coalesce(max(id), 0) FROM tasks),
+                       (SELECT coalesce(max(id), 0) FROM subtasks)) + 1);
+DROP TABLE IF EXISTS hibernate_sequences;
+
+-- 2. В полиморфной модели родителем подзадачи могла оказаться другая подзадача.
+--    Такие подзадачи переносятся к корневой задаче цепочки.
+WITH RECURSIVE chain (subtask_id, parent_id, depth) AS (
+    SELECT s.id, s.task_id, 1
+    FROM subtasks s
+    WHERE s.task_id IN (SELECT id FROM subtasks)
+    UNION ALL
+    SELECT c.subtask_id, p.task_id, c.depth + 1
+    FROM chain c
+             JOIN subtasks p ON p.id = c.parent_id
+    WHERE c.depth < 100
+)
+UPDATE subtasks s
+SET task_id = c.parent_id
+FROM chain c
+WHERE s.id = c.subtask_id
+  AND c.parent_id IN (SELECT id FROM tasks);
+
+-- 3. Подзадачи удаленных задач (в полиморфной модели внешнего ключа не было) отвязываются от родителя.
+UPDATE subtasks s
+SET task_id = NULL
+WHERE s.task_id IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM tasks t WHERE t.id = s.task_id);
+
+-- 4. Внешний ключ на tasks с каскадным удалением и индекс для выборки подзадач задачи.
+ALTER TABLE subtasks
+    ADD CONSTRAINT subtasks_task_id_fk FOREIGN KEY (task_id) REFERENCES tasks (id) ON DELETE CASCADE;
+CREATE INDEX IF NOT EXISTS subtasks_task_id_idx ON subtasks (task_id);
+
+COMMIT;
@@ -0,0 +1,7 @@
+-- Индексы для постраничной выборки по ключу (id) и (status, id).
+-- Индекс subtasks (task_id, id) заменяет subtasks_task_id_idx и обслуживает внешний ключ.
+
+CREATE INDEX IF NOT EXISTS tasks_status_id_idx ON tasks (status, id);
+CREATE INDEX IF NOT EXISTS subtasks_task_id_id_idx ON subtasks (task_id, id);
+CREATE INDEX IF NOT EXISTS subtasks_task_id_status_id_idx ON subtasks (task_id, status, id);
+DROP INDEX IF EXISTS subtasks_task_id_idx;
@@ -0,0 +1,11 @@
+-- Счетчик незавершенных подзадач задачи, по которому проверяется возможность закрыть или удалить задачу.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS open_subtask_count integer NOT NULL DEFAULT 0;
+
+UPDATE tasks t
+SET open_subtask_count = actual.open_count
+FROM (SELECT task_id, COUNT(*) AS open_count
+      FROM subtasks
+      WHERE status <> 'DONE'
+      GROUP BY task_id) actual
+WHERE t.id = actual.task_id;
@@ -0,0 +1,5 @@
+-- Версия задачи и подзадачи для условного обновления.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE subtasks ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
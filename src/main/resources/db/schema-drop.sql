@@ -0,0 +1,5 @@
+-- Таблицы, которые создаются скриптами spring.sql.init, а не Hibernate. Удаляются вместе со схемой Hibernate
+-- (spring.jpa.hibernate.ddl-auto=create), чтобы не ссылаться на идентификаторы удаленных задач.
+DROP TABLE IF EXISTS deleted_records;
+DROP TABLE IF EXISTS status_transitions;
+DROP TABLE IF EXISTS command_results;
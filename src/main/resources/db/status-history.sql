@@ -0,0 +1,73 @@
+-- История статусов задач и подзадач для отчетов о времени выполнения.
+-- Скрипт идемпотентен и выполняется при каждом запуске приложения после создания схемы Hibernate (spring.sql.init).
+--
+-- Переходы записываются триггерами при любом изменении статуса, в том числе массовыми запросами, в таблицу
+-- status_transitions, строки которой не изменяются и не удаляются. Статусы хранятся порядковыми номерами
+-- TaskStatus (smallint), а вместо времени предыдущего перехода - время в предыдущем статусе в секундах, поэтому
+-- отчеты о времени выполнения не требуют поиска предыдущей строки.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS status_changed_at timestamp with time zone NOT NULL DEFAULT now();
+ALTER TABLE subtasks ADD COLUMN IF NOT EXISTS status_changed_at timestamp with time zone NOT NULL DEFAULT now();
+
+-- Столбцы расположены по убыванию размера, чтобы строка не содержала выравнивания.
+CREATE TABLE IF NOT EXISTS status_transitions
+(
+    entity_id                   bigint                   NOT NULL,
+    task_id                     bigint,
+    changed_at                  timestamp with time zone NOT NULL,
+    seconds_in_previous_status  integer,
+    previous_status             smallint,
+    status                      smallint,
+    subtask                     boolean                  NOT NULL
+);
+-- Хронология задачи вместе с подзадачами.
+CREATE INDEX IF NOT EXISTS status_transitions_task_id_changed_at_idx ON status_transitions (task_id, changed_at);
+-- Строки добавляются в порядке времени, поэтому для выборки по интервалу достаточно индекса BRIN
+-- размером в несколько страниц вместо B-дерева по всей таблице.
+CREATE INDEX IF NOT EXISTS status_transitions_changed_at_brin ON status_transitions USING brin (changed_at);
+
+-- Порядковый номер статуса; порядок совпадает с объявлением TaskStatus.
+CREATE OR REPLACE FUNCTION status_code(status varchar) RETURNS smallint
+    LANGUAGE sql
+    IMMUTABLE AS
+$$
+SELECT CAST(array_position(ARRAY ['NEW', 'IN_PROGRESS', 'DONE'], status) - 1 AS smallint)
+$$;
+
+CREATE OR REPLACE FUNCTION track_status() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    is_subtask     boolean                  := TG_ARGV[0] = 'SUBTASK';
+    -- Время изменения строки, а не начала транзакции (now()): иначе переходы длинной транзакции получают одно время,
+    -- несколько переходов одной строки - нулевую длительность, а changed_at не возрастает в порядке добавления строк,
+    -- на который рассчитан индекс BRIN.
+    transition_at  timestamp with time zone := clock_timestamp();
+BEGIN
+    INSERT INTO status_transitions (entity_id, task_id, changed_at, seconds_in_previous_status,
+                                    previous_status, status, subtask)
+    VALUES (NEW.id,
+            CASE WHEN is_subtask THEN (to_jsonb(NEW) ->> 'task_id')::bigint ELSE NEW.id END,
+            transition_at,
+            CASE WHEN TG_OP = 'UPDATE' THEN CAST(extract(EPOCH FROM transition_at - OLD.status_changed_at) AS integer) END,
+            CASE WHEN TG_OP = 'UPDATE' THEN status_code(OLD.status) END,
+            status_code(NEW.status),
+            is_subtask);
+    NEW.status_changed_at := transition_at;
+    RETURN NEW;
+END
+$$;
+
+CREATE OR REPLACE TRIGGER tasks_track_status_insert
+    BEFORE INSERT ON tasks
+    FOR EACH ROW EXECUTE FUNCTION track_status('TASK');
+CREATE OR REPLACE TRIGGER tasks_track_status_update
+    BEFORE UPDATE ON tasks
+    FOR EACH ROW WHEN (OLD.status IS DISTINCT FROM NEW.status) EXECUTE FUNCTION track_status('TASK');
+
+CREATE OR REPLACE TRIGGER subtasks_track_status_insert
+    BEFORE INSERT ON subtasks
+    FOR EACH ROW EXECUTE FUNCTION track_status('SUBTASK');
+CREATE OR REPLACE TRIGGER subtasks_track_status_update
+    BEFORE UPDATE ON subtasks
+    FOR EACH ROW WHEN (OLD.status IS DISTINCT FROM NEW.status) EXECUTE FUNCTION track_status('SUBTASK');
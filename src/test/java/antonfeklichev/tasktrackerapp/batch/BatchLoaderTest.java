@@ -0,0 +1,66 @@
+package antonfeklichev.tasktrackerapp.batch;
+
+import antonfeklichev.tasktrackerapp.exception.InvalidBatchRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchLoaderTest {
+
+    private final BatchLoader batchLoader = new BatchLoader(new BatchProperties(5, 2, 3));
+
+    @Test
+    void distinctIds_ShouldRemoveDuplicatesAndKeepOrder() {
+        // When
+        List<Long> ids = batchLoader.distinctIds(List.of(3L, 1L, 3L, 2L, 1L));
+
+        // Then
+        assertThat(ids).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void distinctIds_ShouldRejectEmptyAndOversizedRequests() {
+        // When & Then
+        assertThatThrownBy(() -> batchLoader.distinctIds(List.of()))
+                .isInstanceOf(InvalidBatchRequestException.class);
+        assertThatThrownBy(() -> batchLoader.distinctIds(List.of(1L, 2L, 3L, 4L, 5L, 6L)))
+                .isInstanceOf(InvalidBatchRequestException.class)
+                .hasMessageContaining("5");
+    }
+
+    @Test
+    void checkCreateSize_ShouldRejectRequestsAboveLimit() {
+        // When & Then
+        batchLoader.checkCreateSize(3);
+        assertThatThrownBy(() -> batchLoader.checkCreateSize(4))
+                .isInstanceOf(InvalidBatchRequestException.class)
+                .hasMessageContaining("3");
+    }
+
+    @Test
+    void load_ShouldSplitIdsIntoChunks() {
+        // Given
+        List<List<Long>> chunks = new ArrayList<>();
+        Function<Collection<Long>, Map<Long, String>> chunkLoader = chunk -> {
+            chunks.add(List.copyOf(chunk));
+            return chunk.stream()
+                    .filter(id -> id != 4L)
+                    .collect(Collectors.toMap(Function.identity(), id -> "value-" + id));
+        };
+
+        // When
+        Map<Long, String> loaded = batchLoader.load(List.of(1L, 2L, 3L, 4L, 5L), chunkLoader);
+
+        // Then
+        assertThat(chunks).containsExactly(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        assertThat(loaded).containsOnlyKeys(1L, 2L, 3L, 5L);
+    }
+}
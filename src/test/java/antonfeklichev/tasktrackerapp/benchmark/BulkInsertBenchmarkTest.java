@@ -0,0 +1,74 @@
+package antonfeklichev.tasktrackerapp.benchmark;
+
+import antonfeklichev.tasktrackerapp.dto.CreatedTaskDto;
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.service.SubTaskService;
+import antonfeklichev.tasktrackerapp.service.TaskService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение скорости создания задач с подзадачами по одной и пакетным запросом.
+ * Запуск: {@code mvn test -Dtest=BulkInsertBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "task-tracker.batch.max-create-size=10000"})
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class BulkInsertBenchmarkTest {
+
+    private static final int TASKS = 2_000;
+    private static final int SUBTASKS_PER_TASK = 4;
+    private static final int ROWS = TASKS * (1 + SUBTASKS_PER_TASK);
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    SubTaskService subTaskService;
+
+    @Test
+    public void compareSingleAndBulkInsertThroughput() {
+        // Given
+        List<NewTaskDto> newTaskDtos = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            List<NewSubTaskDto> subTasks = new ArrayList<>(SUBTASKS_PER_TASK);
+            for (int j = 0; j < SUBTASKS_PER_TASK; j++) {
+                subTasks.add(new NewSubTaskDto("SubTask " + i + "-" + j, "Description", TaskStatus.NEW));
+            }
+            newTaskDtos.add(new NewTaskDto("Task " + i, "Description", TaskStatus.NEW, subTasks));
+        }
+
+        // When
+        long start = System.nanoTime();
+        for (NewTaskDto newTaskDto : newTaskDtos) {
+            TaskDto task = taskService.addTask(newTaskDto);
+            for (NewSubTaskDto newSubTaskDto : newTaskDto.subTasks()) {
+                subTaskService.addSubTaskByTaskId(task.id(), newSubTaskDto);
+            }
+        }
+        double single = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        List<CreatedTaskDto> created = taskService.addTasks(newTaskDtos);
+        double bulk = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        // Then
+        log.info("По одной: {} строк/с, пакетно: {} строк/с, ускорение {}x",
+                String.format("%.0f", single), String.format("%.0f", bulk), String.format("%.1f", bulk / single));
+        assertThat(created).hasSize(TASKS);
+        assertThat(bulk).isGreaterThan(single);
+    }
+}
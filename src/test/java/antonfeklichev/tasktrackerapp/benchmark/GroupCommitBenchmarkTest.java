@@ -0,0 +1,191 @@
+package antonfeklichev.tasktrackerapp.benchmark;
+
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.groupcommit.GroupCommitExecutor;
+import antonfeklichev.tasktrackerapp.groupcommit.GroupCommitProperties;
+import antonfeklichev.tasktrackerapp.service.GroupCommitSubTaskService;
+import antonfeklichev.tasktrackerapp.service.SubTaskServiceImpl;
+import antonfeklichev.tasktrackerapp.service.TaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение одновременного создания задач и изменения подзадач с фиксацией каждого изменения отдельно и с групповой
+ * фиксацией: изменений и фиксаций в секунду, медианы и 99-го перцентиля задержки. Подзадачи изменяются вперемешку
+ * у небольшого числа общих задач, строки которых блокируются каждым изменением.
+ * Запуск: {@code mvn test -Dtest=GroupCommitBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class GroupCommitBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int WRITES_PER_THREAD = 200;
+    private static final int WRITES = THREADS * WRITES_PER_THREAD;
+    private static final int PARENTS = 16;
+    private static final int SUBTASKS_PER_PARENT = 64;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    SubTaskServiceImpl subTaskService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void compareSeparateAndGroupCommit() throws Exception {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        GroupCommitExecutor executor = new GroupCommitExecutor(
+                new GroupCommitProperties(true, 64, Duration.ofMillis(2), 10_000, 2),
+                transactionManager, new SimpleMeterRegistry());
+        run("Прогрев", 1_000, i -> taskService.addTask(newTask("Прогрев", i)), statistics);
+
+        // When
+        Result separate = run("Отдельные транзакции", WRITES,
+                i -> taskService.addTask(newTask("Отдельные транзакции", i)), statistics);
+        Result grouped = run("Групповая фиксация", WRITES,
+                i -> executor.execute(() -> taskService.addTask(newTask("Групповая фиксация", i))), statistics);
+        executor.shutdown();
+
+        // Then
+        compare("Создание задач", separate, grouped);
+        assertThat(grouped.commits()).isLessThan(separate.commits());
+    }
+
+    @Test
+    public void compareSeparateAndGroupCommitOfSubTaskUpdates() throws Exception {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GroupCommitExecutor executor = new GroupCommitExecutor(
+                new GroupCommitProperties(true, 64, Duration.ofMillis(2), 10_000, 2),
+                transactionManager, meterRegistry);
+        GroupCommitSubTaskService groupCommitSubTaskService = new GroupCommitSubTaskService(subTaskService, executor);
+        List<Long> subTaskIds = new ArrayList<>(PARENTS * SUBTASKS_PER_PARENT);
+        for (int p = 0; p < PARENTS; p++) {
+            Long taskId = taskService.addTask(newTask("Родитель", p)).id();
+            for (int i = 0; i < SUBTASKS_PER_PARENT; i++) {
+                subTaskIds.add(subTaskService.addSubTaskByTaskId(taskId,
+                        new NewSubTaskDto("Подзадача " + i, "Description", TaskStatus.NEW)).id());
+            }
+        }
+        Collections.shuffle(subTaskIds, new Random(42));
+        run("Прогрев", 1_000, i -> subTaskService.updateSubTaskById(subTaskIds.get(i % subTaskIds.size()),
+                renamed("Прогрев", i)), statistics);
+
+        // When
+        Result separate = run("Отдельные транзакции", WRITES,
+                i -> subTaskService.updateSubTaskById(subTaskIds.get(i % subTaskIds.size()),
+                        renamed("Отдельные транзакции", i)), statistics);
+        Result grouped = run("Групповая фиксация", WRITES,
+                i -> groupCommitSubTaskService.updateSubTaskById(subTaskIds.get(i % subTaskIds.size()),
+                        renamed("Групповая фиксация", i)), statistics);
+        executor.shutdown();
+
+        // Then
+        compare("Изменение подзадач", separate, grouped);
+        assertThat(grouped.commits()).isLessThan(separate.commits());
+        assertThat(meterRegistry.get("group.commit.fallbacks").counter().count()).isZero();
+    }
+
+    private static NewTaskDto newTask(String name, int i) {
+        return new NewTaskDto(name + " " + i, "Description", TaskStatus.NEW, null);
+    }
+
+    private static SubTaskDto renamed(String name, int i) {
+        return new SubTaskDto(null, name + " " + i, null, null, null);
+    }
+
+    private static void compare(String scenario, Result separate, Result grouped) {
+        log.info("{} с групповой фиксацией: изменений/с в {}x больше, фиксаций в {}x меньше, p99 {} мс против {} мс",
+                scenario,
+                String.format("%.1f", grouped.writesPerSecond() / separate.writesPerSecond()),
+                String.format("%.1f", (double) separate.commits() / grouped.commits()),
+                String.format("%.2f", grouped.p99Millis()), String.format("%.2f", separate.p99Millis()));
+    }
+
+    private Result run(String name, int writes, IntConsumer write, Statistics statistics) throws Exception {
+        int threads = Math.min(THREADS, writes);
+        int perThread = writes / threads;
+        long[] latencies = new long[threads * perThread];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    long begin = System.nanoTime();
+                    write.accept(offset + i);
+                    latencies[offset + i] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+
+        long commitsBefore = statistics.getSuccessfulTransactionCount();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        long commits = statistics.getSuccessfulTransactionCount() - commitsBefore;
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        Result result = new Result(latencies.length / seconds, commits, commits / seconds,
+                percentile(latencies, 0.5), percentile(latencies, 0.99));
+        log.info("{}: {} изменений/с, {} фиксаций ({} в секунду), p50 {} мс, p99 {} мс", name,
+                String.format("%.0f", result.writesPerSecond()), commits, String.format("%.0f", result.commitsPerSecond()),
+                String.format("%.2f", result.p50Millis()), String.format("%.2f", result.p99Millis()));
+        return result;
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private record Result(double writesPerSecond, long commits, double commitsPerSecond,
+                          double p50Millis, double p99Millis) {
+    }
+}
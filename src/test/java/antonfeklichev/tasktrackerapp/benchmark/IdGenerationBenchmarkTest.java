@@ -0,0 +1,95 @@
+package antonfeklichev.tasktrackerapp.benchmark;
+
+import antonfeklichev.tasktrackerapp.TaskTrackerAppApplication;
+import antonfeklichev.tasktrackerapp.entity.Task;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение пропускной способности вставки задач при разных настройках генерации идентификаторов.
+ * <p>
+ * Задачи сохраняются через {@link TaskRepository}, поэтому идентификаторы выдает {@code TaskIdGenerator} из настроек
+ * Hibernate. Для каждой настройки запускается отдельный контекст приложения со своей базой данных. Размер блока 1
+ * соответствует обращению к базе данных за каждым идентификатором, как при стратегии без резервирования блоков.
+ * Запуск: {@code mvn test -Dtest=IdGenerationBenchmarkTest -Dbenchmark=true}.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class IdGenerationBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int TRANSACTIONS_PER_THREAD = 100;
+    private static final int TASKS_PER_TRANSACTION = 20;
+
+    @Test
+    public void compareIdGenerationThroughput() throws InterruptedException {
+        // When
+        double single = measure("POOLED, block-size=1", Map.of("task-tracker.id-generator.block-size", 1));
+        double pooled = measure("POOLED, block-size=50", Map.of("task-tracker.id-generator.block-size", 50));
+        double snowflake = measure("SNOWFLAKE", Map.of("task-tracker.id-generator.mode", "SNOWFLAKE"));
+
+        // Then
+        log.info("Ускорение вставки POOLED (50) относительно POOLED (1): {}x, SNOWFLAKE относительно POOLED (1): {}x",
+                String.format("%.1f", pooled / single), String.format("%.1f", snowflake / single));
+        assertThat(pooled).isGreaterThan(single);
+    }
+
+    private double measure(String name, Map<String, Object> properties) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TaskTrackerAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .properties("spring.jpa.show-sql=false")
+                .run()) {
+            TaskRepository taskRepository = context.getBean(TaskRepository.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            long start = System.nanoTime();
+            for (int i = 0; i < THREADS; i++) {
+                executor.submit(() -> {
+                    for (int j = 0; j < TRANSACTIONS_PER_THREAD; j++) {
+                        transactionTemplate.executeWithoutResult(transaction ->
+                                taskRepository.saveAll(newTasks()).forEach(task -> ids.add(task.getId())));
+                    }
+                });
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertThat(ids).hasSize(THREADS * TRANSACTIONS_PER_THREAD * TASKS_PER_TRANSACTION);
+            assertThat(taskRepository.count()).isEqualTo(ids.size());
+            double rate = ids.size() / seconds;
+            log.info("{}: {} задач/с", name, String.format("%.0f", rate));
+            return rate;
+        }
+    }
+
+    private static List<Task> newTasks() {
+        List<Task> tasks = new ArrayList<>(TASKS_PER_TRANSACTION);
+        for (int i = 0; i < TASKS_PER_TRANSACTION; i++) {
+            tasks.add(new Task(null, "Id Benchmark", "Description", TaskStatus.NEW));
+        }
+        return tasks;
+    }
+}
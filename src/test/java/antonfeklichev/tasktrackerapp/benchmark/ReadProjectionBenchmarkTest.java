@@ -0,0 +1,109 @@
+package antonfeklichev.tasktrackerapp.benchmark;
+
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.entity.QSubTask;
+import antonfeklichev.tasktrackerapp.entity.SubTask;
+import antonfeklichev.tasktrackerapp.mapper.SubTaskMapper;
+import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение чтения 10 000 подзадач через сущности с последующим маппингом и через конструкторную проекцию в DTO.
+ * <p>
+ * "До" - выборка сущностей {@link SubTask} и преобразование {@link SubTaskMapper#toSubTaskDto}, как раньше делали
+ * сервисы. "После" - {@link SubTaskRepository#findDtos}. Для каждого варианта выводятся задержка и объем памяти,
+ * выделенной потоком на один запрос.
+ * Запуск: {@code mvn test -Dtest=ReadProjectionBenchmarkTest -Dbenchmark=true}.
+ * </p>
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class ReadProjectionBenchmarkTest {
+
+    private static final int ROWS = 10_000;
+    private static final int ITERATIONS = 50;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SubTaskRepository subTaskRepository;
+
+    @Autowired
+    SubTaskMapper subTaskMapper;
+
+    @Test
+    public void compareEntityAndProjectionReads() {
+        // Given
+        Long taskId = jdbcTemplate.queryForObject("INSERT INTO tasks (id, name, description, status) " +
+                                                  "VALUES (nextval('task_id_seq'), 'Task', 'Description', 'NEW') RETURNING id", Long.class);
+        jdbcTemplate.update("INSERT INTO subtasks (id, name, description, status, task_id) " +
+                            "SELECT nextval('task_id_seq'), 'SubTask ' || g, 'Description', 'NEW', ? FROM generate_series(1, ?) g",
+                taskId, ROWS);
+        jdbcTemplate.execute("ANALYZE subtasks");
+        Predicate predicate = QSubTask.subTask.task.id.eq(taskId);
+
+        // When
+        Measurement entities = measure(() -> subTaskRepository.findBy(predicate, query -> query
+                        .sortBy(Sort.by("id"))
+                        .limit(ROWS)
+                        .all())
+                .stream()
+                .map(subTaskMapper::toSubTaskDto)
+                .toList());
+        Measurement projection = measure(() -> subTaskRepository.findDtos(predicate,
+                new OrderSpecifier<?>[]{QSubTask.subTask.id.asc()}, ROWS));
+
+        // Then
+        log.info("{} строк: сущности p50={} ms p99={} ms {} KB; проекция p50={} ms p99={} ms {} KB", ROWS,
+                format(entities.percentile(0.5)), format(entities.percentile(0.99)), entities.allocatedKb(),
+                format(projection.percentile(0.5)), format(projection.percentile(0.99)), projection.allocatedKb());
+        assertThat(projection.allocatedKb()).isLessThan(entities.allocatedKb());
+    }
+
+    private static Measurement measure(Supplier<List<SubTaskDto>> query) {
+        for (int i = 0; i < 5; i++) {
+            assertThat(query.get()).hasSize(ROWS);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] nanos = new long[ITERATIONS];
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Arrays.sort(nanos);
+        return new Measurement(nanos, allocated / ITERATIONS / 1024);
+    }
+
+    private static String format(double millis) {
+        return String.format("%.3f", millis);
+    }
+
+    private record Measurement(long[] sortedNanos, long allocatedKb) {
+
+        double percentile(double percentile) {
+            return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.round(percentile * sortedNanos.length))] / 1e6;
+        }
+    }
+}
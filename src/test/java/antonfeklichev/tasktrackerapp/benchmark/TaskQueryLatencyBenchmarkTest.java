@@ -0,0 +1,110 @@
+package antonfeklichev.tasktrackerapp.benchmark;
+
+import antonfeklichev.tasktrackerapp.entity.QTask;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение задержки запросов к задачам до и после отказа от полиморфной модели при 1 млн подзадач.
+ * <p>
+ * "До" - запросы в том виде, в котором их строил Hibernate для {@code TABLE_PER_CLASS}:
+ * выборка из {@code UNION ALL} таблиц tasks и subtasks. "После" - те же запросы только к таблице tasks,
+ * как их теперь строит {@link TaskRepository}. Оба варианта выполняются через JDBC, чтобы сравнение
+ * не включало накладные расходы JPA.
+ * Запуск: {@code mvn test -Dtest=TaskQueryLatencyBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class TaskQueryLatencyBenchmarkTest {
+
+    private static final int TASKS = 10_000;
+    private static final int SUBTASKS = 1_000_000;
+    private static final int ITERATIONS = 200;
+
+    private static final String POLYMORPHIC_SOURCE = "(SELECT id, name, description, status, NULL::bigint AS task_id, 0 AS clazz_ FROM tasks " +
+                                                     "UNION ALL " +
+                                                     "SELECT id, name, description, status, task_id, 1 AS clazz_ FROM subtasks) t";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Test
+    public void compareTaskQueryLatency() {
+        // Given
+        jdbcTemplate.update("INSERT INTO tasks (id, name, description, status) " +
+                            "SELECT nextval('task_id_seq'), 'Task ' || g, 'Description', 'IN_PROGRESS' FROM generate_series(1, ?) g", TASKS);
+        List<Long> taskIds = jdbcTemplate.queryForList("SELECT id FROM tasks", Long.class);
+        jdbcTemplate.update("INSERT INTO subtasks (id, name, description, status, task_id) " +
+                            "SELECT nextval('task_id_seq'), 'SubTask ' || g, 'Description', 'NEW', " +
+                            "(SELECT min(id) FROM tasks) FROM generate_series(1, ?) g", SUBTASKS);
+        jdbcTemplate.execute("ANALYZE tasks");
+        jdbcTemplate.execute("ANALYZE subtasks");
+
+        // When
+        long[] unionById = measure(() -> jdbcTemplate.queryForList(
+                "SELECT * FROM " + POLYMORPHIC_SOURCE + " WHERE t.id = ?", randomId(taskIds)));
+        long[] taskById = measure(() -> jdbcTemplate.queryForList(
+                "SELECT id, name, description, status FROM tasks WHERE id = ?", randomId(taskIds)));
+        long[] unionFilter = measure(() -> jdbcTemplate.queryForList(
+                "SELECT * FROM " + POLYMORPHIC_SOURCE + " WHERE t.status = ? AND lower(t.name) LIKE ?",
+                TaskStatus.IN_PROGRESS.name(), "%task 42%"));
+        long[] taskFilter = measure(() -> jdbcTemplate.queryForList(
+                "SELECT id, name, description, status FROM tasks WHERE status = ? AND lower(name) LIKE ?",
+                TaskStatus.IN_PROGRESS.name(), "%task 42%"));
+        long[] repositoryFilter = measure(() -> taskRepository.findAll(QTask.task.status.eq(TaskStatus.IN_PROGRESS)
+                .and(QTask.task.name.containsIgnoreCase("task 42"))));
+
+        // Then
+        report("findById", unionById, taskById);
+        report("findAll(predicate)", unionFilter, taskFilter);
+        log.info("TaskRepository.findAll(predicate): p50={} ms p99={} ms",
+                String.format("%.3f", percentile(repositoryFilter, 0.5)), String.format("%.3f", percentile(repositoryFilter, 0.99)));
+        assertThat(percentile(taskFilter, 0.5)).isLessThan(percentile(unionFilter, 0.5));
+    }
+
+    private static Long randomId(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static long[] measure(Runnable query) {
+        for (int i = 0; i < 10; i++) {
+            query.run();
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.round(percentile * sortedNanos.length))] / 1e6;
+    }
+
+    private static void report(String query, long[] before, long[] after) {
+        log.info("{}: UNION ALL p50={} ms p99={} ms; только tasks p50={} ms p99={} ms", query,
+                String.format("%.3f", percentile(before, 0.5)), String.format("%.3f", percentile(before, 0.99)),
+                String.format("%.3f", percentile(after, 0.5)), String.format("%.3f", percentile(after, 0.99)));
+    }
+}
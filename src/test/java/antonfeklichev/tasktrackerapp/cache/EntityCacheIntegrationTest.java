@@ -0,0 +1,122 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.entity.SubTask;
+import antonfeklichev.tasktrackerapp.entity.Task;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
+import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import antonfeklichev.tasktrackerapp.service.SubTaskService;
+import antonfeklichev.tasktrackerapp.service.TaskService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("l2cache")
+public class EntityCacheIntegrationTest {
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    SubTaskRepository subTaskRepository;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    SubTaskService subTaskService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void findById_ShouldReadTaskFromSecondLevelCache_WhenLoadedBefore() {
+        // Given
+        Task task = taskRepository.save(new Task(null, "Task", "Description", TaskStatus.NEW));
+        entityManagerFactory.getCache().evict(Task.class, task.getId());
+        taskRepository.findById(task.getId());
+        long loads = statistics.getEntityLoadCount();
+
+        // When
+        Task cached = taskRepository.findById(task.getId()).orElseThrow();
+
+        // Then
+        assertThat(cached.getName()).isEqualTo("Task");
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(loads);
+        assertThat(statistics.getDomainDataRegionStatistics(Task.class.getName()).getHitCount()).isPositive();
+    }
+
+    @Test
+    public void addSubTaskByTaskId_ShouldEvictOnlyChangedTask_WhenCounterIsAdjusted() {
+        // Given
+        Task task = taskRepository.save(new Task(null, "Task", "Description", TaskStatus.NEW));
+        Task otherTask = taskRepository.save(new Task(null, "Other Task", "Description", TaskStatus.NEW));
+        taskRepository.findById(task.getId());
+        taskRepository.findById(otherTask.getId());
+
+        // When
+        subTaskService.addSubTaskByTaskId(task.getId(), new NewSubTaskDto("SubTask", "Description", TaskStatus.NEW));
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Task.class, task.getId())).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(Task.class, otherTask.getId())).isTrue();
+        assertThat(taskRepository.findById(task.getId()).orElseThrow().getOpenSubTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void updateById_ShouldNotReturnStaleEntities_WhenPatchedByNativeQuery() {
+        // Given
+        Task task = taskRepository.save(new Task(null, "Task", "Description", TaskStatus.NEW));
+        SubTask subTask = subTaskRepository.save(new SubTask(null, "SubTask", "Description", TaskStatus.NEW, task));
+        taskRepository.adjustOpenSubTaskCount(task.getId(), 1);
+        taskRepository.findById(task.getId());
+        subTaskRepository.findById(subTask.getId());
+
+        // When
+        taskService.updateTaskById(task.getId(), new TaskDto(null, "Renamed Task", null, null));
+        subTaskService.updateSubTaskById(subTask.getId(), new SubTaskDto(null, "Renamed SubTask", null, TaskStatus.DONE, null));
+
+        // Then
+        Task reloadedTask = taskRepository.findById(task.getId()).orElseThrow();
+        assertThat(reloadedTask.getName()).isEqualTo("Renamed Task");
+        assertThat(reloadedTask.getOpenSubTaskCount()).isZero();
+        SubTask reloadedSubTask = subTaskRepository.findById(subTask.getId()).orElseThrow();
+        assertThat(reloadedSubTask.getName()).isEqualTo("Renamed SubTask");
+        assertThat(reloadedSubTask.getStatus()).isEqualTo(TaskStatus.DONE);
+    }
+
+    @Test
+    public void deleteTaskById_ShouldEvictCascadeDeletedSubTasks() {
+        // Given
+        Task task = taskRepository.save(new Task(null, "Task", "Description", TaskStatus.NEW));
+        SubTask subTask = subTaskRepository.save(new SubTask(null, "SubTask", "Description", TaskStatus.DONE, task));
+        subTaskRepository.findById(subTask.getId());
+
+        // When
+        taskService.deleteTaskById(task.getId());
+
+        // Then
+        assertThat(subTaskRepository.findById(subTask.getId())).isEmpty();
+    }
+}
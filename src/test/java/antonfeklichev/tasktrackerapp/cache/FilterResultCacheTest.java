@@ -0,0 +1,83 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
+import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterResultCacheTest {
+
+    private final ChangeGenerations changeGenerations = new ChangeGenerations();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FilterResultCache cache = new FilterResultCache(
+            new FilterCacheProperties(true, DataSize.ofMegabytes(1), Duration.ofMinutes(1)), changeGenerations, meterRegistry);
+
+    private final QueryDslFilterDto inProgress = new QueryDslFilterDto(TaskStatus.IN_PROGRESS, null);
+    private final CursorPageRequestDto firstPage = new CursorPageRequestDto(null, 20, null);
+
+    @Test
+    void getTasks_ShouldLoadOnce_UntilTasksChange() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        CursorPageDto<TaskDto> first = cache.getTasks(inProgress, firstPage, () -> taskPage(loads.incrementAndGet()));
+        CursorPageDto<TaskDto> cached = cache.getTasks(new QueryDslFilterDto(TaskStatus.IN_PROGRESS, " "), firstPage,
+                () -> taskPage(loads.incrementAndGet()));
+        changeGenerations.tasksChanged();
+        CursorPageDto<TaskDto> reloaded = cache.getTasks(inProgress, firstPage, () -> taskPage(loads.incrementAndGet()));
+
+        // Then
+        assertThat(cached).isSameAs(first);
+        assertThat(reloaded.items().get(0).id()).isEqualTo(2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void getSubTasks_ShouldKeepPagesOfOtherTasks_WhenSubTasksOfOneTaskChange() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        cache.getSubTasks(1L, inProgress, firstPage, () -> subTaskPage(1L, loads.incrementAndGet()));
+        cache.getSubTasks(2L, inProgress, firstPage, () -> subTaskPage(2L, loads.incrementAndGet()));
+
+        // When
+        changeGenerations.subTasksChanged(1L);
+        cache.getSubTasks(1L, inProgress, firstPage, () -> subTaskPage(1L, loads.incrementAndGet()));
+        cache.getSubTasks(2L, inProgress, firstPage, () -> subTaskPage(2L, loads.incrementAndGet()));
+
+        // Then
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void getTasks_ShouldReportHitRatioAndMemory() {
+        // Given
+        cache.getTasks(inProgress, firstPage, () -> taskPage(1));
+
+        // When
+        cache.getTasks(inProgress, firstPage, () -> taskPage(2));
+
+        // Then
+        assertThat(meterRegistry.get("cache.hit.ratio").tag("cache", "task-filters").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("cache.memory.estimated").tag("cache", "task-filters").gauge().value()).isPositive();
+    }
+
+    private static CursorPageDto<TaskDto> taskPage(long id) {
+        return new CursorPageDto<>(List.of(new TaskDto(id, "Task", "Description", TaskStatus.IN_PROGRESS)), null);
+    }
+
+    private static CursorPageDto<SubTaskDto> subTaskPage(Long taskId, long id) {
+        return new CursorPageDto<>(List.of(new SubTaskDto(id, "SubTask", "Description", TaskStatus.IN_PROGRESS, taskId)), null);
+    }
+}
@@ -0,0 +1,52 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NegativeCacheTest {
+
+    private final NegativeCache cache = new NegativeCache("missing",
+            new NegativeCacheProperties(true, 100, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+
+    @Test
+    public void contains_ShouldReturnTrue_WhenMissRecorded() {
+        // Given
+        long stamp = cache.stamp(1L);
+
+        // When
+        cache.put(1L, stamp);
+
+        // Then
+        assertThat(cache.contains(1L)).isTrue();
+        assertThat(cache.contains(2L)).isFalse();
+    }
+
+    @Test
+    public void put_ShouldNotRecordMiss_WhenInvalidatedDuringLookup() {
+        // Given
+        long stamp = cache.stamp(1L);
+        cache.invalidate(1L);
+
+        // When
+        cache.put(1L, stamp);
+
+        // Then
+        assertThat(cache.contains(1L)).isFalse();
+    }
+
+    @Test
+    public void invalidate_ShouldForgetRecordedMiss() {
+        // Given
+        cache.put(1L, cache.stamp(1L));
+
+        // When
+        cache.invalidate(1L);
+
+        // Then
+        assertThat(cache.contains(1L)).isFalse();
+    }
+}
@@ -0,0 +1,121 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import antonfeklichev.tasktrackerapp.exception.TaskNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String> singleFlight = new SingleFlight<>("test", meterRegistry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void load_ShouldShareOneLoad_WhenCalledConcurrently() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Long, String> loader = id -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value-" + id;
+        };
+
+        // When
+        List<Future<String>> results = startCallers(loader);
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value-1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(coalesced()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void load_ShouldShareException_WhenLoadFails() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Long, String> loader = id -> {
+            await(release);
+            throw new TaskNotFoundException("Task not found");
+        };
+
+        // When
+        List<Future<String>> results = startCallers(loader);
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(TaskNotFoundException.class);
+        }
+    }
+
+    @Test
+    void load_ShouldLoadAgain_AfterPreviousLoadCompleted() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        singleFlight.load(1L, id -> "value-" + loads.incrementAndGet());
+        String second = singleFlight.load(1L, id -> "value-" + loads.incrementAndGet());
+
+        // Then
+        assertThat(second).isEqualTo("value-2");
+        assertThat(coalesced()).isZero();
+    }
+
+    private List<Future<String>> startCallers(Function<Long, String> loader) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.load(1L, loader)));
+        }
+        return results;
+    }
+
+    private void awaitCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("cache.coalesced").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package antonfeklichev.tasktrackerapp.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StampedCacheTest {
+
+    private final StampedCache<String> cache =
+            new StampedCache<>("test", new CacheProperties(true, 100, Duration.ofMinutes(5)), new SimpleMeterRegistry());
+
+    @Test
+    void get_ShouldLoadOnce_WhenValueIsCached() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        String first = cache.get(1L, id -> "value-" + loads.incrementAndGet());
+        String second = cache.get(1L, id -> "value-" + loads.incrementAndGet());
+
+        // Then
+        assertThat(first).isEqualTo("value-1");
+        assertThat(second).isEqualTo("value-1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        // Given
+        cache.get(1L, id -> "old");
+
+        // When
+        cache.invalidate(1L);
+        String result = cache.get(1L, id -> "new");
+
+        // Then
+        assertThat(result).isEqualTo("new");
+    }
+
+    @Test
+    void get_ShouldNotKeepValue_WhenInvalidatedDuringLoad() {
+        // Given
+        String stale = cache.get(1L, id -> {
+            cache.invalidate(id);
+            return "stale";
+        });
+
+        // When
+        String result = cache.get(1L, id -> "fresh");
+
+        // Then
+        assertThat(stale).isEqualTo("stale");
+        assertThat(result).isEqualTo("fresh");
+    }
+
+    @Test
+    void get_ShouldNotKeepValue_WhenAllInvalidatedDuringLoad() {
+        // Given
+        cache.get(2L, id -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+
+        // When
+        String result = cache.get(2L, id -> "fresh");
+
+        // Then
+        assertThat(result).isEqualTo("fresh");
+    }
+}
@@ -0,0 +1,142 @@
+package antonfeklichev.tasktrackerapp.command;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recover_ShouldReturnCommandsNotCompletedBeforeRestart() throws IOException {
+        // Given
+        try (CommandJournal journal = new CommandJournal(directory, 1024 * 1024, objectMapper)) {
+            assertThat(journal.recover()).isEmpty();
+            journal.append(command("1", 1L));
+            journal.append(command("2", 2L));
+            journal.append(command("3", 3L));
+            journal.complete(List.of("2"));
+        }
+
+        // When
+        List<Command> recovered;
+        try (CommandJournal journal = new CommandJournal(directory, 1024 * 1024, objectMapper)) {
+            recovered = journal.recover();
+        }
+
+        // Then
+        assertThat(recovered).extracting(Command::id).containsExactly("1", "3");
+        assertThat(recovered.get(1).targetId()).isEqualTo(3L);
+        assertThat(recovered.get(1).payload().get("name").asText()).isEqualTo("Task 3");
+        assertThat(segments()).hasSize(1);
+    }
+
+    @Test
+    void recover_ShouldSkipTornLastLine() throws IOException {
+        // Given
+        try (CommandJournal journal = new CommandJournal(directory, 1024 * 1024, objectMapper)) {
+            journal.recover();
+            journal.append(command("1", 1L));
+        }
+        Files.writeString(segments().get(0), "{\"command\":{\"id\":\"2\",\"ty", StandardOpenOption.APPEND);
+
+        // When
+        List<Command> recovered;
+        try (CommandJournal journal = new CommandJournal(directory, 1024 * 1024, objectMapper)) {
+            recovered = journal.recover();
+        }
+
+        // Then
+        assertThat(recovered).extracting(Command::id).containsExactly("1");
+    }
+
+    @Test
+    void complete_ShouldDeleteSegmentsFromHead_WhenAllTheirCommandsAreCompleted() throws IOException {
+        // Given
+        try (CommandJournal journal = new CommandJournal(directory, 1, objectMapper)) {
+            journal.recover();
+            journal.append(command("1", 1L));
+            journal.append(command("2", 2L));
+            journal.append(command("3", 3L));
+
+            // When
+            journal.complete(List.of("2"));
+            int afterSecond = segments().size();
+            journal.complete(List.of("1"));
+            int afterFirst = segments().size();
+
+            // Then
+            assertThat(afterSecond).isEqualTo(3);
+            assertThat(afterFirst).isEqualTo(1);
+        }
+        try (CommandJournal journal = new CommandJournal(directory, 1, objectMapper)) {
+            assertThat(journal.recover()).extracting(Command::id).containsExactly("3");
+        }
+    }
+
+    @Test
+    void append_ShouldKeepAllCommands_WhenAppendedConcurrentlyAcrossSegments() throws Exception {
+        // Given
+        int threads = 8;
+        int commandsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        try (CommandJournal journal = new CommandJournal(directory, 1024, objectMapper)) {
+            journal.recover();
+            List<Future<?>> appends = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int first = thread * commandsPerThread;
+                appends.add(executor.submit(() -> {
+                    for (long id = first; id < first + commandsPerThread; id++) {
+                        journal.append(command(String.valueOf(id), id));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> append : appends) {
+                append.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        List<Command> recovered;
+        try (CommandJournal journal = new CommandJournal(directory, 1024, objectMapper)) {
+            recovered = journal.recover();
+        }
+
+        // Then
+        assertThat(recovered).extracting(Command::targetId)
+                .containsExactlyInAnyOrderElementsOf(LongStream.range(0, threads * commandsPerThread).boxed().toList());
+    }
+
+    private Command command(String id, Long targetId) {
+        return new Command(id, CommandType.UPDATE_TASK, targetId,
+                objectMapper.createObjectNode().put("name", "Task " + targetId));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package antonfeklichev.tasktrackerapp.command;
+
+import antonfeklichev.tasktrackerapp.dto.CommandStatusDto;
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.repository.CommandResultRepository;
+import antonfeklichev.tasktrackerapp.service.SubTaskService;
+import antonfeklichev.tasktrackerapp.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "task-tracker.commands.enabled=true")
+@Testcontainers
+public class CommandProcessorIntegrationTest {
+
+    @TempDir
+    static Path journalDirectory;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("task-tracker.commands.journal-directory", journalDirectory::toString);
+    }
+
+    @Autowired
+    CommandProcessor commandProcessor;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    SubTaskService subTaskService;
+
+    @Autowired
+    CommandResultRepository commandResults;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void submit_ShouldApplyCommandsInOrderOfAcceptance() throws InterruptedException {
+        // Given
+        CommandStatusDto create = commandProcessor.submit(CommandType.CREATE_TASK, null,
+                new NewTaskDto("Async", "Description", TaskStatus.NEW, null));
+        Long taskId = awaitDone(create.id()).resultId();
+
+        // When
+        CommandStatusDto rename = commandProcessor.submit(CommandType.UPDATE_TASK, taskId,
+                new TaskDto(null, "Renamed", null, null));
+        CommandStatusDto delete = commandProcessor.submit(CommandType.DELETE_TASK, taskId, null);
+
+        // Then
+        assertThat(create.state()).isEqualTo(CommandState.ACCEPTED);
+        assertThat(awaitDone(rename.id()).state()).isEqualTo(CommandState.APPLIED);
+        assertThat(awaitDone(delete.id()).state()).isEqualTo(CommandState.APPLIED);
+        assertThat(taskService.findTaskVersionById(taskId)).isEmpty();
+    }
+
+    @Test
+    public void submit_ShouldReportFailureOnlyForFailedCommand() throws InterruptedException {
+        // Given
+        TaskDto task = taskService.addTask(new NewTaskDto("Parent", "Description", TaskStatus.NEW, null));
+        List<String> commandIds = new ArrayList<>();
+
+        // When
+        commandIds.add(commandProcessor.submit(CommandType.CREATE_SUBTASK, task.id(),
+                new NewSubTaskDto("First", "Description", TaskStatus.NEW)).id());
+        commandIds.add(commandProcessor.submit(CommandType.CREATE_SUBTASK, Long.MAX_VALUE,
+                new NewSubTaskDto("Orphan", "Description", TaskStatus.NEW)).id());
+        commandIds.add(commandProcessor.submit(CommandType.UPDATE_TASK, task.id(),
+                new TaskDto(null, "Stale", null, null, task.version() + 1)).id());
+        commandIds.add(commandProcessor.submit(CommandType.CREATE_SUBTASK, task.id(),
+                new NewSubTaskDto("Second", "Description", TaskStatus.NEW)).id());
+        List<CommandStatusDto> results = new ArrayList<>();
+        for (String commandId : commandIds) {
+            results.add(awaitDone(commandId));
+        }
+
+        // Then
+        assertThat(results).extracting(CommandStatusDto::state).containsExactly(
+                CommandState.APPLIED, CommandState.FAILED, CommandState.FAILED, CommandState.APPLIED);
+        assertThat(subTaskService.getSubTaskById(results.get(0).resultId()).name()).isEqualTo("First");
+        assertThat(subTaskService.getSubTaskById(results.get(3).resultId()).name()).isEqualTo("Second");
+        assertThat(results.get(2).error()).contains("modified concurrently");
+        assertThat(taskService.getTaskById(task.id()).name()).isEqualTo("Parent");
+    }
+
+    @Test
+    public void start_ShouldSkipRecoveredCommand_WhenItWasAppliedBeforeRestart() throws Exception {
+        // Given
+        Path directory = journalDirectory.resolve("replay");
+        TaskDto applied = taskService.addTask(new NewTaskDto("Applied Before Restart", "Description", TaskStatus.NEW, null));
+        Command command = new Command("replayed-command", CommandType.CREATE_TASK, null,
+                objectMapper.valueToTree(new NewTaskDto("Xqzv Replayed", "Description", TaskStatus.NEW, null)));
+        try (CommandJournal journal = new CommandJournal(directory, 1024 * 1024, objectMapper)) {
+            journal.recover();
+            journal.append(command);
+        }
+        transactionTemplate.executeWithoutResult(transaction -> commandResults.save(
+                new CommandStatusDto(command.id(), command.type(), CommandState.APPLIED, applied.id(), null)));
+        CommandProcessor restarted = new CommandProcessor(
+                new CommandProperties(true, 10, 10, directory, DataSize.ofMegabytes(1), Duration.ofMinutes(1), 100),
+                taskService, subTaskService, objectMapper, transactionManager, commandResults, new SimpleMeterRegistry());
+
+        // When
+        restarted.start();
+        CommandStatusDto status = awaitDone(restarted, command.id());
+        restarted.shutdown();
+
+        // Then
+        assertThat(status.state()).isEqualTo(CommandState.APPLIED);
+        assertThat(status.resultId()).isEqualTo(applied.id());
+        assertThat(taskService.getTasksByFilter(new QueryDslFilterDto(null, "Xqzv Replayed"), null).items()).isEmpty();
+        assertThat(commandResults.findByIds(List.of(command.id()))).isEmpty();
+    }
+
+    @Test
+    public void start_ShouldNotRerunRecoveredCommand_WhenItFailedBeforeRestart() throws Exception {
+        // Given
+        Path directory = journalDirectory.resolve("failed-replay");
+        TaskDto task = taskService.addTask(new NewTaskDto("Failed Before Restart", "Description", TaskStatus.NEW, null));
+        Command command = new Command("failed-command", CommandType.UPDATE_TASK, task.id(),
+                objectMapper.valueToTree(new TaskDto(null, "Xqzv Rerun", null, null)));
+        try (CommandJournal journal = new CommandJournal(directory, 1024 * 1024, objectMapper)) {
+            journal.recover();
+            journal.append(command);
+        }
+        transactionTemplate.executeWithoutResult(transaction -> commandResults.save(
+                new CommandStatusDto(command.id(), command.type(), CommandState.FAILED, null, "Conflict")));
+        CommandProcessor restarted = new CommandProcessor(
+                new CommandProperties(true, 10, 10, directory, DataSize.ofMegabytes(1), Duration.ofMinutes(1), 100),
+                taskService, subTaskService, objectMapper, transactionManager, commandResults, new SimpleMeterRegistry());
+
+        // When
+        restarted.start();
+        CommandStatusDto status = awaitDone(restarted, command.id());
+        restarted.shutdown();
+
+        // Then
+        assertThat(status.state()).isEqualTo(CommandState.FAILED);
+        assertThat(status.error()).isEqualTo("Conflict");
+        assertThat(taskService.getTaskById(task.id()).name()).isEqualTo("Failed Before Restart");
+    }
+
+    private CommandStatusDto awaitDone(String commandId) throws InterruptedException {
+        return awaitDone(commandProcessor, commandId);
+    }
+
+    private static CommandStatusDto awaitDone(CommandProcessor processor, String commandId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        CommandStatusDto status = processor.getStatus(commandId);
+        while (status.state() == CommandState.ACCEPTED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = processor.getStatus(commandId);
+        }
+        return status;
+    }
+}
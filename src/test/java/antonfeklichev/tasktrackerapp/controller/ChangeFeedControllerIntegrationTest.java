@@ -0,0 +1,110 @@
+package antonfeklichev.tasktrackerapp.controller;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.feed.ChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ChangeFeedControllerIntegrationTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ChangeFeed changeFeed;
+
+    @Test
+    public void subscribe_ShouldStreamOnlyEventsOfRequestedTask() throws Exception {
+
+        //Given
+        MvcResult result = mockMvc.perform(get("/api/v1/changes")
+                        .param("taskId", "101")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //When
+        changeFeed.publish(ChangeEventDto.task(ChangeEventDto.Type.UPDATED, 102L, TaskStatus.NEW, 1L));
+        changeFeed.publish(ChangeEventDto.subTask(ChangeEventDto.Type.CREATED, 201L, 101L, TaskStatus.NEW, 0L));
+
+        //Then
+        String content = awaitContent(result, body -> body.contains("\"id\":201"));
+        assertThat(content).contains("event:change", "\"type\":\"CREATED\"", "\"entity\":\"SUBTASK\"", "\"taskId\":101");
+        assertThat(content).doesNotContain("\"id\":102");
+    }
+
+    @Test
+    public void subscribe_ShouldStreamEventsLeavingRequestedStatus() throws Exception {
+
+        //Given
+        MvcResult result = mockMvc.perform(get("/api/v1/changes")
+                        .param("status", "IN_PROGRESS")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //When
+        changeFeed.publish(ChangeEventDto.task(ChangeEventDto.Type.CREATED, 401L, TaskStatus.NEW, 0L));
+        changeFeed.publish(ChangeEventDto.taskUpdated(402L, TaskStatus.NEW, TaskStatus.DONE, 1L));
+        changeFeed.publish(ChangeEventDto.taskUpdated(403L, TaskStatus.IN_PROGRESS, TaskStatus.DONE, 2L));
+
+        //Then
+        String content = awaitContent(result, body -> body.contains("\"id\":403"));
+        assertThat(content).contains("\"previousStatus\":\"IN_PROGRESS\"");
+        assertThat(content).doesNotContain("\"id\":401", "\"id\":402");
+    }
+
+    @Test
+    public void subscribe_ShouldReplayMissedEvents_WhenLastEventIdGiven() throws Exception {
+
+        //Given
+        changeFeed.publish(ChangeEventDto.task(ChangeEventDto.Type.CREATED, 301L, TaskStatus.NEW, 0L));
+        String lastEventId = changeFeed.lastEventId();
+        changeFeed.publish(ChangeEventDto.task(ChangeEventDto.Type.UPDATED, 302L, TaskStatus.DONE, 1L));
+
+        //When & Then
+        MvcResult result = mockMvc.perform(get("/api/v1/changes")
+                        .header("Last-Event-ID", lastEventId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String content = awaitContent(result, body -> body.contains("\"id\":302"));
+        assertThat(content).doesNotContain("\"id\":301");
+    }
+
+    @Test
+    public void subscribe_ShouldSendReset_WhenLastEventIdIsFromAnotherRun() throws Exception {
+
+        //When & Then
+        MvcResult result = mockMvc.perform(get("/api/v1/changes")
+                        .header("Last-Event-ID", "unknown-5")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(result, body -> body.contains("event:reset"));
+    }
+
+    private static String awaitContent(MvcResult result, Predicate<String> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = result.getResponse().getContentAsString();
+        while (!condition.test(content) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(condition.test(content)).as("Ответ ленты изменений: %s", content).isTrue();
+        return content;
+    }
+}
@@ -0,0 +1,85 @@
+package antonfeklichev.tasktrackerapp.controller;
+
+import antonfeklichev.tasktrackerapp.command.CommandProcessor;
+import antonfeklichev.tasktrackerapp.command.CommandState;
+import antonfeklichev.tasktrackerapp.command.CommandType;
+import antonfeklichev.tasktrackerapp.dto.CommandStatusDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.CommandNotFoundException;
+import antonfeklichev.tasktrackerapp.exception.CommandQueueFullException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "task-tracker.commands.enabled=true")
+@AutoConfigureMockMvc
+public class CommandControllerIntegrationTest {
+    @Autowired
+    MockMvc mockMvc;
+    @MockBean
+    CommandProcessor commandProcessor;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    public void addTask_ShouldAcceptCommand() throws Exception {
+
+        //Given
+        NewTaskDto newTaskDto = new NewTaskDto("Task Name", "Description", TaskStatus.NEW, null);
+        given(commandProcessor.submit(CommandType.CREATE_TASK, null, newTaskDto))
+                .willReturn(CommandStatusDto.accepted("c-1", CommandType.CREATE_TASK));
+
+        //When & Then
+        mockMvc.perform(post("/api/v1/commands/task")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newTaskDto)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/v1/commands/c-1"))
+                .andExpect(jsonPath("$.id").value("c-1"))
+                .andExpect(jsonPath("$.state").value("ACCEPTED"));
+    }
+
+    @Test
+    public void deleteSubTaskById_ShouldReturnTooManyRequests_WhenQueueIsFull() throws Exception {
+
+        //Given
+        given(commandProcessor.submit(eq(CommandType.DELETE_SUBTASK), eq(1L), isNull()))
+                .willThrow(new CommandQueueFullException("Command queue is full, retry later"));
+
+        //When & Then
+        mockMvc.perform(delete("/api/v1/commands/subtasks/{subTaskId}", 1L))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void getCommandStatus() throws Exception {
+
+        //Given
+        given(commandProcessor.getStatus("c-2"))
+                .willReturn(new CommandStatusDto("c-2", CommandType.UPDATE_TASK, CommandState.FAILED, null, "Task not found"));
+        given(commandProcessor.getStatus("missing")).willThrow(new CommandNotFoundException("Command not found"));
+
+        //When & Then
+        mockMvc.perform(get("/api/v1/commands/{commandId}", "c-2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("FAILED"))
+                .andExpect(jsonPath("$.error").value("Task not found"));
+        mockMvc.perform(get("/api/v1/commands/{commandId}", "missing"))
+                .andExpect(status().isNotFound());
+    }
+}
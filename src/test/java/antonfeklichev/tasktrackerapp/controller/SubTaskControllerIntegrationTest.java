@@ -1,9 +1,13 @@
 package antonfeklichev.tasktrackerapp.controller;
 
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
 import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.VersionConflictException;
 import antonfeklichev.tasktrackerapp.service.SubTaskService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -11,12 +15,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -55,6 +63,22 @@ public class SubTaskControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value("NEW"));
     }
 
+    @Test
+    public void getSubTasksByIds() throws Exception {
+
+        //Given
+        BatchLookupDto<SubTaskDto> lookup = new BatchLookupDto<>(
+                List.of(new SubTaskDto(1L, "Subtask Name", "Description", TaskStatus.NEW, 1L)), List.of(2L));
+
+        given(subTaskService.getSubTasksByIds(List.of(1L, 2L))).willReturn(lookup);
+
+        //When & Then
+        mockMvc.perform(get("/api/v1/subtasks/batch").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].id").value(1L))
+                .andExpect(jsonPath("$.missingIds[0]").value(2L));
+    }
+
     @Test
     public void getSubTaskById() throws Exception {
 
@@ -76,6 +100,22 @@ public class SubTaskControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value("NEW"));
     }
 
+    @Test
+    public void getSubTaskById_ShouldReturnNotModified_WhenVersionMatches() throws Exception {
+
+        //Given
+        Long subTaskId = 1L;
+
+        given(subTaskService.findSubTaskVersionById(subTaskId)).willReturn(Optional.of(2L));
+
+        //When & Then
+        mockMvc.perform(get("/api/v1/subtasks/{subTaskId}", subTaskId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1\", \"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+        verify(subTaskService, never()).getSubTaskById(subTaskId);
+    }
+
     @Test
     public void getSubTasksByFilterAndTaskId() throws Exception {
 
@@ -87,18 +127,25 @@ public class SubTaskControllerIntegrationTest {
                 new SubTaskDto(2L, "Update SubTask 2", "description 2", TaskStatus.IN_PROGRESS, taskId)
         );
 
-        given(subTaskService.getSubTasksByFilterAndTaskId(taskId, filter)).willReturn(expectedSubTasks);
+        CursorPageRequestDto page = new CursorPageRequestDto(null, 2, null);
+
+        given(subTaskService.getSubTasksByFilterAndTaskId(taskId, filter, page))
+                .willReturn(new CursorPageDto<>(expectedSubTasks, null));
 
         //When & Then
         mockMvc.perform(get("/api/v1/subtasks/task/{taskId}", taskId)
-                        .contentType(APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(filter)))
+                        .param("status", "IN_PROGRESS")
+                        .param("name", "Update")
+                        .param("limit", "2"))
                 .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
                 .andExpect(content().contentType(APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].id").value(expectedSubTasks.get(0).id()))
-                .andExpect(jsonPath("$[0].name").value("Update SubTask 1"))
-                .andExpect(jsonPath("$[1].id").value(expectedSubTasks.get(1).id()))
-                .andExpect(jsonPath("$[1].name").value("Update SubTask 2"));
+                .andExpect(jsonPath("$.items[0].id").value(expectedSubTasks.get(0).id()))
+                .andExpect(jsonPath("$.items[0].name").value("Update SubTask 1"))
+                .andExpect(jsonPath("$.items[1].id").value(expectedSubTasks.get(1).id()))
+                .andExpect(jsonPath("$.items[1].name").value("Update SubTask 2"))
+                .andExpect(jsonPath("$.next").doesNotExist());
     }
 
     @Test
@@ -123,6 +170,43 @@ public class SubTaskControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value("IN_PROGRESS"));
     }
 
+    @Test
+    public void updateSubTaskById_ShouldPassIfMatchVersionAndReturnETag() throws Exception {
+
+        //Given
+        Long subTaskId = 1L;
+        SubTaskDto subTaskDto = new SubTaskDto(null, null, null, TaskStatus.DONE, null);
+        SubTaskDto expected = new SubTaskDto(null, null, null, TaskStatus.DONE, null, 7L);
+        SubTaskDto updated = new SubTaskDto(subTaskId, "Subtask", "Description", TaskStatus.DONE, 2L, 8L);
+
+        given(subTaskService.updateSubTaskById(subTaskId, expected)).willReturn(updated);
+
+        //When & Then
+        mockMvc.perform(patch("/api/v1/subtasks/{subTaskId}", subTaskId)
+                        .header(HttpHeaders.IF_MATCH, "W/\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(subTaskDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""));
+    }
+
+    @Test
+    public void updateSubTaskById_ShouldReturnConflict_WhenVersionIsStale() throws Exception {
+
+        //Given
+        Long subTaskId = 1L;
+        SubTaskDto subTaskDto = new SubTaskDto(null, "Name", null, null, null, 1L);
+
+        given(subTaskService.updateSubTaskById(subTaskId, subTaskDto))
+                .willThrow(new VersionConflictException("SubTask was modified concurrently, current version is 2"));
+
+        //When & Then
+        mockMvc.perform(patch("/api/v1/subtasks/{subTaskId}", subTaskId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(subTaskDto)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     public void deleteSubTaskById() throws Exception {
 
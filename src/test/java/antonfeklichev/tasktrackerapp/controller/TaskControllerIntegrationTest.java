@@ -1,9 +1,17 @@
 package antonfeklichev.tasktrackerapp.controller;
 
+import antonfeklichev.tasktrackerapp.cache.ChangeGenerations;
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDetailsDto;
 import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskSort;
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.VersionConflictException;
 import antonfeklichev.tasktrackerapp.service.TaskServiceImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -11,12 +19,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +46,9 @@ public class TaskControllerIntegrationTest {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    ChangeGenerations changeGenerations;
+
     @Test
     public void addTask() throws Exception {
 
@@ -66,6 +82,119 @@ public class TaskControllerIntegrationTest {
                 .andExpect(jsonPath("$.name").value("Task Name"));
     }
 
+    @Test
+    public void getTaskById_ShouldReturnETagAndNotModified_WhenVersionMatches() throws Exception {
+
+        //Given
+        Long taskId = 1L;
+        TaskDto taskDto = new TaskDto(taskId, "Task Name", "Description", TaskStatus.NEW, 5L);
+
+        given(taskService.getTaskById(taskId)).willReturn(taskDto);
+        given(taskService.findTaskVersionById(taskId)).willReturn(Optional.of(5L));
+
+        //When & Then
+        mockMvc.perform(get("/api/v1/task/{taskId}", taskId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+        mockMvc.perform(get("/api/v1/task/{taskId}", taskId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andExpect(content().string(""));
+        verify(taskService, times(1)).getTaskById(taskId);
+    }
+
+    @Test
+    public void getTaskById_ShouldReturnTask_WhenVersionChanged() throws Exception {
+
+        //Given
+        Long taskId = 2L;
+        TaskDto taskDto = new TaskDto(taskId, "Task Name", "Description", TaskStatus.NEW, 6L);
+
+        given(taskService.getTaskById(taskId)).willReturn(taskDto);
+        given(taskService.findTaskVersionById(taskId)).willReturn(Optional.of(6L));
+
+        //When & Then
+        mockMvc.perform(get("/api/v1/task/{taskId}", taskId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"6\""))
+                .andExpect(jsonPath("$.version").value(6));
+    }
+
+    @Test
+    public void getTasksByFilter_ShouldReturnNotModified_UntilTasksChange() throws Exception {
+
+        //Given
+        QueryDslFilterDto filter = new QueryDslFilterDto(TaskStatus.NEW, null);
+        CursorPageRequestDto page = new CursorPageRequestDto(null, null, null);
+
+        given(taskService.getTasksByFilter(filter, page)).willReturn(new CursorPageDto<>(List.of(), null));
+
+        //When
+        String eTag = mockMvc.perform(get("/api/v1/task")
+                        .param("status", "NEW"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=5, must-revalidate, public"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //Then
+        mockMvc.perform(get("/api/v1/task")
+                        .param("status", "NEW")
+                        .param("name", " ")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=5, must-revalidate, public"));
+        mockMvc.perform(get("/api/v1/task")
+                        .param("status", "DONE")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+
+        changeGenerations.tasksChanged();
+        mockMvc.perform(get("/api/v1/task")
+                        .param("status", "NEW")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        verify(taskService, times(2)).getTasksByFilter(filter, page);
+    }
+
+    @Test
+    public void getTaskDetailsById() throws Exception {
+
+        //Given
+        Long taskId = 1L;
+        TaskDetailsDto details = new TaskDetailsDto(
+                new TaskDto(taskId, "Task Name", "Description", TaskStatus.NEW),
+                List.of(new SubTaskDto(2L, "SubTask Name", "Description", TaskStatus.DONE, taskId)),
+                Map.of(TaskStatus.NEW, 0L, TaskStatus.IN_PROGRESS, 0L, TaskStatus.DONE, 1L));
+
+        given(taskService.getTaskDetailsById(taskId)).willReturn(details);
+
+        //When & Then
+        mockMvc.perform(get("/api/v1/task/{taskId}/details", taskId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.task.id").value(taskId))
+                .andExpect(jsonPath("$.subTasks[0].id").value(2L))
+                .andExpect(jsonPath("$.statusCounts.DONE").value(1));
+    }
+
+    @Test
+    public void getTasksByIds() throws Exception {
+
+        //Given
+        BatchLookupDto<TaskDto> lookup = new BatchLookupDto<>(
+                List.of(new TaskDto(1L, "Task Name", "Description", TaskStatus.NEW)), List.of(2L));
+
+        given(taskService.getTasksByIds(List.of(1L, 2L))).willReturn(lookup);
+
+        //When & Then
+        mockMvc.perform(get("/api/v1/task/batch").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].id").value(1L))
+                .andExpect(jsonPath("$.missingIds[0]").value(2L));
+    }
+
     @Test
     public void getTasksByFilter() throws Exception {
 
@@ -76,18 +205,24 @@ public class TaskControllerIntegrationTest {
                 new TaskDto(2L, "Task 2", "Description 2", TaskStatus.NEW)
         );
 
-        given(taskService.getTasksByFilter(filter)).willReturn(expectedTasks);
+        CursorPageRequestDto page = new CursorPageRequestDto("cursor", 2, TaskSort.STATUS);
+
+        given(taskService.getTasksByFilter(filter, page)).willReturn(new CursorPageDto<>(expectedTasks, "next"));
 
         //When & Then
         mockMvc.perform(get("/api/v1/task")
-                        .contentType(APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(filter)))
+                        .param("status", "NEW")
+                        .param("name", "  Task 1 ")
+                        .param("after", "cursor")
+                        .param("limit", "2")
+                        .param("sort", "STATUS"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].id").value(expectedTasks.get(0).id()))
-                .andExpect(jsonPath("$[0].name").value("Task 1"))
-                .andExpect(jsonPath("$[1].id").value(expectedTasks.get(1).id()))
-                .andExpect(jsonPath("$[1].name").value("Task 2"));
+                .andExpect(jsonPath("$.items[0].id").value(expectedTasks.get(0).id()))
+                .andExpect(jsonPath("$.items[0].name").value("Task 1"))
+                .andExpect(jsonPath("$.items[1].id").value(expectedTasks.get(1).id()))
+                .andExpect(jsonPath("$.items[1].name").value("Task 2"))
+                .andExpect(jsonPath("$.next").value("next"));
     }
 
     @Test
@@ -107,6 +242,54 @@ public class TaskControllerIntegrationTest {
                 .andExpect(jsonPath("$.name").value("Updated Task Name"));
     }
 
+    @Test
+    public void updateTaskById_ShouldPassIfMatchVersionAndReturnETag() throws Exception {
+
+        //Given
+        Long taskId = 1L;
+        TaskDto taskDto = new TaskDto(null, "Updated Task Name", null, null);
+        TaskDto expected = new TaskDto(null, "Updated Task Name", null, null, 3L);
+        TaskDto updated = new TaskDto(taskId, "Updated Task Name", "Description", TaskStatus.NEW, 4L);
+
+        given(taskService.updateTaskById(taskId, expected)).willReturn(updated);
+
+        //When & Then
+        mockMvc.perform(patch("/api/v1/task/{taskId}", taskId)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    public void updateTaskById_ShouldReturnConflict_WhenVersionIsStale() throws Exception {
+
+        //Given
+        Long taskId = 1L;
+        TaskDto taskDto = new TaskDto(null, "Updated Task Name", null, null, 3L);
+
+        given(taskService.updateTaskById(taskId, taskDto))
+                .willThrow(new VersionConflictException("Task was modified concurrently, current version is 4"));
+
+        //When & Then
+        mockMvc.perform(patch("/api/v1/task/{taskId}", taskId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskDto)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void updateTaskById_ShouldReturnBadRequest_WhenIfMatchIsMalformed() throws Exception {
+        //When & Then
+        mockMvc.perform(patch("/api/v1/task/{taskId}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "three")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Updated Task Name\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void deleteTaskById() throws Exception {
         //Given
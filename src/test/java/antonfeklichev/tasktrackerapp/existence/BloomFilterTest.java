@@ -0,0 +1,45 @@
+package antonfeklichev.tasktrackerapp.existence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class BloomFilterTest {
+
+    @Test
+    public void mightContain_ShouldReturnTrue_ForEveryAddedValue() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // When
+        LongStream.range(0, 10_000).forEach(value -> filter.put(value * 50));
+
+        // Then
+        assertThat(LongStream.range(0, 10_000).allMatch(value -> filter.mightContain(value * 50))).isTrue();
+    }
+
+    @Test
+    public void mightContain_ShouldRejectMostAbsentValues_WhenFilledToExpectedSize() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        LongStream.range(0, 10_000).forEach(filter::put);
+
+        // When
+        long falsePositives = LongStream.range(1_000_000, 1_100_000).filter(filter::mightContain).count();
+
+        // Then
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    public void constructor_ShouldRejectInvalidFalsePositiveRate() {
+        // When
+        Throwable thrown = catchThrowable(() -> new BloomFilter(100, 1.0));
+
+        // Then
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,146 @@
+package antonfeklichev.tasktrackerapp.groupcommit;
+
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.TaskNotFoundException;
+import antonfeklichev.tasktrackerapp.exception.VersionConflictException;
+import antonfeklichev.tasktrackerapp.service.GroupCommitSubTaskService;
+import antonfeklichev.tasktrackerapp.service.GroupCommitTaskService;
+import antonfeklichev.tasktrackerapp.service.SubTaskService;
+import antonfeklichev.tasktrackerapp.service.TaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "task-tracker.group-commit.enabled=true",
+        "task-tracker.group-commit.max-delay=50ms",
+        "task-tracker.group-commit.flushers=1"
+})
+@Testcontainers
+public class GroupCommitExecutorIntegrationTest {
+
+    private static final int WRITERS = 16;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    SubTaskService subTaskService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void execute_ShouldCommitConcurrentWritesTogether() throws Exception {
+        // Given
+        double batchesBefore = meterRegistry.get("group.commit.batch.size").summary().count();
+        List<Callable<TaskDto>> writes = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            NewTaskDto newTaskDto = new NewTaskDto("Grouped " + i, "Description", TaskStatus.NEW, null);
+            writes.add(() -> taskService.addTask(newTaskDto));
+        }
+
+        // When
+        List<TaskDto> created = runConcurrently(writes);
+
+        // Then
+        assertThat(taskService).isInstanceOf(GroupCommitTaskService.class);
+        assertThat(created).extracting(TaskDto::id).doesNotContainNull().doesNotHaveDuplicates();
+        created.forEach(task -> assertThat(taskService.getTaskById(task.id()).name()).isEqualTo(task.name()));
+        double batches = meterRegistry.get("group.commit.batch.size").summary().count() - batchesBefore;
+        assertThat(batches).isLessThan(WRITERS);
+    }
+
+    @Test
+    public void execute_ShouldReturnErrorOnlyToFailedWrite() throws Exception {
+        // Given
+        TaskDto task = taskService.addTask(new NewTaskDto("Conflicting", "Description", TaskStatus.NEW, null));
+        TaskDto renamed = taskService.updateTaskById(task.id(), new TaskDto(null, "Renamed", null, null));
+        List<Callable<TaskDto>> writes = new ArrayList<>();
+        writes.add(() -> taskService.updateTaskById(task.id(),
+                new TaskDto(null, "Stale", null, null, task.version())));
+        for (int i = 0; i < WRITERS - 1; i++) {
+            NewTaskDto newTaskDto = new NewTaskDto("Neighbour " + i, "Description", TaskStatus.NEW, null);
+            writes.add(() -> taskService.addTask(newTaskDto));
+        }
+
+        // When
+        List<Future<TaskDto>> results = submitConcurrently(writes);
+
+        // Then
+        ExecutionException conflict = assertThrows(ExecutionException.class, () -> results.get(0).get());
+        assertThat(conflict.getCause()).isInstanceOf(VersionConflictException.class);
+        assertThat(taskService.getTaskById(task.id()).name()).isEqualTo(renamed.name());
+        for (Future<TaskDto> result : results.subList(1, results.size())) {
+            assertThat(taskService.getTaskById(result.get().id())).isNotNull();
+        }
+    }
+
+    @Test
+    public void execute_ShouldRunWritesSeparately_WhenBatchIsRolledBack() throws Exception {
+        // Given
+        assertThat(subTaskService).isInstanceOf(GroupCommitSubTaskService.class);
+        TaskDto task = taskService.addTask(new NewTaskDto("Parent", "Description", TaskStatus.NEW, null));
+        double fallbacksBefore = meterRegistry.get("group.commit.fallbacks").counter().count();
+        List<Callable<Long>> writes = new ArrayList<>();
+        writes.add(() -> subTaskService.addSubTaskByTaskId(Long.MAX_VALUE,
+                new NewSubTaskDto("Orphan", "Description", TaskStatus.NEW)).id());
+        for (int i = 0; i < WRITERS - 1; i++) {
+            NewSubTaskDto newSubTaskDto = new NewSubTaskDto("SubTask " + i, "Description", TaskStatus.NEW);
+            writes.add(() -> subTaskService.addSubTaskByTaskId(task.id(), newSubTaskDto).id());
+        }
+
+        // When
+        List<Future<Long>> results = submitConcurrently(writes);
+
+        // Then
+        ExecutionException notFound = assertThrows(ExecutionException.class, () -> results.get(0).get());
+        assertThat(notFound.getCause()).isInstanceOf(TaskNotFoundException.class);
+        for (Future<Long> result : results.subList(1, results.size())) {
+            assertThat(subTaskService.getSubTaskById(result.get()).name()).startsWith("SubTask ");
+        }
+        assertThat(meterRegistry.get("group.commit.fallbacks").counter().count()).isGreaterThan(fallbacksBefore);
+    }
+
+    private <T> List<T> runConcurrently(List<Callable<T>> writes) throws Exception {
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : submitConcurrently(writes)) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private <T> List<Future<T>> submitConcurrently(List<Callable<T>> writes) throws InterruptedException {
+        ExecutorService threads = Executors.newFixedThreadPool(writes.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (Callable<T> write : writes) {
+            futures.add(threads.submit(() -> {
+                start.await();
+                return write.call();
+            }));
+        }
+        start.countDown();
+        threads.shutdown();
+        threads.awaitTermination(1, TimeUnit.MINUTES);
+        return futures;
+    }
+}
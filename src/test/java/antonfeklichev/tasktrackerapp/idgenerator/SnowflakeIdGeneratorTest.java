@@ -0,0 +1,62 @@
+package antonfeklichev.tasktrackerapp.idgenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SnowflakeIdGeneratorTest {
+
+    @Test
+    void nextId_ShouldBeUniqueAcrossThreads() throws InterruptedException {
+        // Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int idsPerThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < idsPerThread; j++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(ids).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    void nextId_ShouldStayMonotonic_WhenClockMovesBackwardsOrSequenceOverflows() {
+        // Given
+        long[] now = {SnowflakeIdGenerator.EPOCH + 1_000};
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> now[0]);
+
+        // When & Then
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                now[0] -= 500;
+            }
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void constructor_ShouldRejectNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+}
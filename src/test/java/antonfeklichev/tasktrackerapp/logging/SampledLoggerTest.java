@@ -0,0 +1,51 @@
+package antonfeklichev.tasktrackerapp.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SampledLoggerTest {
+
+    @Test
+    public void error_ShouldWriteOnlyPermittedMessages_WithinInterval() {
+        // Given
+        Logger logger = mock(Logger.class);
+        when(logger.isErrorEnabled()).thenReturn(true);
+        SampledLogger sampledLogger = new SampledLogger(logger, 2, Duration.ofHours(1));
+
+        // When
+        for (long id = 0; id < 5; id++) {
+            sampledLogger.error("Не найдено {}.", id);
+        }
+
+        // Then
+        verify(logger, times(2)).error(eq("Не найдено {}."), any(Object[].class));
+    }
+
+    @Test
+    public void error_ShouldReportSuppressedCount_InNextInterval() throws InterruptedException {
+        // Given
+        Logger logger = mock(Logger.class);
+        when(logger.isErrorEnabled()).thenReturn(true);
+        SampledLogger sampledLogger = new SampledLogger(logger, 1, Duration.ofMillis(20));
+        sampledLogger.error("Не найдено {}.", 1L);
+        sampledLogger.error("Не найдено {}.", 2L);
+        sampledLogger.error("Не найдено {}.", 3L);
+        Thread.sleep(30);
+
+        // When
+        sampledLogger.error("Не найдено {}.", 4L);
+
+        // Then
+        verify(logger).error("Пропущено однотипных сообщений: {}.", 2L);
+        verify(logger, times(2)).error(eq("Не найдено {}."), any(Object[].class));
+    }
+}
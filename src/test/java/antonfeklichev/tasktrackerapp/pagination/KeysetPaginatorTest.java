@@ -0,0 +1,75 @@
+package antonfeklichev.tasktrackerapp.pagination;
+
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskSort;
+import antonfeklichev.tasktrackerapp.entity.QTask;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.InvalidPageRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KeysetPaginatorTest {
+
+    private final KeysetPaginator keysetPaginator = new KeysetPaginator(new PaginationProperties(50, 100));
+
+    @Test
+    void limit_ShouldApplyDefaultAndServerMaximum() {
+        assertThat(keysetPaginator.limit(null)).isEqualTo(50);
+        assertThat(keysetPaginator.limit(new CursorPageRequestDto(null, 10, null))).isEqualTo(10);
+        assertThat(keysetPaginator.limit(new CursorPageRequestDto(null, 10_000, null))).isEqualTo(100);
+        assertThrows(InvalidPageRequestException.class,
+                () -> keysetPaginator.limit(new CursorPageRequestDto(null, 0, null)));
+    }
+
+    @Test
+    void toPage_ShouldIssueCursorThatSeeksAfterLastItem() {
+        // Given
+        CursorPageRequestDto page = new CursorPageRequestDto(null, 2, TaskSort.STATUS);
+        List<TaskDto> rows = List.of(
+                new TaskDto(5L, "A", "Description", TaskStatus.DONE),
+                new TaskDto(9L, "B", "Description", TaskStatus.NEW),
+                new TaskDto(3L, "C", "Description", TaskStatus.NEW));
+
+        // When
+        CursorPageDto<TaskDto> result = keysetPaginator.toPage(rows, page, TaskDto::id, TaskDto::status);
+
+        // Then
+        assertThat(result.items()).extracting(TaskDto::id).containsExactly(5L, 9L);
+        assertThat(PageCursor.decode(result.next())).isEqualTo(new PageCursor(TaskSort.STATUS, TaskStatus.NEW, 9L));
+        assertThat(keysetPaginator.seek(QTask.task._super, new CursorPageRequestDto(result.next(), 2, TaskSort.STATUS)))
+                .isNotNull();
+    }
+
+    @Test
+    void toPage_ShouldIssueCursor_WhenLastItemHasNoStatus() {
+        // Given
+        CursorPageRequestDto page = new CursorPageRequestDto(null, 1, TaskSort.STATUS);
+        List<TaskDto> rows = List.of(
+                new TaskDto(7L, "A", "Description", null),
+                new TaskDto(8L, "B", "Description", null));
+
+        // When
+        CursorPageDto<TaskDto> result = keysetPaginator.toPage(rows, page, TaskDto::id, TaskDto::status);
+
+        // Then
+        assertThat(PageCursor.decode(result.next())).isEqualTo(new PageCursor(TaskSort.STATUS, null, 7L));
+        assertThat(keysetPaginator.seek(QTask.task._super, new CursorPageRequestDto(result.next(), 1, TaskSort.STATUS)))
+                .hasToString("task.status is null && task.id > 7");
+    }
+
+    @Test
+    void seek_ShouldRejectMalformedOrMismatchedCursor() {
+        String idCursor = new PageCursor(TaskSort.ID, null, 1L).encode();
+
+        assertThrows(InvalidPageRequestException.class,
+                () -> keysetPaginator.seek(QTask.task._super, new CursorPageRequestDto("not a cursor", null, null)));
+        assertThrows(InvalidPageRequestException.class,
+                () -> keysetPaginator.seek(QTask.task._super, new CursorPageRequestDto(idCursor, null, TaskSort.STATUS)));
+    }
+}
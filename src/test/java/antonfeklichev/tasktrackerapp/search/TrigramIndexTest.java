@@ -0,0 +1,78 @@
+package antonfeklichev.tasktrackerapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TrigramIndexTest {
+
+    @Test
+    void candidates_ShouldMatchSubstringIgnoringCase() {
+        // Given
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Prepare Release Notes");
+        index.put(2L, "Release backend");
+        index.put(3L, "Write tests");
+
+        // When & Then
+        assertThat(index.candidates("RELEASE")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.candidates("notes")).containsExactly(1L);
+        assertThat(index.candidates("deploy")).isEmpty();
+    }
+
+    @Test
+    void put_ShouldReplacePreviousName() {
+        // Given
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Old name");
+
+        // When
+        index.put(1L, "New title");
+
+        // Then
+        assertThat(index.candidates("old")).isEmpty();
+        assertThat(index.candidates("title")).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void putIfAbsent_ShouldKeepExistingName() {
+        // Given
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Fresh name");
+
+        // When
+        boolean added = index.putIfAbsent(1L, "Stale name");
+
+        // Then
+        assertThat(added).isFalse();
+        assertThat(index.candidates("fresh")).containsExactly(1L);
+        assertThat(index.candidates("stale")).isEmpty();
+    }
+
+    @Test
+    void remove_ShouldDropIdFromAllTrigrams() {
+        // Given
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Shared word");
+        index.put(2L, "Shared thing");
+
+        // When
+        index.remove(1L);
+
+        // Then
+        assertThat(index.candidates("shared")).containsExactly(2L);
+        assertThat(index.candidates("word")).isEmpty();
+    }
+
+    @Test
+    void candidates_ShouldRejectTermsShorterThanTrigram() {
+        // Given
+        TrigramIndex index = new TrigramIndex();
+
+        // When & Then
+        assertThat(TrigramIndex.isSearchable("ab")).isFalse();
+        assertThatThrownBy(() -> index.candidates("ab")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
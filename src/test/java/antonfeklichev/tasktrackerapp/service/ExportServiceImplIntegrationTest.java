@@ -0,0 +1,78 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskExportDto;
+import antonfeklichev.tasktrackerapp.entity.SubTask;
+import antonfeklichev.tasktrackerapp.entity.Task;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
+import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+public class ExportServiceImplIntegrationTest {
+
+    @Autowired
+    ExportService exportService;
+
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    SubTaskRepository subTaskRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    public void exportTasks_ShouldWriteEveryTaskWithItsSubTasksAsNdjson() throws Exception {
+        // Given
+        int taskCount = TaskRepository.STREAM_FETCH_SIZE + 10;
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Task(null, "Export Task " + i, "Description", TaskStatus.NEW));
+        }
+        tasks = taskRepository.saveAll(tasks);
+        Task first = tasks.get(0);
+        Task last = tasks.get(taskCount - 1);
+        subTaskRepository.saveAll(List.of(
+                new SubTask(null, "First SubTask", "Description", TaskStatus.NEW, first),
+                new SubTask(null, "Last SubTask", "Description", TaskStatus.DONE, last)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportTasks(out);
+
+        // Then
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        assertThat(ndjson).endsWith("\n");
+
+        List<TaskExportDto> exported = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            exported.add(objectMapper.readValue(line, TaskExportDto.class));
+        }
+        assertThat(exported).extracting(TaskExportDto::id).isSorted();
+
+        Map<Long, TaskExportDto> byId = exported.stream()
+                .collect(Collectors.toMap(TaskExportDto::id, Function.identity()));
+        assertThat(byId).containsKeys(tasks.stream().map(Task::getId).toArray(Long[]::new));
+        assertThat(byId.get(first.getId()).subTasks()).extracting(SubTaskDto::name).containsExactly("First SubTask");
+        assertThat(byId.get(last.getId()).subTasks()).extracting(SubTaskDto::name).containsExactly("Last SubTask");
+        assertThat(byId.get(tasks.get(1).getId()).subTasks()).isEmpty();
+    }
+}
@@ -0,0 +1,156 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.StatusStatsDto;
+import antonfeklichev.tasktrackerapp.dto.StatusTransitionDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.InvalidTimeWindowException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Testcontainers
+public class StatusHistoryServiceImplIntegrationTest {
+
+    @Autowired
+    StatusHistoryService statusHistoryService;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    SubTaskService subTaskService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void getTaskTimeline_ShouldReturnEveryStatusTransitionOfTask() {
+        // Given
+        TaskDto task = taskService.addTask(new NewTaskDto("Timeline", "Description", TaskStatus.NEW, null));
+        taskService.updateTaskById(task.id(), new TaskDto(null, null, null, TaskStatus.IN_PROGRESS));
+        taskService.updateTaskById(task.id(), new TaskDto(null, "Renamed", null, null));
+        taskService.updateTaskById(task.id(), new TaskDto(null, null, null, TaskStatus.DONE));
+
+        // When
+        List<StatusTransitionDto> timeline = statusHistoryService.getTaskTimeline(task.id(), null, null);
+
+        // Then
+        assertThat(timeline)
+                .extracting(StatusTransitionDto::entity, StatusTransitionDto::previousStatus, StatusTransitionDto::status)
+                .containsExactly(
+                        tuple(ChangeEventDto.Entity.TASK, null, TaskStatus.NEW),
+                        tuple(ChangeEventDto.Entity.TASK, TaskStatus.NEW, TaskStatus.IN_PROGRESS),
+                        tuple(ChangeEventDto.Entity.TASK, TaskStatus.IN_PROGRESS, TaskStatus.DONE));
+        assertThat(timeline.get(0).secondsInPreviousStatus()).isNull();
+        assertThat(timeline.get(2).secondsInPreviousStatus()).isNotNull().isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void getTaskTimeline_ShouldRecordTimeOfEachTransition_WhenStatusChangesTwiceInOneTransaction() {
+        // Given
+        TaskDto task = taskService.addTask(new NewTaskDto("Long Transaction", "Description", TaskStatus.NEW, null));
+
+        // When
+        transactionTemplate.executeWithoutResult(transaction -> {
+            jdbcTemplate.update("UPDATE tasks SET status = 'IN_PROGRESS' WHERE id = ?", task.id());
+            jdbcTemplate.queryForList("SELECT pg_sleep(0.05)");
+            jdbcTemplate.update("UPDATE tasks SET status = 'DONE' WHERE id = ?", task.id());
+        });
+        List<StatusTransitionDto> timeline = statusHistoryService.getTaskTimeline(task.id(), null, null);
+
+        // Then
+        assertThat(timeline).extracting(StatusTransitionDto::status)
+                .containsExactly(TaskStatus.NEW, TaskStatus.IN_PROGRESS, TaskStatus.DONE);
+        assertThat(timeline.get(2).changedAt()).isAfter(timeline.get(1).changedAt());
+    }
+
+    @Test
+    public void getTaskTimeline_ShouldIncludeSubTasksChangedInBulk() {
+        // Given
+        TaskDto task = taskService.addTask(new NewTaskDto("Bulk Timeline", "Description", TaskStatus.NEW, null));
+        SubTaskDto first = subTaskService.addSubTaskByTaskId(task.id(),
+                new NewSubTaskDto("First", "Description", TaskStatus.NEW));
+        SubTaskDto second = subTaskService.addSubTaskByTaskId(task.id(),
+                new NewSubTaskDto("Second", "Description", TaskStatus.NEW));
+
+        // When
+        subTaskService.changeSubTaskStatuses(new SubTaskStatusChangeDto(
+                List.of(first.id(), second.id()), task.id(), null, TaskStatus.DONE, true));
+        List<StatusTransitionDto> timeline = statusHistoryService.getTaskTimeline(task.id(), null, null);
+
+        // Then
+        assertThat(timeline)
+                .filteredOn(transition -> transition.previousStatus() == TaskStatus.NEW
+                                          && transition.status() == TaskStatus.DONE)
+                .extracting(StatusTransitionDto::id)
+                .containsExactlyInAnyOrder(task.id(), first.id(), second.id());
+        assertThat(timeline)
+                .filteredOn(transition -> transition.entity() == ChangeEventDto.Entity.SUBTASK)
+                .allSatisfy(transition -> assertThat(transition.taskId()).isEqualTo(task.id()));
+    }
+
+    @Test
+    public void getStatusStats_ShouldCountTransitionsInWindow() {
+        // Given
+        Instant from = Instant.now().minus(1, ChronoUnit.SECONDS);
+        TaskDto task = taskService.addTask(new NewTaskDto("Stats", "Description", TaskStatus.NEW, null));
+        taskService.updateTaskById(task.id(), new TaskDto(null, null, null, TaskStatus.IN_PROGRESS));
+
+        // When
+        List<StatusStatsDto> stats = statusHistoryService.getStatusStats(from, null, ChangeEventDto.Entity.TASK);
+
+        // Then
+        StatusStatsDto newStats = stats.stream().filter(s -> s.status() == TaskStatus.NEW).findFirst().orElseThrow();
+        assertThat(newStats.entered()).isGreaterThanOrEqualTo(1);
+        assertThat(newStats.left()).isGreaterThanOrEqualTo(1);
+        assertThat(newStats.avgSeconds()).isNotNull();
+        assertThat(newStats.medianSeconds()).isNotNull();
+        StatusStatsDto inProgressStats = stats.stream()
+                .filter(s -> s.status() == TaskStatus.IN_PROGRESS)
+                .findFirst()
+                .orElseThrow();
+        assertThat(inProgressStats.entered()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void getStatusStats_ShouldReturnEmptyList_WhenWindowHasNoTransitions() {
+        // Given
+        Instant from = Instant.parse("2000-01-01T00:00:00Z");
+
+        // When
+        List<StatusStatsDto> stats = statusHistoryService.getStatusStats(from, from.plus(1, ChronoUnit.DAYS), null);
+
+        // Then
+        assertThat(stats).isEmpty();
+    }
+
+    @Test
+    public void getStatusStats_ShouldThrowInvalidTimeWindowException_WhenStartIsNotBeforeEnd() {
+        // Given
+        Instant now = Instant.now();
+
+        // When & Then
+        assertThrows(InvalidTimeWindowException.class, () -> statusHistoryService.getStatusStats(now, now, null));
+    }
+}
@@ -1,13 +1,18 @@
 package antonfeklichev.tasktrackerapp.service;
 
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
 import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeResultDto;
 import antonfeklichev.tasktrackerapp.entity.SubTask;
 import antonfeklichev.tasktrackerapp.entity.Task;
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
 import antonfeklichev.tasktrackerapp.exception.SubTaskNotFoundException;
 import antonfeklichev.tasktrackerapp.exception.TaskNotFoundException;
+import antonfeklichev.tasktrackerapp.exception.VersionConflictException;
 import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
 import antonfeklichev.tasktrackerapp.repository.TaskRepository;
 import org.junit.jupiter.api.Test;
@@ -33,6 +38,9 @@ public class SubTaskServiceImplIntegrationTest {
     @Autowired
     TaskRepository taskRepository;
 
+    @Autowired
+    OpenSubTaskCountRepairJob openSubTaskCountRepairJob;
+
 
     @Test
     public void addSubTaskByTaskId_ShouldSaveSubTaskAndReturnSubTaskDto() {
@@ -111,7 +119,7 @@ public class SubTaskServiceImplIntegrationTest {
         QueryDslFilterDto filter = new QueryDslFilterDto(TaskStatus.DONE, "Two");
 
         // When
-        List<SubTaskDto> result = subTaskService.getSubTasksByFilterAndTaskId(task.getId(), filter);
+        List<SubTaskDto> result = subTaskService.getSubTasksByFilterAndTaskId(task.getId(), filter, null).items();
 
         // Then
         assertThat(result).hasSize(1);
@@ -120,6 +128,29 @@ public class SubTaskServiceImplIntegrationTest {
         assertThat(result.get(0).status()).isEqualTo(TaskStatus.DONE);
     }
 
+    @Test
+    public void getSubTasksByFilterAndTaskId_ShouldSeekPagesById() {
+        // Given
+        Task task = taskRepository.save(new Task(null, "Main Task", "Main description", TaskStatus.NEW));
+        for (int i = 0; i < 5; i++) {
+            subTaskRepository.save(new SubTask(null, "SubTask " + i, "Description", TaskStatus.NEW, task));
+        }
+        QueryDslFilterDto filter = new QueryDslFilterDto(null, null);
+
+        // When
+        CursorPageDto<SubTaskDto> first = subTaskService.getSubTasksByFilterAndTaskId(task.getId(), filter,
+                new CursorPageRequestDto(null, 3, null));
+        CursorPageDto<SubTaskDto> second = subTaskService.getSubTasksByFilterAndTaskId(task.getId(), filter,
+                new CursorPageRequestDto(first.next(), 3, null));
+
+        // Then
+        assertThat(first.items()).hasSize(3);
+        assertThat(first.next()).isNotNull();
+        assertThat(second.items()).hasSize(2);
+        assertThat(second.next()).isNull();
+        assertThat(second.items().get(0).id()).isGreaterThan(first.items().get(2).id());
+    }
+
     @Test
     public void updateSubTaskById_ShouldUpdateAndReturnSubTaskDto() {
         // Given
@@ -144,6 +175,24 @@ public class SubTaskServiceImplIntegrationTest {
         assertThat(updatedSubTask.getStatus()).isEqualTo(TaskStatus.DONE);
     }
 
+    @Test
+    public void updateSubTaskById_ShouldThrowVersionConflictException_WhenVersionIsStale() {
+        // Given
+        Long taskId = taskRepository.save(new Task(null, "Parent Task", "Description", TaskStatus.NEW)).getId();
+        SubTaskDto subTask = subTaskService.addSubTaskByTaskId(taskId, new NewSubTaskDto("Subtask", "Description", TaskStatus.NEW));
+        SubTaskDto updated = subTaskService.updateSubTaskById(subTask.id(),
+                new SubTaskDto(null, null, null, TaskStatus.DONE, null, subTask.version()));
+
+        // When
+        Throwable thrown = catchThrowable(() -> subTaskService.updateSubTaskById(subTask.id(),
+                new SubTaskDto(null, null, null, TaskStatus.NEW, null, subTask.version())));
+
+        // Then
+        assertThat(updated.version()).isEqualTo(subTask.version() + 1);
+        assertThat(thrown).isInstanceOf(VersionConflictException.class);
+        assertThat(taskRepository.findOpenSubTaskCountById(taskId)).contains(0);
+    }
+
     @Test
     public void updateSubTaskById_ShouldThrowTaskNotFoundException_WhenSubTaskDoesNotExist() {
         // Given
@@ -174,5 +223,99 @@ public class SubTaskServiceImplIntegrationTest {
         assertThat(subTaskRepository.existsById(subTask.getId())).isFalse();
     }
 
+    @Test
+    public void subTaskChanges_ShouldMaintainOpenSubTaskCountOfTask() {
+        // Given
+        Long taskId = taskRepository.save(new Task(null, "Counted Task", "Description", TaskStatus.NEW)).getId();
+
+        // When
+        SubTaskDto first = subTaskService.addSubTaskByTaskId(taskId, new NewSubTaskDto("First", "Description", TaskStatus.NEW));
+        SubTaskDto second = subTaskService.addSubTaskByTaskId(taskId, new NewSubTaskDto("Second", "Description", TaskStatus.IN_PROGRESS));
+        subTaskService.addSubTaskByTaskId(taskId, new NewSubTaskDto("Done", "Description", TaskStatus.DONE));
+
+        // Then
+        assertThat(taskRepository.findOpenSubTaskCountById(taskId)).contains(2);
+
+        // When
+        subTaskService.updateSubTaskById(first.id(), new SubTaskDto(first.id(), null, null, TaskStatus.DONE, taskId));
+        subTaskService.updateSubTaskById(first.id(), new SubTaskDto(first.id(), "Renamed", null, TaskStatus.DONE, taskId));
+        subTaskService.deleteSubTaskById(second.id());
+
+        // Then
+        assertThat(taskRepository.findOpenSubTaskCountById(taskId)).contains(0);
+    }
+
+    @Test
+    public void repair_ShouldRecountOpenSubTasksWrittenOutsideOfService() {
+        // Given
+        Task task = taskRepository.save(new Task(null, "Drifted Task", "Description", TaskStatus.NEW));
+        subTaskRepository.save(new SubTask(null, "Unaccounted", "Description", TaskStatus.NEW, task));
+        assertThat(taskRepository.findOpenSubTaskCountById(task.getId())).contains(0);
+
+        // When
+        openSubTaskCountRepairJob.repair();
+
+        // Then
+        assertThat(taskRepository.findOpenSubTaskCountById(task.getId())).contains(1);
+    }
+
+    @Test
+    public void addSubTasksByTaskId_ShouldPersistSubTasksInInputOrder() {
+        // Given
+        Long taskId = taskRepository.save(new Task(null, "Bulk Parent", "Description", TaskStatus.NEW)).getId();
+        List<NewSubTaskDto> newSubTaskDtos = List.of(
+                new NewSubTaskDto("Bulk 1", "Description", TaskStatus.NEW),
+                new NewSubTaskDto("Bulk 2", "Description", TaskStatus.DONE),
+                new NewSubTaskDto("Bulk 3", "Description", TaskStatus.IN_PROGRESS));
+
+        // When
+        List<Long> ids = subTaskService.addSubTasksByTaskId(taskId, newSubTaskDtos);
+
+        // Then
+        assertThat(ids).hasSize(3);
+        assertThat(ids).extracting(id -> subTaskRepository.findById(id).orElseThrow().getName())
+                .containsExactly("Bulk 1", "Bulk 2", "Bulk 3");
+        assertThat(taskRepository.findOpenSubTaskCountById(taskId)).contains(2);
+    }
 
+    @Test
+    public void changeSubTaskStatuses_ShouldCloseSubTasksOfTaskAndCompleteTask() {
+        // Given
+        Long taskId = taskRepository.save(new Task(null, "Sprint Task", "Description", TaskStatus.IN_PROGRESS)).getId();
+        subTaskService.addSubTasksByTaskId(taskId, List.of(
+                new NewSubTaskDto("Sprint 1", "Description", TaskStatus.NEW),
+                new NewSubTaskDto("Sprint 2", "Description", TaskStatus.IN_PROGRESS),
+                new NewSubTaskDto("Sprint 3", "Description", TaskStatus.DONE)));
+
+        // When
+        SubTaskStatusChangeResultDto result = subTaskService.changeSubTaskStatuses(
+                new SubTaskStatusChangeDto(null, taskId, null, TaskStatus.DONE, true));
+
+        // Then
+        assertThat(result.updatedSubTasks()).isEqualTo(2);
+        assertThat(result.closedTaskIds()).containsExactly(taskId);
+        assertThat(taskRepository.findById(taskId).orElseThrow().getStatus()).isEqualTo(TaskStatus.DONE);
+        assertThat(taskRepository.findOpenSubTaskCountById(taskId)).contains(0);
+    }
+
+    @Test
+    public void changeSubTaskStatuses_ShouldRecountTasksWithoutClosingThem_WhenSubTasksRemainOpen() {
+        // Given
+        Long taskId = taskRepository.save(new Task(null, "Partial Task", "Description", TaskStatus.IN_PROGRESS)).getId();
+        List<Long> ids = subTaskService.addSubTasksByTaskId(taskId, List.of(
+                new NewSubTaskDto("Partial 1", "Description", TaskStatus.NEW),
+                new NewSubTaskDto("Partial 2", "Description", TaskStatus.NEW)));
+
+        // When
+        SubTaskStatusChangeResultDto result = subTaskService.changeSubTaskStatuses(
+                new SubTaskStatusChangeDto(List.of(ids.get(0)), null, new QueryDslFilterDto(TaskStatus.NEW, null),
+                        TaskStatus.DONE, true));
+
+        // Then
+        assertThat(result.updatedSubTasks()).isEqualTo(1);
+        assertThat(result.closedTaskIds()).isEmpty();
+        assertThat(subTaskRepository.findById(ids.get(0)).orElseThrow().getStatus()).isEqualTo(TaskStatus.DONE);
+        assertThat(taskRepository.findOpenSubTaskCountById(taskId)).contains(1);
+        assertThat(taskRepository.findById(taskId).orElseThrow().getStatus()).isEqualTo(TaskStatus.IN_PROGRESS);
+    }
 }
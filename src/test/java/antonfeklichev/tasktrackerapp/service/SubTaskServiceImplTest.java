@@ -1,30 +1,61 @@
 package antonfeklichev.tasktrackerapp.service;
 
+import antonfeklichev.tasktrackerapp.batch.BatchLoader;
+import antonfeklichev.tasktrackerapp.batch.BatchProperties;
+import antonfeklichev.tasktrackerapp.cache.CacheProperties;
+import antonfeklichev.tasktrackerapp.cache.ChangeGenerations;
+import antonfeklichev.tasktrackerapp.cache.DtoCache;
+import antonfeklichev.tasktrackerapp.cache.FilterCacheProperties;
+import antonfeklichev.tasktrackerapp.cache.FilterResultCache;
+import antonfeklichev.tasktrackerapp.cache.NegativeCacheProperties;
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
 import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
 import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskStatusChangeDto;
 import antonfeklichev.tasktrackerapp.entity.QSubTask;
 import antonfeklichev.tasktrackerapp.entity.SubTask;
 import antonfeklichev.tasktrackerapp.entity.Task;
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.InvalidBatchRequestException;
+import antonfeklichev.tasktrackerapp.exception.InvalidStatusChangeException;
 import antonfeklichev.tasktrackerapp.exception.SubTaskNotFoundException;
 import antonfeklichev.tasktrackerapp.exception.TaskNotFoundException;
+import antonfeklichev.tasktrackerapp.exception.VersionConflictException;
+import antonfeklichev.tasktrackerapp.existence.TaskIdFilter;
+import antonfeklichev.tasktrackerapp.feed.ChangeFeed;
 import antonfeklichev.tasktrackerapp.mapper.SubTaskMapper;
+import antonfeklichev.tasktrackerapp.pagination.KeysetPaginator;
+import antonfeklichev.tasktrackerapp.pagination.PaginationProperties;
+import antonfeklichev.tasktrackerapp.repository.PatchedRow;
 import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
 import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import antonfeklichev.tasktrackerapp.search.NameSearchIndex;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +70,32 @@ public class SubTaskServiceImplTest {
     @Mock
     private SubTaskMapper subTaskMapper;
 
+    @Spy
+    private KeysetPaginator keysetPaginator = new KeysetPaginator(new PaginationProperties(50, 500));
+
+    @Mock
+    private NameSearchIndex nameSearchIndex;
+
+    @Spy
+    private DtoCache dtoCache = new DtoCache(new CacheProperties(true, 100, Duration.ofMinutes(5)),
+            new NegativeCacheProperties(true, 100, Duration.ofSeconds(10)), new SimpleMeterRegistry());
+
+    @Spy
+    private BatchLoader batchLoader = new BatchLoader(new BatchProperties(2, 500, 2));
+
+    @Spy
+    private ChangeGenerations changeGenerations = new ChangeGenerations();
+
+    @Spy
+    private FilterResultCache filterResultCache = new FilterResultCache(
+            new FilterCacheProperties(true, DataSize.ofMegabytes(1), Duration.ofMinutes(1)), changeGenerations, new SimpleMeterRegistry());
+
+    @Mock
+    private TaskIdFilter taskIdFilter;
+
+    @Mock
+    private ChangeFeed changeFeed;
+
     @InjectMocks
     private SubTaskServiceImpl subTaskService;
 
@@ -53,8 +110,10 @@ public class SubTaskServiceImplTest {
         SubTask savedSubTask = new SubTask(2L, "SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS, task);
         SubTaskDto expectedDto = new SubTaskDto(2L, "SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS, taskId);
 
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
         when(subTaskMapper.toSubTask(newSubTaskDto)).thenReturn(subTask);
+        when(taskIdFilter.mightExist(taskId)).thenReturn(true);
+        when(taskRepository.adjustOpenSubTaskCount(taskId, 1)).thenReturn(1);
+        when(taskRepository.getReferenceById(taskId)).thenReturn(task);
         when(subTaskRepository.save(subTask)).thenReturn(savedSubTask);
         when(subTaskMapper.toSubTaskDto(savedSubTask)).thenReturn(expectedDto);
 
@@ -64,32 +123,70 @@ public class SubTaskServiceImplTest {
         // Then
         assertNotNull(result);
         assertEquals(expectedDto, result);
-        verify(taskRepository).findById(taskId);
+        verify(taskRepository).adjustOpenSubTaskCount(taskId, 1);
+        verify(taskRepository, never()).findById(taskId);
         verify(subTaskRepository).save(subTask);
         verify(subTaskMapper).toSubTaskDto(savedSubTask);
     }
 
+    @Test
+    void addSubTaskByTaskIdLocksTaskWhenSubTaskIsDone() {
+        // Given
+        Long taskId = 1L;
+        NewSubTaskDto newSubTaskDto = new NewSubTaskDto("SubTask Name", "SubTask Description", TaskStatus.DONE);
+        Task task = new Task(taskId, "Task Name", "Task Description", TaskStatus.NEW);
+        SubTask subTask = new SubTask(null, "SubTask Name", "SubTask Description", TaskStatus.DONE, null);
+
+        when(subTaskMapper.toSubTask(newSubTaskDto)).thenReturn(subTask);
+        when(taskIdFilter.mightExist(taskId)).thenReturn(true);
+        when(taskRepository.lockSharedById(taskId)).thenReturn(Optional.of(taskId));
+        when(taskRepository.getReferenceById(taskId)).thenReturn(task);
+        when(subTaskRepository.save(subTask)).thenReturn(subTask);
+
+        // When
+        subTaskService.addSubTaskByTaskId(taskId, newSubTaskDto);
+
+        // Then
+        assertEquals(task, subTask.getTask());
+        verify(taskRepository, never()).adjustOpenSubTaskCount(anyLong(), anyInt());
+    }
+
     @Test
     void addSubTaskByTaskIdTaskNotFound() {
         // Given
         Long taskId = 1L;
         NewSubTaskDto newSubTaskDto = new NewSubTaskDto("SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS);
 
-        when(taskRepository.findById(taskId)).thenReturn(Optional.empty());
+        when(subTaskMapper.toSubTask(newSubTaskDto)).thenReturn(new SubTask(null, "SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS, null));
+        when(taskIdFilter.mightExist(taskId)).thenReturn(true);
+        when(taskRepository.adjustOpenSubTaskCount(taskId, 1)).thenReturn(0);
 
         // When & Then
         assertThrows(TaskNotFoundException.class, () -> subTaskService.addSubTaskByTaskId(taskId, newSubTaskDto));
+        verify(subTaskRepository, never()).save(any());
+    }
+
+    @Test
+    void addSubTaskByTaskIdRejectedByTaskIdFilter() {
+        // Given
+        Long taskId = 1L;
+        NewSubTaskDto newSubTaskDto = new NewSubTaskDto("SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS);
+
+        when(subTaskMapper.toSubTask(newSubTaskDto)).thenReturn(new SubTask(null, "SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS, null));
+        when(taskIdFilter.mightExist(taskId)).thenReturn(false);
+
+        // When & Then
+        assertThrows(TaskNotFoundException.class, () -> subTaskService.addSubTaskByTaskId(taskId, newSubTaskDto));
+        verifyNoInteractions(taskRepository);
     }
 
     @Test
     void getSubTaskByIdFound() {
         // Given
         Long subTaskId = 1L;
-        SubTask subTask = new SubTask(subTaskId, "SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS, null);
         SubTaskDto expectedDto = new SubTaskDto(subTaskId, "SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS, null);
 
-        when(subTaskRepository.findById(subTaskId)).thenReturn(Optional.of(subTask));
-        when(subTaskMapper.toSubTaskDto(subTask)).thenReturn(expectedDto);
+        when(subTaskRepository.findDtoById(subTaskId)).thenReturn(Optional.of(expectedDto));
 
         // When
         SubTaskDto result = subTaskService.getSubTaskById(subTaskId);
@@ -103,22 +200,49 @@ public class SubTaskServiceImplTest {
     void getSubTaskByIdNotFound() {
         // Given
         Long subTaskId = 1L;
-        when(subTaskRepository.findById(subTaskId)).thenReturn(Optional.empty());
+        when(subTaskRepository.findDtoById(subTaskId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(SubTaskNotFoundException.class, () -> subTaskService.getSubTaskById(subTaskId));
     }
 
+    @Test
+    void getSubTasksByIdsFound() {
+        // Given
+        SubTaskDto expectedDto = new SubTaskDto(1L, "SubTask Name", "SubTask Description", TaskStatus.NEW, 5L);
+
+        when(subTaskRepository.findDtosByIds(List.of(1L, 2L))).thenReturn(List.of(expectedDto));
+
+        // When
+        BatchLookupDto<SubTaskDto> result = subTaskService.getSubTasksByIds(List.of(1L, 2L));
+
+        // Then
+        assertEquals(List.of(expectedDto), result.found());
+        assertEquals(List.of(2L), result.missingIds());
+    }
+
+    @Test
+    void getSubTasksByIdsTooManyIds() {
+        // When & Then
+        assertThrows(InvalidBatchRequestException.class, () -> subTaskService.getSubTasksByIds(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void addSubTasksByTaskIdTooManySubTasks() {
+        // Given
+        NewSubTaskDto newSubTaskDto = new NewSubTaskDto("SubTask Name", "SubTask Description", TaskStatus.NEW);
+
+        // When & Then
+        assertThrows(InvalidBatchRequestException.class, () -> subTaskService.addSubTasksByTaskId(1L,
+                List.of(newSubTaskDto, newSubTaskDto, newSubTaskDto)));
+        verifyNoInteractions(subTaskRepository, taskRepository);
+    }
 
     @Test
     void getSubTasksByFilterAndTaskId() {
         // Given
         Long taskId = 1L;
         QueryDslFilterDto filter = new QueryDslFilterDto(TaskStatus.DONE, "Important");
-        List<SubTask> subTasks = List.of(
-                new SubTask(1L, "Important SubTask", "Description", TaskStatus.DONE, null),
-                new SubTask(2L, "Another SubTask", "Description", TaskStatus.DONE, null)
-        );
         List<SubTaskDto> expectedDto = List.of(
                 new SubTaskDto(1L, "Important SubTask", "Description", TaskStatus.DONE, taskId),
                 new SubTaskDto(2L, "Another SubTask", "Description", TaskStatus.DONE, taskId)
@@ -129,33 +253,49 @@ public class SubTaskServiceImplTest {
         predicate.and(QSubTask.subTask.status.eq(filter.status()));
         predicate.and(QSubTask.subTask.name.containsIgnoreCase(filter.name()));
 
-        when(subTaskRepository.findAll(Mockito.any(BooleanBuilder.class))).thenReturn(subTasks);
-        when(subTaskMapper.toSubTaskDto(Mockito.any(SubTask.class))).thenAnswer(invocation -> {
-            SubTask st = invocation.getArgument(0);
-            return new SubTaskDto(st.getId(), st.getName(), st.getDescription(), st.getStatus(), taskId);
-        });
+        when(subTaskRepository.findDtos(Mockito.any(Predicate.class), Mockito.any(), Mockito.anyLong())).thenReturn(expectedDto);
 
         // When
-        List<SubTaskDto> result = subTaskService.getSubTasksByFilterAndTaskId(taskId, filter);
+        CursorPageDto<SubTaskDto> result = subTaskService.getSubTasksByFilterAndTaskId(taskId, filter, null);
 
         // Then
         assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals(expectedDto, result);
-        verify(subTaskRepository).findAll(Mockito.any(BooleanBuilder.class));
+        assertEquals(2, result.items().size());
+        assertEquals(expectedDto, result.items());
+        verify(subTaskRepository).findDtos(Mockito.any(Predicate.class), Mockito.any(), Mockito.eq(51L));
+        Mockito.verifyNoInteractions(subTaskMapper);
+    }
+
+    @Test
+    void getSubTasksByFilterAndTaskId_ShouldReturnNextCursor_WhenMoreRowsThanLimit() {
+        // Given
+        Long taskId = 1L;
+        QueryDslFilterDto filter = new QueryDslFilterDto(null, null);
+        List<SubTaskDto> subTasks = List.of(
+                new SubTaskDto(1L, "SubTask 1", "Description", TaskStatus.NEW, taskId),
+                new SubTaskDto(2L, "SubTask 2", "Description", TaskStatus.NEW, taskId),
+                new SubTaskDto(3L, "SubTask 3", "Description", TaskStatus.NEW, taskId)
+        );
+
+        when(subTaskRepository.findDtos(Mockito.any(Predicate.class), Mockito.any(), Mockito.anyLong())).thenReturn(subTasks);
+
+        // When
+        CursorPageDto<SubTaskDto> result = subTaskService.getSubTasksByFilterAndTaskId(taskId, filter,
+                new CursorPageRequestDto(null, 2, null));
+
+        // Then
+        assertEquals(2, result.items().size());
+        assertNotNull(result.next());
     }
 
     @Test
     void updateSubTaskByIdFound() {
         // Given
         Long subTaskId = 1L;
-        SubTask subTask = new SubTask(subTaskId, "SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS, null);
-        SubTask updatedSubTask = new SubTask(subTaskId, "Updated Name", "Updated Description", TaskStatus.DONE, null);
-        SubTaskDto subTaskDto = new SubTaskDto(subTaskId, "Updated Name", "Updated Description", TaskStatus.DONE, null);
+        SubTaskDto subTaskDto = new SubTaskDto(subTaskId, "Updated Name", "Updated Description", TaskStatus.DONE, 2L);
+        SubTaskDto patched = new SubTaskDto(subTaskId, "Updated Name", "Updated Description", TaskStatus.DONE, 2L, 1L);
 
-        when(subTaskRepository.findById(subTaskId)).thenReturn(Optional.of(subTask));
-        when(subTaskRepository.save(subTask)).thenReturn(updatedSubTask);
-        when(subTaskMapper.toSubTaskDto(updatedSubTask)).thenReturn(subTaskDto);
+        when(subTaskRepository.patch(subTaskId, subTaskDto)).thenReturn(Optional.of(new PatchedRow<>(patched, TaskStatus.NEW)));
 
         // When
         SubTaskDto result = subTaskService.updateSubTaskById(subTaskId, subTaskDto);
@@ -164,8 +304,9 @@ public class SubTaskServiceImplTest {
         assertNotNull(result);
         assertEquals("Updated Name", result.name());
         assertEquals(TaskStatus.DONE, result.status());
-        verify(subTaskMapper).patchSubTask(subTask, subTaskDto);
-        verify(subTaskRepository).save(subTask);
+        assertEquals(1L, result.version());
+        verify(nameSearchIndex).indexSubTask(subTaskId, "Updated Name");
+        Mockito.verifyNoInteractions(subTaskMapper, taskRepository);
     }
 
     @Test
@@ -174,23 +315,50 @@ public class SubTaskServiceImplTest {
         Long subTaskId = 1L;
         SubTaskDto subTaskDto = new SubTaskDto(subTaskId, "Name", "Description", TaskStatus.IN_PROGRESS, null);
 
-        when(subTaskRepository.findById(subTaskId)).thenReturn(Optional.empty());
+        when(subTaskRepository.patch(subTaskId, subTaskDto)).thenReturn(Optional.empty());
+        when(subTaskRepository.findDtoById(subTaskId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(SubTaskNotFoundException.class, () -> subTaskService.updateSubTaskById(subTaskId, subTaskDto));
     }
 
+    @Test
+    void updateSubTaskByIdStaleVersion() {
+        // Given
+        Long subTaskId = 1L;
+        SubTaskDto subTaskDto = new SubTaskDto(subTaskId, "Name", null, null, null, 1L);
+
+        when(subTaskRepository.patch(subTaskId, subTaskDto)).thenReturn(Optional.empty());
+        when(subTaskRepository.findDtoById(subTaskId))
+                .thenReturn(Optional.of(new SubTaskDto(subTaskId, "Old", "Description", TaskStatus.NEW, 2L, 4L)));
+
+        // When & Then
+        assertThrows(VersionConflictException.class, () -> subTaskService.updateSubTaskById(subTaskId, subTaskDto));
+    }
+
     @Test
     void deleteSubTaskById() {
         // Given
         Long subTaskId = 1L;
+        Task task = new Task(2L, "Task Name", "Task Description", TaskStatus.NEW);
+        SubTask subTask = new SubTask(subTaskId, "SubTask Name", "SubTask Description", TaskStatus.IN_PROGRESS, task);
+
+        when(subTaskRepository.findForUpdateById(subTaskId)).thenReturn(Optional.of(subTask));
 
         // When
         subTaskService.deleteSubTaskById(subTaskId);
 
         // Then
+        verify(taskRepository).adjustOpenSubTaskCount(2L, -1);
         verify(subTaskRepository).deleteById(subTaskId);
     }
 
+    @Test
+    void changeSubTaskStatusesWithoutCriteria() {
+        // Given
+        SubTaskStatusChangeDto statusChange = new SubTaskStatusChangeDto(null, null, null, TaskStatus.DONE, true);
 
+        // When & Then
+        assertThrows(InvalidStatusChangeException.class, () -> subTaskService.changeSubTaskStatuses(statusChange));
+    }
 }
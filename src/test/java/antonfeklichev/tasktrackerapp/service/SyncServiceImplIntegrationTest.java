@@ -0,0 +1,151 @@
+package antonfeklichev.tasktrackerapp.service;
+
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SubTaskDto;
+import antonfeklichev.tasktrackerapp.dto.SyncItemDto;
+import antonfeklichev.tasktrackerapp.dto.SyncPageDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.entity.TaskStatus;
+import antonfeklichev.tasktrackerapp.exception.InvalidPageRequestException;
+import antonfeklichev.tasktrackerapp.exception.SyncCursorExpiredException;
+import antonfeklichev.tasktrackerapp.sync.SyncCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Testcontainers
+public class SyncServiceImplIntegrationTest {
+
+    @Autowired
+    SyncService syncService;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    SubTaskService subTaskService;
+
+    @Test
+    public void getChanges_ShouldReturnOnlyRecordsChangedAfterCursor() {
+        // Given
+        TaskDto unchanged = taskService.addTask(new NewTaskDto("Unchanged", "Description", TaskStatus.NEW, null));
+        TaskDto task = taskService.addTask(new NewTaskDto("Synced", "Description", TaskStatus.NEW, null));
+        String cursor = syncAll(null).cursor();
+
+        // When
+        TaskDto updated = taskService.updateTaskById(task.id(), new TaskDto(null, "Renamed", null, null));
+        SubTaskDto subTask = subTaskService.addSubTaskByTaskId(task.id(),
+                new NewSubTaskDto("SubTask", "Description", TaskStatus.NEW));
+        SyncPageDto changes = syncAll(cursor);
+
+        // Then
+        assertThat(changes.items())
+                .extracting(SyncItemDto::id)
+                .contains(task.id(), subTask.id())
+                .doesNotContain(unchanged.id());
+        SyncItemDto taskChange = find(changes.items(), task.id());
+        assertThat(taskChange.entity()).isEqualTo(ChangeEventDto.Entity.TASK);
+        assertThat(taskChange.name()).isEqualTo("Renamed");
+        assertThat(taskChange.version()).isEqualTo(updated.version());
+        assertThat(taskChange.deleted()).isFalse();
+        assertThat(taskChange.createdAt()).isNotNull();
+        assertThat(taskChange.updatedAt()).isAfterOrEqualTo(taskChange.createdAt());
+        SyncItemDto subTaskChange = find(changes.items(), subTask.id());
+        assertThat(subTaskChange.entity()).isEqualTo(ChangeEventDto.Entity.SUBTASK);
+        assertThat(subTaskChange.taskId()).isEqualTo(task.id());
+    }
+
+    @Test
+    public void getChanges_ShouldReturnTombstones_WhenTaskDeletedWithSubTasks() {
+        // Given
+        TaskDto task = taskService.addTask(new NewTaskDto("Deleted", "Description", TaskStatus.DONE, null));
+        SubTaskDto subTask = subTaskService.addSubTaskByTaskId(task.id(),
+                new NewSubTaskDto("Deleted SubTask", "Description", TaskStatus.DONE));
+        String cursor = syncAll(null).cursor();
+
+        // When
+        taskService.deleteTaskById(task.id());
+        SyncPageDto changes = syncAll(cursor);
+
+        // Then
+        SyncItemDto taskTombstone = find(changes.items(), task.id());
+        assertThat(taskTombstone.deleted()).isTrue();
+        assertThat(taskTombstone.entity()).isEqualTo(ChangeEventDto.Entity.TASK);
+        SyncItemDto subTaskTombstone = find(changes.items(), subTask.id());
+        assertThat(subTaskTombstone.deleted()).isTrue();
+        assertThat(subTaskTombstone.entity()).isEqualTo(ChangeEventDto.Entity.SUBTASK);
+        assertThat(subTaskTombstone.taskId()).isEqualTo(task.id());
+        assertThat(subTaskTombstone.updatedAt()).isNotNull();
+    }
+
+    @Test
+    public void getChanges_ShouldReturnChangesPageByPage_WhenLimitIsSmall() {
+        // Given
+        String cursor = syncAll(null).cursor();
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(taskService.addTask(new NewTaskDto("Paged " + i, "Description", TaskStatus.NEW, null)).id());
+        }
+
+        // When
+        SyncPageDto first = syncService.getChanges(cursor, 2);
+        SyncPageDto rest = syncAll(first.cursor());
+
+        // Then
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.items()).hasSize(2);
+        List<Long> received = new ArrayList<>(first.items().stream().map(SyncItemDto::id).toList());
+        received.addAll(rest.items().stream().map(SyncItemDto::id).toList());
+        assertThat(received).containsAll(created);
+    }
+
+    @Test
+    public void getChanges_ShouldThrowSyncCursorExpiredException_WhenCursorIsOlderThanRetention() {
+        // Given
+        long issuedAt = System.currentTimeMillis() - Duration.ofDays(31).toMillis();
+        String cursor = new SyncCursor(0, Long.MIN_VALUE, issuedAt, Long.MAX_VALUE, issuedAt).encode();
+
+        // When & Then
+        assertThrows(SyncCursorExpiredException.class, () -> syncService.getChanges(cursor, null));
+    }
+
+    @Test
+    public void getChanges_ShouldThrowInvalidPageRequestException_WhenCursorIsMalformed() {
+        // When & Then
+        assertThrows(InvalidPageRequestException.class, () -> syncService.getChanges("not-a-cursor", null));
+    }
+
+    /**
+     * Запрашивает страницы, пока сервер не сообщит, что изменений больше нет.
+     *
+     * @return все изменения и курсор последнего ответа.
+     */
+    private SyncPageDto syncAll(String cursor) {
+        List<SyncItemDto> items = new ArrayList<>();
+        SyncPageDto page;
+        do {
+            page = syncService.getChanges(cursor, 500);
+            items.addAll(page.items());
+            cursor = page.cursor();
+        } while (page.hasMore());
+        return new SyncPageDto(items, cursor, false);
+    }
+
+    private static SyncItemDto find(List<SyncItemDto> items, Long id) {
+        return items.stream()
+                .filter(item -> item.id().equals(id))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+}
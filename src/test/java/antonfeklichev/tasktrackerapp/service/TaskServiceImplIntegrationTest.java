@@ -1,22 +1,39 @@
 package antonfeklichev.tasktrackerapp.service;
 
+import antonfeklichev.tasktrackerapp.dto.CreatedTaskDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageRequestDto;
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
 import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDetailsDto;
 import antonfeklichev.tasktrackerapp.dto.TaskDto;
+import antonfeklichev.tasktrackerapp.dto.TaskSort;
 import antonfeklichev.tasktrackerapp.entity.SubTask;
 import antonfeklichev.tasktrackerapp.entity.Task;
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
 import antonfeklichev.tasktrackerapp.exception.DeleteTaskException;
 import antonfeklichev.tasktrackerapp.exception.TaskNotFoundException;
 import antonfeklichev.tasktrackerapp.exception.UpdateTaskException;
+import antonfeklichev.tasktrackerapp.exception.VersionConflictException;
 import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
 import antonfeklichev.tasktrackerapp.repository.TaskRepository;
+import antonfeklichev.tasktrackerapp.search.NameCandidates;
+import antonfeklichev.tasktrackerapp.search.NameSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
@@ -29,10 +46,21 @@ public class TaskServiceImplIntegrationTest {
     @Autowired
     TaskService taskService;
 
+    @Autowired
+    SubTaskService subTaskService;
+
     @Autowired
     TaskRepository taskRepository;
     @Autowired
     SubTaskRepository subTaskRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    NameSearchIndex nameSearchIndex;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
 
     @Test
     public void addTask_ShouldSaveTaskAndReturnTaskDto() {
@@ -106,7 +134,7 @@ public class TaskServiceImplIntegrationTest {
         QueryDslFilterDto filter = new QueryDslFilterDto(TaskStatus.NEW, "Complete");
 
         // When
-        List<TaskDto> filteredTasks = taskService.getTasksByFilter(filter);
+        List<TaskDto> filteredTasks = taskService.getTasksByFilter(filter, null).items();
 
         // Then
         assertThat(filteredTasks).isNotEmpty();
@@ -115,6 +143,73 @@ public class TaskServiceImplIntegrationTest {
         assertThat(filteredTasks.get(0).status()).isEqualTo(TaskStatus.NEW);
     }
 
+    @Test
+    public void getTasksByFilter_ShouldFindTaskByName_WhenTaskIsWrittenOutsideOfApplication() {
+        // Given
+        Long taskId = 9_000_000_000_001L;
+        jdbcTemplate.update("INSERT INTO tasks (id, name, description, status) VALUES (?, 'Zmqw External', 'Description', 'NEW')",
+                taskId);
+
+        // When
+        List<TaskDto> tasks = taskService.getTasksByFilter(new QueryDslFilterDto(null, "Zmqw"), null).items();
+
+        // Then
+        assertThat(nameSearchIndex.findTaskCandidates("Zmqw")).hasValueSatisfying(candidates ->
+                assertThat(candidates.ids()).doesNotContain(taskId));
+        assertThat(tasks).extracting(TaskDto::id).containsExactly(taskId);
+    }
+
+    @Test
+    public void getTasksByFilter_ShouldWalkAllPagesInStatusOrder() {
+        // Given
+        String name = "Paged task " + System.nanoTime();
+        for (TaskStatus status : List.of(TaskStatus.NEW, TaskStatus.DONE, TaskStatus.IN_PROGRESS, TaskStatus.NEW, TaskStatus.DONE)) {
+            taskRepository.save(new Task(null, name, "Description", status));
+        }
+        QueryDslFilterDto filter = new QueryDslFilterDto(null, name);
+
+        // When
+        List<TaskDto> collected = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            CursorPageDto<TaskDto> page = taskService.getTasksByFilter(filter, new CursorPageRequestDto(after, 2, TaskSort.STATUS));
+            collected.addAll(page.items());
+            after = page.next();
+            pages++;
+        } while (after != null);
+
+        // Then
+        assertThat(pages).isEqualTo(3);
+        assertThat(collected).extracting(TaskDto::status)
+                .containsExactly(TaskStatus.DONE, TaskStatus.DONE, TaskStatus.IN_PROGRESS, TaskStatus.NEW, TaskStatus.NEW);
+        assertThat(collected).extracting(TaskDto::id).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void getTasksByFilter_ShouldReturnTasksWithoutStatusLast_WhenSortedByStatus() {
+        // Given
+        String name = "Paged unset status " + System.nanoTime();
+        for (TaskStatus status : Arrays.asList(null, TaskStatus.NEW, null, TaskStatus.DONE, null)) {
+            taskRepository.save(new Task(null, name, "Description", status));
+        }
+        QueryDslFilterDto filter = new QueryDslFilterDto(null, name);
+
+        // When
+        List<TaskDto> collected = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPageDto<TaskDto> page = taskService.getTasksByFilter(filter, new CursorPageRequestDto(after, 2, TaskSort.STATUS));
+            collected.addAll(page.items());
+            after = page.next();
+        } while (after != null);
+
+        // Then
+        assertThat(collected).extracting(TaskDto::status)
+                .containsExactly(TaskStatus.DONE, TaskStatus.NEW, null, null, null);
+        assertThat(collected).extracting(TaskDto::id).doesNotHaveDuplicates();
+    }
+
     @Test
     public void updateTaskById_ShouldUpdateTaskDetails_WhenNoSubTasksInProgress() {
         // Given
@@ -134,14 +229,59 @@ public class TaskServiceImplIntegrationTest {
     @Test
     public void updateTaskById_ShouldThrowUpdateTaskException_WhenSubTasksAreInProgress() {
         // Given
-        Task task = new Task(1l, "Task with SubTask", "Description", TaskStatus.IN_PROGRESS);
-        task = taskRepository.save(task);
-        SubTask subTask = new SubTask(null, "Subtask", "Description", TaskStatus.IN_PROGRESS, task);
-        subTaskRepository.save(subTask);
-        TaskDto taskDto = new TaskDto(task.getId(), "Task with SubTask", "Description", TaskStatus.DONE);
+        Task task = new Task(null, "Task with SubTask", "Description", TaskStatus.IN_PROGRESS);
+        Long taskId = taskRepository.save(task).getId();
+        subTaskService.addSubTaskByTaskId(taskId, new NewSubTaskDto("Subtask", "Description", TaskStatus.IN_PROGRESS));
+        TaskDto taskDto = new TaskDto(taskId, "Task with SubTask", "Description", TaskStatus.DONE);
+
+        // When & Then
+        assertThrows(UpdateTaskException.class, () -> taskService.updateTaskById(taskId, taskDto));
+    }
+
+    @Test
+    public void updateTaskById_ShouldIncrementVersionAndKeepOmittedFields() {
+        // Given
+        Long taskId = taskRepository.save(new Task(null, "Versioned Task", "Description", TaskStatus.NEW)).getId();
+
+        // When
+        TaskDto first = taskService.updateTaskById(taskId, new TaskDto(null, "Renamed", null, null, 0L));
+        TaskDto second = taskService.updateTaskById(taskId, new TaskDto(null, null, null, TaskStatus.IN_PROGRESS));
+
+        // Then
+        assertThat(first.version()).isEqualTo(1L);
+        assertThat(first.description()).isEqualTo("Description");
+        assertThat(second.version()).isEqualTo(2L);
+        assertThat(second.name()).isEqualTo("Renamed");
+        assertThat(taskService.getTaskById(taskId).version()).isEqualTo(2L);
+    }
+
+    @Test
+    public void updateTaskById_ShouldNotIndexNewName_WhenTransactionIsRolledBack() {
+        // Given
+        Long taskId = taskRepository.save(new Task(null, "Qwzx Original", "Description", TaskStatus.NEW)).getId();
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            taskService.updateTaskById(taskId, new TaskDto(null, "Jvkq Renamed", null, null));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(nameSearchIndex.findTaskCandidates("Jvkq").map(NameCandidates::ids).orElse(Set.of())).doesNotContain(taskId);
+        assertThat(nameSearchIndex.findTaskCandidates("Qwzx"))
+                .hasValueSatisfying(candidates -> assertThat(candidates.ids()).contains(taskId));
+    }
+
+    @Test
+    public void updateTaskById_ShouldThrowVersionConflictException_WhenVersionIsStale() {
+        // Given
+        Long taskId = taskRepository.save(new Task(null, "Contended Task", "Description", TaskStatus.NEW)).getId();
+        taskService.updateTaskById(taskId, new TaskDto(null, "First Writer", null, null, 0L));
 
         // When & Then
-        assertThrows(UpdateTaskException.class, () -> taskService.updateTaskById(1l, taskDto));
+        assertThrows(VersionConflictException.class,
+                () -> taskService.updateTaskById(taskId, new TaskDto(null, "Second Writer", null, null, 0L)));
+        assertThat(taskService.getTaskById(taskId).name()).isEqualTo("First Writer");
     }
 
     @Test
@@ -164,22 +304,40 @@ public class TaskServiceImplIntegrationTest {
         assertThat(taskRepository.existsById(savedTask.getId())).isFalse();
     }
 
+    @Test
+    public void deleteTaskById_ShouldKeepSubTasksInNameIndex_WhenTransactionIsRolledBack() {
+        // Given
+        Long taskId = taskRepository.save(new Task(null, "Task to keep", "Description", TaskStatus.NEW)).getId();
+        Long subTaskId = subTaskService.addSubTaskByTaskId(taskId, new NewSubTaskDto("Pxvy Subtask",
+                "Description",
+                TaskStatus.DONE)).id();
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            taskService.deleteTaskById(taskId);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(taskRepository.existsById(taskId)).isTrue();
+        assertThat(nameSearchIndex.findSubTaskCandidates("Pxvy"))
+                .hasValueSatisfying(candidates -> assertThat(candidates.ids()).contains(subTaskId));
+    }
+
     @Test
     public void deleteTaskById_WhenSubTasksAreNotDone_ShouldThrowException() {
         // Given
-        Task task = new Task(1L, "Task with active subtasks", "Description", TaskStatus.NEW);
+        Task task = new Task(null, "Task with active subtasks", "Description", TaskStatus.NEW);
         task = taskRepository.save(task);
-        SubTask subTask = new SubTask(2L,
-                "Active subtask",
+        Long taskId = task.getId();
+        subTaskService.addSubTaskByTaskId(taskId, new NewSubTaskDto("Active subtask",
                 "Description",
-                TaskStatus.IN_PROGRESS, task);
-
-        subTaskRepository.save(subTask);
+                TaskStatus.IN_PROGRESS));
 
 
         // When & Then
         Throwable thrown = catchThrowable(() -> {
-            taskService.deleteTaskById(1L);
+            taskService.deleteTaskById(taskId);
         });
 
         assertThat(thrown).isInstanceOf(DeleteTaskException.class)
@@ -188,4 +346,77 @@ public class TaskServiceImplIntegrationTest {
 
     }
 
+    @Test
+    public void addTasks_ShouldPersistTasksAndNestedSubTasksInInputOrder() {
+        // Given
+        List<NewTaskDto> newTaskDtos = List.of(
+                new NewTaskDto("Bulk First", "Description", TaskStatus.NEW, List.of(
+                        new NewSubTaskDto("Bulk SubTask 1", "Description", TaskStatus.IN_PROGRESS),
+                        new NewSubTaskDto("Bulk SubTask 2", "Description", TaskStatus.DONE))),
+                new NewTaskDto("Bulk Second", "Description", TaskStatus.DONE));
+
+        // When
+        List<CreatedTaskDto> created = taskService.addTasks(newTaskDtos);
+
+        // Then
+        assertThat(created).hasSize(2);
+        assertThat(taskRepository.findById(created.get(0).id())).get()
+                .extracting(Task::getName).isEqualTo("Bulk First");
+        assertThat(taskRepository.findById(created.get(1).id())).get()
+                .extracting(Task::getName).isEqualTo("Bulk Second");
+        assertThat(created.get(0).subTaskIds()).hasSize(2);
+        assertThat(subTaskRepository.findById(created.get(0).subTaskIds().get(1))).get()
+                .extracting(SubTask::getName).isEqualTo("Bulk SubTask 2");
+        assertThat(created.get(1).subTaskIds()).isEmpty();
+        assertThat(taskRepository.findOpenSubTaskCountById(created.get(0).id())).contains(1);
+    }
+
+    @Test
+    public void getTaskDetailsById_ShouldLoadTaskWithSubTasksInOneStatement_RegardlessOfSubTaskCount() {
+        // Given
+        List<NewSubTaskDto> subTasks = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            subTasks.add(new NewSubTaskDto("Details SubTask " + i, "Description", i % 5 == 0 ? TaskStatus.DONE : TaskStatus.NEW));
+        }
+        Long emptyTaskId = taskService.addTasks(List.of(new NewTaskDto("Details Empty", "Description", TaskStatus.NEW)))
+                .get(0).id();
+        Long fullTaskId = taskService.addTasks(List.of(new NewTaskDto("Details Full", "Description", TaskStatus.NEW, subTasks)))
+                .get(0).id();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        try {
+            // When
+            statistics.clear();
+            TaskDetailsDto empty = taskService.getTaskDetailsById(emptyTaskId);
+            long emptyStatements = statistics.getPrepareStatementCount();
+            statistics.clear();
+            TaskDetailsDto full = taskService.getTaskDetailsById(fullTaskId);
+            long fullStatements = statistics.getPrepareStatementCount();
+
+            // Then
+            assertThat(emptyStatements).isEqualTo(1);
+            assertThat(fullStatements).isEqualTo(1);
+            assertThat(empty.subTasks()).isEmpty();
+            assertThat(empty.statusCounts()).containsEntry(TaskStatus.NEW, 0L);
+            assertThat(full.task().name()).isEqualTo("Details Full");
+            assertThat(full.subTasks()).hasSize(25)
+                    .allSatisfy(subTask -> assertThat(subTask.taskId()).isEqualTo(fullTaskId));
+            assertThat(full.statusCounts())
+                    .containsEntry(TaskStatus.NEW, 20L)
+                    .containsEntry(TaskStatus.DONE, 5L)
+                    .containsEntry(TaskStatus.IN_PROGRESS, 0L);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    public void getTaskDetailsById_ShouldThrowTaskNotFoundException_WhenTaskDoesNotExist() {
+        // When
+        Throwable thrown = catchThrowable(() -> taskService.getTaskDetailsById(-1L));
+
+        // Then
+        assertThat(thrown).isInstanceOf(TaskNotFoundException.class);
+    }
 }
@@ -1,24 +1,50 @@
 package antonfeklichev.tasktrackerapp.service;
 
+import antonfeklichev.tasktrackerapp.batch.BatchLoader;
+import antonfeklichev.tasktrackerapp.batch.BatchProperties;
+import antonfeklichev.tasktrackerapp.cache.CacheProperties;
+import antonfeklichev.tasktrackerapp.cache.ChangeGenerations;
+import antonfeklichev.tasktrackerapp.cache.DtoCache;
+import antonfeklichev.tasktrackerapp.cache.FilterCacheProperties;
+import antonfeklichev.tasktrackerapp.cache.FilterResultCache;
+import antonfeklichev.tasktrackerapp.cache.NegativeCacheProperties;
+import antonfeklichev.tasktrackerapp.dto.BatchLookupDto;
+import antonfeklichev.tasktrackerapp.dto.ChangeEventDto;
+import antonfeklichev.tasktrackerapp.dto.CreatedTaskDto;
+import antonfeklichev.tasktrackerapp.dto.CursorPageDto;
+import antonfeklichev.tasktrackerapp.dto.NewSubTaskDto;
 import antonfeklichev.tasktrackerapp.dto.NewTaskDto;
 import antonfeklichev.tasktrackerapp.dto.QueryDslFilterDto;
+import antonfeklichev.tasktrackerapp.dto.TaskDetailsDto;
 import antonfeklichev.tasktrackerapp.dto.TaskDto;
 import antonfeklichev.tasktrackerapp.entity.SubTask;
 import antonfeklichev.tasktrackerapp.entity.Task;
 import antonfeklichev.tasktrackerapp.entity.TaskStatus;
 import antonfeklichev.tasktrackerapp.exception.DeleteTaskException;
+import antonfeklichev.tasktrackerapp.exception.InvalidBatchRequestException;
 import antonfeklichev.tasktrackerapp.exception.TaskNotFoundException;
 import antonfeklichev.tasktrackerapp.exception.UpdateTaskException;
+import antonfeklichev.tasktrackerapp.exception.VersionConflictException;
+import antonfeklichev.tasktrackerapp.feed.ChangeFeed;
+import antonfeklichev.tasktrackerapp.mapper.SubTaskMapper;
 import antonfeklichev.tasktrackerapp.mapper.TaskMapper;
+import antonfeklichev.tasktrackerapp.pagination.KeysetPaginator;
+import antonfeklichev.tasktrackerapp.pagination.PaginationProperties;
+import antonfeklichev.tasktrackerapp.repository.PatchedRow;
 import antonfeklichev.tasktrackerapp.repository.SubTaskRepository;
 import antonfeklichev.tasktrackerapp.repository.TaskRepository;
-import com.querydsl.core.BooleanBuilder;
+import antonfeklichev.tasktrackerapp.search.NameSearchIndex;
+import com.querydsl.core.types.Predicate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +62,25 @@ public class TaskServiceImplTest {
     SubTaskRepository subTaskRepository;
     @Mock
     TaskMapper taskMapper;
+    @Mock
+    SubTaskMapper subTaskMapper;
+    @Spy
+    KeysetPaginator keysetPaginator = new KeysetPaginator(new PaginationProperties(50, 500));
+    @Mock
+    NameSearchIndex nameSearchIndex;
+    @Spy
+    DtoCache dtoCache = new DtoCache(new CacheProperties(true, 100, Duration.ofMinutes(5)),
+            new NegativeCacheProperties(true, 100, Duration.ofSeconds(10)), new SimpleMeterRegistry());
+    @Spy
+    BatchLoader batchLoader = new BatchLoader(new BatchProperties(10, 2, 10));
+    @Spy
+    ChangeGenerations changeGenerations = new ChangeGenerations();
+    @Spy
+    FilterResultCache filterResultCache = new FilterResultCache(
+            new FilterCacheProperties(true, DataSize.ofMegabytes(1), Duration.ofMinutes(1)), changeGenerations, new SimpleMeterRegistry());
+
+    @Mock
+    ChangeFeed changeFeed;
 
     @InjectMocks
     TaskServiceImpl taskServiceImpl;
@@ -67,10 +112,8 @@ public class TaskServiceImplTest {
     void getTaskByIdFoundTest() {
         // Given
         Long taskId = 1L;
-        Task task = new Task(1L, "Test Task", "Description", TaskStatus.NEW);
         TaskDto taskDto = new TaskDto(1L, "Test Task", "Description", TaskStatus.NEW);
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
-        when(taskMapper.toTaskDto(task)).thenReturn(taskDto);
+        when(taskRepository.findDtoById(taskId)).thenReturn(Optional.of(taskDto));
 
         // When
         TaskDto result = taskServiceImpl.getTaskById(taskId);
@@ -80,11 +123,69 @@ public class TaskServiceImplTest {
         assertEquals(taskDto, result);
     }
 
+    @Test
+    void getTaskById_ShouldReadFromCache_UntilTaskIsUpdated() {
+        // Given
+        Long taskId = 1L;
+        TaskDto taskDto = new TaskDto(taskId, "Test Task", "Description", TaskStatus.NEW);
+        TaskDto updatedDto = new TaskDto(taskId, "Updated Task", "Description", TaskStatus.NEW);
+        when(taskRepository.findDtoById(taskId)).thenReturn(Optional.of(taskDto), Optional.of(updatedDto));
+        when(taskRepository.patch(taskId, updatedDto)).thenReturn(Optional.of(new PatchedRow<>(updatedDto, TaskStatus.NEW)));
+
+        // When
+        TaskDto first = taskServiceImpl.getTaskById(taskId);
+        TaskDto cached = taskServiceImpl.getTaskById(taskId);
+        taskServiceImpl.updateTaskById(taskId, updatedDto);
+        TaskDto afterUpdate = taskServiceImpl.getTaskById(taskId);
+
+        // Then
+        assertSame(first, cached);
+        assertEquals(updatedDto, afterUpdate);
+        verify(taskRepository, times(2)).findDtoById(taskId);
+    }
+
+    @Test
+    void findTaskVersionById_ShouldUseCachedTask_AndQueryOnlyVersionOtherwise() {
+        // Given
+        Long cachedId = 1L;
+        Long uncachedId = 2L;
+        when(taskRepository.findDtoById(cachedId))
+                .thenReturn(Optional.of(new TaskDto(cachedId, "Cached", "Description", TaskStatus.NEW, 3L)));
+        when(taskRepository.findVersionById(uncachedId)).thenReturn(Optional.of(7L));
+        taskServiceImpl.getTaskById(cachedId);
+
+        // When
+        Optional<Long> cachedVersion = taskServiceImpl.findTaskVersionById(cachedId);
+        Optional<Long> uncachedVersion = taskServiceImpl.findTaskVersionById(uncachedId);
+
+        // Then
+        assertThat(cachedVersion).contains(3L);
+        assertThat(uncachedVersion).contains(7L);
+        verify(taskRepository, never()).findVersionById(cachedId);
+        verify(taskRepository, never()).findDtoById(uncachedId);
+    }
+
+    @Test
+    void updateTaskById_ShouldChangeTasksGeneration() {
+        // Given
+        Long taskId = 1L;
+        TaskDto taskDto = new TaskDto(null, "Renamed", null, null);
+        when(taskRepository.patch(taskId, taskDto))
+                .thenReturn(Optional.of(new PatchedRow<>(new TaskDto(taskId, "Renamed", "Description", TaskStatus.NEW, 1L), TaskStatus.NEW)));
+        String before = changeGenerations.tasks();
+
+        // When
+        taskServiceImpl.updateTaskById(taskId, taskDto);
+
+        // Then
+        assertThat(changeGenerations.tasks()).isNotEqualTo(before);
+    }
+
     @Test
     void getTaskByIdNotFoundTest() {
         // Given
         Long taskId = 1L;
-        when(taskRepository.findById(taskId)).thenReturn(Optional.empty());
+        when(taskRepository.findDtoById(taskId)).thenReturn(Optional.empty());
 
         // When and Then
         assertThrows(TaskNotFoundException.class, () -> {
@@ -92,30 +193,110 @@ public class TaskServiceImplTest {
         });
     }
 
+    @Test
+    void getTaskById_ShouldNotQueryAgain_WhenTaskRecentlyNotFound() {
+        // Given
+        Long taskId = 1L;
+        when(taskRepository.findDtoById(taskId)).thenReturn(Optional.empty());
+        assertThrows(TaskNotFoundException.class, () -> taskServiceImpl.getTaskById(taskId));
+
+        // When
+        TaskNotFoundException thrown = assertThrows(TaskNotFoundException.class, () -> taskServiceImpl.getTaskById(taskId));
+
+        // Then
+        verify(taskRepository, times(1)).findDtoById(taskId);
+        assertThat(thrown.getStackTrace()).isEmpty();
+        assertThat(taskServiceImpl.findTaskVersionById(taskId)).isEmpty();
+        verify(taskRepository, never()).findVersionById(taskId);
+    }
+
+    @Test
+    void getTaskById_ShouldQueryAgain_WhenTaskCreatedAfterMiss() {
+        // Given
+        Long taskId = 1L;
+        TaskDto taskDto = new TaskDto(taskId, "Task", "Description", TaskStatus.NEW);
+        when(taskRepository.findDtoById(taskId)).thenReturn(Optional.empty(), Optional.of(taskDto));
+        assertThrows(TaskNotFoundException.class, () -> taskServiceImpl.getTaskById(taskId));
+
+        // When
+        dtoCache.taskCreated(taskId);
+        TaskDto result = taskServiceImpl.getTaskById(taskId);
+
+        // Then
+        assertEquals(taskDto, result);
+    }
+
+
+    @Test
+    void getTasksByIds_ShouldLoadMissingTasksInChunksAndReportMissingIds() {
+        // Given
+        TaskDto first = new TaskDto(1L, "First", "Description", TaskStatus.NEW);
+        TaskDto third = new TaskDto(3L, "Third", "Description", TaskStatus.NEW);
+        when(taskRepository.findDtosByIds(List.of(3L, 1L))).thenReturn(List.of(third, first));
+        when(taskRepository.findDtosByIds(List.of(2L))).thenReturn(List.of());
+
+        // When
+        BatchLookupDto<TaskDto> result = taskServiceImpl.getTasksByIds(List.of(3L, 1L, 2L, 1L));
+        BatchLookupDto<TaskDto> cached = taskServiceImpl.getTasksByIds(List.of(1L, 3L));
+
+        // Then
+        assertThat(result.found()).extracting(TaskDto::id).containsExactly(3L, 1L);
+        assertThat(result.missingIds()).containsExactly(2L);
+        assertThat(cached.found()).extracting(TaskDto::id).containsExactly(1L, 3L);
+        verify(taskRepository, times(2)).findDtosByIds(any());
+    }
+
+    @Test
+    void getTaskDetailsById_ShouldCountSubTasksByStatus() {
+        // Given
+        Long taskId = 1L;
+        Task task = new Task(taskId, "Task", "Description", TaskStatus.NEW);
+        SubTask open = new SubTask(2L, "Open", "Description", TaskStatus.NEW, task);
+        SubTask done = new SubTask(3L, "Done", "Description", TaskStatus.DONE, task);
+        when(taskRepository.findWithSubTasksById(taskId))
+                .thenReturn(List.of(new Object[]{task, open}, new Object[]{task, done}));
+
+        // When
+        TaskDetailsDto result = taskServiceImpl.getTaskDetailsById(taskId);
+
+        // Then
+        assertThat(result.statusCounts())
+                .containsEntry(TaskStatus.NEW, 1L)
+                .containsEntry(TaskStatus.IN_PROGRESS, 0L)
+                .containsEntry(TaskStatus.DONE, 1L);
+        verify(subTaskMapper, times(2)).toSubTaskDto(any(SubTask.class));
+    }
+
+    @Test
+    void getTaskDetailsById_ShouldThrowException_WhenTaskNotFound() {
+        // Given
+        when(taskRepository.findWithSubTasksById(1L)).thenReturn(List.of());
+
+        // When & Then
+        assertThrows(TaskNotFoundException.class, () -> taskServiceImpl.getTaskDetailsById(1L));
+    }
 
     @Test
     void getTasksByFilterWithStatus() {
         // Given
         QueryDslFilterDto filter = new QueryDslFilterDto(TaskStatus.DONE, "Important Task");
-        Task task = new Task(1L, "Important Task", "Description", TaskStatus.DONE);
-        List<Task> tasks = List.of(task);
         TaskDto taskDto = new TaskDto(1L, "Important Task", "Description", TaskStatus.DONE);
         List<TaskDto> expectedDto = List.of(taskDto);
 
-        when(taskRepository.findAll(any(BooleanBuilder.class))).thenReturn(tasks);
-        when(taskMapper.toTaskDto(any(Task.class))).thenReturn(taskDto);
+        when(taskRepository.findDtos(any(Predicate.class), any(), anyLong())).thenReturn(expectedDto);
 
         // When
-        List<TaskDto> result = taskServiceImpl.getTasksByFilter(filter);
+        CursorPageDto<TaskDto> result = taskServiceImpl.getTasksByFilter(filter, null);
 
         // Then
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(expectedDto, result);
+        assertFalse(result.items().isEmpty());
+        assertEquals(expectedDto, result.items());
+        assertNull(result.next());
 
 
-        verify(taskRepository).findAll(any(BooleanBuilder.class));
-        verify(taskMapper, times(tasks.size())).toTaskDto(any(Task.class));
+        verify(taskRepository).findDtos(any(Predicate.class), any(), eq(51L));
+        verifyNoInteractions(taskMapper);
     }
 
 
@@ -123,11 +304,9 @@ public class TaskServiceImplTest {
     void updateTaskById_ShouldUpdateTask_WhenNoActiveSubTasks() {
         // Given
         Long taskId = 1L;
-        Task task = new Task(taskId, "Old Name", "Old Description", TaskStatus.NEW);
         TaskDto taskDto = new TaskDto(taskId, "Updated Name", "Updated Description", TaskStatus.DONE);
-        when(taskRepository.findById(taskId)).thenReturn(java.util.Optional.of(task));
-        when(subTaskRepository.getSubTaskByTaskIdNotEqualStatus(taskId, TaskStatus.DONE)).thenReturn(Collections.emptyList());
-        when(taskMapper.toTaskDto(any())).thenReturn(taskDto);
+        TaskDto patched = new TaskDto(taskId, "Updated Name", "Updated Description", TaskStatus.DONE, 1L);
+        when(taskRepository.patch(taskId, taskDto)).thenReturn(Optional.of(new PatchedRow<>(patched, TaskStatus.IN_PROGRESS)));
 
         // When
         TaskDto updatedTask = taskServiceImpl.updateTaskById(taskId, taskDto);
@@ -135,27 +314,57 @@ public class TaskServiceImplTest {
         // Then
         assertThat(updatedTask.name()).isEqualTo(taskDto.name());
         assertThat(updatedTask.status()).isEqualTo(TaskStatus.DONE);
-        verify(taskRepository).save(task);
+        assertThat(updatedTask.version()).isEqualTo(1L);
+        verify(nameSearchIndex).indexTask(taskId, "Updated Name");
+        verify(changeFeed).publish(ChangeEventDto.taskUpdated(taskId, TaskStatus.IN_PROGRESS, TaskStatus.DONE, 1L));
+        verify(taskRepository, never()).findDtoById(anyLong());
     }
 
     @Test
     void updateTaskById_ShouldThrowException_WhenActiveSubTasksExist() {
         // Given
         Long taskId = 1L;
-        Task task = new Task(taskId, "Old Name", "Old Description", TaskStatus.NEW);
         TaskDto taskDto = new TaskDto(taskId, "Updated Name", "Updated Description", TaskStatus.DONE);
-        when(taskRepository.findById(taskId)).thenReturn(java.util.Optional.of(task));
-        when(subTaskRepository.getSubTaskByTaskIdNotEqualStatus(taskId, TaskStatus.DONE)).thenReturn(Collections.singletonList(new SubTask()));
+        when(taskRepository.patch(taskId, taskDto)).thenReturn(Optional.empty());
+        when(taskRepository.findDtoById(taskId))
+                .thenReturn(Optional.of(new TaskDto(taskId, "Old Name", "Old Description", TaskStatus.NEW, 0L)));
 
         // When & Then
         assertThrows(UpdateTaskException.class, () -> taskServiceImpl.updateTaskById(taskId, taskDto));
     }
 
+    @Test
+    void updateTaskById_ShouldThrowConflict_WhenVersionIsStale() {
+        // Given
+        Long taskId = 1L;
+        TaskDto taskDto = new TaskDto(taskId, "Updated Name", null, null, 2L);
+        when(taskRepository.patch(taskId, taskDto)).thenReturn(Optional.empty());
+        when(taskRepository.findDtoById(taskId))
+                .thenReturn(Optional.of(new TaskDto(taskId, "Old Name", "Old Description", TaskStatus.NEW, 3L)));
+
+        // When & Then
+        assertThrows(VersionConflictException.class, () -> taskServiceImpl.updateTaskById(taskId, taskDto));
+        verify(nameSearchIndex, never()).indexTask(anyLong(), any());
+    }
+
+    @Test
+    void updateTaskById_ShouldThrowException_WhenTaskNotFound() {
+        // Given
+        Long taskId = 1L;
+        TaskDto taskDto = new TaskDto(taskId, "Updated Name", null, null);
+        when(taskRepository.patch(taskId, taskDto)).thenReturn(Optional.empty());
+        when(taskRepository.findDtoById(taskId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(TaskNotFoundException.class, () -> taskServiceImpl.updateTaskById(taskId, taskDto));
+    }
+
     @Test
     void deleteTaskById_ShouldDeleteTask_WhenNoActiveSubTasks() {
         // Given
         Long taskId = 1L;
-        when(subTaskRepository.getSubTaskByTaskIdNotEqualStatus(taskId, TaskStatus.DONE)).thenReturn(Collections.emptyList());
+        when(taskRepository.lockByIds(List.of(taskId))).thenReturn(List.of(taskId));
+        when(taskRepository.findOpenSubTaskCountById(taskId)).thenReturn(Optional.of(0));
 
         // When
         taskServiceImpl.deleteTaskById(taskId);
@@ -164,11 +373,26 @@ public class TaskServiceImplTest {
         verify(taskRepository).deleteById(taskId);
     }
 
+    @Test
+    void deleteTaskById_ShouldNotPublishEvents_WhenTaskDoesNotExist() {
+        // Given
+        Long taskId = 1L;
+        when(taskRepository.lockByIds(List.of(taskId))).thenReturn(List.of());
+
+        // When
+        taskServiceImpl.deleteTaskById(taskId);
+
+        // Then
+        verify(taskRepository, never()).deleteById(taskId);
+        verifyNoInteractions(changeFeed);
+    }
+
     @Test
     void deleteTaskById_ShouldThrowException_WhenActiveSubTasksExist() {
         // Given
         Long taskId = 1L;
-        when(subTaskRepository.getSubTaskByTaskIdNotEqualStatus(taskId, TaskStatus.DONE)).thenReturn(List.of(new SubTask()));
+        when(taskRepository.lockByIds(List.of(taskId))).thenReturn(List.of(taskId));
+        when(taskRepository.findOpenSubTaskCountById(taskId)).thenReturn(Optional.of(1));
 
         // When & Then
         assertThatThrownBy(() -> taskServiceImpl.deleteTaskById(taskId))
@@ -176,4 +400,44 @@ public class TaskServiceImplTest {
                 .hasMessageContaining("Delete active SubTasks of this Task first");
     }
 
+    @Test
+    void addTasks_ShouldSaveTasksWithNestedSubTasksAndCountOpenOnes() {
+        // Given
+        NewSubTaskDto openSubTaskDto = new NewSubTaskDto("Open", "Description", TaskStatus.NEW);
+        NewSubTaskDto doneSubTaskDto = new NewSubTaskDto("Done", "Description", TaskStatus.DONE);
+        NewTaskDto first = new NewTaskDto("First", "Description", TaskStatus.NEW, List.of(openSubTaskDto, doneSubTaskDto));
+        NewTaskDto second = new NewTaskDto("Second", "Description", TaskStatus.NEW);
+        Task firstTask = new Task(1L, "First", "Description", TaskStatus.NEW);
+        Task secondTask = new Task(2L, "Second", "Description", TaskStatus.NEW);
+        SubTask openSubTask = new SubTask(3L, "Open", "Description", TaskStatus.NEW, null);
+        SubTask doneSubTask = new SubTask(4L, "Done", "Description", TaskStatus.DONE, null);
+
+        when(taskMapper.toTask(first)).thenReturn(firstTask);
+        when(taskMapper.toTask(second)).thenReturn(secondTask);
+        when(subTaskMapper.toSubTask(openSubTaskDto)).thenReturn(openSubTask);
+        when(subTaskMapper.toSubTask(doneSubTaskDto)).thenReturn(doneSubTask);
+
+        // When
+        List<CreatedTaskDto> result = taskServiceImpl.addTasks(List.of(first, second));
+
+        // Then
+        assertThat(result).containsExactly(new CreatedTaskDto(1L, List.of(3L, 4L)), new CreatedTaskDto(2L, List.of()));
+        assertThat(firstTask.getOpenSubTaskCount()).isEqualTo(1);
+        assertThat(openSubTask.getTask()).isSameAs(firstTask);
+        verify(taskRepository).saveAll(List.of(firstTask, secondTask));
+        verify(subTaskRepository).saveAll(List.of(openSubTask, doneSubTask));
+    }
+
+    @Test
+    void addTasks_ShouldThrowInvalidBatchRequestException_WhenTasksWithSubTasksExceedLimit() {
+        // Given
+        NewSubTaskDto subTaskDto = new NewSubTaskDto("SubTask", "Description", TaskStatus.NEW);
+        NewTaskDto taskDto = new NewTaskDto("Task", "Description", TaskStatus.NEW, Collections.nCopies(5, subTaskDto));
+
+        // When & Then
+        assertThatThrownBy(() -> taskServiceImpl.addTasks(List.of(taskDto, taskDto)))
+                .isInstanceOf(InvalidBatchRequestException.class)
+                .hasMessageContaining("No more than 10");
+        verifyNoInteractions(taskRepository, subTaskRepository);
+    }
 }
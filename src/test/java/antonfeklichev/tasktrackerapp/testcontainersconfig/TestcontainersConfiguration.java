@@ -24,6 +24,7 @@ public class TestcontainersConfiguration {
         hikariDataSource.setJdbcUrl(postgresTestContainerBuild.getJdbcUrl());
         hikariDataSource.setUsername(postgresTestContainerBuild.getUsername());
         hikariDataSource.setPassword(postgresTestContainerBuild.getPassword());
+        hikariDataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
         return hikariDataSource;
     }
 